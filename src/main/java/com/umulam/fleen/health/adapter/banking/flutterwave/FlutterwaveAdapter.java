@@ -6,6 +6,7 @@ import com.umulam.fleen.health.adapter.banking.flutterwave.model.enums.Flutterwa
 import com.umulam.fleen.health.adapter.banking.flutterwave.model.request.*;
 import com.umulam.fleen.health.adapter.banking.flutterwave.model.response.*;
 import com.umulam.fleen.health.adapter.base.BaseAdapter;
+import com.umulam.fleen.health.adapter.base.ExternalHttpClientFactory;
 import com.umulam.fleen.health.aspect.RetryOnFailure;
 import com.umulam.fleen.health.constant.authentication.PaymentGatewayType;
 import com.umulam.fleen.health.exception.externalsystem.ExternalSystemException;
@@ -25,11 +26,14 @@ import static com.umulam.fleen.health.adapter.banking.flutterwave.model.enums.Fl
 @Component
 public class FlutterwaveAdapter extends BaseAdapter {
 
+  private static final String HTTP_CLIENT_NAME = "flutterwave";
+
   private final FlutterwaveConfig config;
 
   public FlutterwaveAdapter(@Value("${flutterwave.base-url}") String baseUrl,
-                         FlutterwaveConfig config) {
-    super(baseUrl);
+                         FlutterwaveConfig config,
+                         ExternalHttpClientFactory httpClientFactory) {
+    super(baseUrl, httpClientFactory.create(HTTP_CLIENT_NAME));
     this.config = config;
   }
 
@@ -156,7 +160,6 @@ public class FlutterwaveAdapter extends BaseAdapter {
     }
   }
 
-  @RetryOnFailure
   public void createTransfer(FwCreateTransferRequest request) {
     if (!isMandatoryFieldAvailable(request.getAmount(), request.getSourceCurrency(), request.getDestinationCurrency())) {
       throw new ExternalSystemException(PaymentGatewayType.FLUTTERWAVE.getValue());
@@ -175,7 +178,6 @@ public class FlutterwaveAdapter extends BaseAdapter {
     }
   }
 
-  @RetryOnFailure
   public FwRetryTransferResponse retryTransfer(String transferId) {
     if (!isMandatoryFieldAvailable(transferId)) {
       throw new ExternalSystemException(PaymentGatewayType.FLUTTERWAVE.getValue());
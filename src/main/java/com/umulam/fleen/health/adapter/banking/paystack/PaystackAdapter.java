@@ -8,6 +8,7 @@ import com.umulam.fleen.health.adapter.banking.paystack.model.request.InitiateTr
 import com.umulam.fleen.health.adapter.banking.paystack.model.request.ResolveBankAccountRequest;
 import com.umulam.fleen.health.adapter.banking.paystack.response.*;
 import com.umulam.fleen.health.adapter.base.BaseAdapter;
+import com.umulam.fleen.health.adapter.base.ExternalHttpClientFactory;
 import com.umulam.fleen.health.aspect.RetryOnFailure;
 import com.umulam.fleen.health.constant.authentication.PaymentGatewayType;
 import com.umulam.fleen.health.exception.externalsystem.ExternalSystemException;
@@ -27,11 +28,14 @@ import static com.umulam.fleen.health.adapter.banking.paystack.model.enums.Payst
 @Component
 public class PaystackAdapter extends BaseAdapter {
 
+  private static final String HTTP_CLIENT_NAME = "paystack";
+
   private final PaystackConfig config;
 
   public PaystackAdapter(@Value("${paystack.base-url}") String baseUrl,
-                         PaystackConfig config) {
-    super(baseUrl);
+                         PaystackConfig config,
+                         ExternalHttpClientFactory httpClientFactory) {
+    super(baseUrl, httpClientFactory.create(HTTP_CLIENT_NAME));
     this.config = config;
   }
 
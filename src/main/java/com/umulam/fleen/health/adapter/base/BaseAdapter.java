@@ -1,22 +1,17 @@
 package com.umulam.fleen.health.adapter.base;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.umulam.fleen.health.adapter.ApiParameter;
 import com.umulam.fleen.health.adapter.EndpointBlock;
 import com.umulam.fleen.health.constant.authentication.PaymentGatewayType;
-import com.umulam.fleen.health.exception.base.FleenHealthException;
 import com.umulam.fleen.health.exception.externalsystem.ExternalSystemException;
+import com.umulam.fleen.health.exception.externalsystem.ExternalSystemServerException;
 import com.umulam.fleen.health.util.AuthUtil;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.*;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.validation.constraints.NotBlank;
@@ -31,29 +26,26 @@ public class BaseAdapter {
 
   @NotBlank
   protected String baseUrl;
-  protected RestTemplate restTemplate;
+  protected ExternalHttpClient httpClient;
 
-  protected BaseAdapter(String baseUrl) {
+  protected BaseAdapter(String baseUrl, ExternalHttpClient httpClient) {
     this.baseUrl = baseUrl;
-    this.restTemplate = new RestTemplateBuilder().requestFactory(
-              SimpleClientHttpRequestFactory::new).build();
+    this.httpClient = httpClient;
   }
 
   public <T> ResponseEntity<T> doCall(@NonNull URI uri, @NonNull HttpMethod method,
                                       @Nullable Map<String, String> headers,
                                       @Nullable Object body, @NonNull Class<T> responseModel) {
-    log.info(String.format("HTTP call to url=%s with method=%s and body=%s", uri, method.name(),
-            getPayloadBodyAsString(body)));
     HttpHeaders requestHeaders = getHeaders();
     if (headers != null) {
       headers.forEach(requestHeaders::add);
     }
     try {
-      return restTemplate.exchange(uri, method, new HttpEntity<>(body, requestHeaders),
+      return httpClient.exchange(uri, method, new HttpEntity<>(body, requestHeaders),
               responseModel);
     } catch (HttpStatusCodeException e) {
       log.error(String.format(
-              "An error occurred while HTTP call to url=%s with method=%s and body=%s: %s", uri,
+              "An error occurred while HTTP call to url=%s with method=%s and body=%s: %s", uri.getPath(),
               method.name(),
               getPayloadBodyAsString(body), e.getMessage()));
       return (ResponseEntity<T>) ResponseEntity.status(e.getRawStatusCode())
@@ -62,16 +54,7 @@ public class BaseAdapter {
   }
 
   public String getPayloadBodyAsString(Object body) {
-    String payloadAsString = "";
-    if (body instanceof String) {
-      payloadAsString = (String) body;
-    } else {
-      try {
-        payloadAsString = new ObjectMapper().writeValueAsString(body);
-      } catch (JsonProcessingException e1) {
-      }
-    }
-    return payloadAsString;
+    return httpClient.redact(body);
   }
 
   protected UriComponentsBuilder initUriBuilder(EndpointBlock... urlBlocks) {
@@ -165,7 +148,7 @@ public class BaseAdapter {
     if (response.getStatusCode().is4xxClientError()) {
       throw new ExternalSystemException(PaymentGatewayType.PAYSTACK.getValue());
     } else {
-      throw new FleenHealthException(PaymentGatewayType.PAYSTACK.getValue());
+      throw new ExternalSystemServerException(PaymentGatewayType.PAYSTACK.getValue());
     }
   }
 }
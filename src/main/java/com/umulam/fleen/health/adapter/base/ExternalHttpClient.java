@@ -0,0 +1,376 @@
+package com.umulam.fleen.health.adapter.base;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * ExternalHttpClient is the HTTP client of one external system, like a payment gateway. It keeps connections to the system alive
+ * in a pool of its own, so a call does not pay for a new TCP and TLS handshake and a slow system cannot take the connections of
+ * another one.
+ *
+ * <p>Every call has a deadline. The connect and read timeouts of a call are shortened to what is left of its deadline and a call
+ * that is still running when its deadline passes is aborted. The time spent by every call is recorded as a histogram, together
+ * with the number of failed calls and how many connections of the pool are in use or waited for. Payloads are only logged for a
+ * sample of the calls and for the calls that fail, with the values of sensitive fields like secrets and account numbers
+ * hidden.</p>
+ * <br/>
+ */
+@Slf4j
+public class ExternalHttpClient implements Closeable {
+
+  private static final String REQUEST_METRIC = "fleen.health.http.client.requests";
+  private static final String ERROR_METRIC = "fleen.health.http.client.errors";
+  private static final String POOL_METRIC = "fleen.health.http.client.pool.connections";
+  private static final String REDACTED = "******";
+  private static final Set<String> SENSITIVE_FIELDS = Set.of("authorization", "password", "pin", "otp", "cvv", "bvn", "token",
+    "secret", "secretkey", "accountnumber", "cardnumber", "response");
+  private static final ThreadLocal<Call> CURRENT_CALL = new ThreadLocal<>();
+
+  private final String name;
+  private final Settings settings;
+  private final ObjectMapper mapper;
+  private final MeterRegistry meterRegistry;
+  private final ScheduledExecutorService deadlineScheduler;
+  private final PoolingHttpClientConnectionManager connectionManager;
+  private final CloseableHttpClient httpClient;
+  private final RestTemplate restTemplate;
+
+  ExternalHttpClient(String name, Settings settings, ObjectMapper mapper, MeterRegistry meterRegistry,
+                     ScheduledExecutorService deadlineScheduler) {
+    this.name = name;
+    this.settings = settings;
+    this.mapper = mapper;
+    this.meterRegistry = meterRegistry;
+    this.deadlineScheduler = deadlineScheduler;
+
+    this.connectionManager = new PoolingHttpClientConnectionManager(settings.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS);
+    this.connectionManager.setMaxTotal(settings.getMaxConnections());
+    this.connectionManager.setDefaultMaxPerRoute(settings.getMaxConnections());
+    this.connectionManager.setValidateAfterInactivity((int) settings.getValidateAfterInactivity().toMillis());
+
+    HttpClientBuilder builder = HttpClientBuilder.create()
+      .setConnectionManager(connectionManager)
+      .setDefaultRequestConfig(getRequestConfig(Long.MAX_VALUE))
+      .setKeepAliveStrategy((response, context) -> {
+        long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+        return keepAlive > 0 ? Math.min(keepAlive, settings.getKeepAlive().toMillis()) : settings.getKeepAlive().toMillis();
+      })
+      .evictExpiredConnections()
+      .evictIdleConnections(settings.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS);
+    if (!settings.isCompression()) {
+      builder.disableContentCompression();
+    }
+    this.httpClient = builder.build();
+    this.restTemplate = new RestTemplateBuilder()
+      .requestFactory(() -> new DeadlineRequestFactory(httpClient))
+      .build();
+
+    registerPoolGauge("leased", PoolStats::getLeased);
+    registerPoolGauge("available", PoolStats::getAvailable);
+    registerPoolGauge("pending", PoolStats::getPending);
+    registerPoolGauge("max", PoolStats::getMax);
+  }
+
+  /**
+   * <p>Make a call that completes within the default deadline of the client.</p>
+   * <br/>
+   *
+   * @param uri the URI of the call
+   * @param method the HTTP method
+   * @param entity the headers and body of the request
+   * @param responseType the type the response body is read into
+   * @return the response
+   * @throws HttpStatusCodeException if the system answered with an error status
+   * @throws ResourceAccessException if the call failed or did not complete within its deadline
+   */
+  public <T> ResponseEntity<T> exchange(URI uri, HttpMethod method, HttpEntity<?> entity, Class<T> responseType) {
+    return exchange(uri, method, entity, responseType, settings.getDeadline());
+  }
+
+  /**
+   * <p>Make a call that completes within a deadline, which includes the time spent waiting for a connection of the pool, connecting,
+   * sending the request and reading the response.</p>
+   * <br/>
+   *
+   * @param uri the URI of the call
+   * @param method the HTTP method
+   * @param entity the headers and body of the request
+   * @param responseType the type the response body is read into
+   * @param deadline the longest time the call can take
+   * @return the response
+   * @throws HttpStatusCodeException if the system answered with an error status
+   * @throws ResourceAccessException if the call failed or did not complete within its deadline
+   */
+  public <T> ResponseEntity<T> exchange(URI uri, HttpMethod method, HttpEntity<?> entity, Class<T> responseType, Duration deadline) {
+    long startedAt = System.nanoTime();
+    if (log.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < settings.getPayloadLogSampleRate()) {
+      log.info("HTTP call to client={} path={} with method={} and body={}", name, uri.getPath(), method.name(), redact(entity.getBody()));
+    }
+
+    Call call = new Call(startedAt + deadline.toNanos());
+    CURRENT_CALL.set(call);
+    String outcome = "error";
+    try {
+      ResponseEntity<T> response = restTemplate.exchange(uri, method, entity, responseType);
+      outcome = getOutcome(response.getStatusCodeValue());
+      return response;
+    } catch (HttpStatusCodeException ex) {
+      outcome = getOutcome(ex.getRawStatusCode());
+      if (ex.getStatusCode().is5xxServerError()) {
+        countError(outcome);
+      }
+      logFailure(uri, method, entity, outcome, redact(ex.getResponseBodyAsString()));
+      throw ex;
+    } catch (RestClientException ex) {
+      // A response whose body fails to be read, like one aborted at the deadline, is not reported as a ResourceAccessException
+      if (!(ex.getCause() instanceof IOException)) {
+        throw ex;
+      }
+      outcome = call.isAborted() ? "deadline" : getErrorType(ex.getCause());
+      countError(outcome);
+      logFailure(uri, method, entity, outcome, ex.getMessage());
+      if (call.isAborted()) {
+        throw new ResourceAccessException(String.format("HTTP call to client=%s path=%s did not complete within %d ms",
+          name, uri.getPath(), deadline.toMillis()), (IOException) ex.getCause());
+      }
+      throw ex instanceof ResourceAccessException ? ex : new ResourceAccessException(ex.getMessage(), (IOException) ex.getCause());
+    } finally {
+      call.cancel();
+      CURRENT_CALL.remove();
+      Timer.builder(REQUEST_METRIC)
+        .tag("client", name)
+        .tag("method", method.name())
+        .tag("outcome", outcome)
+        .publishPercentileHistogram()
+        .register(meterRegistry)
+        .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * <p>Write a payload as JSON for a log, with the values of its sensitive fields hidden.</p>
+   * <br/>
+   *
+   * @param body the payload
+   * @return the payload that can be logged
+   */
+  public String redact(Object body) {
+    if (isNull(body)) {
+      return "";
+    }
+    try {
+      JsonNode node = body instanceof String ? mapper.readTree((String) body) : mapper.valueToTree(body);
+      redact(node);
+      return mapper.writeValueAsString(node);
+    } catch (JsonProcessingException | IllegalArgumentException ex) {
+      return String.format("[%s of %s not logged]", body.getClass().getSimpleName(), name);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    httpClient.close();
+  }
+
+  /**
+   * Log a call that failed with its request body, and the response body if there was one, whether or not the call was sampled.
+   */
+  private void logFailure(URI uri, HttpMethod method, HttpEntity<?> entity, String outcome, String response) {
+    if (log.isWarnEnabled()) {
+      log.warn("HTTP call to client={} path={} with method={} failed with outcome={} body={} response={}", name, uri.getPath(),
+        method.name(), outcome, redact(entity.getBody()), response);
+    }
+  }
+
+  private static void redact(JsonNode node) {
+    if (node.isObject()) {
+      ObjectNode objectNode = (ObjectNode) node;
+      List<String> sensitiveFields = new ArrayList<>();
+      for (Iterator<String> fields = objectNode.fieldNames(); fields.hasNext(); ) {
+        String field = fields.next();
+        if (isSensitive(field)) {
+          sensitiveFields.add(field);
+        } else {
+          redact(objectNode.get(field));
+        }
+      }
+      sensitiveFields.forEach(field -> objectNode.put(field, REDACTED));
+    } else if (node.isArray()) {
+      node.forEach(ExternalHttpClient::redact);
+    }
+  }
+
+  private static boolean isSensitive(String field) {
+    String normalized = field.replace("_", "").replace("-", "").toLowerCase(Locale.ROOT);
+    return SENSITIVE_FIELDS.contains(normalized) || normalized.contains("secret") || normalized.contains("password");
+  }
+
+  private static String getOutcome(int status) {
+    return (status / 100) + "xx";
+  }
+
+  private static String getErrorType(Throwable cause) {
+    if (cause instanceof ConnectionPoolTimeoutException) {
+      return "pool_exhausted";
+    } else if (cause instanceof ConnectTimeoutException) {
+      return "connect_timeout";
+    } else if (cause instanceof SocketTimeoutException) {
+      return "read_timeout";
+    }
+    return "io";
+  }
+
+  private void countError(String type) {
+    Counter.builder(ERROR_METRIC)
+      .tag("client", name)
+      .tag("type", type)
+      .register(meterRegistry)
+      .increment();
+  }
+
+  private void registerPoolGauge(String state, ToDoubleFunction<PoolStats> value) {
+    Gauge.builder(POOL_METRIC, connectionManager, manager -> value.applyAsDouble(manager.getTotalStats()))
+      .tag("client", name)
+      .tag("state", state)
+      .register(meterRegistry);
+  }
+
+  private RequestConfig getRequestConfig(long remainingMillis) {
+    return RequestConfig.custom()
+      .setConnectionRequestTimeout(getTimeout(settings.getConnectionRequestTimeout(), remainingMillis))
+      .setConnectTimeout(getTimeout(settings.getConnectTimeout(), remainingMillis))
+      .setSocketTimeout(getTimeout(settings.getReadTimeout(), remainingMillis))
+      .build();
+  }
+
+  private static int getTimeout(Duration timeout, long remainingMillis) {
+    return (int) Math.max(1, Math.min(Math.min(timeout.toMillis(), remainingMillis), Integer.MAX_VALUE));
+  }
+
+  /**
+   * Shortens the timeouts of a request to what is left of the deadline of its call and aborts it when the deadline passes.
+   */
+  private final class DeadlineRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    private DeadlineRequestFactory(CloseableHttpClient httpClient) {
+      super(httpClient);
+    }
+
+    @Override
+    protected void postProcessHttpRequest(HttpUriRequest request) {
+      Call call = CURRENT_CALL.get();
+      if (isNull(call)) {
+        return;
+      }
+
+      long remainingMillis = call.getRemainingMillis();
+      if (request instanceof HttpRequestBase) {
+        ((HttpRequestBase) request).setConfig(getRequestConfig(remainingMillis));
+      }
+      call.abortAfter(request, remainingMillis, deadlineScheduler);
+    }
+
+    @Override
+    public void destroy() {
+      // The HTTP client is shared with the client and closed with it
+    }
+  }
+
+  private static final class Call {
+
+    private final long deadlineNanos;
+    private volatile boolean aborted;
+    private ScheduledFuture<?> abortTask;
+
+    private Call(long deadlineNanos) {
+      this.deadlineNanos = deadlineNanos;
+    }
+
+    private long getRemainingMillis() {
+      return Math.max(TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()), 0);
+    }
+
+    private void abortAfter(HttpUriRequest request, long delayMillis, ScheduledExecutorService scheduler) {
+      cancel();
+      abortTask = scheduler.schedule(() -> {
+        aborted = true;
+        request.abort();
+      }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean isAborted() {
+      return aborted;
+    }
+
+    private void cancel() {
+      if (nonNull(abortTask)) {
+        abortTask.cancel(false);
+      }
+    }
+  }
+
+  /**
+   * The pool, timeouts and logging of a client.
+   */
+  @Getter
+  @Builder
+  public static class Settings {
+
+    private final int maxConnections;
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final Duration connectionRequestTimeout;
+    private final Duration deadline;
+    private final Duration keepAlive;
+    private final Duration validateAfterInactivity;
+    private final boolean compression;
+    private final double payloadLogSampleRate;
+  }
+}
@@ -0,0 +1,112 @@
+package com.umulam.fleen.health.adapter.base;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * ExternalHttpClientFactory creates the {@link ExternalHttpClient} of every external system and closes them on shutdown. The
+ * settings of a client are read from the properties under fleen.health.http-client.&lt;name&gt;, then from the properties under
+ * fleen.health.http-client shared by every client.
+ *
+ * <p>A single thread aborts the calls of every client that do not complete within their deadline.</p>
+ * <br/>
+ */
+@Slf4j
+@Component
+public class ExternalHttpClientFactory implements DisposableBean {
+
+  private static final String PROPERTY_PREFIX = "fleen.health.http-client.";
+  private static final String DEADLINE_SCHEDULER_NAME = "http-client-deadline";
+
+  private final Environment environment;
+  private final ObjectMapper mapper;
+  private final MeterRegistry meterRegistry;
+  private final ScheduledThreadPoolExecutor deadlineScheduler;
+  private final List<ExternalHttpClient> clients = new CopyOnWriteArrayList<>();
+
+  public ExternalHttpClientFactory(Environment environment,
+                                   ObjectMapper mapper,
+                                   MeterRegistry meterRegistry) {
+    this.environment = environment;
+    this.mapper = mapper;
+    this.meterRegistry = meterRegistry;
+    this.deadlineScheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+      Thread thread = new Thread(runnable, DEADLINE_SCHEDULER_NAME);
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.deadlineScheduler.setRemoveOnCancelPolicy(true);
+  }
+
+  /**
+   * <p>Create the client of an external system.</p>
+   * <br/>
+   *
+   * @param name the name of the system, used in its properties and metrics
+   * @return the client
+   */
+  public ExternalHttpClient create(String name) {
+    return create(name, Duration.ofMillis(getLong(name, "deadline-millis", 15000)));
+  }
+
+  /**
+   * <p>Create the client of an external system whose calls have a shorter deadline by default, like a check made while a user waits.
+   * The connect and read timeouts of the client are never longer than the deadline.</p>
+   * <br/>
+   *
+   * @param name the name of the system, used in its properties and metrics
+   * @param defaultDeadline the deadline of a call when none is configured for the system
+   * @return the client
+   */
+  public ExternalHttpClient create(String name, Duration defaultDeadline) {
+    long deadlineMillis = getLong(name, "deadline-millis", defaultDeadline.toMillis());
+    ExternalHttpClient.Settings settings = ExternalHttpClient.Settings.builder()
+      .maxConnections((int) getLong(name, "max-connections", 20))
+      .connectTimeout(Duration.ofMillis(Math.min(getLong(name, "connect-timeout-millis", 2000), deadlineMillis)))
+      .readTimeout(Duration.ofMillis(Math.min(getLong(name, "read-timeout-millis", 10000), deadlineMillis)))
+      .connectionRequestTimeout(Duration.ofMillis(Math.min(getLong(name, "connection-request-timeout-millis", 1000), deadlineMillis)))
+      .deadline(Duration.ofMillis(deadlineMillis))
+      .keepAlive(Duration.ofSeconds(getLong(name, "keep-alive-seconds", 30)))
+      .validateAfterInactivity(Duration.ofMillis(getLong(name, "validate-after-inactivity-millis", 2000)))
+      .compression(getProperty(name, "compression", Boolean.class, true))
+      .payloadLogSampleRate(getProperty(name, "payload-log-sample-rate", Double.class, 0.01))
+      .build();
+
+    ExternalHttpClient client = new ExternalHttpClient(name, settings, mapper, meterRegistry, deadlineScheduler);
+    clients.add(client);
+    return client;
+  }
+
+  @Override
+  public void destroy() {
+    for (ExternalHttpClient client : clients) {
+      try {
+        client.close();
+      } catch (IOException ex) {
+        log.error(ex.getMessage(), ex);
+      }
+    }
+    deadlineScheduler.shutdownNow();
+  }
+
+  private long getLong(String name, String property, long defaultValue) {
+    return getProperty(name, property, Long.class, defaultValue);
+  }
+
+  private <T> T getProperty(String name, String property, Class<T> type, T defaultValue) {
+    T value = environment.getProperty(PROPERTY_PREFIX + name + "." + property, type);
+    return nonNull(value) ? value : environment.getProperty(PROPERTY_PREFIX + property, type, defaultValue);
+  }
+}
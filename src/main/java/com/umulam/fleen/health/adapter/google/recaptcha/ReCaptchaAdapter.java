@@ -1,6 +1,7 @@
 package com.umulam.fleen.health.adapter.google.recaptcha;
 
 import com.umulam.fleen.health.adapter.base.BaseAdapter;
+import com.umulam.fleen.health.adapter.base.ExternalHttpClientFactory;
 import com.umulam.fleen.health.adapter.google.recaptcha.model.enums.GoogleRecaptchaEndpointBlock;
 import com.umulam.fleen.health.adapter.google.recaptcha.model.enums.GoogleRecaptchaParameter;
 import com.umulam.fleen.health.adapter.google.recaptcha.model.response.ReCaptchaResponse;
@@ -18,6 +19,7 @@ import org.springframework.util.MultiValueMap;
 
 import javax.validation.constraints.NotBlank;
 import java.net.URI;
+import java.time.Duration;
 
 /**
  * The ReCaptchaAdapter is used for authentication and security purpose to verify that
@@ -29,12 +31,16 @@ import java.net.URI;
 @Component
 public class ReCaptchaAdapter extends BaseAdapter {
 
+  private static final String HTTP_CLIENT_NAME = "recaptcha";
+
   @NotBlank
   private final String recaptchaSecret;
 
   protected ReCaptchaAdapter(@Value("${google.recaptcha.base-url}") String baseUrl,
-                             @Value("${google.recaptcha.secret-key}") String secretKey) {
-    super(baseUrl);
+                             @Value("${google.recaptcha.secret-key}") String secretKey,
+                             @Value("${google.recaptcha.timeout-millis:2000}") long timeoutMillis,
+                             ExternalHttpClientFactory httpClientFactory) {
+    super(baseUrl, httpClientFactory.create(HTTP_CLIENT_NAME, Duration.ofMillis(timeoutMillis)));
     this.recaptchaSecret = secretKey;
   }
 
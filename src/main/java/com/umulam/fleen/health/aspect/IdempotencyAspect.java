@@ -0,0 +1,273 @@
+package com.umulam.fleen.health.aspect;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import com.umulam.fleen.health.exception.base.IdempotencyKeyReusedException;
+import com.umulam.fleen.health.exception.base.RequestInProgressException;
+import com.umulam.fleen.health.model.security.FleenUser;
+import com.umulam.fleen.health.service.impl.CacheService;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static com.umulam.fleen.health.constant.base.GeneralConstant.IDEMPOTENCY_CACHE_PREFIX;
+import static com.umulam.fleen.health.constant.base.GeneralConstant.IDEMPOTENCY_KEY_HEADER;
+
+/**
+ * The IdempotencyAspect runs the APIs declared with {@link Idempotent} once for every idempotency key, so that a client retrying a
+ * request after a timeout does not book, charge or transfer twice.
+ *
+ * <p>The first call with a key stores an in-flight record in the cache store and the response replaces it once the call completes.
+ * A call with the same key replays the stored response, or waits for it while the record is in flight. The in-flight record expires
+ * after {@link Idempotent#inFlightSeconds()}, so a key whose call never completed because its node stopped can be used again, and
+ * the record is removed when the call fails so that the client can retry. While the call runs, its node renews the record every
+ * third of that time, so a call that is slow but alive, for example a withdrawal waiting on the payment gateway deadline, a full
+ * bulkhead and the database, keeps its key however long it takes, and only the record of a node that stopped expires. Every in-flight record holds a random claim and is only
+ * removed while it still holds the claim of the call that failed, so a call that outlived its record never removes the record of
+ * the call that took the key after it. The aspect runs before the transaction of the method is
+ * started, so a response is only stored after the changes it reports have been committed.</p>
+ * <br/>
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class IdempotencyAspect implements DisposableBean {
+
+  private static final long INITIAL_POLL_MILLIS = 25;
+  private static final long MAX_POLL_MILLIS = 500;
+
+  private final CacheService cacheService;
+  private final ObjectMapper mapper;
+  private final ExpressionParser parser = new SpelExpressionParser();
+  private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+  private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService renewalExecutor;
+
+  public IdempotencyAspect(CacheService cacheService,
+                           ObjectMapper mapper) {
+    this.cacheService = cacheService;
+    this.mapper = mapper;
+    this.renewalExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "idempotency-renewal");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @Override
+  public void destroy() {
+    renewalExecutor.shutdownNow();
+  }
+
+  @Around("@annotation(idempotent)")
+  public Object run(ProceedingJoinPoint joinPoint, Idempotent idempotent) throws Throwable {
+    Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+    String fingerprint = getFingerprint(idempotent, joinPoint, method);
+    String clientKey = getClientKey();
+    if (Objects.isNull(clientKey) && Objects.isNull(fingerprint)) {
+      return joinPoint.proceed();
+    }
+
+    StringJoiner key = new StringJoiner(":", IDEMPOTENCY_CACHE_PREFIX, "");
+    key.add(idempotent.name());
+    if (idempotent.perMember()) {
+      key.add(getMember());
+    }
+    key.add(Objects.nonNull(clientKey) ? clientKey : fingerprint);
+    Duration ttl = Duration.ofSeconds(Objects.nonNull(clientKey) ? idempotent.ttlSeconds() : idempotent.derivedKeyTtlSeconds());
+
+    return runOnce(joinPoint, method, idempotent, key.toString(), fingerprint, ttl);
+  }
+
+  private Object runOnce(ProceedingJoinPoint joinPoint, Method method, Idempotent idempotent, String key, String fingerprint, Duration ttl) throws Throwable {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(idempotent.waitMillis());
+    long pollMillis = INITIAL_POLL_MILLIS;
+
+    while (true) {
+      IdempotencyRecord inFlight = IdempotencyRecord.inFlight(fingerprint);
+      Duration inFlightTtl = Duration.ofSeconds(idempotent.inFlightSeconds());
+      if (cacheService.setIfAbsent(key, inFlight, inFlightTtl)) {
+        return proceed(joinPoint, method, key, inFlight, inFlightTtl, ttl);
+      }
+
+      IdempotencyRecord record = cacheService.get(key, IdempotencyRecord.class);
+      if (Objects.nonNull(record)) {
+        if (Objects.nonNull(fingerprint) && Objects.nonNull(record.getFingerprint()) && !fingerprint.equals(record.getFingerprint())) {
+          throw new IdempotencyKeyReusedException();
+        }
+        if (record.isCompleted()) {
+          return readResponse(record, method);
+        }
+      }
+
+      if (System.nanoTime() >= deadline) {
+        throw new RequestInProgressException();
+      }
+      // The record may have expired or been removed while waiting, in which case the next attempt runs the call
+      Thread.sleep(pollMillis);
+      pollMillis = Math.min(pollMillis * 2, MAX_POLL_MILLIS);
+    }
+  }
+
+  private Object proceed(ProceedingJoinPoint joinPoint, Method method, String key, IdempotencyRecord record, Duration inFlightTtl,
+                         Duration ttl) throws Throwable {
+    Object response;
+    Future<?> renewal = scheduleRenewal(key, record, inFlightTtl);
+    try {
+      response = joinPoint.proceed();
+    } catch (Throwable throwable) {
+      renewal.cancel(false);
+      release(key, record);
+      throw throwable;
+    }
+    renewal.cancel(false);
+
+    try {
+      // The in-flight record is left as it is, so a renewal still running compares it with the completed record and leaves it alone
+      IdempotencyRecord completed = record.complete(Objects.isNull(response) ? null : mapper.writeValueAsString(response));
+      cacheService.set(key, completed, ttl);
+    } catch (JsonProcessingException | RuntimeException ex) {
+      // The call has completed, a retry runs it again once the in-flight record expires
+      log.error("Response of {} could not be stored: {}", method.getName(), ex.getMessage(), ex);
+    }
+    return response;
+  }
+
+  private Future<?> scheduleRenewal(String key, IdempotencyRecord record, Duration inFlightTtl) {
+    long periodMillis = Math.max(inFlightTtl.toMillis() / 3, 1);
+    try {
+      return renewalExecutor.scheduleAtFixedRate(() -> renew(key, record, inFlightTtl), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException ex) {
+      // The application is stopping, the call runs without renewal and its record expires after the in-flight time
+      return CompletableFuture.completedFuture(null);
+    }
+  }
+
+  private void renew(String key, IdempotencyRecord record, Duration inFlightTtl) {
+    try {
+      if (!cacheService.expireIfEquals(key, record, inFlightTtl)) {
+        log.warn("Idempotency record {} is no longer held by the running call and was not renewed", key);
+      }
+    } catch (RuntimeException ex) {
+      // The next renewal tries again while the record has not expired
+      log.error("Idempotency record {} could not be renewed: {}", key, ex.getMessage(), ex);
+    }
+  }
+
+  private void release(String key, IdempotencyRecord record) {
+    try {
+      if (!cacheService.deleteIfEquals(key, record)) {
+        log.warn("Idempotency record {} is no longer held by the failed call and was left in place", key);
+      }
+    } catch (RuntimeException ex) {
+      // The in-flight record expires, after which the client can retry
+      log.error("Idempotency record {} could not be removed: {}", key, ex.getMessage(), ex);
+    }
+  }
+
+  private Object readResponse(IdempotencyRecord record, Method method) throws JsonProcessingException {
+    if (Objects.isNull(record.getResponse())) {
+      return null;
+    }
+    JavaType responseType = mapper.getTypeFactory().constructType(method.getGenericReturnType());
+    return mapper.readValue(record.getResponse(), responseType);
+  }
+
+  private String getFingerprint(Idempotent idempotent, ProceedingJoinPoint joinPoint, Method method) throws JsonProcessingException {
+    if (idempotent.key().isBlank()) {
+      return null;
+    }
+
+    Expression expression = expressions.computeIfAbsent(idempotent.key(), parser::parseExpression);
+    MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(null, method, joinPoint.getArgs(), parameterNameDiscoverer);
+    Object request = expression.getValue(context);
+    if (Objects.isNull(request)) {
+      return null;
+    }
+    String value = request instanceof String ? (String) request : mapper.writeValueAsString(request);
+    return Hashing.sha256().hashString(value, StandardCharsets.UTF_8).toString();
+  }
+
+  private static String getClientKey() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (!(attributes instanceof ServletRequestAttributes)) {
+      return null;
+    }
+
+    String clientKey = ((ServletRequestAttributes) attributes).getRequest().getHeader(IDEMPOTENCY_KEY_HEADER);
+    if (Objects.isNull(clientKey) || clientKey.isBlank()) {
+      return null;
+    }
+    return Hashing.sha256().hashString(clientKey.trim(), StandardCharsets.UTF_8).toString();
+  }
+
+  private static String getMember() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (Objects.nonNull(authentication) && authentication.getPrincipal() instanceof FleenUser) {
+      return String.valueOf(((FleenUser) authentication.getPrincipal()).getId());
+    }
+    return "";
+  }
+
+  /**
+   * The state of a call made with an idempotency key and, once it has completed, its response as JSON.
+   */
+  @Getter
+  @Setter
+  @NoArgsConstructor
+  public static class IdempotencyRecord {
+
+    private String fingerprint;
+    private String claim;
+    private boolean completed;
+    private String response;
+
+    static IdempotencyRecord inFlight(String fingerprint) {
+      IdempotencyRecord record = new IdempotencyRecord();
+      record.setFingerprint(fingerprint);
+      record.setClaim(UUID.randomUUID().toString());
+      return record;
+    }
+
+    IdempotencyRecord complete(String response) {
+      IdempotencyRecord record = new IdempotencyRecord();
+      record.setFingerprint(fingerprint);
+      record.setClaim(claim);
+      record.setCompleted(true);
+      record.setResponse(response);
+      return record;
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package com.umulam.fleen.health.aspect;
+
+import java.lang.annotation.*;
+
+/**
+ * Run an API once for every idempotency key. A call made again with a key that has completed is answered with the response of the
+ * first call, and a call made while the first is still running waits for it to complete. The key is sent by the client in the
+ * Idempotency-Key header or, when the header is missing, derived from the request with {@link #key()}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Idempotent {
+
+  /**
+   * The name of the API. Keys are only compared with keys of the API with the same name.
+   */
+  String name();
+
+  /**
+   * Expression evaluated against the method arguments to get the request, for example {@code #dto}. It is used to tell a retry from
+   * a different request sent with the same key, and to derive the key when the client does not send one. When empty, only calls
+   * with the header are made idempotent.
+   */
+  String key() default "";
+
+  /**
+   * If the key is scoped to the signed in member, so that two members sending the same key or request do not share a response.
+   */
+  boolean perMember() default true;
+
+  /**
+   * How long the response of a call made with a key sent by the client is replayed.
+   */
+  long ttlSeconds() default 86400;
+
+  /**
+   * How long the response of a call made with a derived key is replayed. Two identical requests made further apart than this are
+   * treated as different requests.
+   */
+  long derivedKeyTtlSeconds() default 60;
+
+  /**
+   * How long a call is considered running after its node last renewed it. The node renews the call every third of this time until
+   * it completes, so a key can only be used to run the call again once the node running it has stopped.
+   */
+  long inFlightSeconds() default 60;
+
+  /**
+   * How long a call made while the first call is running waits for it to complete before it is rejected.
+   */
+  long waitMillis() default 10000;
+}
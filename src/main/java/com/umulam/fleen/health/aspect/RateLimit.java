@@ -0,0 +1,46 @@
+package com.umulam.fleen.health.aspect;
+
+import java.lang.annotation.*;
+
+/**
+ * Limit how often an API can be called in a sliding window. The limit is shared by every node of the application. An API can have
+ * more than one limit, for example one for each IP address and a stricter one for each email address.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(RateLimits.class)
+public @interface RateLimit {
+
+  /**
+   * The name of the limit. Limits with the same name and key share the same count.
+   */
+  String name();
+
+  /**
+   * The number of calls allowed in the window.
+   */
+  int limit();
+
+  long windowSeconds();
+
+  /**
+   * What the calls are counted by. When more than one key is given, the calls are counted by the combination of the keys.
+   */
+  Key[] keys() default { Key.IP };
+
+  /**
+   * Expression evaluated against the method arguments to get the identifier used with {@link Key#IDENTIFIER}, for example
+   * {@code #dto.emailAddress}.
+   */
+  String identifier() default "";
+
+  /**
+   * When greater than zero, a call made again with the same key within this many seconds is answered with the response of the
+   * first call instead of running the method again, for example so that resending a code does not send many messages.
+   */
+  long coalesceSeconds() default 0;
+
+  enum Key {
+    IP, MEMBER, IDENTIFIER
+  }
+}
@@ -0,0 +1,213 @@
+package com.umulam.fleen.health.aspect;
+
+import com.umulam.fleen.health.exception.base.TooManyRequestsException;
+import com.umulam.fleen.health.model.security.FleenUser;
+import com.umulam.fleen.health.service.impl.CacheService;
+import com.umulam.fleen.health.service.impl.RateLimiterService;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.umulam.fleen.health.constant.base.GeneralConstant.RATE_LIMIT_COALESCE_CACHE_PREFIX;
+
+/**
+ * The RateLimitAspect applies the limits declared with {@link RateLimit} on the application APIs before they are run. A call that
+ * is over any of its limits is rejected with {@link TooManyRequestsException}, which tells the client how long to wait through the
+ * Retry-After header.
+ *
+ * <p>A limit with {@link RateLimit#coalesceSeconds()} also answers a repeated call within the period with the response of the first
+ * call, so that APIs such as resending a verification code send a single message no matter how often they are called.</p>
+ * <br/>
+ */
+@Slf4j
+@Aspect
+@Component
+public class RateLimitAspect {
+
+  private static final String COALESCE_PENDING = "PENDING";
+  private static final String UNKNOWN_KEY = "unknown";
+
+  private final RateLimiterService rateLimiterService;
+  private final CacheService cacheService;
+  private final ExpressionParser parser = new SpelExpressionParser();
+  private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+  private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+  public RateLimitAspect(RateLimiterService rateLimiterService,
+                         CacheService cacheService) {
+    this.rateLimiterService = rateLimiterService;
+    this.cacheService = cacheService;
+  }
+
+  @Around("@annotation(com.umulam.fleen.health.aspect.RateLimit) || @annotation(com.umulam.fleen.health.aspect.RateLimits)")
+  public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+    MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+    Method method = signature.getMethod();
+    Set<RateLimit> rateLimits = AnnotatedElementUtils.findMergedRepeatableAnnotations(method, RateLimit.class);
+
+    String coalesceKey = null;
+    Duration coalescePeriod = null;
+    for (RateLimit rateLimit : rateLimits) {
+      if (rateLimit.coalesceSeconds() > 0) {
+        coalesceKey = RATE_LIMIT_COALESCE_CACHE_PREFIX.concat(getKey(rateLimit, joinPoint, method));
+        coalescePeriod = Duration.ofSeconds(rateLimit.coalesceSeconds());
+        break;
+      }
+    }
+
+    if (Objects.nonNull(coalesceKey)) {
+      try {
+        if (!cacheService.setIfAbsent(coalesceKey, COALESCE_PENDING, coalescePeriod)) {
+          return getCoalescedResponse(coalesceKey, signature.getReturnType());
+        }
+      } catch (TooManyRequestsException ex) {
+        throw ex;
+      } catch (RuntimeException ex) {
+        // The cache store cannot be reached, so the call is only limited by the local fallback of the rate limiter
+        log.warn("Calls to {} cannot be coalesced: {}", coalesceKey, ex.getMessage());
+        coalesceKey = null;
+      }
+    }
+
+    try {
+      for (RateLimit rateLimit : rateLimits) {
+        Duration retryAfter = rateLimiterService.tryAcquire(getKey(rateLimit, joinPoint, method), rateLimit.limit(), Duration.ofSeconds(rateLimit.windowSeconds()));
+        if (!retryAfter.isZero()) {
+          throw new TooManyRequestsException(toSeconds(retryAfter));
+        }
+      }
+
+      Object response = joinPoint.proceed();
+      if (Objects.nonNull(coalesceKey) && Objects.nonNull(response)) {
+        saveCoalescedResponse(coalesceKey, response, coalescePeriod);
+      }
+      return response;
+    } catch (Throwable throwable) {
+      if (Objects.nonNull(coalesceKey)) {
+        deleteCoalescedResponse(coalesceKey);
+      }
+      throw throwable;
+    }
+  }
+
+  private void saveCoalescedResponse(String coalesceKey, Object response, Duration coalescePeriod) {
+    try {
+      cacheService.set(coalesceKey, response, coalescePeriod);
+    } catch (RuntimeException ex) {
+      log.warn("Response of {} could not be saved: {}", coalesceKey, ex.getMessage());
+      deleteCoalescedResponse(coalesceKey);
+    }
+  }
+
+  private void deleteCoalescedResponse(String coalesceKey) {
+    try {
+      cacheService.delete(coalesceKey);
+    } catch (RuntimeException ex) {
+      // The pending marker expires at the end of the period
+      log.warn("Response of {} could not be deleted: {}", coalesceKey, ex.getMessage());
+    }
+  }
+
+  private Object getCoalescedResponse(String coalesceKey, Class<?> responseType) {
+    Object value = cacheService.get(coalesceKey);
+    if (Objects.isNull(value) || COALESCE_PENDING.equals(value)) {
+      // The first call is still running
+      throw new TooManyRequestsException(1);
+    }
+
+    Object response = cacheService.get(coalesceKey, responseType);
+    if (Objects.isNull(response)) {
+      throw new TooManyRequestsException(1);
+    }
+    return response;
+  }
+
+  private String getKey(RateLimit rateLimit, ProceedingJoinPoint joinPoint, Method method) {
+    StringJoiner key = new StringJoiner(":");
+    key.add(rateLimit.name());
+    for (RateLimit.Key type : rateLimit.keys()) {
+      switch (type) {
+        case IP:
+          key.add(getIpAddress());
+          break;
+        case MEMBER:
+          key.add(getMember());
+          break;
+        case IDENTIFIER:
+          key.add(getIdentifier(rateLimit.identifier(), joinPoint, method));
+          break;
+      }
+    }
+    return key.toString();
+  }
+
+  private String getIdentifier(String identifier, ProceedingJoinPoint joinPoint, Method method) {
+    if (identifier.isBlank()) {
+      return UNKNOWN_KEY;
+    }
+
+    try {
+      Expression expression = expressions.computeIfAbsent(identifier, parser::parseExpression);
+      MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(null, method, joinPoint.getArgs(), parameterNameDiscoverer);
+      Object value = expression.getValue(context);
+      return Objects.isNull(value) ? UNKNOWN_KEY : value.toString().trim().toLowerCase();
+    } catch (RuntimeException ex) {
+      log.error(ex.getMessage(), ex);
+      return UNKNOWN_KEY;
+    }
+  }
+
+  private static String getMember() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (Objects.nonNull(authentication) && authentication.getPrincipal() instanceof FleenUser) {
+      return ((FleenUser) authentication.getPrincipal()).getUsername();
+    }
+    return getIpAddress();
+  }
+
+  /**
+   * <p>Get the address of the client. The X-Forwarded-For header is set by the client and is not read here: behind a proxy the
+   * server is run with server.forward-headers-strategy=native, so that the address is resolved from the header only when the
+   * request came through one of the trusted proxies set in server.tomcat.remoteip.internal-proxies.</p>
+   * <br/>
+   *
+   * @return the address of the client
+   */
+  private static String getIpAddress() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (!(attributes instanceof ServletRequestAttributes)) {
+      return UNKNOWN_KEY;
+    }
+
+    HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+    return Objects.toString(request.getRemoteAddr(), UNKNOWN_KEY);
+  }
+
+  private static long toSeconds(Duration duration) {
+    return Math.max(1, (duration.toMillis() + 999) / 1000);
+  }
+}
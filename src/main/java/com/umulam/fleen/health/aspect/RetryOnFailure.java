@@ -5,9 +5,52 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * Retry a method whose call failed with an error that may pass, which by default is an IO error or an error status returned by
+ * the server of an external system. Retries wait an exponential backoff with full jitter and are counted against a retry budget
+ * shared by every node of the application.
+ *
+ * <p>A method that returns a CompletableFuture is retried without blocking the caller: the retries are scheduled on a timer and the
+ * returned future completes with the result of the last attempt.</p>
+ *
+ * <p>Only calls that can be repeated without changing the result, like reads and deletes, are annotated. A call that creates
+ * something, like a transfer, may have been completed by the system before its response was lost, and is never retried.</p>
+ * <br/>
+ */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface RetryOnFailure {
+
+  /**
+   * The number of attempts, including the first one.
+   */
   int maxAttempts() default 3;
-  long timeoutMillis() default 5000;
+
+  /**
+   * The longest time the attempts can take together. No retry is made if its backoff would end after it. It is longer than the
+   * deadline of a call of the external HTTP clients, 15 seconds by default, so that a call that timed out can still be retried.
+   */
+  long timeoutMillis() default 30000;
+
+  /**
+   * The backoff before the first retry, which doubles for every retry after it. The wait is a random time up to the backoff.
+   */
+  long backoffMillis() default 200;
+
+  long maxBackoffMillis() default 2000;
+
+  /**
+   * Errors that are retried in addition to the default ones.
+   */
+  Class<? extends Throwable>[] retryOn() default {};
+
+  /**
+   * Errors that are never retried, even if they are retried by default.
+   */
+  Class<? extends Throwable>[] noRetryOn() default {};
+
+  /**
+   * The name of the retry budget the retries are counted against, which is the simple name of the class by default.
+   */
+  String budget() default "";
 }
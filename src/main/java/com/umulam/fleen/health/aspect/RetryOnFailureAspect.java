@@ -1,33 +1,203 @@
 package com.umulam.fleen.health.aspect;
 
+import com.umulam.fleen.health.exception.externalsystem.ExternalSystemServerException;
+import com.umulam.fleen.health.service.impl.RetryBudgetService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
 
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * RetryOnFailureAspect retries the methods annotated with {@link RetryOnFailure}. An attempt that fails is retried if its error is
+ * retryable, the method has attempts and time left, and the retry budget of the method allows it.
+ *
+ * <p>A method that returns a CompletableFuture is retried on a timer so no thread waits for the backoff. A method that returns its
+ * result directly can only be retried on the thread that called it, which waits for the backoff; that wait is bounded by the
+ * method's deadline and is not made at all once the budget is spent.</p>
+ * <br/>
+ */
+@Slf4j
 @Aspect
 @Component
-public class RetryOnFailureAspect {
+public class RetryOnFailureAspect implements DisposableBean {
+
+  private static final String RETRY_SCHEDULER_NAME = "retry-scheduler";
+  private static final Class<?>[] DEFAULT_RETRYABLE_ERRORS = {
+    IOException.class,
+    ResourceAccessException.class,
+    TimeoutException.class,
+    ExternalSystemServerException.class
+  };
+
+  private final RetryBudgetService retryBudgetService;
+  private final MeterRegistry meterRegistry;
+  private final ScheduledThreadPoolExecutor retryScheduler;
+
+  public RetryOnFailureAspect(RetryBudgetService retryBudgetService,
+                              MeterRegistry meterRegistry) {
+    this.retryBudgetService = retryBudgetService;
+    this.meterRegistry = meterRegistry;
+    this.retryScheduler = new ScheduledThreadPoolExecutor(2, runnable -> {
+      Thread thread = new Thread(runnable, RETRY_SCHEDULER_NAME);
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
 
   @Around("@annotation(retryOnFailure)")
   public Object retryOnTimeout(ProceedingJoinPoint joinPoint, RetryOnFailure retryOnFailure) throws Throwable {
-    int maxAttempts = retryOnFailure.maxAttempts();
-    long timeoutMillis = retryOnFailure.timeoutMillis();
-    int attempts = 0;
+    MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+    String budget = retryOnFailure.budget().isBlank()
+      ? signature.getDeclaringType().getSimpleName()
+      : retryOnFailure.budget();
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryOnFailure.timeoutMillis());
+    retryBudgetService.onAttempt(budget);
+
+    if (CompletableFuture.class.isAssignableFrom(signature.getReturnType())) {
+      CompletableFuture<Object> result = new CompletableFuture<>();
+      proceedAsync(joinPoint, retryOnFailure, budget, deadline, 1, result);
+      return result;
+    }
 
-    do {
+    for (int attempt = 1; ; attempt++) {
       try {
-        return joinPoint.proceed();
+        Object result = joinPoint.proceed();
+        count(budget, attempt == 1 ? "success" : "success_after_retry");
+        return result;
       } catch (Throwable throwable) {
-        if (attempts >= maxAttempts) {
+        long backoffMillis = getBackoffMillis(retryOnFailure, budget, deadline, attempt, throwable);
+        if (backoffMillis < 0) {
           throw throwable;
         }
+        TimeUnit.MILLISECONDS.sleep(backoffMillis);
+      }
+    }
+  }
+
+  @Override
+  public void destroy() {
+    retryScheduler.shutdownNow();
+  }
+
+  private void proceedAsync(ProceedingJoinPoint joinPoint, RetryOnFailure retryOnFailure, String budget, long deadline, int attempt,
+                            CompletableFuture<Object> result) {
+    CompletableFuture<?> future;
+    try {
+      future = (CompletableFuture<?>) joinPoint.proceed();
+    } catch (Throwable throwable) {
+      future = CompletableFuture.failedFuture(throwable);
+    }
+    if (isNull(future)) {
+      result.complete(null);
+      return;
+    }
+
+    future.whenComplete((value, error) -> {
+      if (isNull(error)) {
+        count(budget, attempt == 1 ? "success" : "success_after_retry");
+        result.complete(value);
+        return;
+      }
 
-        attempts++;
-        Thread.sleep(timeoutMillis);
+      Throwable cause = error instanceof CompletionException && nonNull(error.getCause()) ? error.getCause() : error;
+      long backoffMillis = getBackoffMillis(retryOnFailure, budget, deadline, attempt, cause);
+      if (backoffMillis < 0) {
+        result.completeExceptionally(cause);
+        return;
       }
-    } while (attempts < maxAttempts);
+      retryScheduler.schedule(() -> proceedAsync(joinPoint, retryOnFailure, budget, deadline, attempt + 1, result),
+        backoffMillis, TimeUnit.MILLISECONDS);
+    });
+  }
+
+  /**
+   * <p>Decide if a failed attempt is retried and how long to wait before the retry. The wait is a random time up to the backoff of
+   * the attempt, so that the callers that failed together do not retry together.</p>
+   * <br/>
+   *
+   * @param retryOnFailure the retry settings of the method
+   * @param budget the name of the retry budget
+   * @param deadline the time by which every attempt must have completed, as given by {@link System#nanoTime()}
+   * @param attempt the number of the attempt that failed
+   * @param throwable the error of the attempt
+   * @return the time to wait in milliseconds, or -1 if the attempt is not retried
+   */
+  private long getBackoffMillis(RetryOnFailure retryOnFailure, String budget, long deadline, int attempt, Throwable throwable) {
+    if (!isRetryable(retryOnFailure, throwable)) {
+      count(budget, "not_retryable");
+      return -1;
+    }
+    if (attempt >= retryOnFailure.maxAttempts()) {
+      count(budget, "exhausted");
+      return -1;
+    }
+
+    long backoffMillis = retryOnFailure.backoffMillis() << Math.min(attempt - 1, 30);
+    if (backoffMillis <= 0 || backoffMillis > retryOnFailure.maxBackoffMillis()) {
+      backoffMillis = retryOnFailure.maxBackoffMillis();
+    }
+    long waitMillis = ThreadLocalRandom.current().nextLong(Math.max(backoffMillis, 0) + 1);
+    if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis) >= deadline) {
+      count(budget, "deadline");
+      return -1;
+    }
+    if (!retryBudgetService.tryAcquireRetry(budget)) {
+      log.warn("Retry budget {} is spent, not retrying: {}", budget, throwable.getMessage());
+      count(budget, "budget_exhausted");
+      return -1;
+    }
+
+    count(budget, "retry");
+    return waitMillis;
+  }
+
+  private boolean isRetryable(RetryOnFailure retryOnFailure, Throwable throwable) {
+    boolean retryable = false;
+    for (Throwable error = throwable; nonNull(error); error = error.getCause() == error ? null : error.getCause()) {
+      if (error instanceof ExecutionException || error instanceof CompletionException) {
+        continue;
+      }
+      if (isInstance(retryOnFailure.noRetryOn(), error)) {
+        return false;
+      }
+      retryable = retryable || isInstance(DEFAULT_RETRYABLE_ERRORS, error) || isInstance(retryOnFailure.retryOn(), error);
+    }
+    return retryable;
+  }
+
+  private static boolean isInstance(Class<?>[] types, Throwable error) {
+    for (Class<?> type : types) {
+      if (type.isInstance(error)) {
+        return true;
+      }
+    }
+    return false;
+  }
 
-    return null;
+  private void count(String budget, String outcome) {
+    Counter.builder("fleen.health.retry.attempts")
+      .description("Outcomes of the attempts of retried methods")
+      .tag("name", budget)
+      .tag("outcome", outcome)
+      .register(meterRegistry)
+      .increment();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package com.umulam.fleen.health.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ActiveSlotIndexMigration creates the unique index over the professional, date and time of sessions that are pending, scheduled or
+ * rescheduled, so that the database rejects a double booking made by any path that does not take the booking lock. It runs once
+ * Hibernate has started and before the application takes requests.
+ *
+ * <p>Nodes starting at the same time create the index one after the other, and the nodes that come later find it in place. The
+ * application does not start while the index is missing: if sessions already book the same professional twice, they are logged and
+ * have to be canceled or moved before the index can be created.</p>
+ * <br/>
+ */
+@Slf4j
+public class ActiveSlotIndexMigration implements InitializingBean {
+
+  public static final String ACTIVE_SLOT_INDEX = "hs_active_slot_index";
+
+  private static final int MIGRATION_LOCK_NAMESPACE = 1003;
+  private static final int MIGRATION_LOCK_KEY = 1;
+  private static final int MAX_LOGGED_DOUBLE_BOOKINGS = 20;
+
+  private static final String ACTIVE_STATUSES = "('PENDING', 'SCHEDULED', 'RESCHEDULED')";
+  private static final String FIND_INDEX = "SELECT indexdef FROM pg_indexes WHERE schemaname = current_schema() AND indexname = ?";
+  private static final String CREATE_INDEX = "CREATE UNIQUE INDEX IF NOT EXISTS " + ACTIVE_SLOT_INDEX +
+    " ON health_session (professional_id, date, time) WHERE status IN " + ACTIVE_STATUSES;
+  private static final String FIND_DOUBLE_BOOKINGS = "SELECT professional_id, date, time, count(*) AS sessions FROM health_session " +
+    "WHERE status IN " + ACTIVE_STATUSES + " GROUP BY professional_id, date, time HAVING count(*) > 1 " +
+    "ORDER BY date, time LIMIT " + MAX_LOGGED_DOUBLE_BOOKINGS;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  public ActiveSlotIndexMigration(DataSource dataSource) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    transactionTemplate.executeWithoutResult(status -> {
+      jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?, ?)", MIGRATION_LOCK_NAMESPACE, MIGRATION_LOCK_KEY);
+      if (!jdbcTemplate.queryForList(FIND_INDEX, String.class, ACTIVE_SLOT_INDEX).isEmpty()) {
+        return;
+      }
+
+      List<Map<String, Object>> doubleBookings = jdbcTemplate.queryForList(FIND_DOUBLE_BOOKINGS);
+      if (!doubleBookings.isEmpty()) {
+        doubleBookings.forEach(booking -> log.error("Professional {} is booked {} times on {} at {}",
+          booking.get("professional_id"), booking.get("sessions"), booking.get("date"), booking.get("time")));
+        throw new IllegalStateException(String.format("Index %s cannot be created while professionals are booked twice for the " +
+          "same period. Cancel or move the sessions logged above and restart", ACTIVE_SLOT_INDEX));
+      }
+
+      jdbcTemplate.execute(CREATE_INDEX);
+      log.info("Index {} created", ACTIVE_SLOT_INDEX);
+    });
+  }
+}
@@ -0,0 +1,102 @@
+package com.umulam.fleen.health.configuration;
+
+import com.umulam.fleen.health.constant.professional.AvailabilityDayOfTheWeek;
+import com.umulam.fleen.health.util.WeeklyAvailability;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * AvailabilityScheduleMigration moves the availability periods saved before schedules were introduced to a schedule per
+ * professional, so that every professional can be found by the time of the week they are available.
+ *
+ * <p>Only the periods of professionals that have no schedule yet are moved, and only the rows that were moved are deleted. Rows
+ * written by nodes still running the previous version for a professional that already has a schedule are left in place. The
+ * migration runs on the node that takes its lock, the other nodes skip it, and once every period has been moved it is a single
+ * query.</p>
+ * <br/>
+ */
+@Slf4j
+public class AvailabilityScheduleMigration {
+
+  private static final int MIGRATION_LOCK_NAMESPACE = 1002;
+  private static final int MIGRATION_LOCK_KEY = 1;
+
+  private static final String UNMIGRATED_PERIODS = "SELECT pa.id, pa.member_id, pa.day_of_week, pa.start_time, pa.end_time " +
+    "FROM professional_availability pa " +
+    "WHERE NOT EXISTS (SELECT 1 FROM professional_schedule ps WHERE ps.member_id = pa.member_id)";
+  private static final String INSERT_SCHEDULE = "INSERT INTO professional_schedule (member_id, availability, period_count, updated_on) " +
+    "VALUES (?, ?, ?, CURRENT_TIMESTAMP) ON CONFLICT (member_id) DO NOTHING";
+  private static final String DELETE_PERIODS = "DELETE FROM professional_availability WHERE id IN (:ids)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  public AvailabilityScheduleMigration(DataSource dataSource) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void migrate() {
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?, ?)", Boolean.class,
+          MIGRATION_LOCK_NAMESPACE, MIGRATION_LOCK_KEY);
+        if (!Boolean.TRUE.equals(locked)) {
+          // Another node is migrating the periods
+          return;
+        }
+        migratePeriods();
+      });
+    } catch (RuntimeException ex) {
+      // Nothing was changed. Availability is still read from the periods of professionals without a schedule
+      log.error("Availability periods could not be moved to schedules: {}", ex.getMessage(), ex);
+    }
+  }
+
+  private void migratePeriods() {
+    Map<Long, List<WeeklyAvailability.Period>> periodsByMember = new HashMap<>();
+    Map<Long, List<Long>> idsByMember = new HashMap<>();
+    jdbcTemplate.query(UNMIGRATED_PERIODS, resultSet -> {
+      long memberId = resultSet.getLong("member_id");
+      LocalTime startTime = resultSet.getTime("start_time").toLocalTime();
+      LocalTime endTime = resultSet.getTime("end_time").toLocalTime();
+      List<WeeklyAvailability.Period> periods = periodsByMember.computeIfAbsent(memberId, id -> new ArrayList<>());
+      if (WeeklyAvailability.Period.isValid(startTime, endTime)) {
+        periods.add(new WeeklyAvailability.Period(AvailabilityDayOfTheWeek.valueOf(resultSet.getString("day_of_week")), startTime, endTime));
+      } else {
+        // The period does not end after it starts and never made the professional available, so it is deleted with the others
+        log.warn("Availability period {} of professional {} from {} to {} is dropped", resultSet.getLong("id"), memberId, startTime, endTime);
+      }
+      idsByMember
+        .computeIfAbsent(memberId, id -> new ArrayList<>())
+        .add(resultSet.getLong("id"));
+    });
+
+    int migrated = 0;
+    for (Map.Entry<Long, List<WeeklyAvailability.Period>> entry : periodsByMember.entrySet()) {
+      WeeklyAvailability availability = WeeklyAvailability.of(entry.getValue());
+      int inserted = jdbcTemplate.update(INSERT_SCHEDULE, entry.getKey(), availability.toBytes(), availability.toPeriods().size());
+      // A schedule saved since the periods were read is newer than the periods, which are then left in place
+      if (inserted > 0) {
+        namedParameterJdbcTemplate.update(DELETE_PERIODS, Map.of("ids", idsByMember.get(entry.getKey())));
+        migrated++;
+      }
+    }
+
+    if (migrated > 0) {
+      log.info("Availability periods of {} professional(s) moved to schedules", migrated);
+    }
+  }
+}
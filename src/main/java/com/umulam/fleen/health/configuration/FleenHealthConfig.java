@@ -23,6 +23,7 @@ import org.springframework.ui.freemarker.FreeMarkerConfigurationFactoryBean;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Clock;
 import java.util.List;
 
 @Configuration
@@ -36,6 +37,18 @@ public class FleenHealthConfig implements WebMvcConfigurer {
     this.queryParamResolver = queryParamResolver;
   }
 
+  /**
+   * <p>Clock used to read the current time, in the default time zone of the application, so that time based behaviour can be
+   * tested with a fixed clock.</p>
+   * <br/>
+   *
+   * @return {@link Clock}
+   */
+  @Bean
+  public Clock clock() {
+    return Clock.systemDefaultZone();
+  }
+
   @Bean
   public ModelMapper modelMapper() {
     ModelMapper mapper = new ModelMapper();
@@ -0,0 +1,73 @@
+package com.umulam.fleen.health.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static com.umulam.fleen.health.constant.base.FleenHealthConstant.ID_SEQUENCE_ALLOCATION_SIZE;
+
+/**
+ * IdSequenceMigration prepares the sequences of tables that were created with identity columns to hand out ids in blocks. It runs
+ * before Hibernate starts so that the sequences already match the allocation size of the entity mappings when Hibernate checks
+ * them.
+ *
+ * <p>A table created with an identity column owns a sequence named after the table and its id column, which is the sequence the
+ * entities are now mapped to. The sequence is changed to increment by the allocation size and is moved past the largest id of the
+ * table, so the first block starts after the existing rows. The sequence is never moved back: if nodes that still insert with the
+ * column default have taken values past the largest id, for example in transactions that have not committed yet, it stays at the
+ * last value it returned. Every value the sequence returns is then the top of a block no other caller receives, which keeps ids
+ * unique while those nodes are running. Sequences that do not exist yet are created by Hibernate with the right increment.</p>
+ * <br/>
+ */
+@Slf4j
+public class IdSequenceMigration implements InitializingBean {
+
+  private static final List<String> TABLES = List.of(
+    "business", "country", "earnings", "health_session", "health_session_review", "member", "bank_account", "member_status",
+    "professional", "professional_availability", "profile_token", "profile_verification_history",
+    "profile_verification_message", "role", "verification_document", "transaction");
+
+  private static final String SEQUENCE_SUFFIX = "_id_seq";
+  private static final long MIGRATION_LOCK_KEY = 7_146_532_001L;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  public IdSequenceMigration(DataSource dataSource) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        // Nodes starting at the same time migrate one after the other
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", MIGRATION_LOCK_KEY);
+        TABLES.forEach(this::migrate);
+      });
+    } catch (RuntimeException ex) {
+      // Hibernate falls back to the increment of the sequence, which is correct but allocates one id per round trip
+      log.error("Id sequences could not be migrated: {}", ex.getMessage(), ex);
+    }
+  }
+
+  private void migrate(String table) {
+    String sequence = table.concat(SEQUENCE_SUFFIX);
+    List<Long> increments = jdbcTemplate.queryForList(
+      "SELECT increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = ?", Long.class, sequence);
+    if (increments.isEmpty() || increments.get(0) == ID_SEQUENCE_ALLOCATION_SIZE) {
+      return;
+    }
+
+    jdbcTemplate.execute(String.format("ALTER SEQUENCE %s INCREMENT BY %d", sequence, ID_SEQUENCE_ALLOCATION_SIZE));
+    jdbcTemplate.queryForList(String.format("SELECT setval('%s', GREATEST((SELECT COALESCE(MAX(id), 0) FROM \"%s\"), " +
+      "(SELECT last_value FROM %s), 1))", sequence, table, sequence));
+    log.info("Id sequence {} now increments by {}", sequence, ID_SEQUENCE_ALLOCATION_SIZE);
+  }
+}
@@ -0,0 +1,56 @@
+package com.umulam.fleen.health.configuration;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+
+import javax.sql.DataSource;
+
+/**
+ * JpaConfig lets Hibernate send the inserts and updates of a flush in JDBC batches. Entity ids come from sequences that hand out
+ * blocks of ids, so ids are known before the insert and rows of the same table are grouped into a batch. Rows of entities mapped
+ * with joined inheritance, such as transactions, are the exception: each row is written to the parent table and then to the table
+ * of its subclass, which ends the batch every time, so they still take a statement for each table and row. Properties set in the
+ * application configuration take precedence over these defaults.
+ */
+@Configuration
+public class JpaConfig {
+
+  private static final String ID_SEQUENCE_MIGRATION = "idSequenceMigration";
+
+  @Bean
+  public HibernatePropertiesCustomizer batchingHibernatePropertiesCustomizer(@Value("${fleen.health.jpa.batch-size:50}") int batchSize) {
+    return properties -> {
+      properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+      properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+      properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+      properties.putIfAbsent(AvailableSettings.BATCH_VERSIONED_DATA, true);
+      properties.putIfAbsent(AvailableSettings.SEQUENCE_INCREMENT_SIZE_MISMATCH_STRATEGY, "FIX");
+    };
+  }
+
+  @Bean(name = ID_SEQUENCE_MIGRATION)
+  public IdSequenceMigration idSequenceMigration(DataSource dataSource) {
+    return new IdSequenceMigration(dataSource);
+  }
+
+  @Bean
+  public AvailabilityScheduleMigration availabilityScheduleMigration(DataSource dataSource) {
+    return new AvailabilityScheduleMigration(dataSource);
+  }
+
+  @Bean
+  @DependsOn("entityManagerFactory")
+  public ActiveSlotIndexMigration activeSlotIndexMigration(DataSource dataSource) {
+    return new ActiveSlotIndexMigration(dataSource);
+  }
+
+  @Bean
+  public static EntityManagerFactoryDependsOnPostProcessor idSequenceMigrationDependency() {
+    return new EntityManagerFactoryDependsOnPostProcessor(ID_SEQUENCE_MIGRATION);
+  }
+}
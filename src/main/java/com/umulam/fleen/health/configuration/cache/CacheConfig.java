@@ -1,7 +1,13 @@
 package com.umulam.fleen.health.configuration.cache;
 
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -11,6 +17,7 @@ import org.springframework.data.redis.connection.RedisPassword;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -22,11 +29,17 @@ public class CacheConfig {
 
   private final CacheCredentials credentials;
   private final ObjectMapper mapper;
+  private final CacheValueSerializer.Mode codecMode;
+  private final int compressionThreshold;
 
   public CacheConfig(CacheCredentials credentials,
-                     ObjectMapper mapper) {
+                     ObjectMapper mapper,
+                     @Value("${fleen.health.cache.codec.mode:BINARY}") CacheValueSerializer.Mode codecMode,
+                     @Value("${fleen.health.cache.codec.compression-threshold:1024}") int compressionThreshold) {
     this.credentials = credentials;
     this.mapper = mapper;
+    this.codecMode = codecMode;
+    this.compressionThreshold = compressionThreshold;
   }
 
   @Bean
@@ -66,6 +79,27 @@ public class CacheConfig {
     return new JdkSerializationRedisSerializer();
   }
 
+  /**
+   * <p>Serializer used for the values and hash values saved through {@link RedisTemplate}. Values are written in a compact binary
+   * format and values written in the previous JSON and JDK formats can still be read.</p>
+   * <br/>
+   *
+   * @return {@link CacheValueSerializer}
+   */
+  @Bean
+  public CacheValueSerializer cacheValueSerializer() {
+    ObjectMapper binaryMapper = CBORMapper.builder()
+            .configure(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS, true)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .configure(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE, false)
+            .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+            .configure(DeserializationFeature.READ_ENUMS_USING_TO_STRING, true)
+            .addModule(new JavaTimeModule())
+            .findAndAddModules()
+            .build();
+    return new CacheValueSerializer(binaryMapper, mapper, codecMode, compressionThreshold);
+  }
+
   @Bean
   @Primary
   public RedisTemplate<String, Object> redisTemplate(JedisConnectionFactory connectionFactory) {
@@ -73,12 +107,19 @@ public class CacheConfig {
     configurePool(connectionFactory);
     template.setConnectionFactory(connectionFactory);
     template.setKeySerializer(stringSerializer());
-    template.setValueSerializer(jackson2JsonSerializer());
-    template.setHashValueSerializer(jdkSerializer());
+    template.setValueSerializer(cacheValueSerializer());
+    template.setHashValueSerializer(cacheValueSerializer());
 
     return template;
   }
 
+  @Bean
+  public RedisMessageListenerContainer redisMessageListenerContainer(JedisConnectionFactory connectionFactory) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+    return container;
+  }
+
   private void configurePool(JedisConnectionFactory connectionFactory) {
     if (connectionFactory.getPoolConfig() != null) {
       connectionFactory.getPoolConfig().setMaxTotal(credentials.getMaxTotal());
@@ -0,0 +1,194 @@
+package com.umulam.fleen.health.configuration.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * CacheValueSerializer writes cached values in a compact binary format. Every value starts with a small header made of a marker
+ * byte, the format version, the encoding of the payload and flags. Strings are written as UTF-8 and other objects as CBOR, and
+ * payloads above the compression threshold are compressed when that makes them smaller.
+ *
+ * <p>Values written before this format was introduced are still read. These are JSON strings written by
+ * {@link GenericJackson2JsonRedisSerializer} and hash values written by {@link JdkSerializationRedisSerializer}. In
+ * {@link Mode#LEGACY} values are also written in the old JSON format so that nodes that have not been upgraded can still read them
+ * while a deployment is rolled out.</p>
+ * <br/>
+ */
+@Slf4j
+public class CacheValueSerializer implements RedisSerializer<Object> {
+
+  public enum Mode {
+    BINARY, LEGACY
+  }
+
+  static final byte MARKER = (byte) 0xF7;
+  static final byte FORMAT_VERSION = 1;
+  static final byte STRING_ENCODING = 1;
+  static final byte CBOR_ENCODING = 2;
+  static final byte COMPRESSED_FLAG = 1;
+  private static final int HEADER_LENGTH = 4;
+  private static final byte[] JDK_STREAM_MAGIC = { (byte) 0xAC, (byte) 0xED };
+
+  private final ObjectMapper binaryMapper;
+  private final ObjectMapper jsonMapper;
+  private final GenericJackson2JsonRedisSerializer legacySerializer;
+  private final JdkSerializationRedisSerializer jdkSerializer;
+  private final Mode mode;
+  private final int compressionThreshold;
+
+  public CacheValueSerializer(ObjectMapper binaryMapper, ObjectMapper jsonMapper, Mode mode, int compressionThreshold) {
+    this.binaryMapper = binaryMapper;
+    this.jsonMapper = jsonMapper;
+    this.legacySerializer = new GenericJackson2JsonRedisSerializer(jsonMapper);
+    this.jdkSerializer = new JdkSerializationRedisSerializer();
+    this.mode = mode;
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  @Override
+  public byte[] serialize(Object value) throws SerializationException {
+    if (Objects.isNull(value)) {
+      return new byte[0];
+    }
+
+    if (mode == Mode.LEGACY) {
+      return serializeLegacy(value);
+    }
+
+    if (value instanceof String) {
+      return encode(STRING_ENCODING, ((String) value).getBytes(StandardCharsets.UTF_8));
+    }
+    if (value instanceof EncodedCacheValue) {
+      return encode(CBOR_ENCODING, ((EncodedCacheValue) value).getPayload());
+    }
+
+    try {
+      return encode(CBOR_ENCODING, binaryMapper.writeValueAsBytes(value));
+    } catch (JsonProcessingException ex) {
+      throw new SerializationException("Could not write cache value", ex);
+    }
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws SerializationException {
+    if (Objects.isNull(bytes) || bytes.length == 0) {
+      return null;
+    }
+
+    if (bytes[0] == MARKER && bytes.length >= HEADER_LENGTH) {
+      return decode(bytes);
+    }
+    if (bytes.length > 1 && bytes[0] == JDK_STREAM_MAGIC[0] && bytes[1] == JDK_STREAM_MAGIC[1]) {
+      return jdkSerializer.deserialize(bytes);
+    }
+    return legacySerializer.deserialize(bytes);
+  }
+
+  private byte[] serializeLegacy(Object value) {
+    if (value instanceof String) {
+      return legacySerializer.serialize(value);
+    }
+
+    try {
+      Object content = value instanceof EncodedCacheValue
+        ? jsonMapper.writeValueAsString(((EncodedCacheValue) value).read(Object.class))
+        : jsonMapper.writeValueAsString(value);
+      return legacySerializer.serialize(content);
+    } catch (Exception ex) {
+      throw new SerializationException("Could not write cache value", ex);
+    }
+  }
+
+  private byte[] encode(byte encoding, byte[] payload) {
+    byte flags = 0;
+    if (payload.length >= compressionThreshold) {
+      byte[] compressed = compress(payload);
+      if (compressed.length < payload.length) {
+        payload = compressed;
+        flags |= COMPRESSED_FLAG;
+      }
+    }
+
+    byte[] bytes = new byte[HEADER_LENGTH + payload.length];
+    bytes[0] = MARKER;
+    bytes[1] = FORMAT_VERSION;
+    bytes[2] = encoding;
+    bytes[3] = flags;
+    System.arraycopy(payload, 0, bytes, HEADER_LENGTH, payload.length);
+    return bytes;
+  }
+
+  private Object decode(byte[] bytes) {
+    byte version = bytes[1];
+    if (version > FORMAT_VERSION) {
+      // Written by a newer node. Treating it as a miss lets the value be loaded again from its source.
+      log.warn("Skipping cache value written with unknown format version {}", version);
+      return null;
+    }
+
+    byte[] payload = Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+    if ((bytes[3] & COMPRESSED_FLAG) != 0) {
+      payload = decompress(payload);
+    }
+
+    switch (bytes[2]) {
+      case STRING_ENCODING:
+        return new String(payload, StandardCharsets.UTF_8);
+      case CBOR_ENCODING:
+        return new EncodedCacheValue(payload, binaryMapper);
+      default:
+        log.warn("Skipping cache value written with unknown encoding {}", bytes[2]);
+        return null;
+    }
+  }
+
+  private static byte[] compress(byte[] payload) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(payload);
+      deflater.finish();
+      ByteArrayOutputStream output = new ByteArrayOutputStream(payload.length / 2);
+      byte[] buffer = new byte[4096];
+      while (!deflater.finished()) {
+        output.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return output.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] decompress(byte[] payload) {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(payload);
+      ByteArrayOutputStream output = new ByteArrayOutputStream(payload.length * 4);
+      byte[] buffer = new byte[4096];
+      while (!inflater.finished()) {
+        int length = inflater.inflate(buffer);
+        if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new SerializationException("Compressed cache value is incomplete");
+        }
+        output.write(buffer, 0, length);
+      }
+      return output.toByteArray();
+    } catch (DataFormatException ex) {
+      throw new SerializationException("Could not decompress cache value", ex);
+    } finally {
+      inflater.end();
+    }
+  }
+}
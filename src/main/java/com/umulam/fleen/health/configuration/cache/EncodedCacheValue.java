@@ -0,0 +1,28 @@
+package com.umulam.fleen.health.configuration.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+
+/**
+ * EncodedCacheValue holds the binary payload of an object read from the cache store. The payload is only mapped to a type when
+ * the caller asks for it through {@link #read(Class)}, because the type is not known when the value is read from the store.
+ */
+public final class EncodedCacheValue {
+
+  private final byte[] payload;
+  private final ObjectMapper mapper;
+
+  EncodedCacheValue(byte[] payload, ObjectMapper mapper) {
+    this.payload = payload;
+    this.mapper = mapper;
+  }
+
+  public <T> T read(Class<T> type) throws IOException {
+    return mapper.readValue(payload, type);
+  }
+
+  byte[] getPayload() {
+    return payload;
+  }
+}
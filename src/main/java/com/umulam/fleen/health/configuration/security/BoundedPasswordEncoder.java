@@ -0,0 +1,110 @@
+package com.umulam.fleen.health.configuration.security;
+
+import com.umulam.fleen.health.exception.authentication.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BoundedPasswordEncoder runs BCrypt hashing and verification on a dedicated pool of a fixed size instead of on the request
+ * threads. The pool has a bounded queue so that a burst of sign-ins cannot keep every request thread busy hashing, and work that
+ * cannot be queued or does not complete in time is rejected with {@link PasswordHashingUnavailableException}.
+ *
+ * <p>Hashes written with a lower cost than the configured strength are reported through {@link #upgradeEncoding(String)} so that
+ * they can be replaced when the member next signs in. The time spent hashing and the state of the pool are recorded as metrics.</p>
+ * <br/>
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+  private static final String METRIC_NAME = "fleen.health.password.hashing";
+  private static final String EXECUTOR_NAME = "password-hashing";
+
+  private final BCryptPasswordEncoder delegate;
+  private final ThreadPoolExecutor executor;
+  private final long timeoutMillis;
+  private final Timer encodeTimer;
+  private final Timer matchesTimer;
+
+  public BoundedPasswordEncoder(int strength, int poolSize, int queueCapacity, long timeoutMillis, MeterRegistry meterRegistry) {
+    this.delegate = new BCryptPasswordEncoder(strength);
+    this.timeoutMillis = timeoutMillis;
+    this.executor = new ThreadPoolExecutor(
+      poolSize,
+      poolSize,
+      0L,
+      TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(queueCapacity),
+      new HashingThreadFactory(),
+      new ThreadPoolExecutor.AbortPolicy());
+    this.encodeTimer = Timer.builder(METRIC_NAME).tag("operation", "encode").register(meterRegistry);
+    this.matchesTimer = Timer.builder(METRIC_NAME).tag("operation", "matches").register(meterRegistry);
+    ExecutorServiceMetrics.monitor(meterRegistry, executor, EXECUTOR_NAME);
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return submit(() -> encodeTimer.recordCallable(() -> delegate.encode(rawPassword)));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return Boolean.TRUE.equals(submit(() -> matchesTimer.recordCallable(() -> delegate.matches(rawPassword, encodedPassword))));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+  }
+
+  private <T> T submit(Callable<T> task) {
+    Future<T> future;
+    try {
+      future = executor.submit(task);
+    } catch (RejectedExecutionException ex) {
+      log.warn("Password hashing queue is full with {} waiting tasks", executor.getQueue().size());
+      throw new PasswordHashingUnavailableException();
+    }
+
+    try {
+      return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException ex) {
+      future.cancel(true);
+      log.warn("Password hashing did not complete within {} ms", timeoutMillis);
+      throw new PasswordHashingUnavailableException();
+    } catch (InterruptedException ex) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new PasswordHashingUnavailableException();
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw new IllegalStateException(ex.getCause());
+    }
+  }
+
+  private static final class HashingThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, EXECUTOR_NAME + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
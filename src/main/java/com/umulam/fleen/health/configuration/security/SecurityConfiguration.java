@@ -2,7 +2,9 @@ package com.umulam.fleen.health.configuration.security;
 
 import com.umulam.fleen.health.configuration.security.provider.CustomAuthenticationProvider;
 import com.umulam.fleen.health.filter.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,7 +13,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -69,9 +70,21 @@ public class SecurityConfiguration {
     return http.build();
   }
 
+  /**
+   * <p>BCrypt encoder that hashes on a bounded pool separate from the request threads so that hashing capacity can be sized on its
+   * own. The default pool size is the number of available processors.</p>
+   * <br/>
+   *
+   * @return {@link BoundedPasswordEncoder}
+   */
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                         @Value("${fleen.health.password-hashing.strength:10}") int strength,
+                                         @Value("${fleen.health.password-hashing.pool-size:0}") int poolSize,
+                                         @Value("${fleen.health.password-hashing.queue-capacity:64}") int queueCapacity,
+                                         @Value("${fleen.health.password-hashing.timeout-millis:5000}") long timeoutMillis) {
+    int size = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+    return new BoundedPasswordEncoder(strength, size, queueCapacity, timeoutMillis, meterRegistry);
   }
 
   @Bean
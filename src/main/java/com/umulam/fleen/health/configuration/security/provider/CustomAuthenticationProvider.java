@@ -7,6 +7,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -17,11 +18,14 @@ import org.springframework.stereotype.Component;
 public class CustomAuthenticationProvider implements AuthenticationProvider {
 
   private final UserDetailsService userDetailsService;
+  private final UserDetailsPasswordService userDetailsPasswordService;
   private final PasswordEncoder passwordEncoder;
 
   public CustomAuthenticationProvider(@Lazy UserDetailsService userDetailsService,
+                                      @Lazy UserDetailsPasswordService userDetailsPasswordService,
                                       @Lazy PasswordEncoder passwordEncoder) {
     this.userDetailsService = userDetailsService;
+    this.userDetailsPasswordService = userDetailsPasswordService;
     this.passwordEncoder = passwordEncoder;
   }
 
@@ -33,6 +37,7 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
     try {
       UserDetails user = userDetailsService.loadUserByUsername(emailAddress);
       if (passwordEncoder.matches(password, user.getPassword())) {
+        upgradeEncoding(user, password);
         return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
       }
     } catch (UsernameNotFoundException ex) {
@@ -41,6 +46,26 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
     return new UsernamePasswordAuthenticationToken(emailAddress, password);
   }
 
+  /**
+   * <p>Replace the password hash with one of the configured cost if it was written with a lower cost. The raw password is only
+   * known while the member is signing in, so this is the only time the hash can be upgraded. A failure does not stop the sign in.</p>
+   * <br/>
+   *
+   * @param user the principal whose password has just been verified
+   * @param password the raw password sent by the member
+   */
+  private void upgradeEncoding(UserDetails user, String password) {
+    if (!passwordEncoder.upgradeEncoding(user.getPassword())) {
+      return;
+    }
+
+    try {
+      userDetailsPasswordService.updatePassword(user, passwordEncoder.encode(password));
+    } catch (RuntimeException ex) {
+      log.error(ex.getMessage(), ex);
+    }
+  }
+
   @Override
   public boolean supports(Class<?> authentication) {
     return authentication.equals(UsernamePasswordAuthenticationToken.class);
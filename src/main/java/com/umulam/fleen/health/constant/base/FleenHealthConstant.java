@@ -14,6 +14,10 @@ public class FleenHealthConstant {
   public static final String SIGN_OUT = "Sign out successful";
   public static final String VERIFICATION_DOCUMENT_UPDATED = "Verification documents updated";
   public static final String REQUEST_FOR_VERIFICATION = "Request for verification In Progress";
+  public static final String BUSINESS_EMPLOYEE_ADDED = "Employee added, waiting for the member to accept";
+  public static final String BUSINESS_EMPLOYEE_REMOVED = "Employee removed";
+  public static final String BUSINESS_EMPLOYMENT_ACCEPTED = "Business employment accepted";
+  public static final String BUSINESS_EMPLOYMENT_LEFT = "Business employment ended";
   public static final String FILE_NOT_FOUND = "File does not exists or cannot be found";
   public static final String SUCCESS_MESSAGE = "Success";
   public static final String PROFILE_PHOTO_UPDATED = "Profile photo updated successfully";
@@ -33,6 +37,8 @@ public class FleenHealthConstant {
   public static final String TRANSACTION_REFERENCE_PREFIX = "FLEENHEALTH-TX-";
   public static final String UNABLE_TO_COMPLETE_OPERATION = "Unable to complete operation";
   public static final String TRANSFER_NARRATION_OR_DESCRIPTION = "Transfer and Withdrawal";
+  public static final String WEBHOOK_EVENTS_REPLAYED = "Webhook events queued for replay: %s";
+  public static final int ID_SEQUENCE_ALLOCATION_SIZE = 50;
 
   public static final String RESOURCE_NOT_FOUND = "The resource you are looking for does not exists or has been moved";
 }
@@ -13,8 +13,7 @@ public final class GeneralConstant {
 
   public static final String MFA_SECRET_LABEL = "start@fleenhealth.com";
   public static final String MFA_SECRET_ISSUER = "Fleen Health";
-  public static final String AUTH_CACHE_PREFIX = "JWT_TOKEN:::";
-  public static final String AUTH_REFRESH_CACHE_PREFIX = "JWT_REFRESH_TOKEN:::";
+  public static final String AUTH_SESSION_CACHE_PREFIX = "AUTH_SESSION:::";
   public static final String RESET_PASSWORD_CACHE_PREFIX = "RESET_PASSWORD_TOKEN:::";
   public static final String MFA_SETUP_EMAIL_CACHE_PREFIX = "MFA_SETUP_EMAIL:::";
   public static final String MFA_SETUP_PHONE_CACHE_PREFIX = "MFA_SETUP_PHONE:::";
@@ -34,6 +33,17 @@ public final class GeneralConstant {
   public static final String PROFILE_VERIFICATION_MESSAGE_TEMPLATE_CACHE_PREFIX = "PROFILE_VERIFICATION_MESSAGE_TEMPLATE:::";
   public static final String COUNTRY_CACHE_PREFIX = "COUNTRY:::";
   public static final String X_FORWARDED_HEADER = "X-Forwarded-For";
-  public static final String PAYSTACK_GET_BANKS_CACHE_PREFIX = "PAYSTACK_GET_BANKS:::";
-  public static final String FLUTTERWAVE_GET_BANKS_CACHE_PREFIX = "PAYSTACK_GET_BANKS:::";
+  public static final String DEVICE_ID_HEADER_KEY = "X-Device-Id";
+  public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+  public static final String BANK_DIRECTORY_CACHE_PREFIX = "BANK_DIRECTORY:::";
+  public static final String BANK_DIRECTORY_REFRESH_LOCK_CACHE_PREFIX = "BANK_DIRECTORY_REFRESH_LOCK:::";
+  public static final String RATE_LIMIT_CACHE_PREFIX = "RATE_LIMIT:::";
+  public static final String RATE_LIMIT_COALESCE_CACHE_PREFIX = "RATE_LIMIT_COALESCE:::";
+  public static final String RECAPTCHA_ATTEMPT_CACHE_PREFIX = "RECAPTCHA_ATTEMPT:::";
+  public static final String EXCHANGE_RATE_CACHE_PREFIX = "EXCHANGE_RATE:::";
+  public static final String EXCHANGE_RATE_REFRESH_LOCK_CACHE_PREFIX = "EXCHANGE_RATE_REFRESH_LOCK:::";
+  public static final String SESSION_HOLD_CACHE_KEY = "SESSION_HOLD:::";
+  public static final String IDEMPOTENCY_CACHE_PREFIX = "IDEMPOTENCY:::";
+  public static final String PROFESSIONAL_BOOKING_SNAPSHOT_CACHE_PREFIX = "PROFESSIONAL_BOOKING_SNAPSHOT:::";
+  public static final String RETRY_BUDGET_CACHE_PREFIX = "RETRY_BUDGET:::";
 }
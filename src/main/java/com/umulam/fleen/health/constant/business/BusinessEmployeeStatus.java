@@ -0,0 +1,7 @@
+package com.umulam.fleen.health.constant.business;
+
+public enum BusinessEmployeeStatus {
+
+  PENDING,
+  ACTIVE;
+}
@@ -0,0 +1,23 @@
+package com.umulam.fleen.health.constant.externalsystem;
+
+import com.umulam.fleen.health.adapter.ExternalSystemType;
+
+public enum ExternalDependency implements ExternalSystemType {
+
+  PAYSTACK("paystack"),
+  FLUTTERWAVE("flutterwave"),
+  GOOGLE_CALENDAR("google-calendar"),
+  AWS_SES("aws-ses"),
+  AWS_SNS("aws-sns");
+
+  private final String value;
+
+  ExternalDependency(String value) {
+    this.value = value;
+  }
+
+  @Override
+  public String getValue() {
+    return value;
+  }
+}
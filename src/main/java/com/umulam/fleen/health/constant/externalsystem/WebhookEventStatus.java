@@ -0,0 +1,10 @@
+package com.umulam.fleen.health.constant.externalsystem;
+
+public enum WebhookEventStatus {
+
+  RECEIVED,
+  PROCESSING,
+  PROCESSED,
+  IGNORED,
+  FAILED;
+}
@@ -0,0 +1,14 @@
+package com.umulam.fleen.health.constant.session;
+
+public enum BatchBookingEntryStatus {
+
+  BOOKED,
+  PROFESSIONAL_NOT_FOUND,
+  PROFESSIONAL_NOT_AVAILABLE,
+  PROFESSIONAL_NOT_AVAILABLE_ON_DAY,
+  PROFESSIONAL_NOT_AVAILABLE_AT_TIME,
+  PATIENT_NOT_FOUND,
+  PATIENT_NOT_EMPLOYEE,
+  DUPLICATE_ENTRY,
+  PERIOD_ALREADY_BOOKED;
+}
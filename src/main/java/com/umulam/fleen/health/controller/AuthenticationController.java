@@ -1,5 +1,6 @@
 package com.umulam.fleen.health.controller;
 
+import com.umulam.fleen.health.aspect.RateLimit;
 import com.umulam.fleen.health.model.dto.authentication.ForgotPasswordDto;
 import com.umulam.fleen.health.model.dto.authentication.ResetPasswordDto;
 import com.umulam.fleen.health.model.dto.authentication.SignInDto;
@@ -17,6 +18,8 @@ import org.springframework.web.bind.annotation.RestController;
 
 import javax.validation.Valid;
 
+import static com.umulam.fleen.health.aspect.RateLimit.Key.IDENTIFIER;
+
 @Slf4j
 @RestController
 @RequestMapping(value = "auth")
@@ -29,21 +32,27 @@ public class AuthenticationController {
   }
 
   @PostMapping(value = "/sign-in")
+  @RateLimit(name = "sign-in-ip", limit = 30, windowSeconds = 60)
+  @RateLimit(name = "sign-in-email", limit = 5, windowSeconds = 60, keys = IDENTIFIER, identifier = "#dto.emailAddress")
   public SignInResponse signIn(@Valid @RequestBody SignInDto dto) {
     return authenticationService.signIn(dto);
   }
 
   @PostMapping(value = "/sign-up")
+  @RateLimit(name = "sign-up-ip", limit = 10, windowSeconds = 600)
   public SignUpResponse signUp(@Valid @RequestBody SignUpDto dto) {
     return authenticationService.signUp(dto);
   }
 
   @PostMapping(value = "/forgot-password")
+  @RateLimit(name = "forgot-password-ip", limit = 10, windowSeconds = 900)
+  @RateLimit(name = "forgot-password-email", limit = 3, windowSeconds = 900, keys = IDENTIFIER, identifier = "#dto.emailAddress")
   public ForgotPasswordResponse forgotPassword(@Valid @RequestBody ForgotPasswordDto dto) {
     return authenticationService.forgotPassword(dto);
   }
 
   @PostMapping(value = "/verify-reset-password-code")
+  @RateLimit(name = "verify-reset-password-code-email", limit = 5, windowSeconds = 900, keys = IDENTIFIER, identifier = "#dto.emailAddress")
   public InitiatePasswordChangeResponse verifyResetPasswordCode(@Valid @RequestBody ResetPasswordDto dto) {
     return authenticationService.validateResetPasswordCode(dto);
   }
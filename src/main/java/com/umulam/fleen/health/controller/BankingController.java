@@ -1,15 +1,21 @@
 package com.umulam.fleen.health.controller;
 
+import com.umulam.fleen.health.aspect.Idempotent;
 import com.umulam.fleen.health.model.dto.banking.AddBankAccountDto;
 import com.umulam.fleen.health.model.dto.banking.CreateWithdrawalDto;
 import com.umulam.fleen.health.model.response.FleenHealthResponse;
 import com.umulam.fleen.health.model.security.FleenUser;
 import com.umulam.fleen.health.model.view.BankAccountView;
 import com.umulam.fleen.health.service.BankingService;
+import com.umulam.fleen.health.service.external.banking.BankDirectory.BankList;
 import com.umulam.fleen.health.service.external.banking.FlutterwaveService;
 import com.umulam.fleen.health.service.external.banking.PaystackService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
@@ -37,8 +43,9 @@ public class BankingController {
   }
 
   @GetMapping(value = "/get-banks-ps")
-  public Object getBanksPs(@RequestParam(name = "currency", defaultValue = "NGN") String currency) {
-    return paystackService.getBanks(currency);
+  public ResponseEntity<byte[]> getBanksPs(@RequestParam(name = "currency", defaultValue = "NGN") String currency,
+                                           @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    return toResponse(paystackService.getBankList(currency), ifNoneMatch);
   }
 
   @GetMapping(value = "/get-supported-countries")
@@ -47,8 +54,9 @@ public class BankingController {
   }
 
   @GetMapping(value = "/get-banks-fw")
-  public Object getBanksFw(@RequestParam(name = "country", defaultValue = "NG") String country) {
-    return flutterwaveService.getBanks(country);
+  public ResponseEntity<byte[]> getBanksFw(@RequestParam(name = "country", defaultValue = "NG") String country,
+                                           @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    return toResponse(flutterwaveService.getBankList(country), ifNoneMatch);
   }
 
   @GetMapping(value = "/bank-account/entries")
@@ -85,6 +93,7 @@ public class BankingController {
     return new FleenHealthResponse(BANK_ACCOUNT_DETAILS_DELETED);
   }
 
+  @Idempotent(name = "withdraw", key = "#dto")
   @PutMapping(value = "/withdraw")
   public void withdraw(@Valid @RequestBody CreateWithdrawalDto dto, @AuthenticationPrincipal FleenUser user) {
     bankingService.createWithdrawal(dto, user);
@@ -94,4 +103,24 @@ public class BankingController {
   public Object getBanksBranchesFw(@PathVariable(name = "id") Long bankId) {
     return flutterwaveService.getBankBranches(bankId);
   }
+
+  /**
+   * <p>Return the banks as the JSON body serialized when they were fetched, or no body if the client already holds them.</p>
+   * <br/>
+   *
+   * @param banks the banks
+   * @param ifNoneMatch the If-None-Match header of the request
+   * @return the response
+   */
+  private ResponseEntity<byte[]> toResponse(BankList<?> banks, String ifNoneMatch) {
+    if (banks.matches(ifNoneMatch)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+        .eTag(banks.getETag())
+        .build();
+    }
+    return ResponseEntity.ok()
+      .eTag(banks.getETag())
+      .contentType(MediaType.APPLICATION_JSON)
+      .body(banks.getBody());
+  }
 }
@@ -2,6 +2,7 @@ package com.umulam.fleen.health.controller;
 
 import com.umulam.fleen.health.constant.verification.ProfileVerificationStatus;
 import com.umulam.fleen.health.model.domain.Business;
+import com.umulam.fleen.health.model.dto.business.AddBusinessEmployeeDto;
 import com.umulam.fleen.health.model.dto.business.UpdateBusinessDetailDto;
 import com.umulam.fleen.health.model.dto.business.UploadBusinessDocumentDto;
 import com.umulam.fleen.health.model.response.FleenHealthResponse;
@@ -10,13 +11,13 @@ import com.umulam.fleen.health.model.view.BusinessView;
 import com.umulam.fleen.health.model.view.UserVerificationStatusView;
 import com.umulam.fleen.health.service.BusinessService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 
-import static com.umulam.fleen.health.constant.base.FleenHealthConstant.REQUEST_FOR_VERIFICATION;
-import static com.umulam.fleen.health.constant.base.FleenHealthConstant.VERIFICATION_DOCUMENT_UPDATED;
+import static com.umulam.fleen.health.constant.base.FleenHealthConstant.*;
 
 @Slf4j
 @RestController
@@ -55,4 +56,32 @@ public class BusinessController {
     ProfileVerificationStatus status = businessService.checkVerificationStatus(user);
     return new UserVerificationStatusView(status.name(), status.getValue());
   }
+
+  @PreAuthorize("hasRole('BUSINESS')")
+  @PostMapping(value = "/employee/add")
+  public FleenHealthResponse addEmployee(@Valid @RequestBody AddBusinessEmployeeDto dto, @AuthenticationPrincipal FleenUser user) {
+    businessService.addEmployee(dto, user);
+    return new FleenHealthResponse(BUSINESS_EMPLOYEE_ADDED);
+  }
+
+  @PreAuthorize("hasRole('BUSINESS')")
+  @DeleteMapping(value = "/employee/remove/{memberId}")
+  public FleenHealthResponse removeEmployee(@PathVariable(name = "memberId") Long memberId, @AuthenticationPrincipal FleenUser user) {
+    businessService.removeEmployee(memberId, user);
+    return new FleenHealthResponse(BUSINESS_EMPLOYEE_REMOVED);
+  }
+
+  @PreAuthorize("hasRole('USER')")
+  @PutMapping(value = "/employment/accept/{businessId}")
+  public FleenHealthResponse acceptEmployment(@PathVariable(name = "businessId") Long businessId, @AuthenticationPrincipal FleenUser user) {
+    businessService.acceptEmployment(businessId, user);
+    return new FleenHealthResponse(BUSINESS_EMPLOYMENT_ACCEPTED);
+  }
+
+  @PreAuthorize("hasRole('USER')")
+  @DeleteMapping(value = "/employment/leave/{businessId}")
+  public FleenHealthResponse leaveEmployment(@PathVariable(name = "businessId") Long businessId, @AuthenticationPrincipal FleenUser user) {
+    businessService.leaveEmployment(businessId, user);
+    return new FleenHealthResponse(BUSINESS_EMPLOYMENT_LEFT);
+  }
 }
@@ -1,5 +1,6 @@
 package com.umulam.fleen.health.controller;
 
+import com.umulam.fleen.health.aspect.RateLimit;
 import com.umulam.fleen.health.model.response.FleenHealthResponse;
 import com.umulam.fleen.health.model.response.authentication.CreateEncodedPasswordResponse;
 import com.umulam.fleen.health.model.response.other.EntityExistsResponse;
@@ -34,6 +35,7 @@ public class FleenHealthController {
   }
 
   @GetMapping(value = "/email-address/exists")
+  @RateLimit(name = "email-address-exists-ip", limit = 30, windowSeconds = 60)
   public EntityExistsResponse emailExists(@RequestParam(name = "emailAddress") String emailAddress) {
     boolean exists = memberService.isEmailAddressExists(emailAddress);
     return new EntityExistsResponse(exists);
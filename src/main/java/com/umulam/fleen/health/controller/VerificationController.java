@@ -1,5 +1,6 @@
 package com.umulam.fleen.health.controller;
 
+import com.umulam.fleen.health.aspect.RateLimit;
 import com.umulam.fleen.health.model.dto.authentication.ChangePasswordDto;
 import com.umulam.fleen.health.model.dto.authentication.ConfirmMfaDto;
 import com.umulam.fleen.health.model.dto.authentication.ResendVerificationCodeDto;
@@ -17,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 
+import static com.umulam.fleen.health.aspect.RateLimit.Key.MEMBER;
 import static com.umulam.fleen.health.constant.base.GeneralConstant.AUTH_HEADER_KEY;
 import static com.umulam.fleen.health.constant.base.GeneralConstant.AUTH_HEADER_PREFIX;
 import static com.umulam.fleen.health.constant.base.FleenHealthConstant.PASSWORD_CHANGED_UPDATED;
@@ -40,6 +42,7 @@ public class VerificationController {
   }
 
   @PostMapping(value = "/resend-pre-verification-code")
+  @RateLimit(name = "resend-pre-verification-code", limit = 5, windowSeconds = 900, keys = MEMBER, coalesceSeconds = 60)
   @PreAuthorize("hasAnyRole('PRE_VERIFIED_USER', 'PRE_VERIFIED_PROFESSIONAL', 'PRE_VERIFIED_BUSINESS')")
   public FleenHealthResponse resendPreVerificationCode(
           @AuthenticationPrincipal FleenUser user,
@@ -64,6 +67,7 @@ public class VerificationController {
   }
 
   @PostMapping(value = "/resend-pre-authentication-code")
+  @RateLimit(name = "resend-pre-authentication-code", limit = 5, windowSeconds = 900, keys = MEMBER, coalesceSeconds = 60)
   @PreAuthorize("hasAnyRole('PRE_AUTHENTICATED_USER')")
   public FleenHealthResponse resendPreAuthenticationCode(
           @AuthenticationPrincipal FleenUser user,
@@ -0,0 +1,41 @@
+package com.umulam.fleen.health.controller.admin;
+
+import com.umulam.fleen.health.constant.externalsystem.WebhookEventStatus;
+import com.umulam.fleen.health.model.dto.admin.ReplayWebhookEventDto;
+import com.umulam.fleen.health.model.response.FleenHealthResponse;
+import com.umulam.fleen.health.service.transaction.impl.WebhookInboxService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.util.List;
+
+import static com.umulam.fleen.health.constant.base.FleenHealthConstant.WEBHOOK_EVENTS_REPLAYED;
+import static com.umulam.fleen.health.util.DateTimeUtil.toDate;
+
+@Slf4j
+@RestController
+@RequestMapping(value = "admin/webhook-event")
+public class AdminWebhookEventController {
+
+  private final WebhookInboxService webhookInboxService;
+
+  public AdminWebhookEventController(WebhookInboxService webhookInboxService) {
+    this.webhookInboxService = webhookInboxService;
+  }
+
+  @PutMapping(value = "/replay/{id}")
+  public FleenHealthResponse replayEvent(@PathVariable(name = "id") Long webhookEventId) {
+    int count = webhookInboxService.replay(List.of(webhookEventId));
+    return new FleenHealthResponse(String.format(WEBHOOK_EVENTS_REPLAYED, count));
+  }
+
+  @PutMapping(value = "/replay")
+  public FleenHealthResponse replayEvents(@Valid @RequestBody ReplayWebhookEventDto dto) {
+    int count = webhookInboxService.replay(
+      WebhookEventStatus.valueOf(dto.getStatus()),
+      toDate(dto.getFromDate()).atStartOfDay(),
+      toDate(dto.getToDate()).plusDays(1).atStartOfDay());
+    return new FleenHealthResponse(String.format(WEBHOOK_EVENTS_REPLAYED, count));
+  }
+}
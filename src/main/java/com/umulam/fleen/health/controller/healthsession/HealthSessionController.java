@@ -1,15 +1,20 @@
 package com.umulam.fleen.health.controller.healthsession;
 
+import com.umulam.fleen.health.aspect.Idempotent;
 import com.umulam.fleen.health.model.dto.healthsession.AddHealthSessionReviewDto;
+import com.umulam.fleen.health.model.dto.healthsession.BookHealthSessionBatchDto;
 import com.umulam.fleen.health.model.dto.healthsession.BookHealthSessionDto;
 import com.umulam.fleen.health.model.dto.healthsession.ReScheduleHealthSessionDto;
+import com.umulam.fleen.health.model.request.search.FreeSlotSearchRequest;
 import com.umulam.fleen.health.model.request.search.ProfessionalSearchRequest;
 import com.umulam.fleen.health.model.request.search.base.SearchRequest;
 import com.umulam.fleen.health.model.response.FleenHealthResponse;
+import com.umulam.fleen.health.model.response.healthsession.BatchHealthSessionBookingResponse;
 import com.umulam.fleen.health.model.response.healthsession.GetProfessionalBookSessionResponse;
 import com.umulam.fleen.health.model.response.healthsession.PendingHealthSessionBookingResponse;
 import com.umulam.fleen.health.model.response.healthsession.ProfessionalCheckAvailabilityResponse;
 import com.umulam.fleen.health.model.security.FleenUser;
+import com.umulam.fleen.health.model.view.healthsession.FreeSessionSlotView;
 import com.umulam.fleen.health.model.view.healthsession.HealthSessionView;
 import com.umulam.fleen.health.model.view.professional.ProfessionalViewBasic;
 import com.umulam.fleen.health.model.view.search.SearchResultView;
@@ -17,10 +22,12 @@ import com.umulam.fleen.health.resolver.SearchParam;
 import com.umulam.fleen.health.service.session.HealthSessionService;
 import com.umulam.fleen.health.service.session.PatientHealthSessionService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.util.List;
 
 import static com.umulam.fleen.health.constant.base.FleenHealthConstant.*;
 
@@ -58,11 +65,29 @@ public class HealthSessionController {
     return healthSessionService.getProfessionalBookSession(professionalId);
   }
 
+  @GetMapping(value = "/professional/free-slots/{id}")
+  public List<FreeSessionSlotView> getProfessionalFreeSlots(@PathVariable(name = "id") Long professionalId, @SearchParam FreeSlotSearchRequest searchRequest) {
+    return healthSessionService.getProfessionalFreeSlots(professionalId, searchRequest);
+  }
+
+  @GetMapping(value = "/professionals/next-free-slots")
+  public List<FreeSessionSlotView> getNextFreeSlots(@SearchParam FreeSlotSearchRequest searchRequest) {
+    return healthSessionService.getNextFreeSlots(searchRequest);
+  }
+
+  @Idempotent(name = "book-session", key = "#dto")
   @PostMapping(value = "professional/book-session")
   public PendingHealthSessionBookingResponse bookSession(@Valid @RequestBody BookHealthSessionDto dto, @AuthenticationPrincipal FleenUser user) {
     return healthSessionService.bookSession(dto, user);
   }
 
+  @Idempotent(name = "book-sessions", key = "#dto")
+  @PreAuthorize("hasRole('BUSINESS')")
+  @PostMapping(value = "professional/book-sessions")
+  public BatchHealthSessionBookingResponse bookSessions(@Valid @RequestBody BookHealthSessionBatchDto dto, @AuthenticationPrincipal FleenUser user) {
+    return healthSessionService.bookSessions(dto, user);
+  }
+
   @GetMapping(value = "/session/entries")
   public SearchResultView viewSessions(@AuthenticationPrincipal FleenUser user, @SearchParam SearchRequest searchRequest) {
     return patientHealthSessionService.viewSessions(user, searchRequest);
@@ -0,0 +1,13 @@
+package com.umulam.fleen.health.event;
+
+import lombok.*;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReferenceDataChangedEvent {
+
+  private String dataType;
+}
@@ -0,0 +1,12 @@
+package com.umulam.fleen.health.exception.authentication;
+
+import com.umulam.fleen.health.exception.base.FleenHealthException;
+
+public class PasswordHashingUnavailableException extends FleenHealthException {
+
+  private static final String message = "The service is busy. Please try again shortly";
+
+  public PasswordHashingUnavailableException() {
+    super(message);
+  }
+}
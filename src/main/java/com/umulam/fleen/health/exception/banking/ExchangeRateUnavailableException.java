@@ -0,0 +1,12 @@
+package com.umulam.fleen.health.exception.banking;
+
+import com.umulam.fleen.health.exception.base.FleenHealthException;
+
+public class ExchangeRateUnavailableException extends FleenHealthException {
+
+  private static final String message = "The exchange rate from %s to %s is not available. Please try again shortly";
+
+  public ExchangeRateUnavailableException(String fromCurrency, String toCurrency) {
+    super(String.format(message, fromCurrency, toCurrency));
+  }
+}
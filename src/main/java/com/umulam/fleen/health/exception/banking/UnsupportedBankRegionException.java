@@ -0,0 +1,14 @@
+package com.umulam.fleen.health.exception.banking;
+
+import com.umulam.fleen.health.exception.base.FleenHealthException;
+
+import java.util.Objects;
+
+public class UnsupportedBankRegionException extends FleenHealthException {
+
+  private static final String message = "Banks are not available for the provided country or currency. REGION: %s";
+
+  public UnsupportedBankRegionException(Object region) {
+    super(String.format(message, Objects.toString(region, "Unknown")));
+  }
+}
@@ -0,0 +1,10 @@
+package com.umulam.fleen.health.exception.base;
+
+public class IdempotencyKeyReusedException extends FleenHealthException {
+
+  private static final String message = "The idempotency key has already been used for a different request";
+
+  public IdempotencyKeyReusedException() {
+    super(message);
+  }
+}
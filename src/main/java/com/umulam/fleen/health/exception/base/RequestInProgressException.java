@@ -0,0 +1,10 @@
+package com.umulam.fleen.health.exception.base;
+
+public class RequestInProgressException extends FleenHealthException {
+
+  private static final String message = "A request with the same idempotency key is still being processed. Please try again shortly";
+
+  public RequestInProgressException() {
+    super(message);
+  }
+}
@@ -0,0 +1,16 @@
+package com.umulam.fleen.health.exception.base;
+
+import lombok.Getter;
+
+@Getter
+public class TooManyRequestsException extends FleenHealthException {
+
+  private static final String message = "Too many requests. Please try again in %s second(s)";
+
+  private final long retryAfterSeconds;
+
+  public TooManyRequestsException(long retryAfterSeconds) {
+    super(String.format(message, retryAfterSeconds));
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+}
@@ -0,0 +1,14 @@
+package com.umulam.fleen.health.exception.business;
+
+import com.umulam.fleen.health.exception.base.FleenHealthException;
+
+import java.util.Objects;
+
+public class BusinessEmployeeNotFoundException extends FleenHealthException {
+
+  private static final String message = "Business employee does not exists or cannot be found. ID: %s";
+
+  public BusinessEmployeeNotFoundException(Object id) {
+    super(String.format(message, Objects.toString(id, "Unknown")));
+  }
+}
@@ -0,0 +1,12 @@
+package com.umulam.fleen.health.exception.externalsystem;
+
+import com.umulam.fleen.health.exception.base.FleenHealthException;
+
+public class ExternalSystemServerException extends FleenHealthException {
+
+  private static final String message = "Error occurred while processing your request: %s";
+
+  public ExternalSystemServerException(String externalSystem) {
+    super(String.format(message, externalSystem));
+  }
+}
@@ -0,0 +1,12 @@
+package com.umulam.fleen.health.exception.externalsystem;
+
+import com.umulam.fleen.health.exception.base.FleenHealthException;
+
+public class ExternalSystemUnavailableException extends FleenHealthException {
+
+  private static final String message = "%s is not available at the moment. Please try again shortly";
+
+  public ExternalSystemUnavailableException(String externalSystem) {
+    super(String.format(message, externalSystem));
+  }
+}
@@ -2,12 +2,17 @@ package com.umulam.fleen.health.exception.handler;
 
 import com.umulam.fleen.health.exception.authentication.*;
 import com.umulam.fleen.health.exception.banking.*;
+import com.umulam.fleen.health.exception.base.IdempotencyKeyReusedException;
+import com.umulam.fleen.health.exception.base.RequestInProgressException;
 import com.umulam.fleen.health.exception.base.ResourceNotFoundException;
+import com.umulam.fleen.health.exception.base.TooManyRequestsException;
+import com.umulam.fleen.health.exception.business.BusinessEmployeeNotFoundException;
 import com.umulam.fleen.health.exception.business.BusinessNotFoundException;
 import com.umulam.fleen.health.exception.country.CountryCodeDuplicateException;
 import com.umulam.fleen.health.exception.country.CountryDuplicateException;
 import com.umulam.fleen.health.exception.country.CountryNotFoundException;
 import com.umulam.fleen.health.exception.externalsystem.ExternalSystemException;
+import com.umulam.fleen.health.exception.externalsystem.ExternalSystemUnavailableException;
 import com.umulam.fleen.health.exception.healthsession.*;
 import com.umulam.fleen.health.exception.member.*;
 import com.umulam.fleen.health.exception.memberstatus.MemberStatusCodeDuplicateException;
@@ -23,6 +28,7 @@ import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.access.AccessDeniedException;
@@ -84,6 +90,7 @@ public class FleenHealthExceptionHandler {
           RoleNotFoundException.class,
           MemberStatusNotFoundException.class,
           BusinessNotFoundException.class,
+          BusinessEmployeeNotFoundException.class,
           ProfessionalNotFoundException.class,
           MemberNotFoundException.class,
           ProfileVerificationMessageNotFoundException.class,
@@ -105,7 +112,9 @@ public class FleenHealthExceptionHandler {
           CountryCodeDuplicateException.class,
           MemberStatusCodeDuplicateException.class,
           EmailAddressAlreadyExistsException.class,
-          PhoneNumberAlreadyExistsException.class
+          PhoneNumberAlreadyExistsException.class,
+          RequestInProgressException.class,
+          IdempotencyKeyReusedException.class
   })
   public Object handleDuplicate(Exception ex) {
     log.error(ex.getMessage(), ex);
@@ -141,6 +150,7 @@ public class FleenHealthExceptionHandler {
           AddReviewAfterSessionCompleteException.class,
           ExternalSystemException.class,
           InvalidBankCodeException.class,
+          UnsupportedBankRegionException.class,
           InvalidAccountTypeCombinationException.class,
           InsufficientEarningsBalanceException.class,
           WithdrawalAmountGreaterThanEarningsBalanceException.class,
@@ -151,6 +161,15 @@ public class FleenHealthExceptionHandler {
     return buildErrorMap(ex.getMessage(), BAD_REQUEST);
   }
 
+  @ResponseStatus(value = BAD_REQUEST)
+  @ExceptionHandler(value = { HealthSessionPeriodsUnavailableException.class })
+  public Object handlePeriodsUnavailable(HealthSessionPeriodsUnavailableException ex) {
+    log.error(ex.getMessage());
+    var body = buildErrorMap(ex.getMessage(), BAD_REQUEST);
+    body.put("unavailable_periods", ex.getUnavailablePeriods());
+    return body;
+  }
+
   @ResponseStatus(value = ACCEPTED)
   @ExceptionHandler(value = {
     BankAccountAlreadyExistsException.class
@@ -181,6 +200,24 @@ public class FleenHealthExceptionHandler {
     return buildErrorMap(INVALID_USER, UNAUTHORIZED);
   }
 
+  @ResponseStatus(value = SERVICE_UNAVAILABLE)
+  @ExceptionHandler(value = {
+          PasswordHashingUnavailableException.class,
+          ExchangeRateUnavailableException.class,
+          ExternalSystemUnavailableException.class
+  })
+  public Object handleUnavailable(Exception ex) {
+    log.error(ex.getMessage(), ex);
+    return buildErrorMap(ex.getMessage(), SERVICE_UNAVAILABLE);
+  }
+
+  @ResponseStatus(value = TOO_MANY_REQUESTS)
+  @ExceptionHandler(value = { TooManyRequestsException.class })
+  public Object handleTooManyRequests(TooManyRequestsException ex, HttpServletResponse response) {
+    response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+    return buildErrorMap(ex.getMessage(), TOO_MANY_REQUESTS);
+  }
+
   @ResponseStatus(value = FORBIDDEN)
   @ExceptionHandler(value = {
           AccessDeniedException.class
@@ -0,0 +1,21 @@
+package com.umulam.fleen.health.exception.healthsession;
+
+import com.umulam.fleen.health.exception.base.FleenHealthException;
+import com.umulam.fleen.health.model.response.healthsession.UnavailableSessionPeriod;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Objects;
+
+@Getter
+public class HealthSessionPeriodsUnavailableException extends FleenHealthException {
+
+  private static final String message = "The professional %s is not available for %s of the requested session period(s)";
+
+  private final List<UnavailableSessionPeriod> unavailablePeriods;
+
+  public HealthSessionPeriodsUnavailableException(String professionalName, List<UnavailableSessionPeriod> unavailablePeriods) {
+    super(String.format(message, Objects.toString(professionalName, "Unknown").trim(), unavailablePeriods.size()));
+    this.unavailablePeriods = List.copyOf(unavailablePeriods);
+  }
+}
@@ -1,10 +1,9 @@
 package com.umulam.fleen.health.filter;
 
 import com.umulam.fleen.health.exception.authentication.InvalidAuthenticationException;
-import com.umulam.fleen.health.model.dto.authentication.JwtTokenDetails;
 import com.umulam.fleen.health.model.security.FleenUser;
-import com.umulam.fleen.health.service.MemberService;
-import com.umulam.fleen.health.service.impl.CacheService;
+import com.umulam.fleen.health.model.security.VerifiedToken;
+import com.umulam.fleen.health.service.impl.SessionIntrospectionService;
 import com.umulam.fleen.health.util.JwtProvider;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
@@ -16,7 +15,6 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -27,27 +25,22 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.Objects;
 
 import static com.umulam.fleen.health.constant.base.GeneralConstant.AUTH_HEADER_PREFIX;
-import static com.umulam.fleen.health.service.impl.AuthenticationServiceImpl.getAuthCacheKey;
 import static com.umulam.fleen.health.util.FleenAuthorities.isAuthorityWhitelisted;
 
 @Slf4j
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
   private final JwtProvider jwtProvider;
-  private final CacheService cacheService;
-  private final MemberService memberService;
+  private final SessionIntrospectionService sessionIntrospectionService;
   private final HandlerExceptionResolver resolver;
 
   public JwtAuthenticationFilter(JwtProvider jwtProvider,
-                                 CacheService cacheService,
-                                 @Lazy MemberService memberService,
+                                 SessionIntrospectionService sessionIntrospectionService,
                                  @Lazy @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver) {
     this.jwtProvider = jwtProvider;
-    this.cacheService = cacheService;
-    this.memberService = memberService;
+    this.sessionIntrospectionService = sessionIntrospectionService;
     this.resolver = handlerExceptionResolver;
   }
 
@@ -65,39 +58,31 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
       int index = AUTH_HEADER_PREFIX.length() + 1;
       final String token = header.substring(index);
 
-      String emailAddress;
+      VerifiedToken verifiedToken;
       try {
-        emailAddress = jwtProvider.getUsernameFromToken(token);
+        verifiedToken = jwtProvider.verifyToken(token);
       } catch (IllegalArgumentException | ExpiredJwtException | MalformedJwtException | SignatureException ex) {
         log.error(ex.getMessage(), ex);
         resolver.resolveException(request, response, null, ex);
         return;
       }
 
-      if (!StringUtils.isNotEmpty(emailAddress)) {
+      if (!StringUtils.isNotEmpty(verifiedToken.getSubject())) {
         filterChain.doFilter(request, response);
         return;
       }
 
       try {
         if (SecurityContextHolder.getContext().getAuthentication() == null) {
-          JwtTokenDetails details = jwtProvider.getBasicDetails(token);
-          UserDetails userDetails = FleenUser.fromToken(details);
-          String key = getAuthCacheKey(details.getSub());
-          String savedToken = (String) cacheService.get(key);
-
-          if (jwtProvider.isTokenValid(token, userDetails)) {
+          FleenUser userDetails = verifiedToken.toUser();
+          if (!verifiedToken.isExpired()) {
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
               userDetails,
               null,
               userDetails.getAuthorities());
             authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-            if (cacheService.exists(key) && Objects.nonNull(savedToken)) {
-              if (!memberService.isEmailAddressExists(userDetails.getUsername())) {
-                filterChain.doFilter(request, response);
-                return;
-              }
+            if (sessionIntrospectionService.isActiveToken(verifiedToken.getSubject(), token)) {
               SecurityContextHolder.getContext().setAuthentication(authentication);
             } else if (isAuthorityWhitelisted(userDetails.getAuthorities())) {
               SecurityContextHolder.getContext().setAuthentication(authentication);
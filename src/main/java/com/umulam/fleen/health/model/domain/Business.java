@@ -8,6 +8,8 @@ import org.hibernate.annotations.UpdateTimestamp;
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
+import static com.umulam.fleen.health.constant.base.FleenHealthConstant.ID_SEQUENCE_ALLOCATION_SIZE;
+
 @Builder
 @Getter
 @Setter
@@ -18,7 +20,8 @@ import java.time.LocalDateTime;
 public class Business {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "business_id_seq")
+  @SequenceGenerator(name = "business_id_seq", sequenceName = "business_id_seq", allocationSize = ID_SEQUENCE_ALLOCATION_SIZE)
   @Column(name = "id")
   private Long id;
 
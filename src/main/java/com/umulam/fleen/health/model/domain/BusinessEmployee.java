@@ -0,0 +1,53 @@
+package com.umulam.fleen.health.model.domain;
+
+import com.umulam.fleen.health.constant.business.BusinessEmployeeStatus;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+import static com.umulam.fleen.health.constant.base.FleenHealthConstant.ID_SEQUENCE_ALLOCATION_SIZE;
+
+/**
+ * A member a business has added as its employee. The business can only book and pay for the sessions of the member once the
+ * member has accepted.
+ */
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "business_employee", uniqueConstraints = {
+  @UniqueConstraint(columnNames = { "business_id", "member_id" })
+})
+public class BusinessEmployee {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "business_employee_id_seq")
+  @SequenceGenerator(name = "business_employee_id_seq", sequenceName = "business_employee_id_seq", allocationSize = ID_SEQUENCE_ALLOCATION_SIZE)
+  @Column(name = "id")
+  private Long id;
+
+  @ManyToOne(optional = false, fetch = FetchType.LAZY)
+  @JoinColumn(name = "business_id", referencedColumnName = "id", nullable = false)
+  private Business business;
+
+  @ManyToOne(optional = false, fetch = FetchType.LAZY)
+  @JoinColumn(name = "member_id", referencedColumnName = "id", nullable = false)
+  private Member member;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false)
+  private BusinessEmployeeStatus status;
+
+  @CreationTimestamp
+  @Column(name = "created_on", updatable = false)
+  private LocalDateTime createdOn;
+
+  @UpdateTimestamp
+  @Column(name = "updated_on")
+  private LocalDateTime updatedOn;
+}
@@ -7,6 +7,8 @@ import org.hibernate.annotations.UpdateTimestamp;
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
+import static com.umulam.fleen.health.constant.base.FleenHealthConstant.ID_SEQUENCE_ALLOCATION_SIZE;
+
 @Builder
 @Getter
 @Setter
@@ -19,7 +21,8 @@ import java.time.LocalDateTime;
 public class Country {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "country_id_seq")
+  @SequenceGenerator(name = "country_id_seq", sequenceName = "country_id_seq", allocationSize = ID_SEQUENCE_ALLOCATION_SIZE)
   @Column(name = "id")
   private Long id;
 
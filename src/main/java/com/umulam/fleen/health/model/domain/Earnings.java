@@ -8,6 +8,8 @@ import javax.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import static com.umulam.fleen.health.constant.base.FleenHealthConstant.ID_SEQUENCE_ALLOCATION_SIZE;
+
 @Builder
 @Getter
 @Setter
@@ -18,7 +20,8 @@ import java.time.LocalDateTime;
 public class Earnings {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "earnings_id_seq")
+  @SequenceGenerator(name = "earnings_id_seq", sequenceName = "earnings_id_seq", allocationSize = ID_SEQUENCE_ALLOCATION_SIZE)
   @Column(name = "id")
   private Long id;
 
@@ -12,6 +12,8 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.TimeZone;
 
+import static com.umulam.fleen.health.constant.base.FleenHealthConstant.ID_SEQUENCE_ALLOCATION_SIZE;
+
 @Builder
 @Getter
 @Setter
@@ -26,7 +28,8 @@ import java.util.TimeZone;
 public class HealthSession {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "health_session_id_seq")
+  @SequenceGenerator(name = "health_session_id_seq", sequenceName = "health_session_id_seq", allocationSize = ID_SEQUENCE_ALLOCATION_SIZE)
   @Column(name = "id")
   private Long id;
 
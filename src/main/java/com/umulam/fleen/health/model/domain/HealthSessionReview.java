@@ -7,6 +7,8 @@ import org.hibernate.annotations.CreationTimestamp;
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
+import static com.umulam.fleen.health.constant.base.FleenHealthConstant.ID_SEQUENCE_ALLOCATION_SIZE;
+
 @Builder
 @Getter
 @Setter
@@ -17,7 +19,8 @@ import java.time.LocalDateTime;
 public class HealthSessionReview {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "health_session_review_id_seq")
+  @SequenceGenerator(name = "health_session_review_id_seq", sequenceName = "health_session_review_id_seq", allocationSize = ID_SEQUENCE_ALLOCATION_SIZE)
   @Column(name = "id")
   private Long id;
 
@@ -1,11 +1,14 @@
 package com.umulam.fleen.health.model.domain;
 
 import com.umulam.fleen.health.constant.professional.AvailabilityDayOfTheWeek;
+import com.umulam.fleen.health.util.WeeklyAvailability;
 import lombok.*;
 
 import javax.persistence.*;
 import java.time.LocalTime;
 
+import static com.umulam.fleen.health.constant.base.FleenHealthConstant.ID_SEQUENCE_ALLOCATION_SIZE;
+
 @Builder
 @Getter
 @Setter
@@ -16,7 +19,8 @@ import java.time.LocalTime;
 public class ProfessionalAvailability {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "professional_availability_id_seq")
+  @SequenceGenerator(name = "professional_availability_id_seq", sequenceName = "professional_availability_id_seq", allocationSize = ID_SEQUENCE_ALLOCATION_SIZE)
   @Column(name = "id")
   private Long id;
 
@@ -37,4 +41,8 @@ public class ProfessionalAvailability {
   public boolean isTimeInRange(LocalTime time) {
     return (time.equals(startTime) || time.isAfter(startTime)) && time.isBefore(endTime);
   }
+
+  public WeeklyAvailability.Period toPeriod() {
+    return new WeeklyAvailability.Period(dayOfWeek, startTime, endTime);
+  }
 }
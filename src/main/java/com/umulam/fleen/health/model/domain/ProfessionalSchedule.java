@@ -0,0 +1,41 @@
+package com.umulam.fleen.health.model.domain;
+
+import com.umulam.fleen.health.util.WeeklyAvailability;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "professional_schedule")
+public class ProfessionalSchedule {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id")
+  private Long id;
+
+  @OneToOne(optional = false, fetch = FetchType.LAZY)
+  @JoinColumn(name = "member_id", referencedColumnName = "id", unique = true)
+  private Member member;
+
+  @Column(name = "availability", nullable = false, length = WeeklyAvailability.SIZE_IN_BYTES)
+  private byte[] availability;
+
+  @Column(name = "period_count", nullable = false)
+  private Integer periodCount;
+
+  @UpdateTimestamp
+  @Column(name = "updated_on")
+  private LocalDateTime updatedOn;
+
+  public WeeklyAvailability getWeeklyAvailability() {
+    return WeeklyAvailability.fromBytes(availability);
+  }
+}
@@ -10,6 +10,8 @@ import org.hibernate.annotations.CreationTimestamp;
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
+import static com.umulam.fleen.health.constant.base.FleenHealthConstant.ID_SEQUENCE_ALLOCATION_SIZE;
+
 @Getter
 @Setter
 @AllArgsConstructor
@@ -19,7 +21,8 @@ import java.time.LocalDateTime;
 public class ProfileVerificationHistory {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "profile_verification_history_id_seq")
+  @SequenceGenerator(name = "profile_verification_history_id_seq", sequenceName = "profile_verification_history_id_seq", allocationSize = ID_SEQUENCE_ALLOCATION_SIZE)
   @Column(name = "id")
   private Long id;
 
@@ -0,0 +1,69 @@
+package com.umulam.fleen.health.model.domain;
+
+import com.umulam.fleen.health.constant.authentication.PaymentGatewayType;
+import com.umulam.fleen.health.constant.externalsystem.WebhookEventStatus;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+import static com.umulam.fleen.health.constant.base.FleenHealthConstant.ID_SEQUENCE_ALLOCATION_SIZE;
+
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "webhook_event", uniqueConstraints = @UniqueConstraint(columnNames = {"gateway", "event_id"}))
+public class WebhookEvent {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "webhook_event_id_seq")
+  @SequenceGenerator(name = "webhook_event_id_seq", sequenceName = "webhook_event_id_seq", allocationSize = ID_SEQUENCE_ALLOCATION_SIZE)
+  @Column(name = "id")
+  private Long id;
+
+  @Column(name = "gateway", nullable = false)
+  @Enumerated(EnumType.STRING)
+  private PaymentGatewayType gateway;
+
+  @Column(name = "event_id", nullable = false, length = 200)
+  private String eventId;
+
+  @Column(name = "event_type", length = 100)
+  private String eventType;
+
+  @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+  private String payload;
+
+  @Column(name = "status", nullable = false)
+  @Enumerated(EnumType.STRING)
+  private WebhookEventStatus status;
+
+  @Column(name = "attempts", nullable = false)
+  private Integer attempts;
+
+  @Column(name = "last_error", length = 1000)
+  private String lastError;
+
+  @Column(name = "claim_token", length = 36)
+  private String claimToken;
+
+  @Column(name = "available_on", nullable = false)
+  private LocalDateTime availableOn;
+
+  @Column(name = "processed_on")
+  private LocalDateTime processedOn;
+
+  @CreationTimestamp
+  @Column(name = "created_on", updatable = false)
+  private LocalDateTime createdOn;
+
+  @UpdateTimestamp
+  @Column(name = "updated_on")
+  private LocalDateTime updatedOn;
+
+}
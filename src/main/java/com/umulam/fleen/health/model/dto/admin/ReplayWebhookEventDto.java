@@ -0,0 +1,31 @@
+package com.umulam.fleen.health.model.dto.admin;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.umulam.fleen.health.constant.externalsystem.WebhookEventStatus;
+import com.umulam.fleen.health.validator.DateValid;
+import com.umulam.fleen.health.validator.EnumValid;
+import lombok.*;
+
+import javax.validation.constraints.NotNull;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayWebhookEventDto {
+
+  @NotNull(message = "{webhookEvent.status.notNull}")
+  @EnumValid(enumClass = WebhookEventStatus.class, message = "{webhookEvent.status.type}")
+  private String status;
+
+  @NotNull(message = "{webhookEvent.fromDate.notNull}")
+  @DateValid(message = "{webhookEvent.fromDate.valid}")
+  @JsonProperty("from_date")
+  private String fromDate;
+
+  @NotNull(message = "{webhookEvent.toDate.notNull}")
+  @DateValid(message = "{webhookEvent.toDate.valid}")
+  @JsonProperty("to_date")
+  private String toDate;
+}
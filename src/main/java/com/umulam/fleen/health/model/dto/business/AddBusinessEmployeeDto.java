@@ -0,0 +1,20 @@
+package com.umulam.fleen.health.model.dto.business;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.umulam.fleen.health.validator.EmailValid;
+import lombok.*;
+
+import javax.validation.constraints.NotNull;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AddBusinessEmployeeDto {
+
+  @NotNull(message = "{business.employee.notNull}")
+  @EmailValid(message = "{business.employee.email}")
+  @JsonProperty("email_address")
+  private String emailAddress;
+}
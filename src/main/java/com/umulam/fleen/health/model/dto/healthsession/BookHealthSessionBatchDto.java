@@ -0,0 +1,79 @@
+package com.umulam.fleen.health.model.dto.healthsession;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.umulam.fleen.health.constant.session.SessionLocation;
+import com.umulam.fleen.health.validator.*;
+import lombok.*;
+import org.hibernate.validator.constraints.URL;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookHealthSessionBatchDto {
+
+  @Valid
+  @NotEmpty(message = "{session.entries.notEmpty}")
+  @Size(min = 1, max = 500, message = "{session.entries.size}")
+  private List<SessionEntry> entries;
+
+  @Builder.Default
+  @EnumValid(enumClass = SessionLocation.class, message = "{session.location.valid}")
+  private String location = SessionLocation.REMOTE.name();
+
+  /**
+   * The timezone the dates and times of the entries are in, which is the timezone sessions are booked in if it is not given.
+   */
+  @TimezoneValid(message = "{session.timezone.valid}")
+  private String timezone;
+
+  @Getter
+  @Setter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class SessionEntry {
+
+    @NotNull(message = "{session.professional.notNull}")
+    @IsNumber(message = "{session.professional.isNumber}")
+    private String professional;
+
+    @NotNull(message = "{session.patient.notNull}")
+    @EmailValid(message = "{session.patient.email}")
+    @JsonProperty("patient_email_address")
+    private String patientEmailAddress;
+
+    @NotNull(message = "{session.date.notNull}")
+    @DateValid(message = "{session.date.valid}")
+    @Future
+    private String date;
+
+    @NotNull(message = "{session.time.notNull}")
+    @TimeValid(message = "{session.time.valid}")
+    @WorkingHour(message = "{session.time.workingHour}")
+    private String time;
+
+    @Size(max = 1000, message = "{session.comment.size}")
+    private String comment;
+
+    @URL(message = "{session.document.isUrl}")
+    @Size(max = 500, message = "{session.document.size}")
+    private String document;
+
+    @JsonIgnore
+    public Long getProfessionalMemberId() {
+      try {
+        return Long.valueOf(professional);
+      } catch (NumberFormatException ex) {
+        return null;
+      }
+    }
+  }
+}
@@ -2,6 +2,7 @@ package com.umulam.fleen.health.model.dto.professional;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.umulam.fleen.health.constant.professional.AvailabilityDayOfTheWeek;
+import com.umulam.fleen.health.util.WeeklyAvailability;
 import com.umulam.fleen.health.validator.*;
 import lombok.*;
 
@@ -33,6 +34,7 @@ public class UpdateProfessionalAvailabilityDto {
   @Setter
   @NoArgsConstructor
   @AllArgsConstructor
+  @ValidAvailabilityPeriod(message = "{period.endTime.afterStartTime}")
   public static class AvailabilityPeriod {
 
     @NotNull(message = "{period.dayOfTheWeek.notNull}")
@@ -75,6 +77,10 @@ public class UpdateProfessionalAvailabilityDto {
       return Objects.hash(dayOfTheWeek, startTime, endTime);
     }
 
+    public WeeklyAvailability.Period toPeriod() {
+      return new WeeklyAvailability.Period(AvailabilityDayOfTheWeek.valueOf(dayOfTheWeek), toTime(startTime), toTime(endTime));
+    }
+
     public boolean overlapsWith(AvailabilityPeriod otherEntry) {
       return Objects.equals(dayOfTheWeek, otherEntry.dayOfTheWeek) &&
         Objects.requireNonNull(toTime(startTime)).isBefore(toTime(otherEntry.endTime)) &&
@@ -0,0 +1,22 @@
+package com.umulam.fleen.health.model.event.base;
+
+import com.umulam.fleen.health.constant.authentication.PaymentGatewayType;
+import lombok.*;
+
+/**
+ * A webhook event of a payment gateway read into the payload type of its gateway and event type, with the status of its charge as
+ * confirmed by the gateway, so that the event can be completed without calling the gateway again. An event of a type that is not
+ * handled has neither a payment nor a transfer.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class VerifiedWebhookEvent {
+
+  private PaymentGatewayType gateway;
+  private InternalPaymentValidation payment;
+  private boolean paymentSuccessful;
+  private WithdrawalTransferValidation transfer;
+}
@@ -2,6 +2,7 @@ package com.umulam.fleen.health.model.mapper;
 
 import com.umulam.fleen.health.model.domain.ProfessionalAvailability;
 import com.umulam.fleen.health.model.view.ProfessionalAvailabilityView;
+import com.umulam.fleen.health.util.WeeklyAvailability;
 
 import java.util.Collections;
 import java.util.List;
@@ -33,4 +34,15 @@ public class ProfessionalAvailabilityMapper {
     }
     return Collections.emptyList();
   }
+
+  public static List<ProfessionalAvailabilityView> toProfessionalAvailabilityViews(WeeklyAvailability availability) {
+    return availability.toPeriods()
+            .stream()
+            .map(period -> ProfessionalAvailabilityView.builder()
+              .dayOfTheWeek(period.getDayOfWeek().name())
+              .startTime(period.getStartTime())
+              .endTime(period.getEndTime())
+              .build())
+            .collect(Collectors.toList());
+  }
 }
@@ -0,0 +1,24 @@
+package com.umulam.fleen.health.model.request.search;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FreeSlotSearchRequest extends ProfessionalSearchRequest {
+
+  private String timezone;
+
+  @JsonProperty("slot_count")
+  private Integer slotCount;
+
+  @JsonProperty("days")
+  private Integer numberOfDays;
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import org.springframework.http.HttpStatus;
 
 import java.time.LocalDateTime;
@@ -11,6 +12,7 @@ import java.time.LocalDateTime;
 import static com.umulam.fleen.health.util.DateFormatUtil.DATE_TIME;
 
 @Getter
+@NoArgsConstructor
 @AllArgsConstructor
 public class FleenHealthResponse {
 
@@ -0,0 +1,20 @@
+package com.umulam.fleen.health.model.response.banking;
+
+import lombok.*;
+
+/**
+ * The banks of a payment gateway for a country or currency as shared between the nodes through the cache store. The banks are kept
+ * as the JSON array returned to clients, with the version the node that fetched them gave them and the time in epoch milliseconds
+ * they were fetched.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BankListRecord {
+
+  private Long version;
+  private Long fetchedAt;
+  private String banks;
+}
@@ -0,0 +1,20 @@
+package com.umulam.fleen.health.model.response.banking;
+
+import lombok.*;
+
+/**
+ * The amount of the source currency that buys a single unit of the destination currency, and the time in epoch milliseconds it
+ * was got from the provider.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeRate {
+
+  private String sourceCurrency;
+  private String destinationCurrency;
+  private Double rate;
+  private Long fetchedAt;
+}
@@ -0,0 +1,75 @@
+package com.umulam.fleen.health.model.response.healthsession;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.umulam.fleen.health.constant.session.BatchBookingEntryStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.umulam.fleen.health.util.DateFormatUtil.DATE_TIME;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchHealthSessionBookingResponse {
+
+  @JsonProperty("transaction_reference")
+  private String transactionReference;
+
+  private String timezone;
+
+  @JsonProperty("booked_count")
+  private int bookedCount;
+
+  @JsonProperty("rejected_count")
+  private int rejectedCount;
+
+  @JsonProperty("total_price")
+  private Double totalPrice;
+
+  @JsonProperty("professional_price_currency")
+  private String professionalPriceCurrency;
+
+  @JsonProperty("actual_price_to_pay")
+  private Double actualPriceToPay;
+
+  @JsonProperty("actual_price_currency")
+  private String actualPriceCurrency;
+
+  private List<EntryOutcome> entries;
+
+  @Builder
+  @Getter
+  @Setter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class EntryOutcome {
+
+    private int index;
+
+    private String professional;
+
+    @JsonProperty("patient_email_address")
+    private String patientEmailAddress;
+
+    private BatchBookingEntryStatus status;
+
+    @JsonProperty("session_reference")
+    private String sessionReference;
+
+    @JsonProperty("professional_price")
+    private Double professionalPrice;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_TIME)
+    @JsonProperty("start_date")
+    private LocalDateTime startDate;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_TIME)
+    @JsonProperty("end_date")
+    private LocalDateTime endDate;
+  }
+}
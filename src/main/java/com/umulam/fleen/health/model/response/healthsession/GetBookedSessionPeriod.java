@@ -0,0 +1,16 @@
+package com.umulam.fleen.health.model.response.healthsession;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * The start of a session that is still taking up a period of a professional.
+ */
+public interface GetBookedSessionPeriod {
+
+  Long getProfessionalMemberId();
+
+  LocalDate getDate();
+
+  LocalTime getTime();
+}
@@ -0,0 +1,13 @@
+package com.umulam.fleen.health.model.response.healthsession;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booking whose payment has not been confirmed and the time its first transaction was created.
+ */
+public interface GetPendingSessionHold {
+
+  String getGroupTransactionReference();
+
+  LocalDateTime getCreatedOn();
+}
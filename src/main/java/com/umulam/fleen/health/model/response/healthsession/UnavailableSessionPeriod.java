@@ -0,0 +1,27 @@
+package com.umulam.fleen.health.model.response.healthsession;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static com.umulam.fleen.health.util.DateFormatUtil.DATE;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnavailableSessionPeriod {
+
+  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE)
+  private LocalDate date;
+
+  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm")
+  private LocalTime time;
+
+  @JsonProperty("booked_by_you")
+  private boolean bookedByYou;
+}
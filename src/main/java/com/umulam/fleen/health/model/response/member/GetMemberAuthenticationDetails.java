@@ -0,0 +1,32 @@
+package com.umulam.fleen.health.model.response.member;
+
+import com.umulam.fleen.health.constant.authentication.MfaType;
+
+/**
+ * One row of the authentication read of a member. A row is returned for every role of the member, so the member details repeat
+ * and only {@link #getRoleCode()} differs between rows.
+ */
+public interface GetMemberAuthenticationDetails {
+
+  Long getId();
+
+  String getEmailAddress();
+
+  String getPhoneNumber();
+
+  String getPassword();
+
+  String getFirstName();
+
+  String getLastName();
+
+  String getProfilePhoto();
+
+  Boolean getMfaEnabled();
+
+  MfaType getMfaType();
+
+  String getStatusCode();
+
+  String getRoleCode();
+}
@@ -4,6 +4,7 @@ import com.umulam.fleen.health.constant.authentication.MfaType;
 import com.umulam.fleen.health.model.domain.Member;
 import com.umulam.fleen.health.model.domain.Role;
 import com.umulam.fleen.health.model.dto.authentication.JwtTokenDetails;
+import com.umulam.fleen.health.model.response.member.GetMemberAuthenticationDetails;
 import lombok.*;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -62,6 +63,41 @@ public class FleenUser implements UserDetails {
     return user;
   }
 
+  /**
+   * <p>Build the principal from the rows of the authentication read of a member. Every row holds the same member details and one
+   * role of the member.</p>
+   * <br/>
+   *
+   * @param details the rows returned for the member, there must be at least one
+   * @return the principal of the member
+   */
+  public static FleenUser fromAuthenticationDetails(List<GetMemberAuthenticationDetails> details) {
+    GetMemberAuthenticationDetails member = details.get(0);
+    List<String> roles = details
+            .stream()
+            .map(GetMemberAuthenticationDetails::getRoleCode)
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList());
+    List<GrantedAuthority> authorities = buildAuthorities(roles);
+
+    var user = FleenUser.builder()
+            .id(member.getId())
+            .emailAddress(member.getEmailAddress())
+            .phoneNumber(member.getPhoneNumber())
+            .password(member.getPassword())
+            .authorities(authorities)
+            .status(member.getStatusCode())
+            .build();
+
+    user.setFirstName(member.getFirstName());
+    user.setLastName(member.getLastName());
+    user.setProfilePhoto(member.getProfilePhoto());
+    user.setMfaEnabled(Boolean.TRUE.equals(member.getMfaEnabled()));
+    user.setMfaType(member.getMfaType());
+    return user;
+  }
+
   public static FleenUser fromMemberBasic(Member member) {
     var user = FleenUser.builder()
             .id(member.getId())
@@ -0,0 +1,95 @@
+package com.umulam.fleen.health.model.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static com.umulam.fleen.health.constant.base.GeneralConstant.*;
+import static com.umulam.fleen.health.util.FleenAuthorities.buildAuthorities;
+
+/**
+ * VerifiedToken holds the claims of a JWT whose signature has already been checked. The claims are read once when the
+ * token is parsed so that the authentication filter and other consumers do not have to parse and verify the same
+ * token again for each detail they need.
+ */
+@Getter
+public final class VerifiedToken {
+
+  private static final String CLAIMS_STATUS_KEY = "status";
+  private static final String CLAIMS_FIRST_NAME_KEY = "firstName";
+  private static final String CLAIMS_LAST_NAME_KEY = "lastName";
+  private static final String CLAIMS_PHONE_NUMBER_KEY = "phoneNumber";
+
+  private final String subject;
+  private final Long userId;
+  private final List<GrantedAuthority> authorities;
+  private final String status;
+  private final String firstName;
+  private final String lastName;
+  private final String phoneNumber;
+  private final String tokenType;
+  private final String authenticationStatus;
+  private final Date expiration;
+
+  private VerifiedToken(Claims claims) {
+    this.subject = claims.getSubject();
+    this.userId = toLong(claims.get(CLAIMS_USER_ID_KEY));
+    this.authorities = List.copyOf(buildAuthorities(toStringList(claims.get(CLAIMS_AUTHORITY_KEY))));
+    this.status = claims.get(CLAIMS_STATUS_KEY, String.class);
+    this.firstName = claims.get(CLAIMS_FIRST_NAME_KEY, String.class);
+    this.lastName = claims.get(CLAIMS_LAST_NAME_KEY, String.class);
+    this.phoneNumber = claims.get(CLAIMS_PHONE_NUMBER_KEY, String.class);
+    this.tokenType = Objects.toString(claims.get(TOKEN_TYPE_KEY), null);
+    this.authenticationStatus = claims.get(AUTHENTICATION_STATUS_KEY, String.class);
+    this.expiration = claims.getExpiration();
+  }
+
+  public static VerifiedToken of(Claims claims) {
+    return new VerifiedToken(claims);
+  }
+
+  public boolean isExpired() {
+    return Objects.nonNull(expiration) && expiration.getTime() < System.currentTimeMillis();
+  }
+
+  /**
+   * Build the principal that is associated with the authentication context. A new instance is returned on each call because
+   * {@link FleenUser} is mutable and a verified token can be shared by requests that are running concurrently.
+   *
+   * @return {@link FleenUser} the principal described by the token
+   */
+  public FleenUser toUser() {
+    return FleenUser
+            .builder()
+            .emailAddress(subject)
+            .authorities(authorities)
+            .id(userId)
+            .status(status)
+            .build();
+  }
+
+  public Collection<? extends GrantedAuthority> getAuthorities() {
+    return authorities;
+  }
+
+  private static Long toLong(Object value) {
+    return value instanceof Number ? ((Number) value).longValue() : null;
+  }
+
+  private static List<String> toStringList(Object value) {
+    if (value instanceof Collection) {
+      return ((Collection<?>) value)
+              .stream()
+              .filter(Objects::nonNull)
+              .map(Object::toString)
+              .collect(Collectors.toList());
+    }
+    return List.of();
+  }
+}
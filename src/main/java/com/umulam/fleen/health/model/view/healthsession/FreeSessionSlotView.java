@@ -0,0 +1,33 @@
+package com.umulam.fleen.health.model.view.healthsession;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+import static com.umulam.fleen.health.util.DateFormatUtil.DATE_TIME;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FreeSessionSlotView {
+
+  @JsonProperty("professional_id")
+  private Long professionalId;
+
+  @JsonProperty("professional_name")
+  private String professionalName;
+
+  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_TIME)
+  @JsonProperty("start_date")
+  private LocalDateTime startDate;
+
+  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_TIME)
+  @JsonProperty("end_date")
+  private LocalDateTime endDate;
+
+  private String timezone;
+}
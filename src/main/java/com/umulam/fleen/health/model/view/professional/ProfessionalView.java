@@ -42,6 +42,12 @@ public class ProfessionalView extends FleenHealthView {
   @JsonProperty("price")
   private Double price;
 
+  @JsonProperty("price_in_payment_currency")
+  private Double priceInPaymentCurrency;
+
+  @JsonProperty("payment_currency")
+  private String paymentCurrency;
+
   private MemberView member;
   private CountryView country;
 
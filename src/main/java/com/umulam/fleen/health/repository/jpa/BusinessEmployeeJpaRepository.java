@@ -0,0 +1,26 @@
+package com.umulam.fleen.health.repository.jpa;
+
+import com.umulam.fleen.health.constant.business.BusinessEmployeeStatus;
+import com.umulam.fleen.health.model.domain.BusinessEmployee;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
+public interface BusinessEmployeeJpaRepository extends JpaRepository<BusinessEmployee, Long> {
+
+  @Query("SELECT be.member.id FROM BusinessEmployee be WHERE be.business.member.id = :businessMemberId AND be.member.id IN (:memberIds) AND be.status = :status")
+  Set<Long> findEmployeeMemberIds(@Param("businessMemberId") Long businessMemberId, @Param("memberIds") Collection<Long> memberIds,
+                                  @Param("status") BusinessEmployeeStatus status);
+
+  @Query("SELECT be FROM BusinessEmployee be WHERE be.business.id = :businessId AND be.member.id = :memberId")
+  Optional<BusinessEmployee> findByBusinessAndMember(@Param("businessId") Long businessId, @Param("memberId") Long memberId);
+
+  @Modifying
+  @Query("DELETE FROM BusinessEmployee be WHERE be.business.id = :businessId AND be.member.id = :memberId")
+  int deleteByBusinessAndMember(@Param("businessId") Long businessId, @Param("memberId") Long memberId);
+}
@@ -4,9 +4,13 @@ import com.umulam.fleen.health.model.domain.Earnings;
 import com.umulam.fleen.health.model.domain.Member;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface EarningsJpaRepository extends JpaRepository<Earnings, Long> {
 
   Optional<Earnings> findByMember(Member member);
+
+  List<Earnings> findByMemberIn(Collection<Member> members);
 }
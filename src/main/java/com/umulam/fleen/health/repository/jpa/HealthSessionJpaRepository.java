@@ -2,8 +2,10 @@ package com.umulam.fleen.health.repository.jpa;
 
 import com.umulam.fleen.health.constant.base.ProfileType;
 import com.umulam.fleen.health.constant.session.HealthSessionStatus;
+import com.umulam.fleen.health.constant.session.TransactionStatus;
 import com.umulam.fleen.health.model.domain.HealthSession;
 import com.umulam.fleen.health.model.domain.Member;
+import com.umulam.fleen.health.model.response.healthsession.GetBookedSessionPeriod;
 import com.umulam.fleen.health.model.response.healthsession.GetUpdateHealthSessionNote;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -14,13 +16,22 @@ import org.springframework.data.repository.query.Param;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface HealthSessionJpaRepository extends JpaRepository<HealthSession, Long> {
 
+  /**
+   * The first key of the advisory locks taken on the sessions of a professional, whose second key is the ID of the professional.
+   * Locks with two keys never conflict with the locks taken with a single key, like the lock of {@code IdSequenceMigration}.
+   */
+  int BOOKING_LOCK_NAMESPACE = 1001;
+
   Optional<HealthSession> findByReference(String reference);
 
+  List<HealthSession> findByReferenceIn(Collection<String> references);
+
   Optional<HealthSession> findByPatientAndId(Member member, Long healthSessionId);
 
   List<HealthSession> findByProfessionalAndDateAfter(Member member, LocalDate date);
@@ -56,6 +67,49 @@ public interface HealthSessionJpaRepository extends JpaRepository<HealthSession,
   @Query(value ="SELECT note AS note, professional_id AS professionalId FROM health_session WHERE id = :healthSessionId", nativeQuery = true)
   Optional<GetUpdateHealthSessionNote> getUpdateHealthSessionNote(@Param("healthSessionId") Long healthSessionId);
 
+  @Query(value = "SELECT hs FROM HealthSession hs JOIN FETCH hs.patient WHERE hs.professional.id = :professionalId AND hs.date IN (:dates) AND hs.status IN (:statuses)")
+  List<HealthSession> findByProfessionalAndDatesAndStatuses(@Param("professionalId") Long professionalId, @Param("dates") Collection<LocalDate> dates,
+                                                            @Param("statuses") Collection<HealthSessionStatus> statuses);
+
+  @Query(value = "SELECT hs.professional.id AS professionalMemberId, hs.date AS date, hs.time AS time FROM HealthSession hs " +
+    "WHERE hs.status IN (:statuses) AND hs.date >= :fromDate")
+  List<GetBookedSessionPeriod> findBookedSessionPeriods(@Param("statuses") Collection<HealthSessionStatus> statuses, @Param("fromDate") LocalDate fromDate);
+
+  @Query(value = "SELECT hs.professional.id AS professionalMemberId, hs.date AS date, hs.time AS time FROM HealthSession hs " +
+    "WHERE hs.professional.id = :professionalId AND hs.status IN (:statuses) AND hs.date >= :fromDate")
+  List<GetBookedSessionPeriod> findBookedSessionPeriodsByProfessional(@Param("professionalId") Long professionalId, @Param("statuses") Collection<HealthSessionStatus> statuses,
+                                                                     @Param("fromDate") LocalDate fromDate);
+
+  @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(" + BOOKING_LOCK_NAMESPACE + ", " +
+    "CAST(MOD(:professionalId, 2147483647) AS integer))) AS booking_lock", nativeQuery = true)
+  Integer lockProfessionalSessions(@Param("professionalId") Long professionalId);
+
+  /**
+   * Take the same lock as {@link #lockProfessionalSessions(Long)} for several professionals in a single statement. The locks are
+   * taken in order of ID so that two bookings locking the same professionals cannot wait on each other.
+   */
+  @Query(value = "SELECT count(*) FROM (SELECT pg_advisory_xact_lock(" + BOOKING_LOCK_NAMESPACE + ", " +
+    "CAST(MOD(ordered.id, 2147483647) AS integer)) FROM " +
+    "(SELECT id FROM member WHERE id IN (:professionalIds) ORDER BY id) AS ordered) AS booking_locks", nativeQuery = true)
+  Long lockProfessionalsSessions(@Param("professionalIds") Collection<Long> professionalIds);
+
+  @Query(value = "SELECT hs.professional.id AS professionalMemberId, hs.date AS date, hs.time AS time FROM HealthSession hs " +
+    "WHERE hs.professional.id IN (:professionalIds) AND hs.date IN (:dates) AND hs.status IN (:statuses)")
+  List<GetBookedSessionPeriod> findBookedSessionPeriodsByProfessionalsAndDates(@Param("professionalIds") Collection<Long> professionalIds,
+                                                                              @Param("dates") Collection<LocalDate> dates,
+                                                                              @Param("statuses") Collection<HealthSessionStatus> statuses);
+
   List<HealthSession> findByStatusOrStatusAndDate(HealthSessionStatus status, HealthSessionStatus status1, LocalDate date);
 
+  /**
+   * Find the sessions that have been paid for and have no meeting yet, from a date on, like the sessions whose meeting could not be
+   * created when they were paid.
+   */
+  @Query(value = "SELECT hs FROM HealthSession hs JOIN FETCH hs.patient JOIN FETCH hs.professional WHERE hs.status = :status " +
+    "AND hs.eventReferenceOrId IS NULL AND hs.date >= :from AND EXISTS (SELECT st.id FROM SessionTransaction st " +
+    "WHERE st.sessionReference = hs.reference AND st.status = :transactionStatus) ORDER BY hs.date, hs.time")
+  List<HealthSession> findPaidWithoutMeeting(@Param("status") HealthSessionStatus status,
+                                             @Param("transactionStatus") TransactionStatus transactionStatus,
+                                             @Param("from") LocalDate from, Pageable pageable);
+
 }
@@ -11,6 +11,9 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
+import java.util.Optional;
+
 public interface HealthSessionProfessionalJpaRepository extends JpaRepository<Professional, Long> {
 
   @Query(
@@ -34,4 +37,11 @@ public interface HealthSessionProfessionalJpaRepository extends JpaRepository<Pr
 
   @Query(value = "SELECT p FROM Professional p WHERE p.availabilityStatus = :availability AND p.member.verificationStatus = :verificationStatus")
   Page<Professional> findByAvailabilityStatus(@Param("availability") ProfessionalAvailabilityStatus status, @Param("verificationStatus") ProfileVerificationStatus verificationStatus, Pageable pageable);
+
+  @Query(value = "SELECT p FROM Professional p JOIN FETCH p.member m WHERE p.availabilityStatus = :availability AND m.verificationStatus = :verificationStatus")
+  List<Professional> findAllByAvailabilityStatus(@Param("availability") ProfessionalAvailabilityStatus status, @Param("verificationStatus") ProfileVerificationStatus verificationStatus);
+
+  @Query(value = "SELECT p FROM Professional p JOIN FETCH p.member m WHERE m.id = :memberId AND p.availabilityStatus = :availability AND m.verificationStatus = :verificationStatus")
+  Optional<Professional> findByMemberIdAndAvailabilityStatus(@Param("memberId") Long memberId, @Param("availability") ProfessionalAvailabilityStatus status,
+                                                             @Param("verificationStatus") ProfileVerificationStatus verificationStatus);
 }
@@ -4,6 +4,7 @@ import com.umulam.fleen.health.constant.verification.ProfileVerificationStatus;
 import com.umulam.fleen.health.model.domain.Member;
 import com.umulam.fleen.health.model.domain.MemberStatus;
 import com.umulam.fleen.health.model.domain.Role;
+import com.umulam.fleen.health.model.response.member.GetMemberAuthenticationDetails;
 import com.umulam.fleen.health.model.response.member.GetMemberUpdateDetailsResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -14,6 +15,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -21,8 +24,16 @@ public interface MemberJpaRepository extends JpaRepository<Member, Long> {
 
   Optional<Member> findByEmailAddress(String emailAddress);
 
+  List<Member> findByEmailAddressIn(Collection<String> emailAddresses);
+
   Optional<Member> findByPhoneNumber(String phoneNumber);
 
+  @Query(value = "SELECT m.id AS id, m.emailAddress AS emailAddress, m.phoneNumber AS phoneNumber, m.password AS password, " +
+          "m.firstName AS firstName, m.lastName AS lastName, m.profilePhoto AS profilePhoto, m.mfaEnabled AS mfaEnabled, " +
+          "m.mfaType AS mfaType, ms.code AS statusCode, r.code AS roleCode " +
+          "FROM Member m LEFT JOIN m.memberStatus ms LEFT JOIN m.roles r WHERE m.emailAddress = :emailAddress")
+  List<GetMemberAuthenticationDetails> findAuthenticationDetailsByEmailAddress(@Param("emailAddress") String emailAddress);
+
   @Modifying
   @Transactional
   @Query("UPDATE Member m SET m.mfaEnabled = true WHERE m.id = :id")
@@ -4,6 +4,9 @@ import com.umulam.fleen.health.constant.professional.AvailabilityDayOfTheWeek;
 import com.umulam.fleen.health.model.domain.Member;
 import com.umulam.fleen.health.model.domain.ProfessionalAvailability;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,6 +15,10 @@ public interface ProfessionalAvailabilityJpaRepository extends JpaRepository<Pro
 
   void deleteAllByMember(Member member);
 
+  @Modifying
+  @Query(value = "DELETE FROM ProfessionalAvailability pa WHERE pa.member = :member")
+  int deleteByMember(@Param("member") Member member);
+
   List<ProfessionalAvailability> findAllByMember(Member member);
 
   List<ProfessionalAvailability> findByMemberAndDayOfWeek(Member member, AvailabilityDayOfTheWeek dayOfTheWeek);
@@ -10,10 +10,13 @@ import com.umulam.fleen.health.model.response.professional.GetProfessionalUpdate
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -68,6 +71,13 @@ public interface ProfessionalJpaRepository extends JpaRepository<Professional, L
   @Query(value = "SELECT DISTINCT p FROM Professional p WHERE p.member.id IN (:ids)")
   List<Professional> findProfessionalsByIds(@Param("ids") List<Long> ids);
 
+  /**
+   * Find the professionals with their members and lock both rows against changes until the current transaction completes.
+   */
+  @Lock(LockModeType.PESSIMISTIC_READ)
+  @Query(value = "SELECT p FROM Professional p JOIN FETCH p.member m WHERE m.id IN (:memberIds)")
+  List<Professional> lockByMemberIds(@Param("memberIds") Collection<Long> memberIds);
+
   @Query(value ="SELECT price from professional where member_id = :id", nativeQuery = true)
   Double findProfessionalPrice(@Param("id") Long memberId);
 }
@@ -0,0 +1,42 @@
+package com.umulam.fleen.health.repository.jpa;
+
+import com.umulam.fleen.health.model.domain.ProfessionalSchedule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ProfessionalScheduleJpaRepository extends JpaRepository<ProfessionalSchedule, Long> {
+
+  @Query(value = "SELECT ps FROM ProfessionalSchedule ps WHERE ps.member.id = :memberId")
+  Optional<ProfessionalSchedule> findByMemberId(@Param("memberId") Long memberId);
+
+  @Lock(LockModeType.PESSIMISTIC_READ)
+  @Query(value = "SELECT ps FROM ProfessionalSchedule ps WHERE ps.member.id IN (:memberIds)")
+  List<ProfessionalSchedule> lockByMemberIds(@Param("memberIds") Collection<Long> memberIds);
+
+  @Query(value = "SELECT ps FROM ProfessionalSchedule ps JOIN FETCH ps.member")
+  List<ProfessionalSchedule> findAllWithMember();
+
+  @Query(value = "SELECT COUNT(ps) > 0 FROM ProfessionalSchedule ps WHERE ps.member.id = :memberId AND ps.periodCount > 0")
+  boolean hasAvailability(@Param("memberId") Long memberId);
+
+  @Query(value = "SELECT COALESCE(SUM(ps.periodCount), 0) FROM ProfessionalSchedule ps")
+  long countPeriods();
+
+  @Query(value = "SELECT member_id FROM professional_schedule WHERE get_bit(availability, :slot) = 1", nativeQuery = true)
+  List<Long> findMemberIdsAvailableAt(@Param("slot") int slot);
+
+  @Modifying
+  @Query(value = "INSERT INTO professional_schedule (member_id, availability, period_count, updated_on) " +
+    "VALUES (:memberId, :availability, :periodCount, CURRENT_TIMESTAMP) " +
+    "ON CONFLICT (member_id) DO UPDATE SET availability = EXCLUDED.availability, period_count = EXCLUDED.period_count, " +
+    "updated_on = EXCLUDED.updated_on", nativeQuery = true)
+  void upsert(@Param("memberId") Long memberId, @Param("availability") byte[] availability, @Param("periodCount") int periodCount);
+}
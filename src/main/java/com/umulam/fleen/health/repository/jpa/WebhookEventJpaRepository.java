@@ -0,0 +1,81 @@
+package com.umulam.fleen.health.repository.jpa;
+
+import com.umulam.fleen.health.constant.externalsystem.WebhookEventStatus;
+import com.umulam.fleen.health.model.domain.WebhookEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface WebhookEventJpaRepository extends JpaRepository<WebhookEvent, Long> {
+
+  /**
+   * Add an event to the inbox unless an event with the same ID has already been received from the gateway.
+   * The unique index over the gateway and the event ID is the only one an insert can conflict with, so no conflict target is named.
+   *
+   * @return 1 if the event was added, 0 if it is a duplicate
+   */
+  @Modifying
+  @Transactional
+  @Query(value = "INSERT INTO webhook_event (id, gateway, event_id, event_type, payload, status, attempts, available_on, created_on, updated_on) " +
+    "VALUES (nextval('webhook_event_id_seq'), :gateway, :eventId, :eventType, :payload, 'RECEIVED', 0, now(), now(), now()) " +
+    "ON CONFLICT DO NOTHING", nativeQuery = true)
+  int insertIfAbsent(@Param("gateway") String gateway, @Param("eventId") String eventId, @Param("eventType") String eventType,
+                     @Param("payload") String payload);
+
+  /**
+   * Lock the events that are ready to be processed, leaving out the events locked by another node.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+  @Query(value = "SELECT we FROM WebhookEvent we WHERE we.status IN (:statuses) AND we.availableOn <= :now ORDER BY we.id")
+  List<WebhookEvent> lockAvailableSkipLocked(@Param("statuses") Collection<WebhookEventStatus> statuses, @Param("now") LocalDateTime now,
+                                             Pageable pageable);
+
+  /**
+   * Lock an event that is still held by a claim, waiting for a node that is claiming it. An event claimed again by another node
+   * since has another claim token and is not found.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query(value = "SELECT we FROM WebhookEvent we WHERE we.id = :id AND we.claimToken = :claimToken AND we.status = :status")
+  Optional<WebhookEvent> lockClaimed(@Param("id") Long id, @Param("claimToken") String claimToken, @Param("status") WebhookEventStatus status);
+
+  /**
+   * Record the failure of an event unless it has been claimed again by another node since.
+   *
+   * @return 1 if the failure was recorded, 0 if the event is no longer held by the claim
+   */
+  @Modifying
+  @Query(value = "UPDATE WebhookEvent we SET we.status = :status, we.availableOn = :availableOn, we.lastError = :lastError, " +
+    "we.claimToken = NULL WHERE we.id = :id AND we.claimToken = :claimToken")
+  int releaseClaim(@Param("id") Long id, @Param("claimToken") String claimToken, @Param("status") WebhookEventStatus status,
+                   @Param("availableOn") LocalDateTime availableOn, @Param("lastError") String lastError);
+
+  @Modifying
+  @Transactional
+  @Query(value = "UPDATE WebhookEvent we SET we.status = :status, we.attempts = 0, we.lastError = NULL, we.availableOn = :now " +
+    "WHERE we.id IN (:ids)")
+  int requeueByIds(@Param("ids") Collection<Long> ids, @Param("status") WebhookEventStatus status, @Param("now") LocalDateTime now);
+
+  @Modifying
+  @Transactional
+  @Query(value = "UPDATE WebhookEvent we SET we.status = :status, we.attempts = 0, we.lastError = NULL, we.availableOn = :now " +
+    "WHERE we.status = :currentStatus AND we.createdOn >= :from AND we.createdOn < :to")
+  int requeueByStatus(@Param("currentStatus") WebhookEventStatus currentStatus, @Param("from") LocalDateTime from,
+                      @Param("to") LocalDateTime to, @Param("status") WebhookEventStatus status, @Param("now") LocalDateTime now);
+
+  @Modifying
+  @Query(value = "CREATE UNIQUE INDEX IF NOT EXISTS webhook_event_gateway_event_index ON webhook_event (gateway, event_id)", nativeQuery = true)
+  void createGatewayEventIndex();
+}
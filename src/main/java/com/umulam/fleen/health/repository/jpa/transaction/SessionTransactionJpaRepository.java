@@ -1,15 +1,22 @@
 package com.umulam.fleen.health.repository.jpa.transaction;
 
+import com.umulam.fleen.health.constant.session.TransactionStatus;
 import com.umulam.fleen.health.model.domain.Country;
 import com.umulam.fleen.health.model.domain.transaction.SessionTransaction;
+import com.umulam.fleen.health.model.response.healthsession.GetPendingSessionHold;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.web.bind.annotation.PathVariable;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,9 +28,32 @@ public interface SessionTransactionJpaRepository extends JpaRepository<SessionTr
   @Query(value = "SELECT st FROM SessionTransaction st WHERE st.sessionReference = :reference")
   Optional<SessionTransaction> findBySessionReference(@Param("reference") String reference);
 
+  @Query(value = "SELECT st FROM SessionTransaction st WHERE st.sessionReference IN (:references)")
+  List<SessionTransaction> findBySessionReferences(@Param("references") Collection<String> references);
+
   @Query(value = "SELECT st FROM SessionTransaction st WHERE st.groupTransactionReference = :reference")
   List<SessionTransaction> findByGroupReference(@Param("reference") String reference);
 
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query(value = "SELECT st FROM SessionTransaction st WHERE st.groupTransactionReference = :reference")
+  List<SessionTransaction> lockByGroupReference(@Param("reference") String reference);
+
+  /**
+   * Lock the transactions of the bookings, leaving out the transactions that are already locked, for example by a payment being
+   * confirmed.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+  @Query(value = "SELECT st FROM SessionTransaction st WHERE st.groupTransactionReference IN (:references)")
+  List<SessionTransaction> lockByGroupReferencesSkipLocked(@Param("references") Collection<String> references);
+
+  @Query(value = "SELECT DISTINCT st.groupTransactionReference FROM SessionTransaction st WHERE st.groupTransactionReference IN (:references)")
+  List<String> findExistingGroupReferences(@Param("references") Collection<String> references);
+
+  @Query(value = "SELECT st.groupTransactionReference AS groupTransactionReference, MIN(st.createdOn) AS createdOn FROM SessionTransaction st " +
+    "WHERE st.status = :status GROUP BY st.groupTransactionReference")
+  List<GetPendingSessionHold> findPendingSessionHolds(@Param("status") TransactionStatus status);
+
   @Query(value = "SELECT st FROM SessionTransaction st WHERE st.id = :transactionId AND st.payer.id = :memberId")
   Optional<SessionTransaction> findByUserAndId(@PathVariable("transactionId") Long transactionId, @Param("memberId") Long memberId);
 
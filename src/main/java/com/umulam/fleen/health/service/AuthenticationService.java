@@ -30,6 +30,8 @@ public interface AuthenticationService {
   @Transactional(readOnly = true)
   void signOut(String username);
 
+  void revokeSession(String username);
+
   SignInResponse validateSignInMfa(FleenUser user, ConfirmMfaDto dto);
 
   Authentication authenticate(String username, String password);
@@ -43,14 +45,12 @@ public interface AuthenticationService {
 
   String createRefreshToken(FleenUser user);
 
-  void saveToken(String subject, String token);
+  void saveToken(String subject, String accessToken, String refreshToken, AuthenticationStatus authenticationStatus);
 
   void setContext(Authentication authentication);
 
   SignInResponse refreshToken(String username, String token);
 
-  void saveRefreshToken(String subject, String token);
-
   @Transactional
   ForgotPasswordResponse forgotPassword(ForgotPasswordDto dto);
 
@@ -2,6 +2,7 @@ package com.umulam.fleen.health.service;
 
 import com.umulam.fleen.health.constant.verification.ProfileVerificationStatus;
 import com.umulam.fleen.health.model.domain.Business;
+import com.umulam.fleen.health.model.dto.business.AddBusinessEmployeeDto;
 import com.umulam.fleen.health.model.dto.business.UpdateBusinessDetailDto;
 import com.umulam.fleen.health.model.dto.business.UploadBusinessDocumentDto;
 import com.umulam.fleen.health.model.security.FleenUser;
@@ -32,4 +33,16 @@ public interface BusinessService {
   List<BusinessView> toBusinessViews(List<Business> entries);
 
   void setVerificationDocument(BusinessView businessView);
+
+  @Transactional
+  void addEmployee(AddBusinessEmployeeDto dto, FleenUser user);
+
+  @Transactional
+  void removeEmployee(Long memberId, FleenUser user);
+
+  @Transactional
+  void acceptEmployment(Long businessId, FleenUser user);
+
+  @Transactional
+  void leaveEmployment(Long businessId, FleenUser user);
 }
@@ -150,7 +150,7 @@ public interface CommonAuthAndVerificationService {
     member.setRoles(roles);
 
     ProfileVerificationStatus verificationStatus = ProfileVerificationStatus.PENDING;
-    MemberStatus memberStatus = getMemberStatusService().getMemberStatusByCode(MemberStatusType.INACTIVE.name());
+    MemberStatus memberStatus = getMemberStatusService().getMemberStatus(MemberStatusType.INACTIVE);
     member.setMemberStatus(memberStatus);
     member.setVerificationStatus(verificationStatus);
   }
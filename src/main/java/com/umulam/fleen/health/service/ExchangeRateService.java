@@ -1,7 +1,13 @@
 package com.umulam.fleen.health.service;
 
+import java.util.Optional;
+
 public interface ExchangeRateService {
 
 
   Double getConvertedHealthSessionPrice(Double amount);
+
+  Optional<Double> findConvertedHealthSessionPrice(Double amount);
+
+  Optional<Double> convert(Double amount, String fromCurrency, String toCurrency);
 }
@@ -17,12 +17,15 @@ import com.umulam.fleen.health.model.view.member.MemberView;
 import com.umulam.fleen.health.model.view.RoleView;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface MemberService {
 
   Member getMemberByEmailAddress(String emailAddress);
 
+  List<Member> getMembersByEmailAddresses(Collection<String> emailAddresses);
+
   Member getMemberById(Long memberId);
 
   @Transactional(readOnly = true)
@@ -1,5 +1,6 @@
 package com.umulam.fleen.health.service;
 
+import com.umulam.fleen.health.constant.MemberStatusType;
 import com.umulam.fleen.health.model.domain.MemberStatus;
 import com.umulam.fleen.health.model.dto.memberstatus.MemberStatusDto;
 import com.umulam.fleen.health.model.dto.memberstatus.UpdateMemberStatusDto;
@@ -14,7 +15,8 @@ public interface MemberStatusService {
 
   List<MemberStatus> getMemberStatuses();
 
-  @Transactional(readOnly = true)
+  MemberStatus getMemberStatus(MemberStatusType memberStatusType);
+
   MemberStatus getMemberStatusByCode(String code);
 
   @Transactional(readOnly = true)
@@ -14,9 +14,14 @@ import com.umulam.fleen.health.model.view.ProfessionalAvailabilityView;
 import com.umulam.fleen.health.model.view.VerificationDocumentView;
 import com.umulam.fleen.health.model.view.professional.ProfessionalView;
 import com.umulam.fleen.health.model.view.professional.ProfessionalViewBasic;
+import com.umulam.fleen.health.util.WeeklyAvailability;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ProfessionalService {
@@ -73,4 +78,12 @@ public interface ProfessionalService {
   List<Professional> findProfessionalsById(List<Long> ids);
 
   Double getProfessionalPrice(Long memberId);
+
+  WeeklyAvailability getWeeklyAvailability(Member member);
+
+  List<Professional> lockAndFindProfessionalsByMembers(Collection<Long> memberIds);
+
+  Map<Long, WeeklyAvailability> lockAndFindWeeklyAvailabilities(Collection<Long> memberIds);
+
+  List<Long> findMemberIdsAvailableAt(DayOfWeek dayOfWeek, LocalTime time);
 }
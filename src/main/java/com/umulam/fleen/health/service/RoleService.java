@@ -1,5 +1,6 @@
 package com.umulam.fleen.health.service;
 
+import com.umulam.fleen.health.constant.authentication.RoleType;
 import com.umulam.fleen.health.model.domain.Role;
 import com.umulam.fleen.health.model.dto.RoleDto;
 import com.umulam.fleen.health.model.response.other.DeleteIdsDto;
@@ -10,6 +11,8 @@ public interface RoleService {
 
   Role getRole(Long id);
 
+  Role getRole(RoleType roleType);
+
   Role getRoleByCode(String code);
 
   List<Role> getRoles();
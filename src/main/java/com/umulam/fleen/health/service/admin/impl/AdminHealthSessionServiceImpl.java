@@ -8,6 +8,7 @@ import com.umulam.fleen.health.model.request.search.base.SearchRequest;
 import com.umulam.fleen.health.model.view.healthsession.HealthSessionReviewView;
 import com.umulam.fleen.health.model.view.healthsession.HealthSessionView;
 import com.umulam.fleen.health.model.view.search.SearchResultView;
+import com.umulam.fleen.health.repository.jpa.BusinessEmployeeJpaRepository;
 import com.umulam.fleen.health.repository.jpa.HealthSessionJpaRepository;
 import com.umulam.fleen.health.repository.jpa.HealthSessionProfessionalJpaRepository;
 import com.umulam.fleen.health.repository.jpa.HealthSessionReviewJpaRepository;
@@ -20,7 +21,11 @@ import com.umulam.fleen.health.service.ProfessionalService;
 import com.umulam.fleen.health.service.admin.AdminHealthSessionService;
 import com.umulam.fleen.health.service.impl.ConfigService;
 import com.umulam.fleen.health.service.impl.FleenHealthEventService;
+import com.umulam.fleen.health.service.session.impl.HealthSessionHoldService;
+import com.umulam.fleen.health.service.session.impl.ProfessionalBookingSnapshotCache;
 import com.umulam.fleen.health.service.session.impl.HealthSessionServiceImpl;
+import com.umulam.fleen.health.service.session.impl.HealthSessionSlotReservationService;
+import com.umulam.fleen.health.service.session.impl.ProfessionalSlotIndex;
 import com.umulam.fleen.health.util.FleenHealthReferenceGenerator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -58,9 +63,15 @@ public class AdminHealthSessionServiceImpl extends HealthSessionServiceImpl impl
                                        ProfessionalAvailabilityJpaRepository professionalAvailabilityJpaRepository,
                                        MemberService memberService,
                                        ExchangeRateService exchangeRateService,
-                                       ConfigService configService) {
+                                       ConfigService configService,
+                                       HealthSessionSlotReservationService slotReservationService,
+                                       ProfessionalSlotIndex slotIndex,
+                                       HealthSessionHoldService holdService,
+                                       ProfessionalBookingSnapshotCache bookingSnapshotCache,
+                                       BusinessEmployeeJpaRepository businessEmployeeRepository) {
     super(sessionProfessionalJpaRepository, healthSessionJpaRepository, professionalService, referenceGenerator, transactionJpaRepository,
-      professionalAvailabilityJpaRepository, healthSessionReviewJpaRepository, eventService, memberService, exchangeRateService, configService);
+      professionalAvailabilityJpaRepository, healthSessionReviewJpaRepository, eventService, memberService, exchangeRateService, configService,
+      slotReservationService, slotIndex, holdService, bookingSnapshotCache, businessEmployeeRepository);
     this.adminHealthSessionJpaRepository = adminHealthSessionJpaRepository;
     this.healthSessionJpaRepository = healthSessionJpaRepository;
     this.healthSessionReviewJpaRepository = healthSessionReviewJpaRepository;
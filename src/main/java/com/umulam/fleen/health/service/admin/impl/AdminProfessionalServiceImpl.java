@@ -15,11 +15,13 @@ import com.umulam.fleen.health.model.view.professional.ProfessionalView;
 import com.umulam.fleen.health.model.view.search.SearchResultView;
 import com.umulam.fleen.health.repository.jpa.ProfessionalAvailabilityJpaRepository;
 import com.umulam.fleen.health.repository.jpa.ProfessionalJpaRepository;
+import com.umulam.fleen.health.repository.jpa.ProfessionalScheduleJpaRepository;
 import com.umulam.fleen.health.service.*;
 import com.umulam.fleen.health.service.admin.AdminProfessionalService;
 import com.umulam.fleen.health.service.external.aws.EmailServiceImpl;
 import com.umulam.fleen.health.service.external.aws.MobileTextService;
 import com.umulam.fleen.health.service.impl.CacheService;
+import com.umulam.fleen.health.service.impl.FleenHealthEventService;
 import com.umulam.fleen.health.service.impl.ProfessionalServiceImpl;
 import com.umulam.fleen.health.service.impl.S3Service;
 import lombok.extern.slf4j.Slf4j;
@@ -59,8 +61,11 @@ public class AdminProfessionalServiceImpl extends ProfessionalServiceImpl implem
                                       VerificationHistoryService verificationHistoryService,
                                       ProfileVerificationMessageService verificationMessageService,
                                       ProfessionalAvailabilityJpaRepository professionalAvailabilityJpaRepository,
-                                      S3BucketNames s3BucketNames) {
-    super(memberService, s3Service, countryService, verificationDocumentService, repository, professionalAvailabilityJpaRepository, s3BucketNames);
+                                      ProfessionalScheduleJpaRepository professionalScheduleJpaRepository,
+                                      S3BucketNames s3BucketNames,
+                                      FleenHealthEventService eventService) {
+    super(memberService, s3Service, countryService, verificationDocumentService, repository, professionalAvailabilityJpaRepository,
+      professionalScheduleJpaRepository, s3BucketNames, eventService);
     this.verificationMessageService = verificationMessageService;
     this.cacheService = cacheService;
     this.mobileTextService = mobileTextService;
@@ -133,6 +138,7 @@ public class AdminProfessionalServiceImpl extends ProfessionalServiceImpl implem
     professional.setMember(existingProfessional.getMember());
 
     Professional savedProfessional = repository.save(professional);
+    eventService.publishProfessionalChanged(savedProfessional.getMember().getId());
     return toProfessionalView(savedProfessional);
   }
 
@@ -163,6 +169,8 @@ public class AdminProfessionalServiceImpl extends ProfessionalServiceImpl implem
     }
     member.setVerificationStatus(verificationStatus);
     save(professional);
+    eventService.publishSessionSlotChanged(member.getId());
+    eventService.publishProfessionalChanged(member.getId());
   }
 
   @Override
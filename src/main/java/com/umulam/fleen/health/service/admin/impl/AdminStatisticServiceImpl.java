@@ -30,6 +30,7 @@ public class AdminStatisticServiceImpl implements AdminStatisticService {
   private final RoleJpaRepository roleJpaRepository;
   private final MemberStatusJpaRepository memberStatusJpaRepository;
   private final ProfessionalAvailabilityJpaRepository professionalAvailabilityJpaRepository;
+  private final ProfessionalScheduleJpaRepository professionalScheduleJpaRepository;
   private final ProfileVerificationMessageJpaRepository profileVerificationMessageJpaRepository;
   private final VerificationHistoryJpaRepository verificationHistoryJpaRepository;
   private final HealthSessionReviewJpaRepository healthSessionReviewJpaRepository;
@@ -45,6 +46,7 @@ public class AdminStatisticServiceImpl implements AdminStatisticService {
                                    RoleJpaRepository roleJpaRepository,
                                    MemberStatusJpaRepository memberStatusJpaRepository,
                                    ProfessionalAvailabilityJpaRepository professionalAvailabilityJpaRepository,
+                                   ProfessionalScheduleJpaRepository professionalScheduleJpaRepository,
                                    ProfileVerificationMessageJpaRepository profileVerificationMessageJpaRepository,
                                    VerificationHistoryJpaRepository verificationHistoryJpaRepository,
                                    HealthSessionReviewJpaRepository healthSessionReviewJpaRepository,
@@ -59,6 +61,7 @@ public class AdminStatisticServiceImpl implements AdminStatisticService {
     this.roleJpaRepository = roleJpaRepository;
     this.memberStatusJpaRepository = memberStatusJpaRepository;
     this.professionalAvailabilityJpaRepository = professionalAvailabilityJpaRepository;
+    this.professionalScheduleJpaRepository = professionalScheduleJpaRepository;
     this.profileVerificationMessageJpaRepository = profileVerificationMessageJpaRepository;
     this.verificationHistoryJpaRepository = verificationHistoryJpaRepository;
     this.healthSessionReviewJpaRepository = healthSessionReviewJpaRepository;
@@ -140,7 +143,7 @@ public class AdminStatisticServiceImpl implements AdminStatisticService {
     long totalNumberOfMemberStatuses = memberStatusJpaRepository.count();
     long totalNumberOfProfessionalProfiles = professionalJpaRepository.count();
     long totalNumberOfBusinessProfiles = businessJpaRepository.count();
-    long totalNumberOfProfessionalAvailability = professionalAvailabilityJpaRepository.count();
+    long totalNumberOfProfessionalAvailability = professionalScheduleJpaRepository.countPeriods() + professionalAvailabilityJpaRepository.count();
     long totalNumberOfProfileVerificationMessage = profileVerificationMessageJpaRepository.count();
     long totalNumberOfProfileVerificationHistory = verificationHistoryJpaRepository.count();
     long totalNumberOfHealthSessionReviews = healthSessionReviewJpaRepository.count();
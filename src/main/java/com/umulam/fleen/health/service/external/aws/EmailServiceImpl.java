@@ -6,6 +6,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.umulam.fleen.health.exception.base.FleenHealthException;
 import com.umulam.fleen.health.model.dto.mail.EmailDetails;
+import com.umulam.fleen.health.service.external.resilience.ExternalDependencyGuard;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
@@ -27,6 +28,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static com.umulam.fleen.health.constant.base.ExceptionConstant.FAILED_MAIL_DELIVERY;
+import static com.umulam.fleen.health.constant.externalsystem.ExternalDependency.AWS_SES;
 import static com.umulam.fleen.health.constant.base.FleenHealthConstant.FAIL_MAIL_DELIVERY;
 import static com.umulam.fleen.health.constant.base.FleenHealthConstant.LOGO_FILE_NAME;
 
@@ -39,17 +41,20 @@ public class EmailServiceImpl {
   private final Configuration configuration;
   private final ObjectMapper objectMapper;
   private final AmazonSimpleEmailService simpleEmailService;
+  private final ExternalDependencyGuard dependencyGuard;
 
   public EmailServiceImpl(SesService sesService,
                           JavaMailSender mailSender,
                           Configuration configuration,
                           ObjectMapper objectMapper,
-                          AmazonSimpleEmailService simpleEmailService) {
+                          AmazonSimpleEmailService simpleEmailService,
+                          ExternalDependencyGuard dependencyGuard) {
     this.sesService = sesService;
     this.mailSender = mailSender;
     this.configuration = configuration;
     this.objectMapper = objectMapper;
     this.simpleEmailService = simpleEmailService;
+    this.dependencyGuard = dependencyGuard;
   }
 
   private SimpleMailMessage createMailMessage(EmailDetails details) {
@@ -62,10 +67,16 @@ public class EmailServiceImpl {
   }
 
   public boolean sendMessage(EmailDetails emailDetails) {
-    sesService.sendMessage(createMailMessage(emailDetails));
+    dependencyGuard.run(AWS_SES, () -> sesService.sendMessage(createMailMessage(emailDetails)));
     return true;
   }
 
+  /**
+   * <p>Send an HTML email, or defer it to be sent in the background while the mail server cannot be called.</p>
+   * <br/>
+   *
+   * @param details the email
+   */
   public void sendHtmlMessage(EmailDetails details) {
     try {
       MimeMessage message = mailSender.createMimeMessage();
@@ -77,8 +88,8 @@ public class EmailServiceImpl {
       InputStreamSource data =
               new ByteArrayResource("".getBytes());
       helper.addAttachment(LOGO_FILE_NAME, data);
-      mailSender.send(message);
-    } catch (MessagingException | MailSendException ex) {
+      dependencyGuard.runOrDefer(AWS_SES, "send email " + details.getSubject(), () -> mailSender.send(message));
+    } catch (MessagingException ex) {
       log.error(ex.getMessage(), ex);
       throw new FleenHealthException(FAILED_MAIL_DELIVERY);
     }
@@ -101,7 +112,7 @@ public class EmailServiceImpl {
       helper.setSubject(details.getSubject());
 
       setEmailBody(helper, details);
-      mailSender.send(message);
+      dependencyGuard.run(AWS_SES, () -> mailSender.send(message));
 
     } catch (MessagingException ex) {
      log.error(ex.getMessage(), ex);
@@ -123,7 +134,7 @@ public class EmailServiceImpl {
       templatedEmailRequest.withDestination(destination);
       templatedEmailRequest.withTemplate(templateName);
       templatedEmailRequest.withTemplateData(objectMapper.writeValueAsString(data));
-      simpleEmailService.sendTemplatedEmail(templatedEmailRequest);
+      dependencyGuard.runOrDefer(AWS_SES, "send templated email " + templateName, () -> simpleEmailService.sendTemplatedEmail(templatedEmailRequest));
     } catch (JsonProcessingException ex) {
       log.error(ex.getMessage(), ex);
     }
@@ -155,7 +166,7 @@ public class EmailServiceImpl {
               .withData(subject)
               .withCharset(StandardCharsets.UTF_8.name()));
       request.withMessage(message);
-      simpleEmailService.sendEmail(request);
+      dependencyGuard.runOrDefer(AWS_SES, "send email " + subject, () -> simpleEmailService.sendEmail(request));
     } catch (RuntimeException ex) {
       log.error(ex.getMessage(), ex);
     }
@@ -7,11 +7,13 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.umulam.fleen.health.constant.VerificationMessageType;
 import com.umulam.fleen.health.model.json.SmsMessage;
+import com.umulam.fleen.health.service.external.resilience.ExternalDependencyGuard;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
 
+import static com.umulam.fleen.health.constant.externalsystem.ExternalDependency.AWS_SNS;
 import static com.umulam.fleen.health.util.FleenHealthUtil.readResourceFile;
 
 @Slf4j
@@ -20,6 +22,7 @@ public class MobileTextService {
 
   private final AmazonSNS service;
   private final ObjectMapper objectMapper;
+  private final ExternalDependencyGuard dependencyGuard;
   private static final String AWS_SNS_SMS_TYPE = "AWS.SNS.SMS.SMSType";
   private static final String AWS_SNS_SMS_SENDER_ID = "AWS.SNS.SMS.SenderID";
   private static final String AWS_SNS_SMS_TYPE_VALUE = "Transactional";
@@ -28,33 +31,39 @@ public class MobileTextService {
   private static final String SMS_MESSAGE_TEMPLATE_FILE_PATH = "templates/sms/messages.json";
 
   public MobileTextService(AmazonSNS service,
-                           ObjectMapper objectMapper) {
+                           ObjectMapper objectMapper,
+                           ExternalDependencyGuard dependencyGuard) {
     this.service = service;
     this.objectMapper = objectMapper;
+    this.dependencyGuard = dependencyGuard;
   }
 
+  /**
+   * <p>Send an SMS, or defer it to be sent in the background while SNS cannot be called.</p>
+   * <br/>
+   *
+   * @param phoneNumber the phone number the SMS is sent to
+   * @param message the message
+   */
   public void sendSms(String phoneNumber, String message) {
-    try {
-      int timeoutPeriod = 3000;
-      Map<String, MessageAttributeValue> smsAttributes =
-              new HashMap<>();
-
-      smsAttributes.put(AWS_SNS_SMS_TYPE, new MessageAttributeValue()
-              .withStringValue(AWS_SNS_SMS_TYPE_VALUE)
-              .withDataType(AWS_SNS_DATA_TYPE));
-
-      smsAttributes.put(AWS_SNS_SMS_SENDER_ID, new MessageAttributeValue()
-              .withStringValue(AWS_SNS_SENDER_ID_VALUE)
-              .withDataType(AWS_SNS_DATA_TYPE));
-
-      service.publish(new PublishRequest()
-              .withMessage(message)
-              .withPhoneNumber(phoneNumber)
-              .withMessageAttributes(smsAttributes)
-              .withSdkRequestTimeout(timeoutPeriod));
-    } catch (RuntimeException ex) {
-      log.error(ex.getMessage(), ex);
-    }
+    int timeoutPeriod = 3000;
+    Map<String, MessageAttributeValue> smsAttributes =
+            new HashMap<>();
+
+    smsAttributes.put(AWS_SNS_SMS_TYPE, new MessageAttributeValue()
+            .withStringValue(AWS_SNS_SMS_TYPE_VALUE)
+            .withDataType(AWS_SNS_DATA_TYPE));
+
+    smsAttributes.put(AWS_SNS_SMS_SENDER_ID, new MessageAttributeValue()
+            .withStringValue(AWS_SNS_SENDER_ID_VALUE)
+            .withDataType(AWS_SNS_DATA_TYPE));
+
+    PublishRequest request = new PublishRequest()
+            .withMessage(message)
+            .withPhoneNumber(phoneNumber)
+            .withMessageAttributes(smsAttributes)
+            .withSdkRequestTimeout(timeoutPeriod);
+    dependencyGuard.runOrDefer(AWS_SNS, "send SMS", () -> service.publish(request));
   }
 
   public void subscribe(String topicArn, String protocol, String endpoint) {
@@ -0,0 +1,409 @@
+package com.umulam.fleen.health.service.external.banking;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import com.umulam.fleen.health.constant.session.PaymentGateway;
+import com.umulam.fleen.health.exception.banking.UnsupportedBankRegionException;
+import com.umulam.fleen.health.model.response.banking.BankListRecord;
+import com.umulam.fleen.health.service.impl.CacheService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static com.umulam.fleen.health.constant.base.GeneralConstant.BANK_DIRECTORY_CACHE_PREFIX;
+import static com.umulam.fleen.health.constant.base.GeneralConstant.BANK_DIRECTORY_REFRESH_LOCK_CACHE_PREFIX;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.stream.Collectors.toUnmodifiableSet;
+
+/**
+ * BankDirectory keeps the banks of every payment gateway in memory, for each country or currency, so that listing the banks and
+ * checking a bank code while adding a bank account neither reads the cache store nor scans the list. Each list is held in an
+ * immutable {@link BankList} indexed by bank code and name, together with the JSON body and ETag returned to clients, which is
+ * replaced as a whole when new banks are fetched.
+ *
+ * <p>The banks are fetched from a gateway by one node only: the node that takes the refresh lock of a list fetches it, writes it to
+ * the cache store with a version and publishes the version. Every other node then reads the list from the cache store if its version
+ * is newer than the one it holds. A node that starts reads the lists from the cache store, and a list that is not there yet is
+ * fetched by the node that needs it. The last list fetched keeps being used while a gateway cannot be called.</p>
+ * <br/>
+ */
+@Slf4j
+@Component
+public class BankDirectory implements MessageListener {
+
+  private static final String MESSAGE_SEPARATOR = ":";
+
+  private final CacheService cacheService;
+  private final ObjectMapper mapper;
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final StringRedisSerializer serializer;
+  private final String channel;
+  private final String nodeId;
+  private final Duration refreshLockDuration;
+  private final Map<PaymentGateway, Source<?>> sources = new ConcurrentHashMap<>();
+
+  public BankDirectory(CacheService cacheService,
+                       ObjectMapper mapper,
+                       RedisTemplate<String, Object> redisTemplate,
+                       RedisMessageListenerContainer listenerContainer,
+                       @Value("${fleen.health.bank-directory.channel:BANK_DIRECTORY_UPDATES}") String channel,
+                       @Value("${fleen.health.bank-directory.refresh-lock-minutes:10}") long refreshLockMinutes) {
+    this.cacheService = cacheService;
+    this.mapper = mapper;
+    this.redisTemplate = redisTemplate;
+    this.serializer = StringRedisSerializer.UTF_8;
+    this.channel = channel;
+    this.nodeId = UUID.randomUUID().toString();
+    this.refreshLockDuration = Duration.ofMinutes(refreshLockMinutes);
+    listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+  }
+
+  /**
+   * <p>Register the banks of a payment gateway. The lists of the default regions are loaded once the application is ready and are
+   * refreshed on schedule, along with every other region requested since.</p>
+   * <br/>
+   *
+   * @param gateway the payment gateway
+   * @param bankType the type of a bank returned by the gateway
+   * @param code the code of a bank
+   * @param name the name of a bank
+   * @param loader fetches the banks of a country or currency from the gateway
+   * @param supportedRegions the countries or currencies whose banks can be requested
+   * @param defaultRegions the countries or currencies whose banks are always held
+   * @return the banks of the gateway
+   */
+  public <T> Source<T> register(PaymentGateway gateway, Class<T> bankType, Function<T, String> code, Function<T, String> name,
+                                Function<String, List<T>> loader, Collection<String> supportedRegions, String... defaultRegions) {
+    Source<T> source = new Source<>(gateway, mapper.getTypeFactory().constructCollectionType(List.class, bankType), code, name, loader,
+      supportedRegions.stream().map(BankDirectory::normalize).collect(toUnmodifiableSet()));
+    Arrays.stream(defaultRegions).map(BankDirectory::normalize).forEach(source.regions::add);
+    sources.put(gateway, source);
+    return source;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadOnStartup() {
+    sources.values().forEach(source -> {
+      for (String region : source.regions) {
+        if (isNull(source.loadShared(region, 0))) {
+          source.refresh(region);
+        }
+      }
+    });
+  }
+
+  @Scheduled(cron = "${fleen.health.bank-directory.refresh-cron:0 0 */12 * * *}")
+  public void refreshAll() {
+    sources.values().forEach(source -> source.regions.forEach(source::refresh));
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String[] parts = Objects.requireNonNull(serializer.deserialize(message.getBody())).split(MESSAGE_SEPARATOR);
+    if (parts.length != 4 || nodeId.equals(parts[3])) {
+      return;
+    }
+
+    Source<?> source = sources.get(PaymentGateway.valueOf(parts[0]));
+    if (nonNull(source)) {
+      source.loadShared(parts[1], Long.parseLong(parts[2]));
+    }
+  }
+
+  /**
+   * The banks of a payment gateway for every country or currency held.
+   */
+  public final class Source<T> {
+
+    private final PaymentGateway gateway;
+    private final JavaType listType;
+    private final Function<T, String> code;
+    private final Function<T, String> name;
+    private final Function<String, List<T>> loader;
+    private final Set<String> supportedRegions;
+    private final Set<String> regions = ConcurrentHashMap.newKeySet();
+    private final Map<String, BankList<T>> banks = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<BankList<T>>> loads = new ConcurrentHashMap<>();
+
+    private Source(PaymentGateway gateway, JavaType listType, Function<T, String> code, Function<T, String> name,
+                   Function<String, List<T>> loader, Set<String> supportedRegions) {
+      this.gateway = gateway;
+      this.listType = listType;
+      this.code = code;
+      this.name = name;
+      this.loader = loader;
+      this.supportedRegions = supportedRegions;
+    }
+
+    /**
+     * <p>Get the banks of a country or currency. A list that is not held yet is read from the cache store, or fetched from the
+     * gateway if no node has fetched it yet. Only one request loads a list at a time, and the requests for the same list made
+     * meanwhile wait for it, without holding up the requests for other lists.</p>
+     * <br/>
+     *
+     * @param region the country or currency of the banks
+     * @return the banks, which are empty and not held if the gateway returned none
+     * @throws UnsupportedBankRegionException if the banks of the country or currency cannot be requested from the gateway
+     */
+    public BankList<T> get(String region) {
+      String key = nonNull(region) ? normalize(region) : null;
+      if (isNull(key) || !supportedRegions.contains(key)) {
+        throw new UnsupportedBankRegionException(region);
+      }
+
+      BankList<T> bankList = banks.get(key);
+      if (nonNull(bankList)) {
+        return bankList;
+      }
+
+      CompletableFuture<BankList<T>> load = new CompletableFuture<>();
+      CompletableFuture<BankList<T>> pending = loads.putIfAbsent(key, load);
+      if (nonNull(pending)) {
+        return await(pending);
+      }
+
+      try {
+        bankList = banks.get(key);
+        if (isNull(bankList)) {
+          bankList = loadShared(key, 0);
+        }
+        if (isNull(bankList)) {
+          bankList = fetch(key);
+        }
+        if (!bankList.getBanks().isEmpty()) {
+          regions.add(key);
+        }
+        load.complete(bankList);
+        return bankList;
+      } catch (RuntimeException ex) {
+        load.completeExceptionally(ex);
+        throw ex;
+      } finally {
+        loads.remove(key, load);
+      }
+    }
+
+    private BankList<T> await(CompletableFuture<BankList<T>> load) {
+      try {
+        return load.join();
+      } catch (CompletionException ex) {
+        if (ex.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) ex.getCause();
+        }
+        throw ex;
+      }
+    }
+
+    /**
+     * <p>Fetch the banks of a country or currency from the gateway if this node takes the refresh lock of the list, which only one
+     * node does in every refresh period.</p>
+     * <br/>
+     *
+     * @param region the country or currency of the banks
+     */
+    private void refresh(String region) {
+      String lockKey = BANK_DIRECTORY_REFRESH_LOCK_CACHE_PREFIX.concat(getKey(region));
+      try {
+        if (!cacheService.setIfAbsent(lockKey, nodeId, refreshLockDuration)) {
+          return;
+        }
+      } catch (RuntimeException ex) {
+        log.error("Banks of {} {} could not be refreshed: {}", gateway, region, ex.getMessage());
+        return;
+      }
+
+      try {
+        fetch(region);
+      } catch (RuntimeException ex) {
+        // Let another node try instead of waiting for the lock to expire
+        log.error("Banks of {} {} could not be refreshed: {}", gateway, region, ex.getMessage(), ex);
+        cacheService.delete(lockKey);
+      }
+    }
+
+    private BankList<T> fetch(String region) {
+      List<T> fetched = loader.apply(region);
+      BankList<T> current = banks.get(region);
+      if (isNull(fetched) || fetched.isEmpty()) {
+        // Keep the banks already held rather than replacing them with an empty list returned during an outage, and never hold or
+        // share an empty list, so that the next request fetches the banks again
+        return nonNull(current) ? current : new BankList<>(0, toJson(List.of()), List.of(), code, name);
+      }
+
+      long version = Math.max(System.currentTimeMillis(), nonNull(current) ? current.getVersion() + 1 : 0);
+      BankList<T> bankList = new BankList<>(version, toJson(fetched), fetched, code, name);
+      banks.put(region, bankList);
+      share(region, bankList);
+      return bankList;
+    }
+
+    private void share(String region, BankList<T> bankList) {
+      try {
+        BankListRecord record = BankListRecord.builder()
+          .version(bankList.getVersion())
+          .fetchedAt(System.currentTimeMillis())
+          .banks(new String(bankList.getBody(), StandardCharsets.UTF_8))
+          .build();
+        cacheService.set(BANK_DIRECTORY_CACHE_PREFIX.concat(getKey(region)), record);
+
+        byte[] message = serializer.serialize(String.join(MESSAGE_SEPARATOR, gateway.name(), region,
+          String.valueOf(bankList.getVersion()), nodeId));
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(serializer.serialize(channel), message));
+      } catch (RuntimeException ex) {
+        log.error(ex.getMessage(), ex);
+      }
+    }
+
+    /**
+     * <p>Read the banks of a country or currency from the cache store and hold them if they are newer than the ones already held.</p>
+     * <br/>
+     *
+     * @param region the country or currency of the banks
+     * @param minVersion the lowest version to read, which is the version published by the node that fetched the banks
+     * @return the banks held, or null if there are none
+     */
+    private BankList<T> loadShared(String region, long minVersion) {
+      BankList<T> current = banks.get(region);
+      if (nonNull(current) && current.getVersion() >= minVersion && minVersion > 0) {
+        return current;
+      }
+
+      try {
+        BankListRecord record = cacheService.get(BANK_DIRECTORY_CACHE_PREFIX.concat(getKey(region)), BankListRecord.class);
+        if (nonNull(record) && nonNull(record.getVersion()) && nonNull(record.getBanks())
+            && (isNull(current) || record.getVersion() > current.getVersion())) {
+          byte[] body = record.getBanks().getBytes(StandardCharsets.UTF_8);
+          List<T> shared = mapper.readValue(body, listType);
+          current = new BankList<>(record.getVersion(), body, shared, code, name);
+          banks.put(region, current);
+        }
+      } catch (Exception ex) {
+        log.error("Banks of {} {} could not be read from the cache: {}", gateway, region, ex.getMessage());
+      }
+      return current;
+    }
+
+    private byte[] toJson(List<T> fetched) {
+      try {
+        return mapper.writeValueAsBytes(fetched);
+      } catch (JsonProcessingException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    }
+
+    private String getKey(String region) {
+      return gateway.name().concat(MESSAGE_SEPARATOR).concat(region);
+    }
+  }
+
+  /**
+   * The banks of a gateway for a country or currency, indexed by code and by name, with the JSON body returned to clients and its
+   * ETag. The ETag is computed from the body, so it is the same on every node and does not change when a refresh fetches the same
+   * banks.
+   */
+  public static final class BankList<T> {
+
+    private final long version;
+    private final byte[] body;
+    private final String eTag;
+    private final List<T> banks;
+    private final Map<String, T> banksByCode;
+    private final Map<String, T> banksByName;
+
+    private BankList(long version, byte[] body, List<T> banks, Function<T, String> code, Function<T, String> name) {
+      this.version = version;
+      this.body = body;
+      this.eTag = "\"" + Hashing.murmur3_128().hashBytes(body) + "\"";
+      this.banks = List.copyOf(banks);
+      this.banksByCode = index(banks, code);
+      this.banksByName = index(banks, name);
+    }
+
+    public long getVersion() {
+      return version;
+    }
+
+    public List<T> getBanks() {
+      return banks;
+    }
+
+    /**
+     * @return the banks as the JSON array returned to clients, which must not be modified
+     */
+    public byte[] getBody() {
+      return body;
+    }
+
+    public String getETag() {
+      return eTag;
+    }
+
+    public Optional<T> findByCode(String code) {
+      return nonNull(code) ? Optional.ofNullable(banksByCode.get(normalize(code))) : Optional.empty();
+    }
+
+    public Optional<T> findByName(String name) {
+      return nonNull(name) ? Optional.ofNullable(banksByName.get(normalize(name))) : Optional.empty();
+    }
+
+    /**
+     * <p>Check if a client already holds these banks.</p>
+     * <br/>
+     *
+     * @param ifNoneMatch the If-None-Match header of the request
+     * @return true if the header holds the ETag of the banks
+     */
+    public boolean matches(String ifNoneMatch) {
+      if (isNull(ifNoneMatch)) {
+        return false;
+      }
+      for (String tag : ifNoneMatch.split(",")) {
+        String value = tag.trim();
+        if (value.startsWith("W/")) {
+          value = value.substring(2);
+        }
+        if (value.equals("*") || value.equals(eTag)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private static <T> Map<String, T> index(List<T> banks, Function<T, String> key) {
+      Map<String, T> index = new HashMap<>();
+      for (T bank : banks) {
+        String value = key.apply(bank);
+        if (nonNull(value)) {
+          index.putIfAbsent(normalize(value), bank);
+        }
+      }
+      return Map.copyOf(index);
+    }
+  }
+
+  private static String normalize(String value) {
+    return value.trim().toUpperCase(Locale.ROOT);
+  }
+}
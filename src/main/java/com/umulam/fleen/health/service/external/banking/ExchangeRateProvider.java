@@ -0,0 +1,18 @@
+package com.umulam.fleen.health.service.external.banking;
+
+/**
+ * ExchangeRateProvider gets the current rate between two currencies. The rate quoted by Flutterwave is used, and the tests use a fake
+ * provider with a fixed rate, latency and failures instead.
+ */
+public interface ExchangeRateProvider {
+
+  /**
+   * <p>Get the amount of the source currency that buys a single unit of the destination currency.</p>
+   * <br/>
+   *
+   * @param sourceCurrency the currency paid
+   * @param destinationCurrency the currency bought
+   * @return the amount of the source currency for one unit of the destination currency
+   */
+  Double getRate(String sourceCurrency, String destinationCurrency);
+}
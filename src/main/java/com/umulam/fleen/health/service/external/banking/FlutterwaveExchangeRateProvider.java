@@ -0,0 +1,33 @@
+package com.umulam.fleen.health.service.external.banking;
+
+import com.umulam.fleen.health.adapter.banking.flutterwave.model.response.FwGetExchangeRateResponse;
+import com.umulam.fleen.health.constant.authentication.PaymentGatewayType;
+import com.umulam.fleen.health.exception.externalsystem.ExternalSystemException;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+@Component
+public class FlutterwaveExchangeRateProvider implements ExchangeRateProvider {
+
+  /**
+   * The rate is quoted for a larger amount than one so that the amount returned keeps enough precision when divided back.
+   */
+  private static final double QUOTED_AMOUNT = 1000D;
+
+  private final FlutterwaveService flutterwaveService;
+
+  public FlutterwaveExchangeRateProvider(FlutterwaveService flutterwaveService) {
+    this.flutterwaveService = flutterwaveService;
+  }
+
+  @Override
+  public Double getRate(String sourceCurrency, String destinationCurrency) {
+    FwGetExchangeRateResponse response = flutterwaveService.getExchangeRate(QUOTED_AMOUNT, sourceCurrency, destinationCurrency);
+    if (Objects.isNull(response) || Objects.isNull(response.getData()) || Objects.isNull(response.getData().getSource())
+        || Objects.isNull(response.getData().getSource().getAmount())) {
+      throw new ExternalSystemException(PaymentGatewayType.FLUTTERWAVE.getValue());
+    }
+    return response.getData().getSource().getAmount() / QUOTED_AMOUNT;
+  }
+}
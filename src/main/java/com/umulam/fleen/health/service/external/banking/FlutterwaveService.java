@@ -7,7 +7,6 @@ import com.umulam.fleen.health.adapter.banking.flutterwave.model.request.FwCreat
 import com.umulam.fleen.health.adapter.banking.flutterwave.model.request.FwGetExchangeRateRequest;
 import com.umulam.fleen.health.adapter.banking.flutterwave.model.request.FwGetTransferFeeRequest;
 import com.umulam.fleen.health.adapter.banking.flutterwave.model.request.FwResolveBankAccountRequest;
-import com.umulam.fleen.health.adapter.banking.flutterwave.model.response.FwGetBanksResponse;
 import com.umulam.fleen.health.adapter.banking.flutterwave.model.response.FwGetExchangeRateResponse;
 import com.umulam.fleen.health.adapter.banking.flutterwave.model.response.FwGetTransferFeeResponse;
 import com.umulam.fleen.health.adapter.banking.flutterwave.model.response.FwResolveBankAccountResponse;
@@ -27,19 +26,17 @@ import com.umulam.fleen.health.repository.jpa.BankAccountJpaRepository;
 import com.umulam.fleen.health.repository.jpa.EarningsJpaRepository;
 import com.umulam.fleen.health.repository.jpa.transaction.WithdrawalTransactionJpaRepository;
 import com.umulam.fleen.health.service.BankingService;
+import com.umulam.fleen.health.service.external.resilience.ExternalDependencyGuard;
 import com.umulam.fleen.health.service.impl.BankingServiceImpl;
-import com.umulam.fleen.health.service.impl.CacheService;
 import com.umulam.fleen.health.service.impl.ConfigService;
 import com.umulam.fleen.health.util.FleenHealthReferenceGenerator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -47,9 +44,10 @@ import java.util.Optional;
 import static com.umulam.fleen.health.adapter.banking.flutterwave.model.request.FwCreateTransferRequest.CreateTransferMetadata;
 import static com.umulam.fleen.health.adapter.banking.flutterwave.model.response.FwGetBanksResponse.FwBankData;
 import static com.umulam.fleen.health.constant.base.FleenHealthConstant.TRANSFER_NARRATION_OR_DESCRIPTION;
-import static com.umulam.fleen.health.constant.base.GeneralConstant.FLUTTERWAVE_GET_BANKS_CACHE_PREFIX;
+import static com.umulam.fleen.health.constant.externalsystem.ExternalDependency.FLUTTERWAVE;
+import static com.umulam.fleen.health.service.external.banking.BankDirectory.BankList;
 import static com.umulam.fleen.health.util.StringUtil.getFullName;
-import static java.util.Objects.isNull;
+import static java.util.stream.Collectors.toList;
 
 @Slf4j
 @Service
@@ -57,65 +55,62 @@ import static java.util.Objects.isNull;
 public class FlutterwaveService extends BankingServiceImpl implements BankingService {
 
   private final FlutterwaveAdapter flutterwaveAdapter;
-  private final CacheService cacheService;
   private final BankAccountJpaRepository bankAccountJpaRepository;
   private final EarningsJpaRepository earningsJpaRepository;
   private final FleenHealthReferenceGenerator referenceGenerator;
   private final WithdrawalTransactionJpaRepository withdrawalTransactionJpaRepository;
   private final ConfigService configService;
+  private final ExternalDependencyGuard dependencyGuard;
+  private final BankDirectory.Source<FwBankData> banks;
 
   public FlutterwaveService(FlutterwaveAdapter flutterwaveAdapter,
-                           CacheService cacheService,
                            BankAccountJpaRepository bankAccountJpaRepository,
                            ObjectMapper mapper,
                            EarningsJpaRepository earningsJpaRepository,
                            FleenHealthReferenceGenerator referenceGenerator,
                            ConfigService configService,
-                           WithdrawalTransactionJpaRepository withdrawalTransactionJpaRepository) {
+                           WithdrawalTransactionJpaRepository withdrawalTransactionJpaRepository,
+                           ExternalDependencyGuard dependencyGuard,
+                           BankDirectory bankDirectory) {
     super(bankAccountJpaRepository, mapper);
     this.flutterwaveAdapter = flutterwaveAdapter;
-    this.cacheService = cacheService;
     this.bankAccountJpaRepository = bankAccountJpaRepository;
     this.referenceGenerator = referenceGenerator;
     this.earningsJpaRepository = earningsJpaRepository;
     this.configService = configService;
     this.withdrawalTransactionJpaRepository = withdrawalTransactionJpaRepository;
+    this.dependencyGuard = dependencyGuard;
+    this.banks = bankDirectory.register(PaymentGateway.FLUTTERWAVE, FwBankData.class, FwBankData::getCode, FwBankData::getName,
+      country -> dependencyGuard.call(FLUTTERWAVE, () -> flutterwaveAdapter.getBanks(country)).getData(),
+      Arrays.stream(CurrencyType.values()).map(CurrencyType::getCountry).collect(toList()), FwBankCountryType.NG.getValue());
   }
 
-  public List<FwBankData> getBanks(String country) {
-    String cacheKey = getBanksCacheKey().concat(country.toUpperCase());
-    if (cacheService.exists(cacheKey)) {
-      return cacheService.get(cacheKey, FwGetBanksResponse.class).getData();
-    }
-
-    FwGetBanksResponse banksResponse = flutterwaveAdapter.getBanks(country);
-    cacheService.set(cacheKey, banksResponse);
-    return banksResponse.getData();
+  /**
+   * <p>Get the banks of a country from the bank directory, which fetches them from Flutterwave if no node has done so yet.</p>
+   * <br/>
+   *
+   * @param country the country of the banks
+   * @return the banks
+   */
+  public BankList<FwBankData> getBankList(String country) {
+    return banks.get(country);
   }
 
-  @EventListener(ApplicationReadyEvent.class)
-  public void saveBanksToCacheOnStartup() {
-    FwGetBanksResponse banksResponse = flutterwaveAdapter.getBanks(FwBankCountryType.NG.getValue());
-    saveBanksFwToCache(banksResponse, null);
-  }
-
-  @Scheduled(cron = "0 0 */12 * * *")
-  private void saveBanksToCache() {
-    saveBanksFwToCache(null, FwBankCountryType.NG.getValue());
-  }
-
-  private void saveBanksFwToCache(FwGetBanksResponse response, String country) {
-    if (isNull(response) || isNull(response.getData()) || response.getData().isEmpty()) {
-      saveBanksToCacheOnStartup();
-    }
-    String key = getBanksCacheKey().concat(Objects.toString(country, FwBankCountryType.NG.getValue()));
-    cacheService.set(key, response);
-  }
-
-  private String getBanksCacheKey() {
-    return FLUTTERWAVE_GET_BANKS_CACHE_PREFIX;
+  public List<FwBankData> getBanks(String country) {
+    return getBankList(country).getBanks();
   }
 
+  /**
+   * <p>Get the amount of the source currency that buys an amount of the destination currency. There is no fallback for a quote,
+   * so the call fails fast while Flutterwave cannot be called and the rates last read by the exchange rate service are used
+   * instead.</p>
+   * <br/>
+   *
+   * @param amount the amount of the destination currency
+   * @param sourceCurrency the currency paid
+   * @param destinationCurrency the currency bought
+   * @return the quote
+   */
   public FwGetExchangeRateResponse getExchangeRate(Double amount, String sourceCurrency, String destinationCurrency) {
     FwGetExchangeRateRequest request = FwGetExchangeRateRequest.builder()
       .amount(amount.toString())
@@ -123,7 +118,7 @@ public class FlutterwaveService extends BankingServiceImpl implements BankingSer
       .destinationCurrency(destinationCurrency)
       .build();
 
-    return flutterwaveAdapter.getExchangeRate(request);
+    return dependencyGuard.call(FLUTTERWAVE, () -> flutterwaveAdapter.getExchangeRate(request));
   }
 
   @Transactional
@@ -136,16 +131,12 @@ public class FlutterwaveService extends BankingServiceImpl implements BankingSer
     String recipientType = dto.getRecipientType().toUpperCase();
     String currency = dto.getCurrency().toUpperCase();
     CurrencyType currencyType = CurrencyType.valueOf(currency);
-    List<FwBankData> banks = getBanks(currencyType.getCountry());
+    BankList<FwBankData> banks = getBankList(currencyType.getCountry());
 
     checkAccountDetails(dto, currency, recipientType);
-    FwResolveBankAccountResponse bankAccountResponse = flutterwaveAdapter.resolveBankAccount(request);
+    FwResolveBankAccountResponse bankAccountResponse = dependencyGuard.call(FLUTTERWAVE, () -> flutterwaveAdapter.resolveBankAccount(request));
 
-    FwBankData bankDetails = banks
-      .stream()
-      .filter(bank -> Objects.equals(bank.getCode(), dto.getBankCode()))
-      .findFirst()
-      .orElse(null);
+    FwBankData bankDetails = banks.findByCode(dto.getBankCode()).orElse(null);
 
     MemberBankAccount bankAccount = dto.toBankAccount();
     bankAccount.setBankCode(dto.getBankCode());
@@ -157,15 +148,12 @@ public class FlutterwaveService extends BankingServiceImpl implements BankingSer
 
   @Override
   public String getTransactionStatusByReference(String transactionReference) {
-    return flutterwaveAdapter.verifyTransactionByReference(transactionReference).getData().getStatus();
+    return dependencyGuard.call(FLUTTERWAVE, () -> flutterwaveAdapter.verifyTransactionByReference(transactionReference)).getData().getStatus();
   }
 
   @Override
   public boolean isBankCodeExists(String bankCode, String country) {
-    List<FwBankData> banks = getBanks(country);
-    return banks
-      .stream()
-      .anyMatch(bank -> bank.getCode().equalsIgnoreCase(bankCode));
+    return getBankList(country).findByCode(bankCode).isPresent();
   }
 
   @Override
@@ -194,7 +182,7 @@ public class FlutterwaveService extends BankingServiceImpl implements BankingSer
       .build();
     request.setTransferType(bankAccount);
 
-    FwGetTransferFeeResponse transferFeeResponse = flutterwaveAdapter.getTransferFee(request);
+    FwGetTransferFeeResponse transferFeeResponse = dependencyGuard.call(FLUTTERWAVE, () -> flutterwaveAdapter.getTransferFee(request));
     double transferFee = transferFeeResponse.getData().get(0).getFee();
     double balance = earnings.getTotalEarnings().doubleValue() - dto.getAmount().doubleValue();
     double amountToTransfer;
@@ -254,7 +242,7 @@ public class FlutterwaveService extends BankingServiceImpl implements BankingSer
 
     earnings.setTotalEarnings(new BigDecimal(balance));
     earningsJpaRepository.save(earnings);
-    flutterwaveAdapter.createTransfer(transferRequest);
+    dependencyGuard.run(FLUTTERWAVE, () -> flutterwaveAdapter.createTransfer(transferRequest));
   }
 
   @Transactional
@@ -270,7 +258,7 @@ public class FlutterwaveService extends BankingServiceImpl implements BankingSer
   }
 
   public Object getBankBranches(Long bankId) {
-    return flutterwaveAdapter.getBankBranches(bankId);
+    return dependencyGuard.call(FLUTTERWAVE, () -> flutterwaveAdapter.getBankBranches(bankId));
   }
 
 }
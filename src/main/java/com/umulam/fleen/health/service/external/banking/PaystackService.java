@@ -6,9 +6,9 @@ import com.umulam.fleen.health.adapter.banking.paystack.model.request.CreateTran
 import com.umulam.fleen.health.adapter.banking.paystack.model.request.CreateTransferRecipientRequest.CreateTransferRecipientMetadata;
 import com.umulam.fleen.health.adapter.banking.paystack.model.request.ResolveBankAccountRequest;
 import com.umulam.fleen.health.adapter.banking.paystack.response.CreateTransferRecipientResponse;
-import com.umulam.fleen.health.adapter.banking.paystack.response.PsGetBanksResponse;
 import com.umulam.fleen.health.adapter.banking.paystack.response.ResolveBankAccountResponse;
 import com.umulam.fleen.health.constant.session.CurrencyType;
+import com.umulam.fleen.health.constant.session.PaymentGateway;
 import com.umulam.fleen.health.exception.banking.BankAccountNotFoundException;
 import com.umulam.fleen.health.model.domain.Member;
 import com.umulam.fleen.health.model.domain.MemberBankAccount;
@@ -18,22 +18,20 @@ import com.umulam.fleen.health.model.security.FleenUser;
 import com.umulam.fleen.health.repository.jpa.BankAccountJpaRepository;
 import com.umulam.fleen.health.service.MemberService;
 import com.umulam.fleen.health.service.impl.BankingServiceImpl;
-import com.umulam.fleen.health.service.impl.CacheService;
+import com.umulam.fleen.health.service.external.resilience.ExternalDependencyGuard;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 
 import static com.umulam.fleen.health.adapter.banking.paystack.response.PsGetBanksResponse.PsBankData;
-import static com.umulam.fleen.health.constant.base.GeneralConstant.PAYSTACK_GET_BANKS_CACHE_PREFIX;
-import static java.util.Objects.isNull;
+import static com.umulam.fleen.health.constant.externalsystem.ExternalDependency.PAYSTACK;
+import static com.umulam.fleen.health.service.external.banking.BankDirectory.BankList;
+import static java.util.stream.Collectors.toList;
 
 @Slf4j
 @Service
@@ -41,31 +39,40 @@ import static java.util.Objects.isNull;
 public class PaystackService extends BankingServiceImpl {
 
   private final PaystackAdapter paystackAdapter;
-  private final CacheService cacheService;
   private final BankAccountJpaRepository bankAccountJpaRepository;
   private final MemberService memberService;
+  private final ExternalDependencyGuard dependencyGuard;
+  private final BankDirectory.Source<PsBankData> banks;
 
   public PaystackService(PaystackAdapter paystackAdapter,
-                         CacheService cacheService,
                          BankAccountJpaRepository bankAccountJpaRepository,
                          MemberService memberService,
-                         ObjectMapper mapper) {
+                         ObjectMapper mapper,
+                         ExternalDependencyGuard dependencyGuard,
+                         BankDirectory bankDirectory) {
     super(bankAccountJpaRepository, mapper);
     this.paystackAdapter = paystackAdapter;
-    this.cacheService = cacheService;
     this.bankAccountJpaRepository = bankAccountJpaRepository;
     this.memberService = memberService;
+    this.dependencyGuard = dependencyGuard;
+    this.banks = bankDirectory.register(PaymentGateway.PAYSTACK, PsBankData.class, PsBankData::getCode, PsBankData::getName,
+      currency -> dependencyGuard.call(PAYSTACK, () -> paystackAdapter.getBanks(currency)).getData(),
+      Arrays.stream(CurrencyType.values()).map(CurrencyType::getValue).collect(toList()), CurrencyType.NGN.getValue());
   }
 
-  public List<PsBankData> getBanks(String currency) {
-    String cacheKey = getBanksCacheKey().concat(currency.toUpperCase());
-    if (cacheService.exists(cacheKey)) {
-      return cacheService.get(cacheKey, PsGetBanksResponse.class).getData();
-    }
+  /**
+   * <p>Get the banks of a currency from the bank directory, which fetches them from Paystack if no node has done so yet.</p>
+   * <br/>
+   *
+   * @param currency the currency of the banks
+   * @return the banks
+   */
+  public BankList<PsBankData> getBankList(String currency) {
+    return banks.get(currency);
+  }
 
-    PsGetBanksResponse banksResponse = paystackAdapter.getBanks(currency);
-    cacheService.set(cacheKey, banksResponse);
-    return banksResponse.getData();
+  public List<PsBankData> getBanks(String currency) {
+    return getBankList(currency).getBanks();
   }
 
   @Transactional
@@ -80,7 +87,7 @@ public class PaystackService extends BankingServiceImpl {
 
     checkAccountDetails(dto, currency, recipientType);
 
-    ResolveBankAccountResponse bankAccountResponse = paystackAdapter.resolveBankAccount(request);
+    ResolveBankAccountResponse bankAccountResponse = dependencyGuard.call(PAYSTACK, () -> paystackAdapter.resolveBankAccount(request));
     GetMemberUpdateDetailsResponse member = memberService.getMemberGetUpdateDetailsResponse(user);
     CreateTransferRecipientRequest transferRecipientRequest = CreateTransferRecipientRequest.builder()
         .type(recipientType)
@@ -97,7 +104,7 @@ public class PaystackService extends BankingServiceImpl {
         .lastName(member.getLastName())
         .build();
     transferRecipientRequest.setMetadata(metadata);
-    CreateTransferRecipientResponse createRecipientResponse = paystackAdapter.createTransferRecipient(transferRecipientRequest);
+    CreateTransferRecipientResponse createRecipientResponse = dependencyGuard.call(PAYSTACK, () -> paystackAdapter.createTransferRecipient(transferRecipientRequest));
 
     MemberBankAccount bankAccount = dto.toBankAccount();
     bankAccount.setAccountName(bankAccountResponse.getData().getAccountName());
@@ -116,46 +123,22 @@ public class PaystackService extends BankingServiceImpl {
 
     MemberBankAccount bankAccount = bankAccountExist.get();
     String recipientCode = bankAccount.getExternalSystemRecipientCode();
-    paystackAdapter.deleteTransferRecipient(recipientCode);
+    dependencyGuard.run(PAYSTACK, () -> paystackAdapter.deleteTransferRecipient(recipientCode));
     bankAccount.setActive(false);
     bankAccountJpaRepository.save(bankAccount);
   }
 
-  @EventListener(ApplicationReadyEvent.class)
-  public void saveBanksToCacheOnStartup() {
-    PsGetBanksResponse banksResponse = paystackAdapter.getBanks(CurrencyType.NGN.getValue());
-    saveBanksPsToCache(banksResponse, null);
-  }
-
-  @Scheduled(cron = "0 0 */12 * * *")
-  private void saveBanksToCache() {
-    saveBanksPsToCache(null, CurrencyType.NGN.getValue());
-  }
-
-  private void saveBanksPsToCache(PsGetBanksResponse response, String currency) {
-    if (isNull(response) || isNull(response.getData()) || response.getData().isEmpty()) {
-      saveBanksToCacheOnStartup();
-    }
-    String key = getBanksCacheKey().concat(Objects.toString(currency, CurrencyType.NGN.getValue()));
-    cacheService.set(key, response);
-  }
-
-  private String getBanksCacheKey() {
-    return PAYSTACK_GET_BANKS_CACHE_PREFIX;
-  }
-
   @Override
   public boolean isBankCodeExists(String bankCode, String currency) {
-    List<PsBankData> banks = getBanks(currency);
-    return banks
-      .stream()
-      .anyMatch(bank -> bank.getCode().equalsIgnoreCase(bankCode)
-                     && bank.getCurrency().equalsIgnoreCase(currency));
+    return getBankList(currency)
+      .findByCode(bankCode)
+      .filter(bank -> bank.getCurrency().equalsIgnoreCase(currency))
+      .isPresent();
   }
 
   @Override
   public String getTransactionStatusByReference(String transactionReference) {
-    return paystackAdapter.verifyTransactionByReference(transactionReference).getData().getStatus();
+    return dependencyGuard.call(PAYSTACK, () -> paystackAdapter.verifyTransactionByReference(transactionReference)).getData().getStatus();
   }
 
 }
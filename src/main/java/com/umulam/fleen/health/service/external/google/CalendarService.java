@@ -1,20 +1,27 @@
 package com.umulam.fleen.health.service.external.google;
 
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
 import com.google.api.client.util.DateTime;
 import com.google.api.services.calendar.Calendar;
 import com.google.api.services.calendar.model.*;
+import com.google.common.hash.Hashing;
 import com.umulam.fleen.health.constant.session.SessionLocation;
+import com.umulam.fleen.health.service.external.resilience.ExternalDependencyGuard;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
+import static com.umulam.fleen.health.constant.externalsystem.ExternalDependency.GOOGLE_CALENDAR;
 import static com.umulam.fleen.health.util.DateTimeUtil.asDate;
 import static com.umulam.fleen.health.util.DateTimeUtil.toMilliseconds;
 
@@ -23,21 +30,25 @@ import static com.umulam.fleen.health.util.DateTimeUtil.toMilliseconds;
 public class CalendarService {
 
   private final Calendar calendar;
+  private final ExternalDependencyGuard dependencyGuard;
   private static final String CALENDAR_ID = "primary";
   private static final String EVENT_SUMMARY = "Fleen Health Session";
   private static final String EVENT_DESCRIPTION = "Fleen Health Telehealth Session";
   private static final String EVENT_DISPLAY_NAME = "Fleen Health";
   private static final String DEFAULT_TIMEZONE = "Africa/Lagos";
   private static final String DEFAULT_CONFERENCE_NAME = "Lam Telehealth Session";
+  private static final String EVENT_ID_PREFIX = "fleen";
   private final String ADMIN_EMAIL;
   public static final String EVENT_SUMMARY_KEY = "eventSummary";
 
 
   public CalendarService(Calendar calendar,
-                         @Value("${google.admin.email}") String adminEmail) {
+                         @Value("${google.admin.email}") String adminEmail,
+                         ExternalDependencyGuard dependencyGuard) {
 
     this.calendar = calendar;
     this.ADMIN_EMAIL = adminEmail;
+    this.dependencyGuard = dependencyGuard;
 
   }
 
@@ -74,9 +85,24 @@ public class CalendarService {
     }
   }
 
-  public Event createEvent(LocalDateTime startDate, LocalDateTime endDate, List<String> emails, Map<String, String> metadata) {
+  /**
+   * <p>Create the calendar event of a session, with a meeting that its attendees are invited to. The event has an ID derived from
+   * the session, so an event that was already created for the session, like by another node trying it at the same time, is returned
+   * instead of being created again.</p>
+   * <br/>
+   *
+   * @param sessionReference the reference of the session
+   * @param startDate the start of the meeting
+   * @param endDate the end of the meeting
+   * @param emails the email addresses of the attendees
+   * @param metadata the properties shared with the event
+   * @return the event, or null if the calendar could not be reached, in which case the session is tried again later
+   */
+  public Event createEvent(String sessionReference, LocalDateTime startDate, LocalDateTime endDate, List<String> emails,
+                           Map<String, String> metadata) {
     try {
       Event event = new Event();
+      event.setId(getEventId(sessionReference));
       event.setLocation(SessionLocation.REMOTE.name());
       event.setSummary(Objects.toString(metadata.get(EVENT_SUMMARY_KEY), EVENT_SUMMARY));
       event.setDescription(EVENT_DESCRIPTION);
@@ -133,7 +159,18 @@ public class CalendarService {
       Calendar.Events.Insert insert = calendar.events().insert(CALENDAR_ID, event);
       insert.setConferenceDataVersion(1);
       insert.setSendUpdates("all");
-      return insert.execute();
+      return dependencyGuard.call(GOOGLE_CALENDAR, () -> {
+        try {
+          return insert.execute();
+        } catch (GoogleJsonResponseException ex) {
+          if (ex.getStatusCode() != HttpStatus.CONFLICT.value()) {
+            throw new UncheckedIOException(ex);
+          }
+          return getEvent(event.getId());
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      }, () -> null);
     } catch (IOException ex) {
       log.error(ex.getMessage(), ex);
     }
@@ -141,32 +178,36 @@ public class CalendarService {
   }
 
   public void cancelEvent(String eventId) {
-    try {
-      Event event = calendar.events().get(CALENDAR_ID, eventId).execute();
-      if (Objects.nonNull(event)) {
-        event.setStatus("cancelled");
-        calendar.events().update(CALENDAR_ID, eventId, event)
-          .setSendUpdates("all")
-          .execute();
+    dependencyGuard.runOrDefer(GOOGLE_CALENDAR, "cancel event " + eventId, () -> {
+      try {
+        Event event = calendar.events().get(CALENDAR_ID, eventId).execute();
+        if (Objects.nonNull(event)) {
+          event.setStatus("cancelled");
+          calendar.events().update(CALENDAR_ID, eventId, event)
+            .setSendUpdates("all")
+            .execute();
+        }
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
       }
-    } catch (IOException ex) {
-      log.error(ex.getMessage(), ex);
-    }
+    });
   }
 
   public void rescheduleEvent(String eventId, LocalDateTime newStartDate, LocalDateTime newEndDate) {
-    try {
-      Event event = calendar.events().get(CALENDAR_ID, eventId).execute();
-      if (Objects.nonNull(event)) {
-        setStartDate(newStartDate, event);
-        setEndDate(newEndDate, event);
-        calendar.events().update(CALENDAR_ID, eventId, event)
-          .setSendUpdates("all")
-          .execute();
+    dependencyGuard.runOrDefer(GOOGLE_CALENDAR, "reschedule event " + eventId, () -> {
+      try {
+        Event event = calendar.events().get(CALENDAR_ID, eventId).execute();
+        if (Objects.nonNull(event)) {
+          setStartDate(newStartDate, event);
+          setEndDate(newEndDate, event);
+          calendar.events().update(CALENDAR_ID, eventId, event)
+            .setSendUpdates("all")
+            .execute();
+        }
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
       }
-    } catch (IOException ex) {
-      log.error(ex.getMessage(), ex);
-    }
+    });
   }
 
   private void setStartDate(LocalDateTime startDate, Event event) {
@@ -194,6 +235,21 @@ public class CalendarService {
     return eventReminders;
   }
 
+  private Event getEvent(String eventId) {
+    try {
+      return calendar.events().get(CALENDAR_ID, eventId).execute();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * The ID of the event of a session, which can only hold the digits and the letters a to v.
+   */
+  private static String getEventId(String sessionReference) {
+    return EVENT_ID_PREFIX.concat(Hashing.sha256().hashString(sessionReference, StandardCharsets.UTF_8).toString());
+  }
+
   private String createConferenceRequestId(LocalDateTime startDate, LocalDateTime endDate) {
     return String.valueOf(toMilliseconds(startDate, DEFAULT_TIMEZONE))
             .concat("-")
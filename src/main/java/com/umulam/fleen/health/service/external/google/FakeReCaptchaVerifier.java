@@ -0,0 +1,44 @@
+package com.umulam.fleen.health.service.external.google;
+
+import com.umulam.fleen.health.adapter.google.recaptcha.model.response.ReCaptchaResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * FakeReCaptchaVerifier answers every check with the same configured result after the configured delay without calling Google.
+ * It can be used to see how the application behaves when the check is slow or fails.
+ */
+@Component
+@ConditionalOnProperty(name = "google.recaptcha.verifier", havingValue = "fake")
+public class FakeReCaptchaVerifier implements ReCaptchaVerifier {
+
+  private static final String HOSTNAME = "localhost";
+
+  private final long latencyMillis;
+  private final boolean success;
+  private final float score;
+
+  public FakeReCaptchaVerifier(@Value("${google.recaptcha.fake.latency-millis:0}") long latencyMillis,
+                               @Value("${google.recaptcha.fake.success:true}") boolean success,
+                               @Value("${google.recaptcha.fake.score:1.0}") float score) {
+    this.latencyMillis = latencyMillis;
+    this.success = success;
+    this.score = score;
+  }
+
+  @Override
+  public ReCaptchaResponse verify(String reCaptchaToken) {
+    if (latencyMillis > 0) {
+      try {
+        Thread.sleep(latencyMillis);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    return new ReCaptchaResponse(success, HOSTNAME, null, score, LocalDateTime.now(), List.of());
+  }
+}
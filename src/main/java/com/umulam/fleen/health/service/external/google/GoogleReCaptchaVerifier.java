@@ -0,0 +1,22 @@
+package com.umulam.fleen.health.service.external.google;
+
+import com.umulam.fleen.health.adapter.google.recaptcha.ReCaptchaAdapter;
+import com.umulam.fleen.health.adapter.google.recaptcha.model.response.ReCaptchaResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "google.recaptcha.verifier", havingValue = "google", matchIfMissing = true)
+public class GoogleReCaptchaVerifier implements ReCaptchaVerifier {
+
+  private final ReCaptchaAdapter reCaptchaAdapter;
+
+  public GoogleReCaptchaVerifier(ReCaptchaAdapter reCaptchaAdapter) {
+    this.reCaptchaAdapter = reCaptchaAdapter;
+  }
+
+  @Override
+  public ReCaptchaResponse verify(String reCaptchaToken) {
+    return reCaptchaAdapter.verifyRecaptcha(reCaptchaToken);
+  }
+}
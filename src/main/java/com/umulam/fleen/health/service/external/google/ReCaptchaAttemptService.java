@@ -3,28 +3,42 @@ package com.umulam.fleen.health.service.external.google;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.stereotype.Component;
 
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
+import static com.umulam.fleen.health.constant.base.GeneralConstant.RECAPTCHA_ATTEMPT_CACHE_PREFIX;
+
 /**
  * ReCaptchaAttemptService is used to limit the number of attempts a user can against some application APIs
- * for security purpose and to prevent DDOS attacks
+ * for security purpose and to prevent DDOS attacks. The attempts are counted in the cache store so that the limit is shared by
+ * every node of the application, and are counted on this node only while the cache store cannot be reached.
  *
  * @author Yusuf Alamu Musa
  */
+@Slf4j
 @Component
 public class ReCaptchaAttemptService {
   private static final int MAX_ATTEMPT = 3;
+  private static final long ATTEMPT_EXPIRY_SECONDS = TimeUnit.MINUTES.toSeconds(5);
   private final LoadingCache<String, Integer> attemptsCache;
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final StringRedisSerializer serializer;
 
   /**
    * When the user performs authentication like login; in order to protect the application from attacks like DDOS or even bots,
    * a record is saved that contains uniquely identifiable information of the client like an IP address and It's checked to make
    * sure that the user is not allowed to make unauthorized calls until after a period of time.
    */
-  public ReCaptchaAttemptService() {
+  public ReCaptchaAttemptService(RedisTemplate<String, Object> redisTemplate) {
     super();
+    this.redisTemplate = redisTemplate;
+    this.serializer = StringRedisSerializer.UTF_8;
     attemptsCache = CacheBuilder.newBuilder()
         .expireAfterWrite(5, TimeUnit.MINUTES).build(new CacheLoader<>() {
           @Override
@@ -41,6 +55,12 @@ public class ReCaptchaAttemptService {
    */
   public void reCaptchaSucceeded(String key) {
     attemptsCache.invalidate(key);
+    byte[] cacheKey = getCacheKey(key);
+    try {
+      redisTemplate.execute((RedisCallback<Long>) connection -> connection.del(cacheKey));
+    } catch (RuntimeException ex) {
+      log.warn(ex.getMessage());
+    }
   }
 
   /**
@@ -48,6 +68,18 @@ public class ReCaptchaAttemptService {
    * @param key the cache key that uniquely identifies a user or client
    */
   public void reCaptchaFailed(String key) {
+    byte[] cacheKey = getCacheKey(key);
+    try {
+      redisTemplate.execute((RedisCallback<Long>) connection -> {
+        Long attempts = connection.incr(cacheKey);
+        connection.expire(cacheKey, ATTEMPT_EXPIRY_SECONDS);
+        return attempts;
+      });
+      return;
+    } catch (RuntimeException ex) {
+      log.warn(ex.getMessage());
+    }
+
     int attempts = attemptsCache.getUnchecked(key);
     attempts++;
     attemptsCache.put(key, attempts);
@@ -59,6 +91,19 @@ public class ReCaptchaAttemptService {
    * @return true or false if the attempts has or has not been exceeded
    */
   public boolean isBlocked(String key) {
+    byte[] cacheKey = getCacheKey(key);
+    try {
+      byte[] attempts = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.get(cacheKey));
+      if (Objects.nonNull(attempts) && Integer.parseInt(serializer.deserialize(attempts)) >= MAX_ATTEMPT) {
+        return true;
+      }
+    } catch (RuntimeException ex) {
+      log.warn(ex.getMessage());
+    }
     return attemptsCache.getUnchecked(key) >= MAX_ATTEMPT;
   }
+
+  private byte[] getCacheKey(String key) {
+    return serializer.serialize(RECAPTCHA_ATTEMPT_CACHE_PREFIX.concat(key));
+  }
 }
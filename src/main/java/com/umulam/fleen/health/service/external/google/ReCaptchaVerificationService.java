@@ -0,0 +1,203 @@
+package com.umulam.fleen.health.service.external.google;
+
+import com.umulam.fleen.health.adapter.google.recaptcha.model.response.ReCaptchaResponse;
+import com.umulam.fleen.health.util.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ReCaptchaVerificationService checks reCAPTCHA tokens on a dedicated pool so that the check can start while the request is still
+ * being handled and a slow response from Google only holds a thread of that pool. The caller waits for the result no longer than
+ * the configured deadline.
+ *
+ * <p>Consecutive failures open a {@link CircuitBreaker} so that Google is not called while it is failing. While the check cannot be
+ * made, because it failed, did not complete in time or the breaker is open, the configured {@link FailurePolicy} decides if the
+ * request is allowed. The time spent and the outcome of every check are recorded as metrics.</p>
+ * <br/>
+ */
+@Slf4j
+@Component
+public class ReCaptchaVerificationService implements DisposableBean {
+
+  public enum FailurePolicy {
+    FAIL_OPEN, FAIL_CLOSED
+  }
+
+  private static final String METRIC_NAME = "fleen.health.recaptcha.verification";
+  private static final String EXECUTOR_NAME = "recaptcha-verification";
+
+  private final ReCaptchaVerifier verifier;
+  private final CircuitBreaker circuitBreaker;
+  private final ThreadPoolExecutor executor;
+  private final MeterRegistry meterRegistry;
+  private final FailurePolicy failurePolicy;
+  private final long timeoutMillis;
+  private final float scoreThreshold;
+
+  public ReCaptchaVerificationService(ReCaptchaVerifier verifier,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${google.recaptcha.score-threshold}") String scoreThreshold,
+                                      @Value("${google.recaptcha.timeout-millis:2000}") long timeoutMillis,
+                                      @Value("${google.recaptcha.failure-policy:FAIL_CLOSED}") FailurePolicy failurePolicy,
+                                      @Value("${google.recaptcha.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                                      @Value("${google.recaptcha.circuit-breaker.open-seconds:30}") long openSeconds,
+                                      @Value("${google.recaptcha.pool-size:8}") int poolSize,
+                                      @Value("${google.recaptcha.queue-capacity:100}") int queueCapacity) {
+    this.verifier = verifier;
+    this.meterRegistry = meterRegistry;
+    this.scoreThreshold = Float.parseFloat(scoreThreshold);
+    this.timeoutMillis = timeoutMillis;
+    this.failurePolicy = failurePolicy;
+    this.circuitBreaker = new CircuitBreaker(EXECUTOR_NAME, failureThreshold, Duration.ofSeconds(openSeconds));
+    this.executor = new ThreadPoolExecutor(
+      poolSize,
+      poolSize,
+      0L,
+      TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(queueCapacity),
+      new VerificationThreadFactory(),
+      new ThreadPoolExecutor.AbortPolicy());
+    ExecutorServiceMetrics.monitor(meterRegistry, executor, EXECUTOR_NAME);
+  }
+
+  /**
+   * <p>Start checking the token. The check runs on the verification pool and the returned verification is used to wait for the
+   * result.</p>
+   * <br/>
+   *
+   * @param reCaptchaToken the token sent with the request
+   * @return the check that has been started
+   */
+  public Verification verify(String reCaptchaToken) {
+    long startedAt = System.nanoTime();
+    if (!circuitBreaker.tryAcquire()) {
+      return new Verification(CompletableFuture.completedFuture(null), startedAt, Outcome.CIRCUIT_OPEN);
+    }
+
+    try {
+      CompletableFuture<ReCaptchaResponse> response = CompletableFuture.supplyAsync(() -> verifier.verify(reCaptchaToken), executor);
+      return new Verification(response, startedAt, null);
+    } catch (RejectedExecutionException ex) {
+      circuitBreaker.onFailure();
+      return new Verification(CompletableFuture.completedFuture(null), startedAt, Outcome.REJECTED);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  private boolean isHuman(ReCaptchaResponse response) {
+    return Objects.nonNull(response) && response.isSuccess() && response.getScore() >= scoreThreshold;
+  }
+
+  private boolean onUnavailable(Outcome outcome) {
+    log.warn("ReCaptcha verification unavailable with outcome {}, applying {}", outcome, failurePolicy);
+    return failurePolicy == FailurePolicy.FAIL_OPEN;
+  }
+
+  private void record(long startedAt, Outcome outcome) {
+    Timer.builder(METRIC_NAME)
+      .tag("outcome", outcome.name().toLowerCase())
+      .register(meterRegistry)
+      .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+  }
+
+  private enum Outcome {
+    HUMAN, NOT_HUMAN, TIMEOUT, ERROR, REJECTED, CIRCUIT_OPEN
+  }
+
+  /**
+   * A reCAPTCHA check that has been started. It must be closed once the caller is done with it, so that a check whose result was
+   * never read is cancelled and gives back the permit it took from the circuit breaker.
+   */
+  public final class Verification implements AutoCloseable {
+
+    private final CompletableFuture<ReCaptchaResponse> response;
+    private final long startedAt;
+    private final Outcome unavailableOutcome;
+    private boolean completed;
+
+    private Verification(CompletableFuture<ReCaptchaResponse> response, long startedAt, Outcome unavailableOutcome) {
+      this.response = response;
+      this.startedAt = startedAt;
+      this.unavailableOutcome = unavailableOutcome;
+    }
+
+    /**
+     * Wait for the check to complete within what is left of the deadline.
+     *
+     * @return true if the request was made by a human, or if the check could not be made and the policy is to fail open
+     */
+    public boolean isHuman() {
+      completed = true;
+      if (Objects.nonNull(unavailableOutcome)) {
+        record(startedAt, unavailableOutcome);
+        return onUnavailable(unavailableOutcome);
+      }
+
+      long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis) - (System.nanoTime() - startedAt);
+      try {
+        ReCaptchaResponse result = response.get(Math.max(remainingNanos, 0), TimeUnit.NANOSECONDS);
+        circuitBreaker.onSuccess();
+        boolean human = ReCaptchaVerificationService.this.isHuman(result);
+        record(startedAt, human ? Outcome.HUMAN : Outcome.NOT_HUMAN);
+        return human;
+      } catch (TimeoutException ex) {
+        response.cancel(true);
+        circuitBreaker.onFailure();
+        record(startedAt, Outcome.TIMEOUT);
+        return onUnavailable(Outcome.TIMEOUT);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        response.cancel(true);
+        circuitBreaker.onFailure();
+        record(startedAt, Outcome.ERROR);
+        return onUnavailable(Outcome.ERROR);
+      } catch (ExecutionException ex) {
+        log.error(ex.getMessage(), ex);
+        circuitBreaker.onFailure();
+        record(startedAt, Outcome.ERROR);
+        return onUnavailable(Outcome.ERROR);
+      }
+    }
+
+    /**
+     * Cancel the check if its result was never read.
+     */
+    @Override
+    public void close() {
+      if (completed) {
+        return;
+      }
+      completed = true;
+      if (Objects.isNull(unavailableOutcome)) {
+        response.cancel(true);
+        circuitBreaker.release();
+      }
+    }
+  }
+
+  private static final class VerificationThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, EXECUTOR_NAME + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package com.umulam.fleen.health.service.external.google;
+
+import com.umulam.fleen.health.adapter.google.recaptcha.model.response.ReCaptchaResponse;
+
+/**
+ * ReCaptchaVerifier checks a reCAPTCHA token sent with a request. The check made against Google is used by default and a fake
+ * check with a fixed result and latency can be used instead when running locally or in tests.
+ */
+public interface ReCaptchaVerifier {
+
+  ReCaptchaResponse verify(String reCaptchaToken);
+}
@@ -0,0 +1,27 @@
+package com.umulam.fleen.health.service.external.resilience;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * ExternalDependencyEndpoint shows the circuit breaker, bulkhead and deferred tasks of every external system at
+ * /actuator/dependencies once the endpoint is exposed.
+ */
+@Component
+@Endpoint(id = "dependencies")
+public class ExternalDependencyEndpoint {
+
+  private final ExternalDependencyGuard dependencyGuard;
+
+  public ExternalDependencyEndpoint(ExternalDependencyGuard dependencyGuard) {
+    this.dependencyGuard = dependencyGuard;
+  }
+
+  @ReadOperation
+  public Map<String, ExternalDependencyGuard.DependencyStatus> dependencies() {
+    return dependencyGuard.getStatus();
+  }
+}
@@ -0,0 +1,356 @@
+package com.umulam.fleen.health.service.external.resilience;
+
+import com.umulam.fleen.health.constant.externalsystem.ExternalDependency;
+import com.umulam.fleen.health.exception.externalsystem.ExternalSystemException;
+import com.umulam.fleen.health.exception.externalsystem.ExternalSystemUnavailableException;
+import com.umulam.fleen.health.util.Bulkhead;
+import com.umulam.fleen.health.util.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * ExternalDependencyGuard isolates the calls made to every external system, like a payment gateway, Google Calendar or AWS, so that
+ * a system that is slow or failing only affects the requests that need it. Every system has a {@link CircuitBreaker} that stops
+ * calling it while too many of its calls fail or are slow, and a {@link Bulkhead} that bounds how many request threads can wait on
+ * it at the same time.
+ *
+ * <p>A call that is not made, because the breaker is open or the bulkhead is full, or that fails, returns its fallback if it has
+ * one, like the bank list that was last read, and fails fast with an {@link ExternalSystemUnavailableException} otherwise. A task
+ * that can be done later, like sending a notification, is deferred instead and retried in the background while the system
+ * allows it.</p>
+ *
+ * <p>Deferred tasks are only held in the memory of the node that deferred them, and the tasks still waiting when the node stops are
+ * lost, which is logged with what each of them did. Only tasks whose loss leaves nothing inconsistent are deferred, like
+ * notifications and the updates of calendar events. Work that must not be lost is kept in the database and retried from there
+ * instead, like the meetings of paid sessions.</p>
+ *
+ * <p>The settings of a system are read from the properties under fleen.health.resilience.&lt;name&gt;, then from the properties
+ * under fleen.health.resilience shared by every system. The state of every system is available as metrics and through the
+ * dependencies actuator endpoint.</p>
+ * <br/>
+ */
+@Slf4j
+@Component
+public class ExternalDependencyGuard implements DisposableBean {
+
+  private static final String PROPERTY_PREFIX = "fleen.health.resilience.";
+  private static final String METRIC_PREFIX = "fleen.health.dependency.";
+  private static final String EXECUTOR_NAME = "deferred-dependency-tasks";
+
+  private final Environment environment;
+  private final MeterRegistry meterRegistry;
+  private final ScheduledExecutorService executor;
+  private final Map<ExternalDependency, Dependency> dependencies = new EnumMap<>(ExternalDependency.class);
+
+  public ExternalDependencyGuard(Environment environment,
+                                 MeterRegistry meterRegistry) {
+    this.environment = environment;
+    this.meterRegistry = meterRegistry;
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, EXECUTOR_NAME);
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    for (ExternalDependency externalDependency : ExternalDependency.values()) {
+      Dependency dependency = createDependency(externalDependency);
+      dependencies.put(externalDependency, dependency);
+      registerMetrics(dependency);
+    }
+    long retryMillis = getLong(null, "deferred-retry-millis", 10000);
+    executor.scheduleWithFixedDelay(this::runDeferredTasks, retryMillis, retryMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * <p>Call an external system, failing fast if it cannot be called.</p>
+   * <br/>
+   *
+   * @param externalDependency the system called
+   * @param call the call
+   * @return the result of the call
+   * @throws ExternalSystemUnavailableException if the breaker of the system is open or its bulkhead is full
+   */
+  public <T> T call(ExternalDependency externalDependency, Supplier<T> call) {
+    return call(externalDependency, call, null);
+  }
+
+  /**
+   * <p>Call an external system, returning the fallback if the call cannot be made or fails.</p>
+   * <br/>
+   *
+   * @param externalDependency the system called
+   * @param call the call
+   * @param fallback what is returned instead of the result of the call, or null to fail fast
+   * @return the result of the call or of the fallback
+   * @throws ExternalSystemUnavailableException if the call cannot be made and there is no fallback
+   */
+  public <T> T call(ExternalDependency externalDependency, Supplier<T> call, Supplier<T> fallback) {
+    Dependency dependency = dependencies.get(externalDependency);
+    if (!dependency.bulkhead.tryAcquire()) {
+      return onRejected(dependency, "bulkhead_full", fallback);
+    }
+
+    try {
+      if (!dependency.circuitBreaker.tryAcquire()) {
+        return onRejected(dependency, "circuit_open", fallback);
+      }
+
+      long startedAt = System.nanoTime();
+      boolean recorded = false;
+      try {
+        T result = call.get();
+        recorded = true;
+        dependency.circuitBreaker.onSuccess(System.nanoTime() - startedAt);
+        count(dependency, "success");
+        return result;
+      } catch (ExternalSystemException ex) {
+        // The system answered and rejected the request, which says nothing about its health
+        recorded = true;
+        dependency.circuitBreaker.onSuccess(System.nanoTime() - startedAt);
+        count(dependency, "success");
+        throw ex;
+      } catch (RuntimeException ex) {
+        recorded = true;
+        dependency.circuitBreaker.onFailure();
+        count(dependency, "failure");
+        if (isNull(fallback)) {
+          throw ex;
+        }
+        log.warn("Call to {} failed, using its fallback: {}", externalDependency.getValue(), ex.getMessage());
+        return fallback.get();
+      } finally {
+        if (!recorded) {
+          // An error, like running out of memory, says nothing about the health of the system, the permit is given back
+          dependency.circuitBreaker.release();
+          count(dependency, "error");
+        }
+      }
+    } finally {
+      dependency.bulkhead.release();
+    }
+  }
+
+  /**
+   * <p>Call an external system that returns nothing, failing fast if it cannot be called.</p>
+   * <br/>
+   *
+   * @param externalDependency the system called
+   * @param call the call
+   * @throws ExternalSystemUnavailableException if the breaker of the system is open or its bulkhead is full
+   */
+  public void run(ExternalDependency externalDependency, Runnable call) {
+    call(externalDependency, () -> {
+      call.run();
+      return null;
+    });
+  }
+
+  /**
+   * <p>Run a task against an external system now if possible, or defer it to be retried in the background. The task is never run
+   * more than once after it succeeds, and is dropped once its attempts are exhausted or too many tasks are waiting.</p>
+   * <br/>
+   *
+   * @param externalDependency the system called
+   * @param description what the task does, used in logs
+   * @param task the task
+   */
+  public void runOrDefer(ExternalDependency externalDependency, String description, Runnable task) {
+    DeferredTask deferredTask = new DeferredTask(description, task);
+    Dependency dependency = dependencies.get(externalDependency);
+    try {
+      runDeferred(externalDependency, deferredTask);
+    } catch (RuntimeException ex) {
+      defer(dependency, deferredTask, ex);
+    }
+  }
+
+  /**
+   * <p>Get the state of every external system.</p>
+   * <br/>
+   *
+   * @return the state of every system by its name
+   */
+  public Map<String, DependencyStatus> getStatus() {
+    Map<String, DependencyStatus> status = new LinkedHashMap<>();
+    dependencies.forEach((externalDependency, dependency) -> status.put(externalDependency.getValue(), DependencyStatus.builder()
+      .state(dependency.circuitBreaker.getState())
+      .failureRate(dependency.circuitBreaker.getFailureRate())
+      .slowCallRate(dependency.circuitBreaker.getSlowCallRate())
+      .availableCalls(dependency.bulkhead.getAvailablePermits())
+      .maxConcurrentCalls(dependency.bulkhead.getMaxConcurrentCalls())
+      .deferredTasks(dependency.deferredTasks.size())
+      .build()));
+    return status;
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+    dependencies.forEach((externalDependency, dependency) -> {
+      if (!dependency.deferredTasks.isEmpty()) {
+        log.warn("{} deferred task(s) of {} were not run before shutdown", dependency.deferredTasks.size(), externalDependency.getValue());
+        dependency.deferredTasks.forEach(task -> log.warn("Task {} of {} lost on shutdown", task.description, dependency.name));
+      }
+    });
+  }
+
+  private void runDeferred(ExternalDependency externalDependency, DeferredTask task) {
+    task.attempts++;
+    run(externalDependency, task.task);
+  }
+
+  private void defer(Dependency dependency, DeferredTask task, RuntimeException ex) {
+    if (task.attempts >= dependency.deferredMaxAttempts) {
+      log.error("Task {} of {} dropped after {} attempt(s): {}", task.description, dependency.name, task.attempts, ex.getMessage());
+      count(dependency, "deferred_dropped");
+    } else if (!dependency.deferredTasks.offerLast(task)) {
+      log.error("Task {} of {} dropped because too many tasks are waiting: {}", task.description, dependency.name, ex.getMessage());
+      count(dependency, "deferred_dropped");
+    } else {
+      log.warn("Task {} of {} deferred: {}", task.description, dependency.name, ex.getMessage());
+    }
+  }
+
+  private void runDeferredTasks() {
+    dependencies.forEach((externalDependency, dependency) -> {
+      DeferredTask task;
+      while (nonNull(task = dependency.deferredTasks.pollFirst())) {
+        try {
+          runDeferred(externalDependency, task);
+        } catch (RuntimeException ex) {
+          defer(dependency, task, ex);
+          // Leave the rest for the next round instead of calling a system that is still failing
+          break;
+        }
+      }
+    });
+  }
+
+  private Dependency createDependency(ExternalDependency externalDependency) {
+    String name = externalDependency.getValue();
+    long slowCallMillis = getLong(name, "slow-call-millis", 5000);
+    CircuitBreaker.Settings settings = CircuitBreaker.Settings.builder()
+      .windowSize((int) getLong(name, "window-size", 20))
+      .minimumCalls((int) getLong(name, "minimum-calls", 10))
+      .failureRateThreshold(getLong(name, "failure-rate-threshold", 50))
+      .slowCallDuration(slowCallMillis > 0 ? Duration.ofMillis(slowCallMillis) : null)
+      .slowCallRateThreshold(getLong(name, "slow-call-rate-threshold", 80))
+      .openDuration(Duration.ofSeconds(getLong(name, "open-seconds", 30)))
+      .trialCalls((int) getLong(name, "trial-calls", 3))
+      .trialTimeout(Duration.ofSeconds(getLong(name, "trial-timeout-seconds", 30)))
+      .build();
+
+    return new Dependency(
+      name,
+      new CircuitBreaker(name, settings),
+      new Bulkhead(name, (int) getLong(name, "max-concurrent-calls", 10), Duration.ofMillis(getLong(name, "max-wait-millis", 250))),
+      new LinkedBlockingDeque<>((int) Math.max(1, getLong(name, "deferred-capacity", 1000))),
+      (int) getLong(name, "deferred-max-attempts", 5));
+  }
+
+  private <T> T onRejected(Dependency dependency, String outcome, Supplier<T> fallback) {
+    count(dependency, outcome);
+    if (isNull(fallback)) {
+      throw new ExternalSystemUnavailableException(dependency.name);
+    }
+    return fallback.get();
+  }
+
+  private void count(Dependency dependency, String outcome) {
+    Counter.builder(METRIC_PREFIX + "calls")
+      .tag("dependency", dependency.name)
+      .tag("outcome", outcome)
+      .register(meterRegistry)
+      .increment();
+  }
+
+  private void registerMetrics(Dependency dependency) {
+    Gauge.builder(METRIC_PREFIX + "circuit.state", dependency.circuitBreaker, breaker -> breaker.getState().ordinal())
+      .description("0 when closed, 1 when open and 2 when half open")
+      .tag("dependency", dependency.name)
+      .register(meterRegistry);
+    Gauge.builder(METRIC_PREFIX + "circuit.failure.rate", dependency.circuitBreaker, CircuitBreaker::getFailureRate)
+      .tag("dependency", dependency.name)
+      .register(meterRegistry);
+    Gauge.builder(METRIC_PREFIX + "circuit.slow.call.rate", dependency.circuitBreaker, CircuitBreaker::getSlowCallRate)
+      .tag("dependency", dependency.name)
+      .register(meterRegistry);
+    Gauge.builder(METRIC_PREFIX + "bulkhead.available", dependency.bulkhead, Bulkhead::getAvailablePermits)
+      .tag("dependency", dependency.name)
+      .register(meterRegistry);
+    Gauge.builder(METRIC_PREFIX + "deferred.tasks", dependency.deferredTasks, BlockingDeque::size)
+      .tag("dependency", dependency.name)
+      .register(meterRegistry);
+  }
+
+  private long getLong(String name, String property, long defaultValue) {
+    Long value = nonNull(name) ? environment.getProperty(PROPERTY_PREFIX + name + "." + property, Long.class) : null;
+    return nonNull(value) ? value : environment.getProperty(PROPERTY_PREFIX + property, Long.class, defaultValue);
+  }
+
+  /**
+   * The state of an external system.
+   */
+  @Getter
+  @Builder
+  public static class DependencyStatus {
+
+    private final CircuitBreaker.State state;
+    private final float failureRate;
+    private final float slowCallRate;
+    private final int availableCalls;
+    private final int maxConcurrentCalls;
+    private final int deferredTasks;
+  }
+
+  private static final class Dependency {
+
+    private final String name;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final BlockingDeque<DeferredTask> deferredTasks;
+    private final int deferredMaxAttempts;
+
+    private Dependency(String name, CircuitBreaker circuitBreaker, Bulkhead bulkhead, BlockingDeque<DeferredTask> deferredTasks,
+                       int deferredMaxAttempts) {
+      this.name = name;
+      this.circuitBreaker = circuitBreaker;
+      this.bulkhead = bulkhead;
+      this.deferredTasks = deferredTasks;
+      this.deferredMaxAttempts = Math.max(1, deferredMaxAttempts);
+    }
+  }
+
+  private static final class DeferredTask {
+
+    private final String description;
+    private final Runnable task;
+    private int attempts;
+
+    private DeferredTask(String description, Runnable task) {
+      this.description = description;
+      this.task = task;
+    }
+  }
+}
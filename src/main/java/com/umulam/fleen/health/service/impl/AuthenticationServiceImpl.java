@@ -54,7 +54,6 @@ import static com.umulam.fleen.health.constant.authentication.TokenType.REFRESH_
 import static com.umulam.fleen.health.constant.base.FleenHealthConstant.VERIFICATION_CODE_SENT_MESSAGE;
 import static com.umulam.fleen.health.constant.base.GeneralConstant.*;
 import static com.umulam.fleen.health.util.DateTimeUtil.addMinutesFromNow;
-import static com.umulam.fleen.health.util.DateTimeUtil.toHours;
 import static com.umulam.fleen.health.util.FleenAuthorities.*;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
@@ -80,6 +79,7 @@ public class AuthenticationServiceImpl implements
   private final ProfileVerificationMessageService profileVerificationMessageService;
   private final ProfileTokenService profileTokenService;
   private final ReCaptchaAdapter reCaptchaAdapter;
+  private final AuthenticationSessionStore sessionStore;
 
   public AuthenticationServiceImpl(AuthenticationManager authenticationManager,
                                    MemberService memberService,
@@ -94,7 +94,8 @@ public class AuthenticationServiceImpl implements
                                    VerificationHistoryService verificationHistoryService,
                                    ProfileVerificationMessageService profileVerificationMessageService,
                                    ProfileTokenService profileTokenService,
-                                   ReCaptchaAdapter reCaptchaAdapter) {
+                                   ReCaptchaAdapter reCaptchaAdapter,
+                                   AuthenticationSessionStore sessionStore) {
     this.authenticationManager = authenticationManager;
     this.memberService = memberService;
     this.memberStatusService = memberStatusService;
@@ -109,6 +110,7 @@ public class AuthenticationServiceImpl implements
     this.profileVerificationMessageService = profileVerificationMessageService;
     this.profileTokenService = profileTokenService;
     this.reCaptchaAdapter = reCaptchaAdapter;
+    this.sessionStore = sessionStore;
   }
 
   /**
@@ -144,7 +146,7 @@ public class AuthenticationServiceImpl implements
    * <br/>
    *
    * <p>After verifying the credentials of the user, a session like context is initialized for the user using {@link #cacheService CacheService} through
-   * {@link #saveToken(String, String) saveToken}. The existence of this session and user authentication context will be validated on each request that is sent
+   * {@link #saveToken(String, String, String, AuthenticationStatus) saveToken}. The existence of this session and user authentication context will be validated on each request that is sent
    * to the API if the request URL is one that only authenticated user can access or the
    * {@link org.springframework.http.HttpHeaders#AUTHORIZATION Authorization} header is present in the request, the request will usually pass through the
    * {@link com.umulam.fleen.health.filter.JwtAuthenticationFilter#doFilter(ServletRequest, ServletResponse, FilterChain) JwtAuthenticationFilter}.</p>
@@ -238,7 +240,7 @@ public class AuthenticationServiceImpl implements
       accessToken = createAccessToken(user);
 
       setContext(authenticationToken);
-      saveToken(user.getUsername(), accessToken);
+      saveToken(user.getUsername(), accessToken, null, IN_PROGRESS);
 
       signInResponse.setNextAuthentication(NextAuthentication.MFA_OR_PRE_AUTHENTICATION);
       signInResponse.setMfaEnabled(true);
@@ -253,8 +255,7 @@ public class AuthenticationServiceImpl implements
     refreshToken = createRefreshToken(user);
 
     setContext(authentication);
-    saveToken(user.getUsername(), accessToken);
-    saveRefreshToken(user.getUsername(), refreshToken);
+    saveToken(user.getUsername(), accessToken, refreshToken, COMPLETED);
 
     signInResponse.setAccessToken(accessToken);
     signInResponse.setRefreshToken(refreshToken);
@@ -321,8 +322,7 @@ public class AuthenticationServiceImpl implements
 
     createProfileVerificationMessageNewPendingRegistration(member);
 
-    saveToken(user.getUsername(), accessToken);
-    saveRefreshToken(user.getUsername(), refreshToken);
+    saveToken(user.getUsername(), accessToken, refreshToken, IN_PROGRESS);
     return SignUpResponse.builder()
             .accessToken(accessToken)
             .refreshToken(refreshToken)
@@ -400,13 +400,12 @@ public class AuthenticationServiceImpl implements
       member.setEmailAddressVerified(true);
     }
 
-    MemberStatus memberStatus = memberStatusService.getMemberStatusByCode(MemberStatusType.ACTIVE.name());
+    MemberStatus memberStatus = memberStatusService.getMemberStatus(MemberStatusType.ACTIVE);
     member.setMemberStatus(memberStatus);
     memberService.save(member);
 
     clearPreVerificationOtp(freshUser.getUsername());
-    saveToken(freshUser.getUsername(), accessToken);
-    saveRefreshToken(freshUser.getUsername(), refreshToken);
+    saveToken(freshUser.getUsername(), accessToken, refreshToken, COMPLETED);
     return SignUpResponse.builder()
             .accessToken(accessToken)
             .refreshToken(refreshToken)
@@ -480,25 +479,29 @@ public class AuthenticationServiceImpl implements
   }
 
   /**
-   * Remove the user authentication context token from the cache
+   * Remove the user authentication context token of the device the request is sent from, from the cache
    * @param username the name of a user associated with the authentication context
    */
   @Override
   public void signOut(String username) {
-    String accessAuthKey = getAuthCacheKey(username);
-    String refreshAuthKey = getAuthRefreshCacheKey(username);
-
-    if (cacheService.exists(accessAuthKey)) {
-      cacheService.delete(accessAuthKey);
-    }
-
-    if (cacheService.exists(refreshAuthKey)) {
-      cacheService.delete(refreshAuthKey);
-    }
+    sessionStore.removeDevice(username);
     SecurityContextHolder.getContext().setAuthentication(null);
     SecurityContextHolder.clearContext();
   }
 
+  /**
+   * <p>Remove the access and refresh tokens saved for every device of the user so that the tokens can no longer be used on any node.
+   * Unlike {@link #signOut(String) signOut}, the authentication context of the current request is left untouched, so this
+   * can be used when an administrator changes the profile of another user.</p>
+   * <br/>
+   *
+   * @param username the name of a user associated with the authentication context
+   */
+  @Override
+  public void revokeSession(String username) {
+    sessionStore.remove(username);
+  }
+
   /**
    * <p>When a user has {@link MfaType MFA_OR_PRE_AUTHENTICATION} enabled on their profile, they are required to pass through this process before they are fully authenticated and
    * can access the feature of the application as designated by their roles.</p>
@@ -548,8 +551,7 @@ public class AuthenticationServiceImpl implements
     String refreshToken = createRefreshToken(user);
 
     clearPreAuthenticationOtp(username);
-    saveToken(username, accessToken);
-    saveRefreshToken(username, refreshToken);
+    saveToken(username, accessToken, refreshToken, COMPLETED);
     return SignInResponse.builder()
             .accessToken(accessToken)
             .refreshToken(refreshToken)
@@ -621,17 +623,6 @@ public class AuthenticationServiceImpl implements
   @Override
   @Transactional(readOnly = true)
   public SignInResponse refreshToken(String username, String token) {
-    String verificationKey = getAuthRefreshCacheKey(username);
-
-    if (!cacheService.exists(verificationKey)) {
-      throw new InvalidAuthenticationToken();
-    }
-
-    if (!cacheService.get(verificationKey).equals(token)) {
-      throw new InvalidAuthenticationToken();
-    }
-
-    signOut(username);
     Member member = memberService.getMemberByEmailAddress(username);
     if (isNull(member)) {
       throw new InvalidAuthenticationException(username);
@@ -640,11 +631,13 @@ public class AuthenticationServiceImpl implements
     FleenUser user = FleenUser.fromMember(member);
     String accessToken = createAccessToken(user);
     String refreshToken = createRefreshToken(user);
+
+    if (!sessionStore.rotate(username, token, accessToken, refreshToken, getSessionDuration(accessToken, refreshToken))) {
+      throw new InvalidAuthenticationToken();
+    }
+
     Authentication authenticationToken = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
     setContext(authenticationToken);
-
-    saveToken(username, accessToken);
-    saveRefreshToken(username, refreshToken);
     return SignInResponse.builder()
             .accessToken(accessToken)
             .refreshToken(refreshToken)
@@ -692,31 +685,35 @@ public class AuthenticationServiceImpl implements
   }
 
   /**
-   * <p>Save the authentication access token.</p>
+   * <p>Save the authentication access token and refresh token of the device the request is sent from in a single write. The refresh
+   * token can only be used once to get a new access token and is left out when the user is yet to complete the authentication.</p>
    * <br/>
    *
-   * @param subject the user's identifier to associate with the access token
-   * @param token the user's token to validate during the requests and process of using the application
+   * @param subject the user's identifier to associate with the tokens
+   * @param accessToken the user's token to validate during the requests and process of using the application
+   * @param refreshToken the user's token to use to get a new token or null if the user should not have one
+   * @param authenticationStatus the authentication status of the user on the device
    */
   @Override
-  public void saveToken(String subject, String token) {
-    Duration duration = Duration.ofHours(toHours(new Date(), jwtProvider.getExpirationDateFromToken(token)));
-    cacheService.set(getAuthCacheKey(subject), token, duration);
+  public void saveToken(String subject, String accessToken, String refreshToken, AuthenticationStatus authenticationStatus) {
+    sessionStore.save(subject, accessToken, refreshToken, authenticationStatus, getSessionDuration(accessToken, refreshToken));
   }
 
   /**
-   * <p>Save the authentication refresh token that can only be used once to get a new access token.</p>
+   * <p>How long the session of a device should be kept. It lasts as long as the refresh token if there is one, otherwise as long as
+   * the access token.</p>
    * <br/>
    *
-   * @param subject the user's identifier to associate with the refresh token
-   * @param token the user's token to validate during request and use to get a new token
+   * @param accessToken the access token of the device
+   * @param refreshToken the refresh token of the device or null
+   * @return the duration to keep the session for
    */
-  @Override
-  public void saveRefreshToken(String subject, String token) {
-    Calendar timeout = Calendar.getInstance();
-    timeout.setTimeInMillis(System.currentTimeMillis() + REFRESH_TOKEN_VALIDITY);
-    Duration duration = Duration.ofHours(toHours(new Date(), timeout.getTime()));
-    cacheService.set(getAuthRefreshCacheKey(subject), token, duration);
+  private Duration getSessionDuration(String accessToken, String refreshToken) {
+    if (nonNull(refreshToken)) {
+      return Duration.ofMillis(REFRESH_TOKEN_VALIDITY);
+    }
+    Date expiration = jwtProvider.verifyToken(accessToken).getExpiration();
+    return Duration.ofMillis(Math.max(expiration.getTime() - System.currentTimeMillis(), 0));
   }
 
   /**
@@ -808,28 +805,6 @@ public class AuthenticationServiceImpl implements
     return mfaType == EMAIL ? getEmailMfaSetupCacheKey(username) : getPhoneMfaSetupCacheKey(username);
   }
 
-  /**
-   * <p>Prefix a user's identifier with a predefined key used to save an authentication token like JWT.</p>
-   * <br/>
-   *
-   * @param username a user identifier found on the system or is to be registered on the system
-   * @return a string concatenation of a predefined prefix and the user's identifier
-   */
-  public static String getAuthCacheKey(String username) {
-    return AUTH_CACHE_PREFIX.concat(username);
-  }
-
-  /**
-   * <p>Prefix a user's identifier with a predefined key used to save an authentication refresh token like JWT.</p>
-   * <br/>
-   *
-   * @param username a user identifier found on the system or is to be registered on the system
-   * @return a string concatenation of a predefined prefix and the user's identifier
-   */
-  public static String getAuthRefreshCacheKey(String username) {
-    return AUTH_REFRESH_CACHE_PREFIX.concat(username);
-  }
-
   /**
    * <p>Prefix a user's identifier with a predefined key used to save a pre-verification token or OTP or code.</p>
    * <br/>
@@ -963,7 +938,7 @@ public class AuthenticationServiceImpl implements
     String token = jwtProvider.generateResetPasswordToken(user);
 
     clearResetPasswordOtp(user.getUsername());
-    saveToken(user.getUsername(), token);
+    saveToken(user.getUsername(), token, null, IN_PROGRESS);
     return InitiatePasswordChangeResponse.builder()
             .accessToken(token)
             .build();
@@ -987,6 +962,7 @@ public class AuthenticationServiceImpl implements
 
     member.setPassword(createEncodedPassword(dto.getPassword()));
     memberService.save(member);
+    revokeSession(username);
   }
 
   @Override
@@ -1011,7 +987,7 @@ public class AuthenticationServiceImpl implements
     member.setRoles(roles);
     member.setPassword(createEncodedPassword(dto.getPassword()));
     member.setEmailAddressVerified(true);
-    MemberStatus memberStatus = memberStatusService.getMemberStatusByCode(MemberStatusType.ACTIVE.name());
+    MemberStatus memberStatus = memberStatusService.getMemberStatus(MemberStatusType.ACTIVE);
     member.setMemberStatus(memberStatus);
     memberService.save(member);
 
@@ -1030,8 +1006,7 @@ public class AuthenticationServiceImpl implements
     completeAndApproveUserSignUp(member, verificationMessageRequest, verificationMessage);
 
     setContext(authenticationToken);
-    saveToken(user.getUsername(), accessToken);
-    saveRefreshToken(user.getUsername(), refreshToken);
+    saveToken(user.getUsername(), accessToken, refreshToken, COMPLETED);
 
     SignInResponse signInResponse = SignInResponse
             .builder()
@@ -1069,15 +1044,15 @@ public class AuthenticationServiceImpl implements
     Role role = null;
     switch (profileType) {
       case USER:
-        role = roleService.getRoleByCode(PRE_VERIFIED_USER.name());
+        role = roleService.getRole(PRE_VERIFIED_USER);
         break;
 
       case PROFESSIONAL:
-        role = roleService.getRoleByCode(PRE_VERIFIED_PROFESSIONAL.name());
+        role = roleService.getRole(PRE_VERIFIED_PROFESSIONAL);
         break;
 
       case BUSINESS:
-        role = roleService.getRoleByCode(PRE_VERIFIED_BUSINESS.name());
+        role = roleService.getRole(PRE_VERIFIED_BUSINESS);
         break;
     }
     return role;
@@ -1138,17 +1113,17 @@ public class AuthenticationServiceImpl implements
     CompleteUserSignUpRequest request = CompleteUserSignUpRequest.builder().build();
     switch (member.getUserType()) {
       case USER:
-        request.setRole(roleService.getRoleByCode(USER.name()));
+        request.setRole(roleService.getRole(USER));
         request.setProfileVerificationStatus(ProfileVerificationStatus.APPROVED);
         member.setVerificationStatus(request.getProfileVerificationStatus());
         break;
 
       case PROFESSIONAL:
-        request.setRole(roleService.getRoleByCode(PRE_APPROVED_PROFESSIONAL.name()));
+        request.setRole(roleService.getRole(PRE_APPROVED_PROFESSIONAL));
         break;
 
       case BUSINESS:
-        request.setRole(roleService.getRoleByCode(PRE_APPROVED_BUSINESS.name()));
+        request.setRole(roleService.getRole(PRE_APPROVED_BUSINESS));
         break;
     }
     request.setVerificationMessage(profileVerificationMessageService.getProfileVerificationMessageByType(ProfileVerificationMessageType.SIGNUP_COMPLETE));
@@ -1178,8 +1153,7 @@ public class AuthenticationServiceImpl implements
     String refreshToken = createRefreshToken(user);
 
     setContext(authenticationToken);
-    saveToken(user.getUsername(), accessToken);
-    saveRefreshToken(user.getUsername(), refreshToken);
+    saveToken(user.getUsername(), accessToken, refreshToken, IN_PROGRESS);
 
     response.setAccessToken(accessToken);
     response.setRefreshToken(refreshToken);
@@ -0,0 +1,252 @@
+package com.umulam.fleen.health.service.impl;
+
+import com.umulam.fleen.health.constant.authentication.AuthenticationStatus;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static com.umulam.fleen.health.constant.base.GeneralConstant.AUTH_SESSION_CACHE_PREFIX;
+import static com.umulam.fleen.health.constant.base.GeneralConstant.DEVICE_ID_HEADER_KEY;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * AuthenticationSessionStore keeps the access token, refresh token, authentication status and device details of every device a
+ * member is signed in with in a single hash in the cache store. Each write is a single script execution so that saving, rotating
+ * and removing tokens are atomic and take one round trip, and each write also publishes the invalidation message used by
+ * {@link SessionIntrospectionService}.
+ *
+ * <p>The device id is chosen by the client, so every device has its own expiry in the hash and a member can only be signed in on
+ * a limited number of devices. Saving the session of another device removes the devices whose session has expired and, once
+ * the limit is reached, the device whose session expires first.</p>
+ */
+@Component
+public class AuthenticationSessionStore {
+
+  private static final String DEFAULT_DEVICE_ID = "default";
+  private static final String ACCESS_TOKEN_FIELD_PREFIX = "access:";
+  private static final String EXPIRES_FIELD_PREFIX = "expires:";
+  private static final int MAX_DEVICE_ID_LENGTH = 64;
+  private static final String USER_AGENT_HEADER_KEY = "User-Agent";
+
+  private static final RedisScript<String> SAVE_SCRIPT = RedisScript.of(new ClassPathResource("redis/session-save.lua"), String.class);
+  private static final RedisScript<String> ROTATE_SCRIPT = RedisScript.of(new ClassPathResource("redis/session-rotate.lua"), String.class);
+  private static final RedisScript<String> REMOVE_SCRIPT = RedisScript.of(new ClassPathResource("redis/session-remove.lua"), String.class);
+
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final StringRedisSerializer serializer;
+  private final Clock clock;
+  private final int maxDevices;
+  private final List<Consumer<String>> writeListeners = new CopyOnWriteArrayList<>();
+
+  @Getter
+  private final String invalidationChannel;
+
+  public AuthenticationSessionStore(RedisTemplate<String, Object> redisTemplate,
+                                    Clock clock,
+                                    @Value("${fleen.health.session.introspection.channel:SESSION_INVALIDATION}") String invalidationChannel,
+                                    @Value("${fleen.health.session.max-devices:5}") int maxDevices) {
+    this.redisTemplate = redisTemplate;
+    this.serializer = StringRedisSerializer.UTF_8;
+    this.clock = clock;
+    this.invalidationChannel = invalidationChannel;
+    this.maxDevices = maxDevices;
+  }
+
+  /**
+   * Save the tokens of the device the current request is sent from.
+   *
+   * @param username the member's identifier
+   * @param accessToken the access token of the device
+   * @param refreshToken the refresh token of the device or null if the device should have none
+   * @param status the authentication status of the device, for example while MFA is yet to be completed
+   * @param ttl how long the session should be kept
+   */
+  public void save(String username, String accessToken, String refreshToken, AuthenticationStatus status, Duration ttl) {
+    long now = clock.millis();
+    execute(SAVE_SCRIPT, username,
+      getDeviceId(),
+      accessToken,
+      Objects.toString(refreshToken, ""),
+      status.name(),
+      getDeviceDetails(),
+      String.valueOf(ttl.toMillis()),
+      invalidationChannel,
+      username,
+      String.valueOf(now),
+      String.valueOf(now + ttl.toMillis()),
+      String.valueOf(maxDevices));
+    notifyWriteListeners(username);
+  }
+
+  /**
+   * Replace the tokens of the device that owns the refresh token. The refresh token is checked and replaced in the same script
+   * so concurrent rotations with the same refresh token cannot all succeed.
+   *
+   * @param username the member's identifier
+   * @param currentRefreshToken the refresh token sent by the device
+   * @param accessToken the new access token
+   * @param refreshToken the new refresh token
+   * @param ttl how long the session should be kept
+   * @return true if the refresh token was found and the tokens were replaced
+   */
+  public boolean rotate(String username, String currentRefreshToken, String accessToken, String refreshToken, Duration ttl) {
+    long now = clock.millis();
+    String deviceId = execute(ROTATE_SCRIPT, username,
+      currentRefreshToken,
+      accessToken,
+      refreshToken,
+      AuthenticationStatus.COMPLETED.name(),
+      String.valueOf(ttl.toMillis()),
+      invalidationChannel,
+      username,
+      String.valueOf(now),
+      String.valueOf(now + ttl.toMillis()));
+    if (isNull(deviceId)) {
+      return false;
+    }
+    notifyWriteListeners(username);
+    return true;
+  }
+
+  /**
+   * Remove the tokens of every device of the member.
+   *
+   * @param username the member's identifier
+   */
+  public void remove(String username) {
+    execute(REMOVE_SCRIPT, username, "", invalidationChannel, username);
+    notifyWriteListeners(username);
+  }
+
+  /**
+   * Remove the tokens of the device the current request is sent from.
+   *
+   * @param username the member's identifier
+   */
+  public void removeDevice(String username) {
+    execute(REMOVE_SCRIPT, username, getDeviceId(), invalidationChannel, username);
+    notifyWriteListeners(username);
+  }
+
+  /**
+   * Get the access tokens of every device of the member in a single read. The tokens of a device whose session has expired are
+   * left out even if the next save has not removed the device yet.
+   *
+   * @param username the member's identifier
+   * @return the access tokens that are currently active for the member
+   */
+  public Set<String> getAccessTokens(String username) {
+    byte[] key = serializer.serialize(getSessionKey(username));
+    Map<byte[], byte[]> entries = redisTemplate.execute((RedisCallback<Map<byte[], byte[]>>) connection -> connection.hGetAll(key));
+    if (isNull(entries) || entries.isEmpty()) {
+      return Set.of();
+    }
+
+    Map<String, String> accessTokens = new HashMap<>();
+    Map<String, Long> expiries = new HashMap<>();
+    entries.forEach((field, value) -> {
+      String name = new String(field, StandardCharsets.UTF_8);
+      if (name.startsWith(ACCESS_TOKEN_FIELD_PREFIX)) {
+        accessTokens.put(name.substring(ACCESS_TOKEN_FIELD_PREFIX.length()), new String(value, StandardCharsets.UTF_8));
+      } else if (name.startsWith(EXPIRES_FIELD_PREFIX)) {
+        expiries.put(name.substring(EXPIRES_FIELD_PREFIX.length()), Long.parseLong(new String(value, StandardCharsets.UTF_8)));
+      }
+    });
+
+    long now = clock.millis();
+    Set<String> activeTokens = new HashSet<>();
+    accessTokens.forEach((device, accessToken) -> {
+      Long expires = expiries.get(device);
+      if (isNull(expires) || expires > now) {
+        activeTokens.add(accessToken);
+      }
+    });
+    return Set.copyOf(activeTokens);
+  }
+
+  /**
+   * Publish an invalidation message for the member without changing the session.
+   *
+   * @param username the member's identifier
+   */
+  public void publishInvalidation(String username) {
+    byte[] channel = serializer.serialize(invalidationChannel);
+    byte[] message = serializer.serialize(username);
+    redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channel, message));
+  }
+
+  /**
+   * Register a listener that is called on this node right after every write, before the invalidation message has gone round
+   * through the cache store, so that the node that made the change never answers from a stale local copy.
+   *
+   * @param listener called with the member's identifier whose session was written
+   */
+  public void addWriteListener(Consumer<String> listener) {
+    writeListeners.add(listener);
+  }
+
+  public String deserialize(byte[] message) {
+    return serializer.deserialize(message);
+  }
+
+  private void notifyWriteListeners(String username) {
+    writeListeners.forEach(listener -> listener.accept(username));
+  }
+
+  private String execute(RedisScript<String> script, String username, String... args) {
+    return redisTemplate.execute(script, serializer, serializer, List.of(getSessionKey(username)), (Object[]) args);
+  }
+
+  /**
+   * <p>Prefix a user's identifier with a predefined key used to save the authentication session of the user.</p>
+   * <br/>
+   *
+   * @param username a user identifier found on the system
+   * @return a string concatenation of a predefined prefix and the user's identifier
+   */
+  public static String getSessionKey(String username) {
+    return AUTH_SESSION_CACHE_PREFIX.concat(username);
+  }
+
+  private static String getDeviceId() {
+    HttpServletRequest request = getRequest();
+    if (nonNull(request) && nonNull(request.getHeader(DEVICE_ID_HEADER_KEY)) && !request.getHeader(DEVICE_ID_HEADER_KEY).isBlank()) {
+      String deviceId = request.getHeader(DEVICE_ID_HEADER_KEY).trim();
+      return deviceId.length() > MAX_DEVICE_ID_LENGTH ? deviceId.substring(0, MAX_DEVICE_ID_LENGTH) : deviceId;
+    }
+    return DEFAULT_DEVICE_ID;
+  }
+
+  private static String getDeviceDetails() {
+    HttpServletRequest request = getRequest();
+    if (nonNull(request)) {
+      return Objects.toString(request.getHeader(USER_AGENT_HEADER_KEY), "");
+    }
+    return "";
+  }
+
+  private static HttpServletRequest getRequest() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes instanceof ServletRequestAttributes) {
+      return ((ServletRequestAttributes) attributes).getRequest();
+    }
+    return null;
+  }
+}
@@ -1,12 +1,17 @@
 package com.umulam.fleen.health.service.impl;
 
 import com.umulam.fleen.health.configuration.aws.s3.S3BucketNames;
+import com.umulam.fleen.health.constant.business.BusinessEmployeeStatus;
 import com.umulam.fleen.health.constant.verification.ProfileVerificationStatus;
+import com.umulam.fleen.health.exception.business.BusinessEmployeeNotFoundException;
+import com.umulam.fleen.health.exception.business.BusinessNotFoundException;
 import com.umulam.fleen.health.exception.member.UserNotFoundException;
 import com.umulam.fleen.health.model.domain.Business;
+import com.umulam.fleen.health.model.domain.BusinessEmployee;
 import com.umulam.fleen.health.model.domain.Country;
 import com.umulam.fleen.health.model.domain.Member;
 import com.umulam.fleen.health.model.domain.VerificationDocument;
+import com.umulam.fleen.health.model.dto.business.AddBusinessEmployeeDto;
 import com.umulam.fleen.health.model.dto.business.UpdateBusinessDetailDto;
 import com.umulam.fleen.health.model.dto.business.UploadBusinessDocumentDto;
 import com.umulam.fleen.health.model.mapper.BusinessMapper;
@@ -14,6 +19,7 @@ import com.umulam.fleen.health.model.mapper.VerificationDocumentMapper;
 import com.umulam.fleen.health.model.security.FleenUser;
 import com.umulam.fleen.health.model.view.BusinessView;
 import com.umulam.fleen.health.model.view.VerificationDocumentView;
+import com.umulam.fleen.health.repository.jpa.BusinessEmployeeJpaRepository;
 import com.umulam.fleen.health.repository.jpa.BusinessJpaRepository;
 import com.umulam.fleen.health.service.*;
 import lombok.extern.slf4j.Slf4j;
@@ -33,6 +39,7 @@ public class BusinessServiceImpl implements BusinessService, ProfileService {
   private final CountryService countryService;
   private final VerificationDocumentService verificationDocumentService;
   private final BusinessJpaRepository repository;
+  private final BusinessEmployeeJpaRepository employeeRepository;
   private final S3BucketNames s3BucketNames;
 
   public BusinessServiceImpl(MemberService memberService,
@@ -40,12 +47,14 @@ public class BusinessServiceImpl implements BusinessService, ProfileService {
                              CountryService countryService,
                              VerificationDocumentService verificationDocumentService,
                              BusinessJpaRepository repository,
+                             BusinessEmployeeJpaRepository employeeRepository,
                              S3BucketNames s3BucketNames) {
     this.memberService = memberService;
     this.s3Service = s3Service;
     this.countryService = countryService;
     this.verificationDocumentService = verificationDocumentService;
     this.repository = repository;
+    this.employeeRepository = employeeRepository;
     this.s3BucketNames = s3BucketNames;
   }
 
@@ -117,6 +126,62 @@ public class BusinessServiceImpl implements BusinessService, ProfileService {
     businessView.setVerificationDocuments(verificationDocumentViews);
   }
 
+  /**
+   * <p>Add a member as an employee of the business of the user. The business can book and pay for the sessions of the member once
+   * the member has accepted.</p>
+   * <br/>
+   *
+   * @param dto the email address of the member
+   * @param user the business adding the member
+   */
+  @Override
+  @Transactional
+  public void addEmployee(AddBusinessEmployeeDto dto, FleenUser user) {
+    Business business = getBusiness(user);
+    Member member = getMember(dto.getEmailAddress());
+    if (employeeRepository.findByBusinessAndMember(business.getId(), member.getId()).isPresent()) {
+      return;
+    }
+
+    BusinessEmployee employee = BusinessEmployee.builder()
+      .business(business)
+      .member(member)
+      .status(BusinessEmployeeStatus.PENDING)
+      .build();
+    employeeRepository.save(employee);
+  }
+
+  @Override
+  @Transactional
+  public void removeEmployee(Long memberId, FleenUser user) {
+    Business business = getBusiness(user);
+    if (employeeRepository.deleteByBusinessAndMember(business.getId(), memberId) == 0) {
+      throw new BusinessEmployeeNotFoundException(memberId);
+    }
+  }
+
+  @Override
+  @Transactional
+  public void acceptEmployment(Long businessId, FleenUser user) {
+    BusinessEmployee employee = employeeRepository.findByBusinessAndMember(businessId, user.getId())
+      .orElseThrow(() -> new BusinessEmployeeNotFoundException(businessId));
+    employee.setStatus(BusinessEmployeeStatus.ACTIVE);
+    employeeRepository.save(employee);
+  }
+
+  @Override
+  @Transactional
+  public void leaveEmployment(Long businessId, FleenUser user) {
+    if (employeeRepository.deleteByBusinessAndMember(businessId, user.getId()) == 0) {
+      throw new BusinessEmployeeNotFoundException(businessId);
+    }
+  }
+
+  private Business getBusiness(FleenUser user) {
+    return repository.findBusinessByEmailAddress(user.getEmailAddress())
+      .orElseThrow(() -> new BusinessNotFoundException(user.getId()));
+  }
+
   private Member getMember(String emailAddress) {
     Member member = memberService.getMemberByEmailAddress(emailAddress);
     if (Objects.isNull(member)) {
@@ -0,0 +1,182 @@
+package com.umulam.fleen.health.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * CacheBatch queues several cache operations and sends them to the cache store in a single round trip, either as a pipeline or
+ * as a transaction through {@link #transactional()}. Every queued operation returns a {@link Response} whose value can be read
+ * after {@link #execute()} has completed.
+ *
+ * <pre>
+ *   CacheBatch batch = cacheService.batch();
+ *   CacheBatch.Response&lt;Country&gt; country = batch.get(countryKey, Country.class);
+ *   batch.set(bankKey, banks, Duration.ofHours(12));
+ *   batch.execute();
+ *   country.get();
+ * </pre>
+ */
+@Slf4j
+public class CacheBatch {
+
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final CacheService cacheService;
+  private final List<Consumer<RedisOperations<String, Object>>> operations = new ArrayList<>();
+  private final List<Response<?>> responses = new ArrayList<>();
+  private boolean transactional;
+  private boolean executed;
+
+  CacheBatch(RedisTemplate<String, Object> redisTemplate, CacheService cacheService) {
+    this.redisTemplate = redisTemplate;
+    this.cacheService = cacheService;
+  }
+
+  /**
+   * Run the queued operations inside MULTI and EXEC so that they are applied atomically.
+   *
+   * @return this batch
+   */
+  public CacheBatch transactional() {
+    this.transactional = true;
+    return this;
+  }
+
+  public Response<Object> get(String key) {
+    return queue(operations -> operations.opsForValue().get(key), Function.identity());
+  }
+
+  public <T> Response<T> get(String key, Class<T> clazz) {
+    return queue(operations -> operations.opsForValue().get(key), value -> cacheService.fromCacheValue(value, clazz));
+  }
+
+  public Response<Boolean> set(String key, Object value) {
+    return queue(operations -> operations.opsForValue().set(key, value), CacheBatch::toBoolean);
+  }
+
+  public Response<Boolean> set(String key, Object value, Duration duration) {
+    return queue(operations -> operations.opsForValue().set(key, value, duration), CacheBatch::toBoolean);
+  }
+
+  public Response<Boolean> exists(String key) {
+    return queue(operations -> operations.hasKey(key), CacheBatch::toBoolean);
+  }
+
+  public Response<Boolean> expire(String key, Duration duration) {
+    return queue(operations -> operations.expire(key, duration), CacheBatch::toBoolean);
+  }
+
+  public Response<Boolean> delete(String key) {
+    return queue(operations -> operations.delete(key), CacheBatch::toBoolean);
+  }
+
+  public int size() {
+    return operations.size();
+  }
+
+  /**
+   * Send every queued operation to the cache store in one round trip and fill the responses.
+   *
+   * @return the responses in the order the operations were queued
+   */
+  public List<Response<?>> execute() {
+    if (executed) {
+      throw new IllegalStateException("Cache batch has already been executed");
+    }
+    executed = true;
+    if (operations.isEmpty()) {
+      return responses;
+    }
+
+    List<Object> results = transactional ? executeTransaction() : redisTemplate.executePipelined(sessionCallback(false));
+    if (Objects.isNull(results) || results.size() != responses.size()) {
+      log.error("Cache batch returned {} results for {} operations", Objects.isNull(results) ? 0 : results.size(), responses.size());
+      return responses;
+    }
+
+    for (int i = 0; i < responses.size(); i++) {
+      responses.get(i).complete(results.get(i));
+    }
+    return responses;
+  }
+
+  private List<Object> executeTransaction() {
+    return redisTemplate.execute(sessionCallback(true));
+  }
+
+  private SessionCallback<List<Object>> sessionCallback(boolean inTransaction) {
+    return new SessionCallback<>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public <K, V> List<Object> execute(RedisOperations<K, V> redisOperations) throws DataAccessException {
+        RedisOperations<String, Object> ops = (RedisOperations<String, Object>) redisOperations;
+        if (inTransaction) {
+          ops.multi();
+        }
+        operations.forEach(operation -> operation.accept(ops));
+        return inTransaction ? ops.exec() : null;
+      }
+    };
+  }
+
+  private <T> Response<T> queue(Consumer<RedisOperations<String, Object>> operation, Function<Object, T> converter) {
+    if (executed) {
+      throw new IllegalStateException("Cache batch has already been executed");
+    }
+    Response<T> response = new Response<>(converter);
+    operations.add(operation);
+    responses.add(response);
+    return response;
+  }
+
+  private static Boolean toBoolean(Object value) {
+    if (value instanceof Boolean) {
+      return (Boolean) value;
+    }
+    if (value instanceof Number) {
+      return ((Number) value).longValue() > 0;
+    }
+    return Objects.nonNull(value);
+  }
+
+  /**
+   * The result of a queued operation. The value is only available after the batch has been executed.
+   *
+   * @param <T> the type of the value
+   */
+  public static final class Response<T> {
+
+    private final Function<Object, T> converter;
+    private boolean completed;
+    private T value;
+
+    private Response(Function<Object, T> converter) {
+      this.converter = converter;
+    }
+
+    private void complete(Object result) {
+      this.value = converter.apply(result);
+      this.completed = true;
+    }
+
+    public boolean isCompleted() {
+      return completed;
+    }
+
+    public T get() {
+      if (!completed) {
+        throw new IllegalStateException("Cache batch has not been executed");
+      }
+      return value;
+    }
+  }
+}
@@ -1,20 +1,34 @@
 package com.umulam.fleen.health.service.impl;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.umulam.fleen.health.model.domain.ProfileVerificationMessage;
+import com.umulam.fleen.health.configuration.cache.EncodedCacheValue;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
 
 @Slf4j
 @Component
 @AllArgsConstructor
 public class CacheService {
 
+  private static final int SCAN_BATCH_SIZE = 500;
+  private static final RedisScript<Long> COMPARE_AND_DELETE_SCRIPT = RedisScript.of(new ClassPathResource("redis/compare-and-delete.lua"), Long.class);
+  private static final RedisScript<Long> COMPARE_AND_EXPIRE_SCRIPT = RedisScript.of(new ClassPathResource("redis/compare-and-expire.lua"), Long.class);
+
   private final RedisTemplate<String, Object> redisTemplate;
   private final ObjectMapper mapper;
 
@@ -35,8 +49,7 @@ public class CacheService {
   }
 
   public void set(String key, String value, Duration duration) {
-    set(key, value);
-    expire(key, duration);
+    redisTemplate.opsForValue().set(key, value, duration);
   }
 
   public void setByHash(String hash, String key, Object value) {
@@ -51,24 +64,189 @@ public class CacheService {
     redisTemplate.delete(key);
   }
 
+  /**
+   * Delete a key only if it still holds the value, in a single step. The value is compared as it is written to the cache store, so
+   * it must be the same object, or an equal one, that was set.
+   *
+   * @param key the key to delete
+   * @param value the value the key was set to
+   * @return true if the key held the value and was deleted
+   */
+  public boolean deleteIfEquals(String key, Object value) {
+    Long deleted = redisTemplate.execute(COMPARE_AND_DELETE_SCRIPT, List.of(key), value);
+    return Objects.nonNull(deleted) && deleted > 0;
+  }
+
+  /**
+   * Set the time to live of a key only if it still holds the value, in a single step. The value is compared as it is written to the
+   * cache store, so it must be the same object, or an equal one, that was set.
+   *
+   * @param key the key to expire
+   * @param value the value the key was set to
+   * @param duration the new time to live
+   * @return true if the key held the value and its time to live was set
+   */
+  @SuppressWarnings("unchecked")
+  public boolean expireIfEquals(String key, Object value, Duration duration) {
+    byte[] serializedValue = ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+    byte[] ttl = String.valueOf(duration.toMillis()).getBytes(StandardCharsets.UTF_8);
+    Long expired = redisTemplate.execute(COMPARE_AND_EXPIRE_SCRIPT, RedisSerializer.byteArray(), new GenericToStringSerializer<>(Long.class),
+      List.of(key), serializedValue, ttl);
+    return Objects.nonNull(expired) && expired > 0;
+  }
+
   public void deleteByHash(String hash, String key) {
     redisTemplate.opsForHash().delete(key, hash);
   }
 
   public void set(String key, Object value) {
-    try {
-      String jsonString = mapper.writeValueAsString(value);
-      set(key, jsonString);
-    } catch (JsonProcessingException ex) {
-      log.error(ex.getMessage(), ex);
-    }
+    redisTemplate.opsForValue().set(key, value);
+  }
+
+  public void set(String key, Object value, Duration duration) {
+    redisTemplate.opsForValue().set(key, value, duration);
+  }
+
+  public boolean setIfAbsent(String key, Object value, Duration duration) {
+    return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value, duration));
   }
 
   public <T> T get(String key, Class<T> clazz) {
+    return fromCacheValue(get(key), clazz);
+  }
+
+  /**
+   * Start a batch of operations that will be sent to the cache store in a single round trip.
+   *
+   * @return a new {@link CacheBatch}
+   */
+  public CacheBatch batch() {
+    return new CacheBatch(redisTemplate, this);
+  }
+
+  /**
+   * Get the values of several keys in a single round trip.
+   *
+   * @param keys the keys to get
+   * @param clazz the type of the values
+   * @return the values found, keyed by their keys. Keys that do not exist are left out.
+   */
+  public <T> Map<String, T> multiGet(Collection<String> keys, Class<T> clazz) {
+    if (keys.isEmpty()) {
+      return Map.of();
+    }
+
+    List<String> orderedKeys = new ArrayList<>(keys);
+    List<Object> values = redisTemplate.opsForValue().multiGet(orderedKeys);
+    Map<String, T> result = new LinkedHashMap<>();
+    if (Objects.isNull(values)) {
+      return result;
+    }
+
+    for (int i = 0; i < orderedKeys.size(); i++) {
+      T value = fromCacheValue(values.get(i), clazz);
+      if (Objects.nonNull(value)) {
+        result.put(orderedKeys.get(i), value);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Set several keys with the same time to live in a single round trip.
+   *
+   * @param entries the keys and values to set
+   * @param duration how long the keys should be kept
+   */
+  public void multiSet(Map<String, ?> entries, Duration duration) {
+    multiSet(entries, key -> duration);
+  }
+
+  /**
+   * Set several keys, each with its own time to live, in a single round trip. Every key is written with SET and its expiry in the
+   * same command, so a key is never left without one.
+   *
+   * @param entries the keys and values to set
+   * @param durations how long each key should be kept
+   */
+  public void multiSet(Map<String, ?> entries, Function<String, Duration> durations) {
+    if (entries.isEmpty()) {
+      return;
+    }
+
+    CacheBatch batch = batch();
+    entries.forEach((key, value) -> batch.set(key, value, durations.apply(key)));
+    batch.execute();
+  }
+
+  /**
+   * Delete several keys in a single round trip.
+   *
+   * @param keys the keys to delete
+   * @return the number of keys that were deleted
+   */
+  public long delete(Collection<String> keys) {
+    if (keys.isEmpty()) {
+      return 0;
+    }
+
+    Long deleted = redisTemplate.delete(keys);
+    return Objects.isNull(deleted) ? 0 : deleted;
+  }
+
+  /**
+   * Delete every key that starts with the prefix. Keys are found with SCAN instead of KEYS so that the cache store is not blocked,
+   * and are deleted in batches once the scan is complete so that no key is skipped by a scan running over deleted keys. The scan
+   * and the deletes run on the same connection, which is only given back to the pool once they are done.
+   *
+   * @param prefix the prefix of the keys to delete
+   * @return the number of keys that were deleted
+   */
+  public long deleteByPrefix(String prefix) {
+    ScanOptions options = ScanOptions.scanOptions()
+            .match(prefix.concat("*"))
+            .count(SCAN_BATCH_SIZE)
+            .build();
+
+    Long deleted = redisTemplate.execute((RedisCallback<Long>) connection -> {
+      List<byte[]> keys = new ArrayList<>();
+      try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+        cursor.forEachRemaining(keys::add);
+      }
+
+      long count = 0;
+      for (int from = 0; from < keys.size(); from += SCAN_BATCH_SIZE) {
+        List<byte[]> batch = keys.subList(from, Math.min(from + SCAN_BATCH_SIZE, keys.size()));
+        Long batchDeleted = connection.keyCommands().del(batch.toArray(new byte[0][]));
+        count += Objects.isNull(batchDeleted) ? 0 : batchDeleted;
+      }
+      return count;
+    });
+    return Objects.isNull(deleted) ? 0 : deleted;
+  }
+
+  /**
+   * Map a value read from the cache store to the type. Values written in the binary format are read directly into the type, while
+   * values written before it was introduced are JSON strings that are parsed.
+   *
+   * @param value the value read from the cache store
+   * @param clazz the type of the value
+   * @return the value mapped to the type or null if it could not be read
+   */
+  <T> T fromCacheValue(Object value, Class<T> clazz) {
+    if (Objects.isNull(value)) {
+      return null;
+    }
+
     try {
-      String value = (String) get(key);
-      return mapper.readValue(value, clazz);
-    } catch (JsonProcessingException ex) {
+      if (value instanceof EncodedCacheValue) {
+        return ((EncodedCacheValue) value).read(clazz);
+      }
+      if (clazz.isInstance(value)) {
+        return clazz.cast(value);
+      }
+      return mapper.readValue((String) value, clazz);
+    } catch (IOException ex) {
       log.error(ex.getMessage(), ex);
     }
     return null;
@@ -1,27 +1,245 @@
 package com.umulam.fleen.health.service.impl;
 
-import com.umulam.fleen.health.adapter.banking.flutterwave.model.response.FwGetExchangeRateResponse;
+import com.umulam.fleen.health.exception.banking.ExchangeRateUnavailableException;
+import com.umulam.fleen.health.model.response.banking.ExchangeRate;
 import com.umulam.fleen.health.service.ExchangeRateService;
-import com.umulam.fleen.health.service.external.banking.FlutterwaveService;
+import com.umulam.fleen.health.service.external.banking.ExchangeRateProvider;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.umulam.fleen.health.constant.base.GeneralConstant.EXCHANGE_RATE_CACHE_PREFIX;
+import static com.umulam.fleen.health.constant.base.GeneralConstant.EXCHANGE_RATE_REFRESH_LOCK_CACHE_PREFIX;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * ExchangeRateServiceImpl converts amounts between currencies with a table of rates held in memory, so a conversion made while
+ * booking a session or listing professionals is arithmetic and never waits on the provider or holds a database connection during
+ * an HTTP call.
+ *
+ * <p>The rates are refreshed on a background thread at the configured interval. A rate older than the interval is still used while
+ * a refresh is requested, and a rate older than the configured staleness bound is not used at all. Every refreshed rate is written
+ * to the cache store without an expiry, which shares it with the other nodes, lets only the node holding the refresh lock call the
+ * provider for each interval, and gives a node that starts while the provider is down the last known rates.</p>
+ *
+ * <p>The last known rates are only kept under their keys in the cache store and are not saved to the database. If the cache store
+ * is flushed or loses its data while the provider is down, a node that starts has no rate and sessions cannot be booked until the
+ * provider answers again.</p>
+ * <br/>
+ */
 @Slf4j
 @Service
-public class ExchangeRateServiceImpl implements ExchangeRateService {
+public class ExchangeRateServiceImpl implements ExchangeRateService, DisposableBean {
+
+  private static final String EXECUTOR_NAME = "exchange-rate-refresh";
+  private static final String PAIR_SEPARATOR = ":";
 
   private final ConfigService configService;
-  private final FlutterwaveService flutterwaveService;
+  private final ExchangeRateProvider exchangeRateProvider;
+  private final CacheService cacheService;
+  private final ScheduledExecutorService executor;
+  private final Set<String> trackedPairs = ConcurrentHashMap.newKeySet();
+  private final Map<String, ExchangeRate> rates = new ConcurrentHashMap<>();
+  private final AtomicBoolean refreshRequested = new AtomicBoolean();
+  private final long refreshIntervalMillis;
+  private final long maxStalenessMillis;
 
   public ExchangeRateServiceImpl(ConfigService configService,
-                                 FlutterwaveService flutterwaveService) {
+                                 ExchangeRateProvider exchangeRateProvider,
+                                 CacheService cacheService,
+                                 @Value("${fleen.health.exchange-rate.refresh-minutes:10}") long refreshMinutes,
+                                 @Value("${fleen.health.exchange-rate.max-stale-minutes:360}") long maxStaleMinutes) {
     this.configService = configService;
-    this.flutterwaveService = flutterwaveService;
+    this.exchangeRateProvider = exchangeRateProvider;
+    this.cacheService = cacheService;
+    this.refreshIntervalMillis = Duration.ofMinutes(refreshMinutes).toMillis();
+    this.maxStalenessMillis = Duration.ofMinutes(Math.max(maxStaleMinutes, refreshMinutes)).toMillis();
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, EXECUTOR_NAME);
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * <p>Load the last known rates of the health session currencies from the cache store and start refreshing them in the
+   * background.</p>
+   * <br/>
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void startRefresh() {
+    String pair = toPair(configService.getHealthSessionPaymentCurrency(), configService.getHealthSessionPricingCurrency());
+    if (trackedPairs.add(pair)) {
+      loadFromCache(pair);
+    }
+    executor.scheduleWithFixedDelay(this::refresh, 0, refreshIntervalMillis, TimeUnit.MILLISECONDS);
   }
 
   @Override
   public Double getConvertedHealthSessionPrice(Double amount) {
-    FwGetExchangeRateResponse exchangeRate = flutterwaveService.getExchangeRate(amount, configService.getHealthSessionPaymentCurrency(), configService.getHealthSessionPricingCurrency());
-    return exchangeRate.getData().getSource().getAmount();
+    String fromCurrency = configService.getHealthSessionPricingCurrency();
+    String toCurrency = configService.getHealthSessionPaymentCurrency();
+    return convert(amount, fromCurrency, toCurrency)
+      .orElseThrow(() -> new ExchangeRateUnavailableException(fromCurrency, toCurrency));
+  }
+
+  @Override
+  public Optional<Double> findConvertedHealthSessionPrice(Double amount) {
+    return convert(amount, configService.getHealthSessionPricingCurrency(), configService.getHealthSessionPaymentCurrency());
+  }
+
+  /**
+   * <p>Convert an amount with the rate held in memory. A pair of currencies that has not been converted before is added to the
+   * rates that are refreshed and is available once its rate has been loaded.</p>
+   * <br/>
+   *
+   * @param amount the amount to convert
+   * @param fromCurrency the currency of the amount
+   * @param toCurrency the currency to convert the amount to
+   * @return the converted amount rounded to two decimal places, or empty if no rate within the staleness bound is known
+   */
+  @Override
+  public Optional<Double> convert(Double amount, String fromCurrency, String toCurrency) {
+    if (isNull(amount)) {
+      return Optional.empty();
+    }
+    if (fromCurrency.equalsIgnoreCase(toCurrency)) {
+      return Optional.of(amount);
+    }
+    return findRate(toCurrency, fromCurrency)
+      .map(rate -> BigDecimal.valueOf(amount * rate).setScale(2, RoundingMode.HALF_UP).doubleValue());
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  private Optional<Double> findRate(String sourceCurrency, String destinationCurrency) {
+    String pair = toPair(sourceCurrency, destinationCurrency);
+    if (trackedPairs.add(pair)) {
+      loadFromCache(pair);
+      requestRefresh();
+    }
+
+    ExchangeRate exchangeRate = rates.get(pair);
+    if (isNull(exchangeRate)) {
+      // Another node may hold the refresh lock and share the rate before this node refreshes again
+      requestRefresh();
+      return Optional.empty();
+    }
+
+    long age = System.currentTimeMillis() - exchangeRate.getFetchedAt();
+    if (age >= refreshIntervalMillis) {
+      requestRefresh();
+    }
+    if (age > maxStalenessMillis) {
+      log.warn("Exchange rate {} is {} minute(s) old and past the staleness bound", pair, TimeUnit.MILLISECONDS.toMinutes(age));
+      return Optional.empty();
+    }
+    return Optional.of(exchangeRate.getRate());
+  }
+
+  private void requestRefresh() {
+    if (refreshRequested.compareAndSet(false, true)) {
+      try {
+        executor.execute(this::refresh);
+      } catch (RejectedExecutionException ex) {
+        refreshRequested.set(false);
+      }
+    }
+  }
+
+  /**
+   * <p>Refresh every rate that is older than the refresh interval. Runs on the single refresh thread only.</p>
+   * <br/>
+   */
+  private void refresh() {
+    refreshRequested.set(false);
+    for (String pair : trackedPairs) {
+      try {
+        refresh(pair);
+      } catch (RuntimeException ex) {
+        log.error("Exchange rate {} could not be refreshed: {}", pair, ex.getMessage(), ex);
+      }
+    }
+  }
+
+  private void refresh(String pair) {
+    if (isFresh(rates.get(pair))) {
+      return;
+    }
+
+    // Another node may have refreshed the rate since it was last read
+    if (isFresh(loadFromCache(pair))) {
+      return;
+    }
+
+    String lockKey = EXCHANGE_RATE_REFRESH_LOCK_CACHE_PREFIX.concat(pair);
+    if (!cacheService.setIfAbsent(lockKey, String.valueOf(System.currentTimeMillis()), Duration.ofMillis(refreshIntervalMillis))) {
+      return;
+    }
+
+    String[] currencies = pair.split(PAIR_SEPARATOR);
+    try {
+      Double rate = exchangeRateProvider.getRate(currencies[0], currencies[1]);
+      ExchangeRate exchangeRate = ExchangeRate.builder()
+        .sourceCurrency(currencies[0])
+        .destinationCurrency(currencies[1])
+        .rate(rate)
+        .fetchedAt(System.currentTimeMillis())
+        .build();
+      rates.put(pair, exchangeRate);
+      cacheService.set(EXCHANGE_RATE_CACHE_PREFIX.concat(pair), exchangeRate);
+    } catch (RuntimeException ex) {
+      // Let another node try instead of waiting for the lock to expire
+      cacheService.delete(lockKey);
+      throw ex;
+    }
+  }
+
+  /**
+   * <p>Read the rate of the pair from the cache store and hold it in memory if it is newer than the rate already held.</p>
+   * <br/>
+   *
+   * @param pair the source and destination currency
+   * @return the newest rate known, or null if there is none
+   */
+  private ExchangeRate loadFromCache(String pair) {
+    ExchangeRate current = rates.get(pair);
+    ExchangeRate shared = null;
+    try {
+      shared = cacheService.get(EXCHANGE_RATE_CACHE_PREFIX.concat(pair), ExchangeRate.class);
+    } catch (RuntimeException ex) {
+      log.error(ex.getMessage(), ex);
+    }
+
+    if (nonNull(shared) && nonNull(shared.getRate()) && nonNull(shared.getFetchedAt())
+        && (isNull(current) || shared.getFetchedAt() > current.getFetchedAt())) {
+      rates.put(pair, shared);
+      return shared;
+    }
+    return current;
+  }
+
+  private boolean isFresh(ExchangeRate exchangeRate) {
+    return nonNull(exchangeRate) && System.currentTimeMillis() - exchangeRate.getFetchedAt() < refreshIntervalMillis;
+  }
+
+  private static String toPair(String sourceCurrency, String destinationCurrency) {
+    return sourceCurrency.toUpperCase().concat(PAIR_SEPARATOR).concat(destinationCurrency.toUpperCase());
   }
 }
@@ -9,16 +9,19 @@ import com.umulam.fleen.health.event.RescheduleSessionMeetingEvent;
 import com.umulam.fleen.health.model.domain.HealthSession;
 import com.umulam.fleen.health.repository.jpa.HealthSessionJpaRepository;
 import com.umulam.fleen.health.service.external.google.CalendarService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.Objects;
 import java.util.Optional;
 
 import static com.umulam.fleen.health.service.external.google.CalendarService.EVENT_SUMMARY_KEY;
 import static org.springframework.transaction.annotation.Propagation.REQUIRES_NEW;
 import static org.springframework.transaction.event.TransactionPhase.AFTER_COMMIT;
 
+@Slf4j
 @Service
 public class FleenHealthEventListenerService {
 
@@ -36,7 +39,13 @@ public class FleenHealthEventListenerService {
   public void createMeetingSession(CreateSessionMeetingEvents meetingEvents) {
     for (CreateSessionMeetingEvent meetingEvent : meetingEvents.getMeetingEvents()) {
       meetingEvent.getMetadata().put(EVENT_SUMMARY_KEY, getMeetingEventSummary(meetingEvent.getPatientName(), meetingEvent.getProfessionalName()));
-      Event event = calendarService.createEvent(meetingEvent.getStartDate(), meetingEvent.getEndDate(), meetingEvent.getAttendees(), meetingEvent.getMetadata());
+      Event event = calendarService.createEvent(meetingEvent.getSessionReference(), meetingEvent.getStartDate(), meetingEvent.getEndDate(),
+        meetingEvent.getAttendees(), meetingEvent.getMetadata());
+      if (Objects.isNull(event)) {
+        // The session stays pending without a meeting, which the session meeting service creates later
+        log.warn("Meeting event of session {} could not be created and will be tried again", meetingEvent.getSessionReference());
+        continue;
+      }
       Optional<HealthSession> healthSessionExist = healthSessionRepository.findByReference(meetingEvent.getSessionReference());
       if (healthSessionExist.isPresent()) {
         HealthSession healthSession = healthSessionExist.get();
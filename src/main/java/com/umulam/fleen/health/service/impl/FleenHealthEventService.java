@@ -3,7 +3,10 @@ package com.umulam.fleen.health.service.impl;
 import com.umulam.fleen.health.event.CancelSessionMeetingEvent;
 import com.umulam.fleen.health.event.CreateSessionMeetingEvent;
 import com.umulam.fleen.health.event.CreateSessionMeetingEvents;
+import com.umulam.fleen.health.event.ProfessionalChangedEvent;
+import com.umulam.fleen.health.event.ReferenceDataChangedEvent;
 import com.umulam.fleen.health.event.RescheduleSessionMeetingEvent;
+import com.umulam.fleen.health.event.SessionSlotChangedEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
@@ -29,4 +32,16 @@ public class FleenHealthEventService {
   public void publishRescheduleSession(RescheduleSessionMeetingEvent event) {
     eventPublisher.publishEvent(event);
   }
+
+  public void publishReferenceDataChanged(ReferenceDataChangedEvent event) {
+    eventPublisher.publishEvent(event);
+  }
+
+  public void publishSessionSlotChanged(Long professionalMemberId) {
+    eventPublisher.publishEvent(new SessionSlotChangedEvent(professionalMemberId));
+  }
+
+  public void publishProfessionalChanged(Long professionalMemberId) {
+    eventPublisher.publishEvent(new ProfessionalChangedEvent(professionalMemberId));
+  }
 }
@@ -17,7 +17,11 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.isNull;
 
 @Slf4j
 @Component
@@ -44,31 +48,26 @@ public class FleenHealthSchedulerService {
       return;
     }
 
-    Earnings earnings = Earnings.builder().build();
-    HashMap<Long, Earnings> memberEarningsAccount = new HashMap<>();
+    Map<String, SessionTransaction> sessionTransactions = sessionTransactionJpaRepository
+      .findBySessionReferences(healthSessions.stream().map(HealthSession::getReference).collect(Collectors.toList()))
+      .stream()
+      .collect(Collectors.toMap(SessionTransaction::getSessionReference, Function.identity(), (first, second) -> first));
+    // Read every account up front, so no query in between flushes the sessions updated so far outside the batch
+    Map<Long, Earnings> memberEarningsAccount = earningsJpaRepository
+      .findByMemberIn(healthSessions.stream().map(HealthSession::getProfessional).collect(Collectors.toSet()))
+      .stream()
+      .collect(Collectors.toMap(earnings -> earnings.getMember().getId(), Function.identity(), (first, second) -> first, HashMap::new));
     List<HealthSession> updatedHealthSessions = new ArrayList<>();
     for (HealthSession healthSession : healthSessions) {
       Member professional = healthSession.getProfessional();
+      Earnings earnings = memberEarningsAccount.computeIfAbsent(professional.getId(), memberId ->
+        Earnings.builder().member(professional).totalEarnings(BigDecimal.ZERO).build());
 
-      if (memberEarningsAccount.containsKey(professional.getId())) {
-        earnings = memberEarningsAccount.get(professional.getId());
-      }
-
-      if (!memberEarningsAccount.containsKey(professional.getId())) {
-        Optional<Earnings> earningsExists = earningsJpaRepository.findByMember(professional);
-        if (earningsExists.isEmpty()) {
-          earnings.setMember(professional);
-          earningsJpaRepository.save(earnings);
-        }
-        memberEarningsAccount.put(professional.getId(), earnings);
-      }
-
-      Optional<SessionTransaction> sessionTransactionExists = sessionTransactionJpaRepository.findBySessionReference(healthSession.getReference());
-      if (sessionTransactionExists.isEmpty()) {
+      SessionTransaction sessionTransaction = sessionTransactions.get(healthSession.getReference());
+      if (isNull(sessionTransaction)) {
         continue;
       }
 
-      SessionTransaction sessionTransaction = sessionTransactionExists.get();
       BigDecimal updatedEarnings = earnings.getTotalEarnings().add(BigDecimal.valueOf(sessionTransaction.getAmountInPaymentCurrency() * getEarningsPercentage()));
       earnings.setTotalEarnings(updatedEarnings);
       healthSession.setStatus(HealthSessionStatus.COMPLETED);
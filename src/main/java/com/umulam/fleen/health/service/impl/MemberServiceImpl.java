@@ -45,6 +45,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -103,6 +104,15 @@ public class MemberServiceImpl implements MemberService, CommonAuthAndVerificati
             .orElse(null);
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public List<Member> getMembersByEmailAddresses(Collection<String> emailAddresses) {
+    if (emailAddresses.isEmpty()) {
+      return List.of();
+    }
+    return repository.findByEmailAddressIn(emailAddresses);
+  }
+
   @Override
   @Transactional(readOnly = true)
   public MemberView findMemberById(Long id) {
@@ -496,10 +506,11 @@ public class MemberServiceImpl implements MemberService, CommonAuthAndVerificati
 
   @Override
   public void updateMemberStatus(UpdateMemberStatusDto dto, Long memberId) {
-    getMember(memberId);
+    Member member = getMember(memberId);
     MemberStatusType memberStatusType = MemberStatusType.valueOf(dto.getMemberStatus());
-    MemberStatus memberStatus = memberStatusService.getMemberStatusByCode(memberStatusType.name());
+    MemberStatus memberStatus = memberStatusService.getMemberStatus(memberStatusType);
     repository.updateMemberStatus(memberId, memberStatus);
+    authenticationService.revokeSession(member.getEmailAddress());
   }
 
   @Override
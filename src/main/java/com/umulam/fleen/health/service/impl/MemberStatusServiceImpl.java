@@ -1,5 +1,7 @@
 package com.umulam.fleen.health.service.impl;
 
+import com.umulam.fleen.health.constant.MemberStatusType;
+import com.umulam.fleen.health.event.ReferenceDataChangedEvent;
 import com.umulam.fleen.health.exception.memberstatus.MemberStatusCodeDuplicateException;
 import com.umulam.fleen.health.exception.memberstatus.MemberStatusNotFoundException;
 import com.umulam.fleen.health.model.domain.MemberStatus;
@@ -23,11 +25,17 @@ public class MemberStatusServiceImpl implements MemberStatusService {
 
   private final MemberStatusJpaRepository repository;
   private final ModelMapper modelMapper;
+  private final ReferenceDataRegistry referenceDataRegistry;
+  private final FleenHealthEventService eventService;
 
   public MemberStatusServiceImpl(MemberStatusJpaRepository repository,
-                            ModelMapper mapper) {
+                            ModelMapper mapper,
+                            ReferenceDataRegistry referenceDataRegistry,
+                            FleenHealthEventService eventService) {
     this.repository = repository;
     this.modelMapper = mapper;
+    this.referenceDataRegistry = referenceDataRegistry;
+    this.eventService = eventService;
   }
 
   @Override
@@ -39,10 +47,18 @@ public class MemberStatusServiceImpl implements MemberStatusService {
   }
 
   @Override
-  @Transactional(readOnly = true)
+  public MemberStatus getMemberStatus(MemberStatusType memberStatusType) {
+    return referenceDataRegistry
+            .getMemberStatus(memberStatusType)
+            .or(() -> repository.findByCode(memberStatusType.name()))
+            .orElseThrow(() -> new MemberStatusNotFoundException(memberStatusType.name()));
+  }
+
+  @Override
   public MemberStatus getMemberStatusByCode(String code) {
-    return repository
-            .findByCode(code)
+    return referenceDataRegistry
+            .getMemberStatus(code)
+            .or(() -> repository.findByCode(code))
             .orElseThrow(() -> new MemberStatusNotFoundException(code));
   }
 
@@ -63,20 +79,27 @@ public class MemberStatusServiceImpl implements MemberStatusService {
   @Transactional
   public MemberStatus saveMemberStatus(MemberStatusDto dto) {
     MemberStatus memberStatus = dto.toMemberStatus();
-    return repository.save(memberStatus);
+    MemberStatus savedMemberStatus = repository.save(memberStatus);
+    publishMemberStatusChanged();
+    return savedMemberStatus;
   }
 
   @Override
   @Transactional
   public MemberStatus updateMemberStatus(Long id, UpdateMemberStatusDto dto) {
     getMemberStatus(id);
-    MemberStatus memberStatus = getMemberStatusByCode(dto.getCode());
+    // The instance is modified below, so it is read from the database instead of the shared reference data
+    MemberStatus memberStatus = repository
+            .findByCode(dto.getCode())
+            .orElseThrow(() -> new MemberStatusNotFoundException(dto.getCode()));
     if (isMemberStatusExistsByCode(dto.getCode()) && !(memberStatus.getId().intValue() == id.intValue())) {
       throw new MemberStatusCodeDuplicateException(dto.getCode());
     }
 
     modelMapper.map(dto, memberStatus);
-    return repository.save(memberStatus);
+    MemberStatus savedMemberStatus = repository.save(memberStatus);
+    publishMemberStatusChanged();
+    return savedMemberStatus;
   }
 
   @Override
@@ -90,11 +113,13 @@ public class MemberStatusServiceImpl implements MemberStatusService {
             .collect(Collectors.toList());
 
     repository.deleteAll(countries);
+    publishMemberStatusChanged();
   }
 
   @Override
   public void deleteAllMemberStatus() {
     repository.deleteAll();
+    publishMemberStatusChanged();
   }
 
   @Override
@@ -110,4 +135,8 @@ public class MemberStatusServiceImpl implements MemberStatusService {
             .findByCode(code)
             .isPresent();
   }
+
+  private void publishMemberStatusChanged() {
+    eventService.publishReferenceDataChanged(new ReferenceDataChangedEvent(MemberStatus.class.getSimpleName()));
+  }
 }
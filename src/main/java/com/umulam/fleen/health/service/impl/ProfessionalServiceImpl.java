@@ -4,7 +4,6 @@ import com.amazonaws.HttpMethod;
 import com.umulam.fleen.health.configuration.aws.s3.S3BucketNames;
 import com.umulam.fleen.health.constant.base.ProfileType;
 import com.umulam.fleen.health.constant.member.ProfessionalTitle;
-import com.umulam.fleen.health.constant.professional.AvailabilityDayOfTheWeek;
 import com.umulam.fleen.health.constant.professional.ProfessionalAvailabilityStatus;
 import com.umulam.fleen.health.constant.verification.ProfileVerificationStatus;
 import com.umulam.fleen.health.exception.member.UserNotFoundException;
@@ -26,18 +25,20 @@ import com.umulam.fleen.health.model.view.professional.ProfessionalView;
 import com.umulam.fleen.health.model.view.professional.ProfessionalViewBasic;
 import com.umulam.fleen.health.repository.jpa.ProfessionalAvailabilityJpaRepository;
 import com.umulam.fleen.health.repository.jpa.ProfessionalJpaRepository;
+import com.umulam.fleen.health.repository.jpa.ProfessionalScheduleJpaRepository;
 import com.umulam.fleen.health.service.*;
+import com.umulam.fleen.health.util.WeeklyAvailability;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.*;
 import java.util.stream.Collectors;
 
-import static com.umulam.fleen.health.util.DateTimeUtil.toTime;
 import static com.umulam.fleen.health.util.EnumUtil.convertEnumToList;
 
 @Slf4j
@@ -51,7 +52,9 @@ public class ProfessionalServiceImpl implements ProfessionalService, ProfileServ
   protected final VerificationDocumentService verificationDocumentService;
   protected final ProfessionalJpaRepository repository;
   protected final ProfessionalAvailabilityJpaRepository professionalAvailabilityJpaRepository;
+  protected final ProfessionalScheduleJpaRepository professionalScheduleJpaRepository;
   protected final S3BucketNames s3BucketNames;
+  protected final FleenHealthEventService eventService;
 
   public ProfessionalServiceImpl(MemberService memberService,
                              S3Service s3Service,
@@ -59,14 +62,18 @@ public class ProfessionalServiceImpl implements ProfessionalService, ProfileServ
                              VerificationDocumentService verificationDocumentService,
                              ProfessionalJpaRepository repository,
                              ProfessionalAvailabilityJpaRepository professionalAvailabilityJpaRepository,
-                             S3BucketNames s3BucketNames) {
+                             ProfessionalScheduleJpaRepository professionalScheduleJpaRepository,
+                             S3BucketNames s3BucketNames,
+                             FleenHealthEventService eventService) {
     this.memberService = memberService;
     this.s3Service = s3Service;
     this.countryService = countryService;
     this.verificationDocumentService = verificationDocumentService;
     this.repository = repository;
     this.professionalAvailabilityJpaRepository = professionalAvailabilityJpaRepository;
+    this.professionalScheduleJpaRepository = professionalScheduleJpaRepository;
     this.s3BucketNames = s3BucketNames;
+    this.eventService = eventService;
   }
 
   @Override
@@ -129,7 +136,9 @@ public class ProfessionalServiceImpl implements ProfessionalService, ProfileServ
     professional.setMember(member);
     professional.setCountry(country);
 
-    return repository.save(professional);
+    Professional savedProfessional = repository.save(professional);
+    eventService.publishProfessionalChanged(member.getId());
+    return savedProfessional;
   }
 
   @Override
@@ -146,6 +155,7 @@ public class ProfessionalServiceImpl implements ProfessionalService, ProfileServ
     if (member.getVerificationStatus() == ProfileVerificationStatus.APPROVED) {
       member.setVerificationStatus(ProfileVerificationStatus.IN_PROGRESS);
       memberService.save(member);
+      eventService.publishProfessionalChanged(member.getId());
     }
   }
 
@@ -159,6 +169,7 @@ public class ProfessionalServiceImpl implements ProfessionalService, ProfileServ
     }
     member.setVerificationStatus(ProfileVerificationStatus.IN_PROGRESS);
     memberService.save(member);
+    eventService.publishProfessionalChanged(member.getId());
   }
 
   @Override
@@ -189,8 +200,7 @@ public class ProfessionalServiceImpl implements ProfessionalService, ProfileServ
 
     ProfessionalAvailabilityStatus status = ProfessionalAvailabilityStatus.valueOf(dto.getAvailabilityStatus());
     if (status == ProfessionalAvailabilityStatus.AVAILABLE) {
-      long professionalHasAtLeastAvailabilityPeriod = professionalAvailabilityJpaRepository.countByMember(member);
-      if (professionalHasAtLeastAvailabilityPeriod < 1) {
+      if (getWeeklyAvailability(member).isEmpty()) {
         throw new ProfessionalShouldHaveAtLeastOneAvailabilityPeriod();
       }
     }
@@ -200,6 +210,8 @@ public class ProfessionalServiceImpl implements ProfessionalService, ProfileServ
       Professional professional = professionalExists.get();
       professional.setAvailabilityStatus(status);
       save(professional);
+      eventService.publishSessionSlotChanged(member.getId());
+      eventService.publishProfessionalChanged(member.getId());
       return;
     }
     throw new ProfessionalNotFoundException(user.getEmailAddress());
@@ -267,17 +279,13 @@ public class ProfessionalServiceImpl implements ProfessionalService, ProfileServ
       throw new ProfessionalProfileNotApproved();
     }
 
-    List<ProfessionalAvailability> availabilityPeriods = dto.getPeriods()
+    WeeklyAvailability availability = WeeklyAvailability.of(dto.getPeriods()
       .stream()
-      .map(period -> ProfessionalAvailability.builder()
-        .member(member)
-        .startTime(toTime(period.getStartTime()))
-        .endTime(toTime(period.getEndTime()))
-        .dayOfWeek(AvailabilityDayOfTheWeek.valueOf(period.getDayOfTheWeek()))
-        .build()).collect(Collectors.toList());
-
-      professionalAvailabilityJpaRepository.deleteAllByMember(member);
-      professionalAvailabilityJpaRepository.saveAll(availabilityPeriods);
+      .map(UpdateProfessionalAvailabilityDto.AvailabilityPeriod::toPeriod)
+      .collect(Collectors.toList()));
+    saveWeeklyAvailability(member, availability);
+    eventService.publishSessionSlotChanged(member.getId());
+    eventService.publishProfessionalChanged(member.getId());
   }
 
   @Override
@@ -287,8 +295,80 @@ public class ProfessionalServiceImpl implements ProfessionalService, ProfileServ
     if (member.getUserType() != ProfileType.PROFESSIONAL) {
       throw new NotAProfessionalException(member.getId());
     }
-    List<ProfessionalAvailability> availabilities = professionalAvailabilityJpaRepository.findAllByMember(member);
-    return ProfessionalAvailabilityMapper.toProfessionalAvailabilityViews(availabilities);
+    return ProfessionalAvailabilityMapper.toProfessionalAvailabilityViews(getWeeklyAvailability(member));
+  }
+
+  /**
+   * <p>Get the times of the week the professional is available. Professionals whose availability has not been moved to a schedule
+   * yet have it built from their availability periods.</p>
+   * <br/>
+   *
+   * @param member the professional
+   * @return the times of the week the professional is available
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public WeeklyAvailability getWeeklyAvailability(Member member) {
+    Optional<ProfessionalSchedule> schedule = professionalScheduleJpaRepository.findByMemberId(member.getId());
+    if (schedule.isPresent()) {
+      return schedule.get().getWeeklyAvailability();
+    }
+
+    return WeeklyAvailability.of(professionalAvailabilityJpaRepository.findAllByMember(member)
+      .stream()
+      // Periods saved before end times were checked may not end after they start, and never covered any time
+      .filter(availability -> WeeklyAvailability.Period.isValid(availability.getStartTime(), availability.getEndTime()))
+      .map(ProfessionalAvailability::toPeriod)
+      .collect(Collectors.toList()));
+  }
+
+  /**
+   * <p>Find the professionals with their members and lock them until the current transaction completes, so that their availability
+   * status, price and verification cannot change before it does.</p>
+   * <br/>
+   *
+   * @param memberIds the member IDs of the professionals
+   * @return the professionals found
+   */
+  @Override
+  @Transactional(propagation = Propagation.MANDATORY)
+  public List<Professional> lockAndFindProfessionalsByMembers(Collection<Long> memberIds) {
+    return repository.lockByMemberIds(memberIds);
+  }
+
+  /**
+   * <p>Get the times of the week several professionals are available and lock their schedules until the current transaction
+   * completes. Professionals whose availability has not been moved to a schedule yet have it built from their availability periods,
+   * which are not locked.</p>
+   * <br/>
+   *
+   * @param memberIds the member IDs of the professionals
+   * @return the times of the week every professional is available, by member ID
+   */
+  @Override
+  @Transactional(propagation = Propagation.MANDATORY)
+  public Map<Long, WeeklyAvailability> lockAndFindWeeklyAvailabilities(Collection<Long> memberIds) {
+    Map<Long, WeeklyAvailability> availabilities = new HashMap<>();
+    for (ProfessionalSchedule schedule : professionalScheduleJpaRepository.lockByMemberIds(memberIds)) {
+      availabilities.put(schedule.getMember().getId(), schedule.getWeeklyAvailability());
+    }
+    for (Long memberId : memberIds) {
+      if (!availabilities.containsKey(memberId)) {
+        availabilities.put(memberId, getWeeklyAvailability(Member.builder().id(memberId).build()));
+      }
+    }
+    return availabilities;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<Long> findMemberIdsAvailableAt(DayOfWeek dayOfWeek, LocalTime time) {
+    return professionalScheduleJpaRepository.findMemberIdsAvailableAt(WeeklyAvailability.indexOf(dayOfWeek, time));
+  }
+
+  private void saveWeeklyAvailability(Member member, WeeklyAvailability availability) {
+    professionalScheduleJpaRepository.upsert(member.getId(), availability.toBytes(), availability.toPeriods().size());
+    professionalAvailabilityJpaRepository.deleteByMember(member);
   }
 
   @Override
@@ -1,6 +1,7 @@
 package com.umulam.fleen.health.service.impl;
 
 import com.umulam.fleen.health.constant.verification.ProfileVerificationMessageType;
+import com.umulam.fleen.health.event.ReferenceDataChangedEvent;
 import com.umulam.fleen.health.exception.profileverificationmessage.ProfileVerificationMessageNotFoundException;
 import com.umulam.fleen.health.model.domain.ProfileVerificationMessage;
 import com.umulam.fleen.health.model.dto.profileverificationmessage.ProfileVerificationMessageDto;
@@ -23,9 +24,12 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.umulam.fleen.health.constant.base.GeneralConstant.PROFILE_VERIFICATION_MESSAGE_TEMPLATE_CACHE_PREFIX;
@@ -37,20 +41,32 @@ import static java.util.Objects.nonNull;
 @Service
 public class ProfileVerificationMessageServiceImpl implements ProfileVerificationMessageService {
 
+  /**
+   * The messages are saved again every three hours, so they are kept for two refreshes and removed once they are no longer saved.
+   */
+  private static final Duration MESSAGE_CACHE_DURATION = Duration.ofHours(6);
+
   private final CacheService cacheService;
   private final ProfileVerificationMessageJpaRepository repository;
+  private final ReferenceDataRegistry referenceDataRegistry;
+  private final FleenHealthEventService eventService;
 
   public ProfileVerificationMessageServiceImpl(
           CacheService cacheService,
-          ProfileVerificationMessageJpaRepository repository) {
+          ProfileVerificationMessageJpaRepository repository,
+          ReferenceDataRegistry referenceDataRegistry,
+          FleenHealthEventService eventService) {
     this.cacheService = cacheService;
     this.repository = repository;
+    this.referenceDataRegistry = referenceDataRegistry;
+    this.eventService = eventService;
   }
 
   @Override
   public ProfileVerificationMessage getProfileVerificationMessageByType(@NonNull ProfileVerificationMessageType messageType) {
-    return repository
-            .findFirstByVerificationMessageType(messageType)
+    return referenceDataRegistry
+            .getProfileVerificationMessage(messageType)
+            .or(() -> repository.findFirstByVerificationMessageType(messageType))
             .orElse(null);
   }
 
@@ -103,10 +119,11 @@ public class ProfileVerificationMessageServiceImpl implements ProfileVerificatio
     if (Objects.isNull(messages) || messages.isEmpty()) {
       messages = getMessagesForCache();
     }
-    messages
+    Map<String, ProfileVerificationMessage> entries = messages
             .stream()
             .filter(Objects::nonNull)
-            .forEach(message -> saveProfileVerificationVerificationMessageToCache(message.getId(), message));
+            .collect(Collectors.toMap(message -> getProfileVerificationMessageCacheKey(message.getId()), Function.identity(), (first, second) -> second));
+    cacheService.multiSet(entries, MESSAGE_CACHE_DURATION);
   }
 
   private List<ProfileVerificationMessage> getMessagesForCache() {
@@ -116,7 +133,7 @@ public class ProfileVerificationMessageServiceImpl implements ProfileVerificatio
   @Override
   public void saveProfileVerificationVerificationMessageToCache(Long messageId, ProfileVerificationMessage verificationMessage) {
     String key = getProfileVerificationMessageCacheKey(messageId);
-    cacheService.set(key, verificationMessage);
+    cacheService.set(key, verificationMessage, MESSAGE_CACHE_DURATION);
   }
 
   @Override
@@ -135,6 +152,7 @@ public class ProfileVerificationMessageServiceImpl implements ProfileVerificatio
   public void saveProfileVerificationMessage(ProfileVerificationMessageDto dto) {
     ProfileVerificationMessage verificationMessage = dto.toProfileVerificationMessage();
     repository.save(verificationMessage);
+    publishProfileVerificationMessageChanged();
   }
 
   @Override
@@ -148,6 +166,7 @@ public class ProfileVerificationMessageServiceImpl implements ProfileVerificatio
     ProfileVerificationMessage verificationMessage = dto.toProfileVerificationMessage();
     verificationMessage.setId(id);
     repository.save(verificationMessage);
+    publishProfileVerificationMessageChanged();
   }
 
   @Override
@@ -161,5 +180,10 @@ public class ProfileVerificationMessageServiceImpl implements ProfileVerificatio
             .collect(Collectors.toList());
 
     repository.deleteAll(messages);
+    publishProfileVerificationMessageChanged();
+  }
+
+  private void publishProfileVerificationMessageChanged() {
+    eventService.publishReferenceDataChanged(new ReferenceDataChangedEvent(ProfileVerificationMessage.class.getSimpleName()));
   }
 }
@@ -0,0 +1,91 @@
+package com.umulam.fleen.health.service.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.umulam.fleen.health.constant.base.GeneralConstant.RATE_LIMIT_CACHE_PREFIX;
+
+/**
+ * RateLimiterService counts requests in a sliding window kept in the cache store so that a limit is shared by every node of the
+ * application. The window is checked and updated by a single script so that concurrent requests cannot both take the last slot.
+ *
+ * <p>If the cache store cannot be reached, requests are counted on this node in fixed windows instead, so the limit still holds
+ * for each node while the cache store is unavailable.</p>
+ * <br/>
+ */
+@Slf4j
+@Component
+public class RateLimiterService {
+
+  private static final RedisScript<Long> RATE_LIMIT_SCRIPT = RedisScript.of(new ClassPathResource("redis/rate-limit.lua"), Long.class);
+
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final StringRedisSerializer serializer;
+  private final GenericToStringSerializer<Long> resultSerializer;
+  private final Cache<String, AtomicInteger> localCounts;
+
+  public RateLimiterService(RedisTemplate<String, Object> redisTemplate,
+                            @Value("${fleen.health.rate-limit.local.max-size:100000}") long localMaxSize) {
+    this.redisTemplate = redisTemplate;
+    this.serializer = StringRedisSerializer.UTF_8;
+    this.resultSerializer = new GenericToStringSerializer<>(Long.class);
+    this.localCounts = CacheBuilder.newBuilder()
+            .maximumSize(localMaxSize)
+            .expireAfterAccess(1, TimeUnit.HOURS)
+            .build();
+  }
+
+  /**
+   * Record a request and check if it is within the limit.
+   *
+   * @param key what the requests are counted by, for example the name of the limit and an IP address
+   * @param limit the number of requests allowed in the window
+   * @param window the length of the window
+   * @return {@link Duration#ZERO} if the request is allowed, otherwise how long to wait before the next request will be allowed
+   */
+  public Duration tryAcquire(String key, int limit, Duration window) {
+    String cacheKey = RATE_LIMIT_CACHE_PREFIX.concat(key);
+    try {
+      Long retryAfter = redisTemplate.execute(RATE_LIMIT_SCRIPT, serializer, resultSerializer, List.of(cacheKey),
+        String.valueOf(limit),
+        String.valueOf(window.toMillis()),
+        UUID.randomUUID().toString());
+      return Objects.isNull(retryAfter) ? Duration.ZERO : Duration.ofMillis(retryAfter);
+    } catch (RuntimeException ex) {
+      log.warn("Falling back to a local rate limit for {}: {}", key, ex.getMessage());
+      return tryAcquireLocally(cacheKey, limit, window);
+    }
+  }
+
+  private Duration tryAcquireLocally(String key, int limit, Duration window) {
+    long now = System.currentTimeMillis();
+    long windowMillis = Math.max(window.toMillis(), 1);
+    long windowStart = now - (now % windowMillis);
+    try {
+      AtomicInteger count = localCounts.get(key + ":" + windowStart, AtomicInteger::new);
+      if (count.incrementAndGet() <= limit) {
+        return Duration.ZERO;
+      }
+    } catch (ExecutionException ex) {
+      log.error(ex.getMessage(), ex);
+      return Duration.ZERO;
+    }
+    return Duration.ofMillis(windowStart + windowMillis - now);
+  }
+}
@@ -0,0 +1,193 @@
+package com.umulam.fleen.health.service.impl;
+
+import com.umulam.fleen.health.constant.MemberStatusType;
+import com.umulam.fleen.health.constant.authentication.RoleType;
+import com.umulam.fleen.health.constant.verification.ProfileVerificationMessageType;
+import com.umulam.fleen.health.event.ReferenceDataChangedEvent;
+import com.umulam.fleen.health.model.domain.MemberStatus;
+import com.umulam.fleen.health.model.domain.ProfileVerificationMessage;
+import com.umulam.fleen.health.model.domain.Role;
+import com.umulam.fleen.health.repository.jpa.MemberStatusJpaRepository;
+import com.umulam.fleen.health.repository.jpa.ProfileVerificationMessageJpaRepository;
+import com.umulam.fleen.health.repository.jpa.RoleJpaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+import static java.util.Objects.isNull;
+import static org.springframework.transaction.event.TransactionPhase.AFTER_COMMIT;
+
+/**
+ * ReferenceDataRegistry keeps the roles, member statuses and profile verification messages in memory so that sign up, sign in,
+ * onboarding and verification do not query the database for data that rarely changes. The data is held in an immutable snapshot
+ * that is replaced as a whole whenever it is reloaded, so readers never see a partly loaded registry. Every record is indexed by
+ * its type, so a lookup by {@link RoleType}, {@link MemberStatusType} or {@link ProfileVerificationMessageType} is an array read.
+ *
+ * <p>The snapshot is loaded once the application is ready, after the startup services have seeded the records. When reference data
+ * is changed through a service, a {@link ReferenceDataChangedEvent} is published and the snapshot is reloaded after the transaction
+ * commits. A message is then published so that every other node reloads its snapshot too.</p>
+ * <br/>
+ */
+@Slf4j
+@Component
+public class ReferenceDataRegistry implements MessageListener {
+
+  private final RoleJpaRepository roleRepository;
+  private final MemberStatusJpaRepository memberStatusRepository;
+  private final ProfileVerificationMessageJpaRepository verificationMessageRepository;
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final StringRedisSerializer serializer;
+  private final String channel;
+  private final String nodeId;
+  private volatile Snapshot snapshot;
+
+  public ReferenceDataRegistry(RoleJpaRepository roleRepository,
+                               MemberStatusJpaRepository memberStatusRepository,
+                               ProfileVerificationMessageJpaRepository verificationMessageRepository,
+                               RedisTemplate<String, Object> redisTemplate,
+                               RedisMessageListenerContainer listenerContainer,
+                               @Value("${fleen.health.reference-data.channel:REFERENCE_DATA_INVALIDATION}") String channel) {
+    this.roleRepository = roleRepository;
+    this.memberStatusRepository = memberStatusRepository;
+    this.verificationMessageRepository = verificationMessageRepository;
+    this.redisTemplate = redisTemplate;
+    this.serializer = StringRedisSerializer.UTF_8;
+    this.channel = channel;
+    this.nodeId = UUID.randomUUID().toString();
+    listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+  }
+
+  public Optional<Role> getRole(RoleType roleType) {
+    return Optional.ofNullable(getSnapshot().roles.get(roleType));
+  }
+
+  public Optional<Role> getRole(String code) {
+    return toType(RoleType.class, code).flatMap(this::getRole);
+  }
+
+  public Optional<MemberStatus> getMemberStatus(MemberStatusType memberStatusType) {
+    return Optional.ofNullable(getSnapshot().memberStatuses.get(memberStatusType));
+  }
+
+  public Optional<MemberStatus> getMemberStatus(String code) {
+    return toType(MemberStatusType.class, code).flatMap(this::getMemberStatus);
+  }
+
+  public Optional<ProfileVerificationMessage> getProfileVerificationMessage(ProfileVerificationMessageType messageType) {
+    return Optional.ofNullable(getSnapshot().verificationMessages.get(messageType));
+  }
+
+  @Order(Ordered.LOWEST_PRECEDENCE)
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadOnStartup() {
+    reload();
+  }
+
+  /**
+   * <p>Reload the snapshot on this node after the change has been committed and ask every other node to do the same.</p>
+   * <br/>
+   *
+   * @param event the reference data that changed
+   */
+  @TransactionalEventListener(phase = AFTER_COMMIT, fallbackExecution = true)
+  public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+    log.info("Reloading reference data after {} changed", event.getDataType());
+    reload();
+    try {
+      byte[] message = serializer.serialize(nodeId);
+      redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(serializer.serialize(channel), message));
+    } catch (RuntimeException ex) {
+      log.error(ex.getMessage(), ex);
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    if (!nodeId.equals(serializer.deserialize(message.getBody()))) {
+      reload();
+    }
+  }
+
+  private Snapshot getSnapshot() {
+    Snapshot current = snapshot;
+    if (isNull(current)) {
+      synchronized (this) {
+        if (isNull(snapshot)) {
+          reload();
+        }
+        current = snapshot;
+      }
+    }
+    return current;
+  }
+
+  private synchronized void reload() {
+    try {
+      snapshot = new Snapshot(
+        roleRepository.findAll(),
+        memberStatusRepository.findAll(),
+        verificationMessageRepository.findAll());
+    } catch (RuntimeException ex) {
+      // Keep serving the previous snapshot. Lookups that miss fall back to the database.
+      log.error(ex.getMessage(), ex);
+      if (isNull(snapshot)) {
+        snapshot = Snapshot.EMPTY;
+      }
+    }
+  }
+
+  /**
+   * Codes that are not one of the known types are not kept in the registry, so lookups of such codes fall back to the database.
+   */
+  private static <E extends Enum<E>> Optional<E> toType(Class<E> type, String code) {
+    if (isNull(code)) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(Enum.valueOf(type, code));
+    } catch (IllegalArgumentException ex) {
+      return Optional.empty();
+    }
+  }
+
+  private static final class Snapshot {
+
+    private static final Snapshot EMPTY = new Snapshot(List.of(), List.of(), List.of());
+
+    private final Map<RoleType, Role> roles;
+    private final Map<MemberStatusType, MemberStatus> memberStatuses;
+    private final Map<ProfileVerificationMessageType, ProfileVerificationMessage> verificationMessages;
+
+    private Snapshot(List<Role> roles, List<MemberStatus> memberStatuses, List<ProfileVerificationMessage> verificationMessages) {
+      Map<RoleType, Role> rolesByType = new EnumMap<>(RoleType.class);
+      roles.forEach(role -> toType(RoleType.class, role.getCode()).ifPresent(type -> rolesByType.putIfAbsent(type, role)));
+      this.roles = Collections.unmodifiableMap(rolesByType);
+
+      Map<MemberStatusType, MemberStatus> statusesByType = new EnumMap<>(MemberStatusType.class);
+      memberStatuses.forEach(status -> toType(MemberStatusType.class, status.getCode()).ifPresent(type -> statusesByType.putIfAbsent(type, status)));
+      this.memberStatuses = Collections.unmodifiableMap(statusesByType);
+
+      Map<ProfileVerificationMessageType, ProfileVerificationMessage> messages = new EnumMap<>(ProfileVerificationMessageType.class);
+      verificationMessages
+              .stream()
+              .filter(message -> Objects.nonNull(message.getVerificationMessageType()))
+              .sorted(Comparator.comparing(ProfileVerificationMessage::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+              .forEach(message -> messages.putIfAbsent(message.getVerificationMessageType(), message));
+      this.verificationMessages = Collections.unmodifiableMap(messages);
+    }
+  }
+}
@@ -0,0 +1,201 @@
+package com.umulam.fleen.health.service.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.umulam.fleen.health.constant.base.GeneralConstant.RETRY_BUDGET_CACHE_PREFIX;
+import static java.util.Objects.nonNull;
+
+/**
+ * RetryBudgetService limits the retries made to a dependency to a share of the first attempts made to it, so that an outage
+ * does not multiply the load on the dependency by the number of attempts of every call. The budget is shared by every node of
+ * the application: each node adds the attempts and retries it made to counts kept in the cache store about once a second and
+ * decides with the totals of the current and previous windows and what it counted since.
+ *
+ * <p>If the cache store cannot be reached, the budget is kept with the counts of this node only, so retries are still limited
+ * while the cache store is unavailable.</p>
+ * <br/>
+ */
+@Slf4j
+@Component
+public class RetryBudgetService implements DisposableBean {
+
+  private static final RedisScript<String> RETRY_BUDGET_SCRIPT = RedisScript.of(new ClassPathResource("redis/retry-budget.lua"), String.class);
+  private static final String FLUSH_SCHEDULER_NAME = "retry-budget-flush";
+
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final StringRedisSerializer serializer;
+  private final MeterRegistry meterRegistry;
+  private final double ratio;
+  private final long minRetries;
+  private final long windowMillis;
+  private final ScheduledExecutorService flushScheduler;
+  private final Map<String, Budget> budgets = new ConcurrentHashMap<>();
+
+  public RetryBudgetService(RedisTemplate<String, Object> redisTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${fleen.health.retry.budget.ratio:0.1}") double ratio,
+                            @Value("${fleen.health.retry.budget.min-retries:10}") long minRetries,
+                            @Value("${fleen.health.retry.budget.window-seconds:10}") long windowSeconds,
+                            @Value("${fleen.health.retry.budget.flush-interval-millis:1000}") long flushIntervalMillis) {
+    this.redisTemplate = redisTemplate;
+    this.serializer = StringRedisSerializer.UTF_8;
+    this.meterRegistry = meterRegistry;
+    this.ratio = ratio;
+    this.minRetries = minRetries;
+    this.windowMillis = TimeUnit.SECONDS.toMillis(Math.max(windowSeconds, 1));
+    this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, FLUSH_SCHEDULER_NAME);
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.flushScheduler.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Record the first attempt of a call.
+   *
+   * @param name the name of the budget
+   */
+  public void onAttempt(String name) {
+    getBudget(name).pendingAttempts.incrementAndGet();
+  }
+
+  /**
+   * Check if the budget allows another retry and record it if it does. A budget always allows the configured minimum number of
+   * retries in a window, and above that one retry for every share of first attempts given by the ratio.
+   *
+   * @param name the name of the budget
+   * @return true if the retry may be made
+   */
+  public boolean tryAcquireRetry(String name) {
+    Budget budget = getBudget(name);
+    synchronized (budget) {
+      if (budget.getRetries() + 1 > budget.getAllowedRetries()) {
+        return false;
+      }
+      budget.pendingRetries.incrementAndGet();
+      return true;
+    }
+  }
+
+  @Override
+  public void destroy() {
+    flushScheduler.shutdownNow();
+  }
+
+  private Budget getBudget(String name) {
+    return budgets.computeIfAbsent(name, key -> {
+      Budget budget = new Budget(key);
+      Gauge.builder("fleen.health.retry.budget.available", budget, value -> value.getAllowedRetries() - value.getRetries())
+        .description("Retries the budget still allows in the current window")
+        .tag("name", key)
+        .register(meterRegistry);
+      return budget;
+    });
+  }
+
+  private void flush() {
+    long window = System.currentTimeMillis() / windowMillis;
+    for (Budget budget : budgets.values()) {
+      long attempts;
+      long retries;
+      synchronized (budget) {
+        attempts = budget.pendingAttempts.getAndSet(0);
+        retries = budget.pendingRetries.getAndSet(0);
+        budget.attempts += attempts;
+        budget.retries += retries;
+        budget.addLocally(window, attempts, retries);
+      }
+
+      long[] totals = getSharedTotals(budget.name, window, attempts, retries);
+      synchronized (budget) {
+        if (nonNull(totals)) {
+          budget.attempts = totals[0];
+          budget.retries = totals[1];
+        } else {
+          budget.attempts = budget.localAttempts + budget.previousLocalAttempts;
+          budget.retries = budget.localRetries + budget.previousLocalRetries;
+        }
+      }
+    }
+  }
+
+  private long[] getSharedTotals(String name, long window, long attempts, long retries) {
+    String cacheKey = RETRY_BUDGET_CACHE_PREFIX.concat(name).concat(":");
+    try {
+      String totals = redisTemplate.execute(RETRY_BUDGET_SCRIPT, serializer, serializer,
+        List.of(cacheKey + window, cacheKey + (window - 1)),
+        String.valueOf(attempts),
+        String.valueOf(retries),
+        String.valueOf(windowMillis));
+      if (nonNull(totals)) {
+        String[] counts = totals.split(":");
+        return new long[] { Long.parseLong(counts[0]), Long.parseLong(counts[1]) };
+      }
+    } catch (RuntimeException ex) {
+      log.warn("Falling back to a local retry budget for {}: {}", name, ex.getMessage());
+    }
+    return null;
+  }
+
+  /**
+   * The counts of a budget. The totals are the counts of the current and previous windows as last read, to which the attempts and
+   * retries made since are added until the next flush. This node's own counts per window are kept for when the cache store cannot
+   * be reached.
+   */
+  private class Budget {
+
+    private final String name;
+    private final AtomicLong pendingAttempts = new AtomicLong();
+    private final AtomicLong pendingRetries = new AtomicLong();
+    private long attempts;
+    private long retries;
+    private long localWindow;
+    private long localAttempts;
+    private long localRetries;
+    private long previousLocalAttempts;
+    private long previousLocalRetries;
+
+    private Budget(String name) {
+      this.name = name;
+    }
+
+    private long getRetries() {
+      return retries + pendingRetries.get();
+    }
+
+    private long getAllowedRetries() {
+      return minRetries + (long) (ratio * (attempts + pendingAttempts.get()));
+    }
+
+    private void addLocally(long window, long attempts, long retries) {
+      if (window != localWindow) {
+        boolean consecutive = window == localWindow + 1;
+        previousLocalAttempts = consecutive ? localAttempts : 0;
+        previousLocalRetries = consecutive ? localRetries : 0;
+        localAttempts = 0;
+        localRetries = 0;
+        localWindow = window;
+      }
+      localAttempts += attempts;
+      localRetries += retries;
+    }
+  }
+}
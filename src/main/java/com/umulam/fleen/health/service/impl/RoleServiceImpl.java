@@ -1,5 +1,7 @@
 package com.umulam.fleen.health.service.impl;
 
+import com.umulam.fleen.health.constant.authentication.RoleType;
+import com.umulam.fleen.health.event.ReferenceDataChangedEvent;
 import com.umulam.fleen.health.exception.role.RoleNotFoundException;
 import com.umulam.fleen.health.model.domain.Role;
 import com.umulam.fleen.health.model.dto.RoleDto;
@@ -18,10 +20,16 @@ import java.util.stream.Collectors;
 public class RoleServiceImpl implements RoleService {
 
   private final RoleJpaRepository repository;
+  private final ReferenceDataRegistry referenceDataRegistry;
+  private final FleenHealthEventService eventService;
   private final static String DEFAULT_USER_ROLE = "USER";
 
-  public RoleServiceImpl(RoleJpaRepository repository) {
+  public RoleServiceImpl(RoleJpaRepository repository,
+                         ReferenceDataRegistry referenceDataRegistry,
+                         FleenHealthEventService eventService) {
     this.repository = repository;
+    this.referenceDataRegistry = referenceDataRegistry;
+    this.eventService = eventService;
   }
 
   @Override
@@ -30,9 +38,18 @@ public class RoleServiceImpl implements RoleService {
             .orElseThrow(() -> new RoleNotFoundException(id));
   }
 
+  @Override
+  public Role getRole(RoleType roleType) {
+    return referenceDataRegistry.getRole(roleType)
+            .or(() -> repository.findByCode(roleType.name()))
+            .orElseThrow(() -> new RoleNotFoundException(roleType.name()));
+  }
+
   @Override
   public Role getRoleByCode(String code) {
-    return repository.findByCode(Objects.isNull(code) ? DEFAULT_USER_ROLE : code)
+    String roleCode = Objects.isNull(code) ? DEFAULT_USER_ROLE : code;
+    return referenceDataRegistry.getRole(roleCode)
+            .or(() -> repository.findByCode(roleCode))
             .orElseThrow(() -> new RoleNotFoundException(code));
   }
 
@@ -49,7 +66,9 @@ public class RoleServiceImpl implements RoleService {
   @Override
   public Role saveRole(RoleDto dto) {
     Role Role = dto.toRole();
-    return repository.save(Role);
+    Role savedRole = repository.save(Role);
+    publishRoleChanged();
+    return savedRole;
   }
 
   @Override
@@ -57,7 +76,9 @@ public class RoleServiceImpl implements RoleService {
     getRole(id);
     Role Role = dto.toRole();
     Role.setId(id);
-    return repository.save(Role);
+    Role savedRole = repository.save(Role);
+    publishRoleChanged();
+    return savedRole;
   }
 
   @Override
@@ -69,11 +90,13 @@ public class RoleServiceImpl implements RoleService {
                     .id(id).build())
             .collect(Collectors.toList());
     repository.deleteAll(roles);
+    publishRoleChanged();
   }
 
   @Override
   public void deleteAllRole() {
     repository.deleteAll();
+    publishRoleChanged();
   }
 
   @Override
@@ -81,4 +104,7 @@ public class RoleServiceImpl implements RoleService {
     return repository.findById(id).isPresent();
   }
 
+  private void publishRoleChanged() {
+    eventService.publishReferenceDataChanged(new ReferenceDataChangedEvent(Role.class.getSimpleName()));
+  }
 }
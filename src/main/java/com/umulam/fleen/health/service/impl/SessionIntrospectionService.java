@@ -0,0 +1,99 @@
+package com.umulam.fleen.health.service.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SessionIntrospectionService answers whether a token is an active token saved for a member. Answers are kept in a short-lived
+ * local cache on each node so that most authenticated requests do not need a round trip to the cache store. Whenever the saved
+ * tokens of a member are removed or replaced, an invalidation message is published so that every node drops its local answer,
+ * and the node that made the change drops its own answer straight away.
+ */
+@Slf4j
+@Component
+public class SessionIntrospectionService implements MessageListener {
+
+  private final AuthenticationSessionStore sessionStore;
+  private final Cache<String, Set<String>> activeTokens;
+  private final AtomicLong invalidations = new AtomicLong();
+
+  public SessionIntrospectionService(AuthenticationSessionStore sessionStore,
+                                     RedisMessageListenerContainer listenerContainer,
+                                     @Value("${fleen.health.session.introspection.max-size:10000}") long maxSize,
+                                     @Value("${fleen.health.session.introspection.ttl-seconds:30}") long ttlSeconds) {
+    this.sessionStore = sessionStore;
+    this.activeTokens = CacheBuilder.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+            .build();
+    sessionStore.addWriteListener(this::evict);
+    listenerContainer.addMessageListener(this, new ChannelTopic(sessionStore.getInvalidationChannel()));
+  }
+
+  /**
+   * Check if the token is one of the active tokens saved for the user. The saved tokens are only read from the cache store if
+   * there is no recent answer on this node.
+   *
+   * @param username the user's identifier associated with the token
+   * @param token the token sent with the request
+   * @return true if the token is an active token of the user
+   */
+  public boolean isActiveToken(String username, String token) {
+    Set<String> tokens = activeTokens.getIfPresent(username);
+    if (Objects.nonNull(tokens)) {
+      return tokens.contains(token);
+    }
+
+    long invalidationsBeforeRead = invalidations.get();
+    tokens = sessionStore.getAccessTokens(username);
+    if (tokens.isEmpty()) {
+      return false;
+    }
+
+    // An invalidation that arrived while the saved tokens were being read could otherwise be overwritten by a stale answer
+    if (invalidationsBeforeRead == invalidations.get()) {
+      activeTokens.put(username, tokens);
+    }
+    return tokens.contains(token);
+  }
+
+  /**
+   * Drop the local answer for the user on this node and publish a message so that every other node does the same. Writes made
+   * through {@link AuthenticationSessionStore} already publish the message, so this is only needed for other changes.
+   *
+   * @param username the user's identifier whose saved tokens have been removed or replaced
+   */
+  public void invalidate(String username) {
+    evict(username);
+    try {
+      sessionStore.publishInvalidation(username);
+    } catch (RuntimeException ex) {
+      log.error(ex.getMessage(), ex);
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String username = sessionStore.deserialize(message.getBody());
+    if (Objects.nonNull(username)) {
+      evict(username);
+    }
+  }
+
+  private void evict(String username) {
+    invalidations.incrementAndGet();
+    activeTokens.invalidate(username);
+  }
+}
@@ -0,0 +1,136 @@
+package com.umulam.fleen.health.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umulam.fleen.health.constant.session.HealthSessionStatus;
+import com.umulam.fleen.health.constant.session.TransactionStatus;
+import com.umulam.fleen.health.event.CreateSessionMeetingEvent;
+import com.umulam.fleen.health.event.CreateSessionMeetingEvents;
+import com.umulam.fleen.health.model.domain.HealthSession;
+import com.umulam.fleen.health.model.domain.Member;
+import com.umulam.fleen.health.repository.jpa.HealthSessionJpaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.umulam.fleen.health.service.session.impl.HealthSessionServiceImpl.getMaxMeetingSessionHourDuration;
+import static com.umulam.fleen.health.util.StringUtil.getFullName;
+
+/**
+ * SessionMeetingService describes the calendar meetings of paid sessions and creates the meetings that could not be created when
+ * their sessions were paid, like when the calendar was unavailable.
+ *
+ * <p>A paid session stays pending without a meeting until its meeting is created, so the sessions still waiting for a meeting are
+ * found again in the database and are not lost when a node stops. They are tried again in the background on every node. The
+ * calendar event of a session has an ID derived from the session, so a meeting created by another node at the same time is found
+ * and used instead of being created twice.</p>
+ * <br/>
+ */
+@Slf4j
+@Service
+public class SessionMeetingService implements DisposableBean {
+
+  private static final String EXECUTOR_NAME = "session-meeting-retry";
+
+  private final HealthSessionJpaRepository healthSessionRepository;
+  private final FleenHealthEventListenerService eventListenerService;
+  private final ObjectMapper mapper;
+  private final ScheduledExecutorService executor;
+  private final long retrySeconds;
+  private final int batchSize;
+
+  public SessionMeetingService(HealthSessionJpaRepository healthSessionRepository,
+                               FleenHealthEventListenerService eventListenerService,
+                               ObjectMapper mapper,
+                               @Value("${fleen.health.session-meeting.retry-seconds:300}") long retrySeconds,
+                               @Value("${fleen.health.session-meeting.batch-size:50}") int batchSize) {
+    this.healthSessionRepository = healthSessionRepository;
+    this.eventListenerService = eventListenerService;
+    this.mapper = mapper;
+    this.retrySeconds = retrySeconds;
+    this.batchSize = Math.max(batchSize, 1);
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, EXECUTOR_NAME);
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    executor.scheduleWithFixedDelay(this::createPendingMeetings, retrySeconds, retrySeconds, TimeUnit.SECONDS);
+  }
+
+  /**
+   * <p>Describe the meeting of a session, held between its patient and professional at the date and time of the session.</p>
+   * <br/>
+   *
+   * @param healthSession the session
+   * @return the meeting to create
+   */
+  public CreateSessionMeetingEvent toCreateMeetingEvent(HealthSession healthSession) {
+    LocalDateTime meetingStartDateTime = LocalDateTime.of(healthSession.getDate(), healthSession.getTime());
+    LocalDateTime meetingEndDateTime = meetingStartDateTime.plusHours(getMaxMeetingSessionHourDuration());
+
+    Member patient = healthSession.getPatient();
+    Member professional = healthSession.getProfessional();
+    CreateSessionMeetingEvent meetingEvent = CreateSessionMeetingEvent.builder()
+      .startDate(meetingStartDateTime)
+      .endDate(meetingEndDateTime)
+      .attendees(List.of(patient.getEmailAddress(), professional.getEmailAddress()))
+      .timezone(healthSession.getTimezone())
+      .sessionReference(healthSession.getReference())
+      .patientName(getFullName(patient.getFirstName(), patient.getLastName()))
+      .professionalName(getFullName(professional.getFirstName(), professional.getLastName()))
+      .build();
+
+    CreateSessionMeetingEvent.CreateSessionMeetingEventMetadata eventMetadata = CreateSessionMeetingEvent.CreateSessionMeetingEventMetadata.builder()
+      .sessionReference(healthSession.getReference())
+      .build();
+    meetingEvent.setMetadata(mapper.convertValue(eventMetadata, new TypeReference<>() {}));
+    return meetingEvent;
+  }
+
+  /**
+   * <p>Create the meetings of the paid sessions that do not have one yet and have not taken place, a batch at a time. A session whose
+   * meeting still cannot be created is tried again on the next run.</p>
+   * <br/>
+   *
+   * @return the number of sessions whose meeting was tried
+   */
+  public int createPendingMeetings() {
+    try {
+      List<HealthSession> healthSessions = healthSessionRepository.findPaidWithoutMeeting(HealthSessionStatus.PENDING,
+        TransactionStatus.SUCCESS, LocalDate.now(), PageRequest.of(0, batchSize));
+      if (healthSessions.isEmpty()) {
+        return 0;
+      }
+
+      log.info("Creating the meetings of {} paid session(s) that do not have one", healthSessions.size());
+      eventListenerService.createMeetingSession(CreateSessionMeetingEvents.builder()
+        .meetingEvents(healthSessions.stream().map(this::toCreateMeetingEvent).collect(Collectors.toList()))
+        .build());
+      return healthSessions.size();
+    } catch (RuntimeException ex) {
+      log.error(ex.getMessage(), ex);
+      return 0;
+    }
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+  }
+}
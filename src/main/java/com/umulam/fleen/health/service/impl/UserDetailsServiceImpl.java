@@ -1,32 +1,60 @@
 package com.umulam.fleen.health.service.impl;
 
-import com.umulam.fleen.health.model.domain.Member;
+import com.umulam.fleen.health.model.response.member.GetMemberAuthenticationDetails;
 import com.umulam.fleen.health.model.security.FleenUser;
 import com.umulam.fleen.health.repository.jpa.MemberJpaRepository;
 import lombok.AllArgsConstructor;
 import org.springframework.context.annotation.Primary;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 @Primary
 @AllArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
   private final MemberJpaRepository repository;
 
+  /**
+   * <p>Load the principal of a member with a single query that reads only the details needed to authenticate the member, their
+   * status and MFA settings and the codes of their roles.</p>
+   * <br/>
+   *
+   * @param emailAddress the email address of the member
+   * @return the principal of the member
+   * @throws UsernameNotFoundException if no member has the email address
+   */
   @Override
   @Transactional(readOnly = true)
   public UserDetails loadUserByUsername(String emailAddress) throws UsernameNotFoundException {
+    List<GetMemberAuthenticationDetails> details = repository.findAuthenticationDetailsByEmailAddress(emailAddress);
+    if (details.isEmpty()) {
+      throw new UsernameNotFoundException(emailAddress);
+    }
 
-    Member member = repository
-            .findByEmailAddress(emailAddress)
-            .orElseThrow(() -> new UsernameNotFoundException(emailAddress));
-
-    return FleenUser.fromMember(member);
+    return FleenUser.fromAuthenticationDetails(details);
   }
 
+  /**
+   * <p>Replace the password hash of a member, for example with a hash of a higher cost after the member signs in.</p>
+   * <br/>
+   *
+   * @param user the principal of the member
+   * @param newPassword the new password hash
+   * @return the principal with the new password hash
+   */
+  @Override
+  @Transactional
+  public UserDetails updatePassword(UserDetails user, String newPassword) {
+    FleenUser fleenUser = (FleenUser) user;
+    repository.updatePassword(fleenUser.getId(), newPassword);
+    fleenUser.setPassword(newPassword);
+    return fleenUser;
+  }
 }
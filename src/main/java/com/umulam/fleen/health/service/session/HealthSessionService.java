@@ -2,17 +2,22 @@ package com.umulam.fleen.health.service.session;
 
 import com.umulam.fleen.health.model.domain.HealthSession;
 import com.umulam.fleen.health.model.dto.healthsession.AddHealthSessionReviewDto;
+import com.umulam.fleen.health.model.dto.healthsession.BookHealthSessionBatchDto;
 import com.umulam.fleen.health.model.dto.healthsession.BookHealthSessionDto;
 import com.umulam.fleen.health.model.dto.healthsession.ReScheduleHealthSessionDto;
+import com.umulam.fleen.health.model.request.search.FreeSlotSearchRequest;
 import com.umulam.fleen.health.model.request.search.ProfessionalSearchRequest;
+import com.umulam.fleen.health.model.response.healthsession.BatchHealthSessionBookingResponse;
 import com.umulam.fleen.health.model.response.healthsession.GetProfessionalBookSessionResponse;
 import com.umulam.fleen.health.model.response.healthsession.PendingHealthSessionBookingResponse;
 import com.umulam.fleen.health.model.response.healthsession.ProfessionalCheckAvailabilityResponse;
 import com.umulam.fleen.health.model.security.FleenUser;
+import com.umulam.fleen.health.model.view.healthsession.FreeSessionSlotView;
 import com.umulam.fleen.health.model.view.professional.ProfessionalViewBasic;
 import com.umulam.fleen.health.model.view.search.SearchResultView;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface HealthSessionService {
@@ -26,6 +31,9 @@ public interface HealthSessionService {
   @Transactional
   PendingHealthSessionBookingResponse bookSession(BookHealthSessionDto dto, FleenUser user);
 
+  @Transactional
+  BatchHealthSessionBookingResponse bookSessions(BookHealthSessionBatchDto dto, FleenUser user);
+
   @Transactional
   void cancelSession(FleenUser user, Long sessionId);
 
@@ -35,6 +43,10 @@ public interface HealthSessionService {
   @Transactional(readOnly = true)
   GetProfessionalBookSessionResponse getProfessionalBookSession(Long professionalId);
 
+  List<FreeSessionSlotView> getProfessionalFreeSlots(Long professionalId, FreeSlotSearchRequest req);
+
+  List<FreeSessionSlotView> getNextFreeSlots(FreeSlotSearchRequest req);
+
   @Transactional
   void rescheduleSession(ReScheduleHealthSessionDto dto, FleenUser user, Long healthSessionId);
 
@@ -0,0 +1,297 @@
+package com.umulam.fleen.health.service.session.impl;
+
+import com.umulam.fleen.health.constant.session.HealthSessionStatus;
+import com.umulam.fleen.health.constant.session.TransactionStatus;
+import com.umulam.fleen.health.model.domain.HealthSession;
+import com.umulam.fleen.health.model.domain.transaction.SessionTransaction;
+import com.umulam.fleen.health.model.response.healthsession.GetPendingSessionHold;
+import com.umulam.fleen.health.repository.jpa.HealthSessionJpaRepository;
+import com.umulam.fleen.health.repository.jpa.transaction.SessionTransactionJpaRepository;
+import com.umulam.fleen.health.service.impl.FleenHealthEventService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.umulam.fleen.health.constant.base.GeneralConstant.SESSION_HOLD_CACHE_KEY;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * HealthSessionHoldService releases the periods of bookings that are not paid for in time. A booking holds its periods until the
+ * hold expires, and a booking whose payment has not been confirmed by then is canceled along with its pending transactions so that
+ * the periods can be booked again.
+ *
+ * <p>Holds are kept in a sorted set of the cache store scored by their expiry, so finding the expired holds reads only the holds
+ * that are due instead of scanning the sessions. The holds due are claimed and removed from the set by a script so that a single
+ * node releases each of them, and they are released in batches. The transactions of a booking are locked while it is released, and
+ * a booking whose transactions are locked by a payment being confirmed, or whose release fails, is tried again shortly after. Holds
+ * that are lost, for example because the cache store was flushed, are added again from the pending transactions when the
+ * application starts.</p>
+ * <br/>
+ */
+@Slf4j
+@Service
+public class HealthSessionHoldService implements DisposableBean {
+
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> CLAIM_SCRIPT = RedisScript.of(new ClassPathResource("redis/session-hold-claim.lua"), List.class);
+  private static final String EXECUTOR_NAME = "session-hold-release";
+
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final StringRedisSerializer serializer;
+  private final HealthSessionJpaRepository healthSessionRepository;
+  private final SessionTransactionJpaRepository sessionTransactionRepository;
+  private final HealthSessionSlotReservationService slotReservationService;
+  private final FleenHealthEventService eventService;
+  private final TransactionTemplate transactionTemplate;
+  private final Clock clock;
+  private final ScheduledExecutorService executor;
+  private final Duration holdDuration;
+  private final long pollMillis;
+  private final long retryMillis;
+  private final int batchSize;
+
+  public HealthSessionHoldService(RedisTemplate<String, Object> redisTemplate,
+                                  HealthSessionJpaRepository healthSessionRepository,
+                                  SessionTransactionJpaRepository sessionTransactionRepository,
+                                  HealthSessionSlotReservationService slotReservationService,
+                                  FleenHealthEventService eventService,
+                                  PlatformTransactionManager transactionManager,
+                                  Clock clock,
+                                  @Value("${fleen.health.session.hold.minutes:30}") long holdMinutes,
+                                  @Value("${fleen.health.session.hold.poll-seconds:5}") long pollSeconds,
+                                  @Value("${fleen.health.session.hold.retry-seconds:30}") long retrySeconds,
+                                  @Value("${fleen.health.session.hold.batch-size:100}") int batchSize) {
+    this.redisTemplate = redisTemplate;
+    this.serializer = StringRedisSerializer.UTF_8;
+    this.healthSessionRepository = healthSessionRepository;
+    this.sessionTransactionRepository = sessionTransactionRepository;
+    this.slotReservationService = slotReservationService;
+    this.eventService = eventService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.clock = clock;
+    this.holdDuration = Duration.ofMinutes(holdMinutes);
+    this.pollMillis = TimeUnit.SECONDS.toMillis(pollSeconds);
+    this.retryMillis = TimeUnit.SECONDS.toMillis(retrySeconds);
+    this.batchSize = Math.max(batchSize, 1);
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, EXECUTOR_NAME);
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * <p>Add the holds of the bookings whose payment is still pending and start releasing the holds that expire.</p>
+   * <br/>
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    try {
+      List<GetPendingSessionHold> pendingHolds = sessionTransactionRepository.findPendingSessionHolds(TransactionStatus.PENDING);
+      for (GetPendingSessionHold pendingHold : pendingHolds) {
+        addHold(pendingHold.getGroupTransactionReference(), getExpiry(pendingHold.getCreatedOn()), true);
+      }
+    } catch (RuntimeException ex) {
+      log.error(ex.getMessage(), ex);
+    }
+    executor.scheduleWithFixedDelay(this::releaseExpiredHolds, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * <p>Hold the periods of a booking until the hold expires.</p>
+   * <br/>
+   *
+   * @param groupTransactionReference the reference shared by the transactions of the booking
+   */
+  public void hold(String groupTransactionReference) {
+    try {
+      addHold(groupTransactionReference, getExpiry(LocalDateTime.now(clock)), false);
+    } catch (RuntimeException ex) {
+      // The hold is added again from the pending transaction when the application restarts
+      log.error(ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * <p>Book the periods of a booking again if its hold expired before the payment was confirmed and the periods have not been
+   * booked by someone else since. The transactions must be locked by the caller.</p>
+   * <br/>
+   *
+   * @param transactions the locked transactions of the booking
+   * @return true if the booking holds its periods, false if a period has been booked by someone else
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public boolean restoreExpiredHold(List<SessionTransaction> transactions) {
+    List<SessionTransaction> expiredTransactions = transactions
+      .stream()
+      .filter(transaction -> transaction.getStatus() == TransactionStatus.CANCELLED)
+      .collect(Collectors.toList());
+    if (expiredTransactions.isEmpty()) {
+      return true;
+    }
+
+    Set<String> sessionReferences = expiredTransactions
+      .stream()
+      .map(SessionTransaction::getSessionReference)
+      .collect(Collectors.toSet());
+    List<HealthSession> sessions = healthSessionRepository.findByReferenceIn(sessionReferences);
+    Map<Long, List<HealthSession>> sessionsByProfessional = sessions
+      .stream()
+      .collect(Collectors.groupingBy(session -> session.getProfessional().getId(), TreeMap::new, Collectors.toList()));
+
+    // Professionals are locked in order of ID, the same order batch bookings lock them in
+    for (Map.Entry<Long, List<HealthSession>> entry : sessionsByProfessional.entrySet()) {
+      List<HealthSession> professionalSessions = entry.getValue();
+      List<LocalDateTime> periods = professionalSessions
+        .stream()
+        .map(session -> LocalDateTime.of(session.getDate(), session.getTime()))
+        .collect(Collectors.toList());
+      Long patientId = professionalSessions.get(0).getPatient().getId();
+      if (!slotReservationService.lockAndFindUnavailable(entry.getKey(), patientId, periods, null).isEmpty()) {
+        return false;
+      }
+    }
+
+    sessions.forEach(session -> session.setStatus(HealthSessionStatus.PENDING));
+    expiredTransactions.forEach(transaction -> transaction.setStatus(TransactionStatus.PENDING));
+    healthSessionRepository.saveAll(sessions);
+    sessionsByProfessional.keySet().forEach(eventService::publishSessionSlotChanged);
+    return true;
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  void releaseExpiredHolds() {
+    try {
+      List<String> references;
+      do {
+        List<String> claimedReferences = claimExpiredHolds();
+        references = claimedReferences;
+        if (!claimedReferences.isEmpty()) {
+          List<String> lockedReferences;
+          try {
+            lockedReferences = transactionTemplate.execute(status -> releaseHolds(claimedReferences));
+          } catch (RuntimeException ex) {
+            // The claim removed the holds from the set, so they are added back to be tried again instead of waiting for a restart
+            long retryAt = clock.millis() + retryMillis;
+            claimedReferences.forEach(reference -> addHold(reference, retryAt, false));
+            throw ex;
+          }
+          long retryAt = clock.millis() + retryMillis;
+          if (nonNull(lockedReferences)) {
+            lockedReferences.forEach(reference -> addHold(reference, retryAt, false));
+          }
+        }
+      } while (references.size() == batchSize);
+    } catch (RuntimeException ex) {
+      log.error(ex.getMessage(), ex);
+    }
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private List<String> claimExpiredHolds() {
+    // Every reference of the list returned by the script is read with the result serializer
+    List<String> references = redisTemplate.execute(CLAIM_SCRIPT, serializer, (RedisSerializer) serializer, List.of(SESSION_HOLD_CACHE_KEY),
+      String.valueOf(clock.millis()),
+      String.valueOf(batchSize));
+    return isNull(references) ? List.of() : references;
+  }
+
+  /**
+   * <p>Cancel the bookings that have no successful payment along with their pending transactions.</p>
+   * <br/>
+   *
+   * @param references the group transaction references of the bookings whose hold expired
+   * @return the references of the bookings that are locked by a payment being confirmed and should be tried again
+   */
+  private List<String> releaseHolds(List<String> references) {
+    List<SessionTransaction> transactions = sessionTransactionRepository.lockByGroupReferencesSkipLocked(references);
+    Map<String, List<SessionTransaction>> transactionsByGroup = transactions
+      .stream()
+      .collect(Collectors.groupingBy(SessionTransaction::getGroupTransactionReference));
+
+    List<String> lockedReferences = new ArrayList<>();
+    List<String> unlockedReferences = references
+      .stream()
+      .filter(reference -> !transactionsByGroup.containsKey(reference))
+      .collect(Collectors.toList());
+    if (!unlockedReferences.isEmpty()) {
+      lockedReferences.addAll(sessionTransactionRepository.findExistingGroupReferences(unlockedReferences));
+    }
+
+    List<SessionTransaction> expiredTransactions = new ArrayList<>();
+    for (Map.Entry<String, List<SessionTransaction>> entry : transactionsByGroup.entrySet()) {
+      List<SessionTransaction> group = entry.getValue();
+      Integer totalSessions = group.get(0).getTotalSessions();
+      if (nonNull(totalSessions) && group.size() < totalSessions) {
+        lockedReferences.add(entry.getKey());
+      } else if (group.stream().noneMatch(transaction -> transaction.getStatus() == TransactionStatus.SUCCESS)) {
+        expiredTransactions.addAll(group);
+      }
+    }
+    if (expiredTransactions.isEmpty()) {
+      return lockedReferences;
+    }
+
+    Set<String> sessionReferences = new HashSet<>();
+    for (SessionTransaction transaction : expiredTransactions) {
+      sessionReferences.add(transaction.getSessionReference());
+      if (transaction.getStatus() == TransactionStatus.PENDING) {
+        transaction.setStatus(TransactionStatus.CANCELLED);
+      }
+    }
+
+    Set<Long> professionalIds = new HashSet<>();
+    List<HealthSession> sessions = healthSessionRepository.findByReferenceIn(sessionReferences);
+    for (HealthSession session : sessions) {
+      if (session.getStatus() == HealthSessionStatus.PENDING) {
+        session.setStatus(HealthSessionStatus.CANCELED);
+        professionalIds.add(session.getProfessional().getId());
+      }
+    }
+
+    sessionTransactionRepository.saveAll(expiredTransactions);
+    healthSessionRepository.saveAll(sessions);
+    professionalIds.forEach(eventService::publishSessionSlotChanged);
+    log.info("Released {} session(s) of {} expired booking(s)", sessions.size(), transactionsByGroup.size());
+    return lockedReferences;
+  }
+
+  private void addHold(String groupTransactionReference, long expiresAt, boolean ifAbsent) {
+    byte[] key = serializer.serialize(SESSION_HOLD_CACHE_KEY);
+    byte[] member = serializer.serialize(groupTransactionReference);
+    RedisZSetCommands.ZAddArgs args = ifAbsent ? RedisZSetCommands.ZAddArgs.ifNotExists() : RedisZSetCommands.ZAddArgs.empty();
+    redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.zSetCommands().zAdd(key, expiresAt, member, args));
+  }
+
+  private long getExpiry(LocalDateTime createdOn) {
+    return createdOn.plus(holdDuration).atZone(clock.getZone()).toInstant().toEpochMilli();
+  }
+}
@@ -1,5 +1,6 @@
 package com.umulam.fleen.health.service.session.impl;
 
+import com.umulam.fleen.health.constant.business.BusinessEmployeeStatus;
 import com.umulam.fleen.health.constant.professional.AvailabilityDayOfTheWeek;
 import com.umulam.fleen.health.constant.professional.ProfessionalAvailabilityStatus;
 import com.umulam.fleen.health.constant.session.*;
@@ -10,24 +11,30 @@ import com.umulam.fleen.health.exception.healthsession.*;
 import com.umulam.fleen.health.exception.professional.ProfessionalNotAvailableForSessionDateException;
 import com.umulam.fleen.health.exception.professional.ProfessionalNotAvailableForSessionDayException;
 import com.umulam.fleen.health.exception.professional.ProfessionalNotAvailableForSessionException;
+import com.umulam.fleen.health.exception.professional.ProfessionalNotFoundException;
 import com.umulam.fleen.health.model.domain.*;
 import com.umulam.fleen.health.model.domain.transaction.SessionTransaction;
 import com.umulam.fleen.health.model.dto.healthsession.AddHealthSessionReviewDto;
+import com.umulam.fleen.health.model.dto.healthsession.BookHealthSessionBatchDto;
 import com.umulam.fleen.health.model.dto.healthsession.BookHealthSessionDto;
 import com.umulam.fleen.health.model.dto.healthsession.ReScheduleHealthSessionDto;
 import com.umulam.fleen.health.model.mapper.HealthSessionMapper;
 import com.umulam.fleen.health.model.mapper.ProfessionalAvailabilityMapper;
 import com.umulam.fleen.health.model.mapper.ProfessionalMapper;
+import com.umulam.fleen.health.model.request.search.FreeSlotSearchRequest;
 import com.umulam.fleen.health.model.request.search.ProfessionalSearchRequest;
+import com.umulam.fleen.health.model.response.healthsession.BatchHealthSessionBookingResponse;
 import com.umulam.fleen.health.model.response.healthsession.GetProfessionalBookSessionResponse;
 import com.umulam.fleen.health.model.response.healthsession.PendingHealthSessionBookingResponse;
 import com.umulam.fleen.health.model.response.healthsession.ProfessionalCheckAvailabilityResponse;
-import com.umulam.fleen.health.model.response.member.GetMemberUpdateDetailsResponse;
 import com.umulam.fleen.health.model.security.FleenUser;
 import com.umulam.fleen.health.model.view.ProfessionalAvailabilityView;
 import com.umulam.fleen.health.model.view.ProfessionalScheduleHealthSessionView;
+import com.umulam.fleen.health.model.view.healthsession.FreeSessionSlotView;
+import com.umulam.fleen.health.model.view.professional.ProfessionalView;
 import com.umulam.fleen.health.model.view.professional.ProfessionalViewBasic;
 import com.umulam.fleen.health.model.view.search.SearchResultView;
+import com.umulam.fleen.health.repository.jpa.BusinessEmployeeJpaRepository;
 import com.umulam.fleen.health.repository.jpa.HealthSessionJpaRepository;
 import com.umulam.fleen.health.repository.jpa.HealthSessionProfessionalJpaRepository;
 import com.umulam.fleen.health.repository.jpa.HealthSessionReviewJpaRepository;
@@ -40,8 +47,10 @@ import com.umulam.fleen.health.service.impl.ConfigService;
 import com.umulam.fleen.health.service.impl.FleenHealthEventService;
 import com.umulam.fleen.health.service.session.HealthSessionService;
 import com.umulam.fleen.health.util.FleenHealthReferenceGenerator;
+import com.umulam.fleen.health.util.WeeklyAvailability;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -50,19 +59,23 @@ import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Optional;
+import java.time.ZoneId;
+import java.time.format.TextStyle;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static com.umulam.fleen.health.model.dto.healthsession.BookHealthSessionBatchDto.SessionEntry;
 import static com.umulam.fleen.health.model.dto.healthsession.BookHealthSessionDto.SessionPeriod;
+import static com.umulam.fleen.health.model.response.healthsession.BatchHealthSessionBookingResponse.EntryOutcome;
 import static com.umulam.fleen.health.model.response.healthsession.PendingHealthSessionBookingResponse.BookedSessionPeriod;
+import static com.umulam.fleen.health.service.session.impl.ProfessionalBookingSnapshotCache.BookingSnapshot;
 import static com.umulam.fleen.health.util.DateTimeUtil.toDate;
 import static com.umulam.fleen.health.util.DateTimeUtil.toTime;
 import static com.umulam.fleen.health.util.FleenHealthUtil.areNotEmpty;
 import static com.umulam.fleen.health.util.FleenHealthUtil.toSearchResult;
 import static com.umulam.fleen.health.util.StringUtil.getFullName;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNull;
 
@@ -82,6 +95,11 @@ public class HealthSessionServiceImpl implements HealthSessionService {
   protected final MemberService memberService;
   protected final ExchangeRateService exchangeRateService;
   protected final ConfigService configService;
+  protected final HealthSessionSlotReservationService slotReservationService;
+  protected final ProfessionalSlotIndex slotIndex;
+  protected final HealthSessionHoldService holdService;
+  protected final ProfessionalBookingSnapshotCache bookingSnapshotCache;
+  protected final BusinessEmployeeJpaRepository businessEmployeeRepository;
 
   public HealthSessionServiceImpl(
           HealthSessionProfessionalJpaRepository sessionProfessionalJpaRepository,
@@ -94,7 +112,12 @@ public class HealthSessionServiceImpl implements HealthSessionService {
           FleenHealthEventService eventService,
           MemberService memberService,
           ExchangeRateService exchangeRateService,
-          ConfigService configService) {
+          ConfigService configService,
+          HealthSessionSlotReservationService slotReservationService,
+          ProfessionalSlotIndex slotIndex,
+          HealthSessionHoldService holdService,
+          ProfessionalBookingSnapshotCache bookingSnapshotCache,
+          BusinessEmployeeJpaRepository businessEmployeeRepository) {
     this.sessionProfessionalJpaRepository = sessionProfessionalJpaRepository;
     this.healthSessionRepository = healthSessionRepository;
     this.professionalService = professionalService;
@@ -106,6 +129,11 @@ public class HealthSessionServiceImpl implements HealthSessionService {
     this.memberService = memberService;
     this.exchangeRateService = exchangeRateService;
     this.configService = configService;
+    this.slotReservationService = slotReservationService;
+    this.slotIndex = slotIndex;
+    this.holdService = holdService;
+    this.bookingSnapshotCache = bookingSnapshotCache;
+    this.businessEmployeeRepository = businessEmployeeRepository;
   }
 
   @Override
@@ -130,13 +158,16 @@ public class HealthSessionServiceImpl implements HealthSessionService {
     List<Professional> professionals = new ArrayList<>(page.getContent());
     Collections.shuffle(professionals);
     List<ProfessionalViewBasic> views = ProfessionalMapper.toProfessionalViewsBasic(professionals);
+    views.forEach(this::setPriceInPaymentCurrency);
     return toSearchResult(views, page);
   }
 
   @Override
   @Transactional(readOnly = true)
   public ProfessionalViewBasic viewProfessionalDetail(Long professionalId) {
-    return professionalService.findProfessionalBasicById(professionalId);
+    ProfessionalViewBasic view = professionalService.findProfessionalBasicById(professionalId);
+    setPriceInPaymentCurrency(view);
+    return view;
   }
 
   @Override
@@ -154,8 +185,8 @@ public class HealthSessionServiceImpl implements HealthSessionService {
   @Transactional(readOnly = true)
   public GetProfessionalBookSessionResponse getProfessionalBookSession(Long professionalId) {
     Professional professional = professionalService.getProfessional(professionalId);
-    List<ProfessionalAvailability> availabilities = professionalAvailabilityJpaRepository.findAllByMember(professional.getMember());
-    List<ProfessionalAvailabilityView> availabilityPeriod = ProfessionalAvailabilityMapper.toProfessionalAvailabilityViews(availabilities);
+    WeeklyAvailability availability = professionalService.getWeeklyAvailability(professional.getMember());
+    List<ProfessionalAvailabilityView> availabilityPeriod = ProfessionalAvailabilityMapper.toProfessionalAvailabilityViews(availability);
     List<HealthSession> healthSessions = healthSessionRepository.findByProfessionalAndDateAfter(professional.getMember(), LocalDate.now());
     List<ProfessionalScheduleHealthSessionView> scheduledSessions = HealthSessionMapper.toProfessionalScheduledHealthSessionViews(healthSessions);
     return GetProfessionalBookSessionResponse.builder()
@@ -164,76 +195,55 @@ public class HealthSessionServiceImpl implements HealthSessionService {
       .build();
   }
 
+  @Override
+  public List<FreeSessionSlotView> getProfessionalFreeSlots(Long professionalId, FreeSlotSearchRequest req) {
+    return slotIndex.findFreeSlots(professionalId, req);
+  }
+
+  @Override
+  public List<FreeSessionSlotView> getNextFreeSlots(FreeSlotSearchRequest req) {
+    return slotIndex.findNextFreeSlots(req);
+  }
+
   @Override
   @Transactional
   public PendingHealthSessionBookingResponse bookSession(BookHealthSessionDto dto, FleenUser user) {
     HealthSession healthSession = dto.toHealthSession();
-    for (SessionPeriod period : dto.getPeriods()) {
-      Optional<HealthSession> bookedSessionExist = healthSessionRepository.findByProfessionalAndDateAndTime(healthSession.getProfessional(), toDate(period.getDate()), toTime(period.getTime()));
-      if (bookedSessionExist.isPresent()) {
-        HealthSession bookedSession = bookedSessionExist.get();
-        Member professional = bookedSession.getProfessional();
-        String professionalName = getFullName(professional.getFirstName(), professional.getLastName());
-
-        if (bookedSession.getStatus() == HealthSessionStatus.SCHEDULED ||
-            bookedSession.getStatus() == HealthSessionStatus.RESCHEDULED ||
-            bookedSession.getStatus() == HealthSessionStatus.PENDING) {
-          if (bookedSession.getPatient().getId().equals(user.getId())) {
-            throw new PatientProfessionalAlreadyBookSessionException(professionalName, bookedSession.getDate(), bookedSession.getTime());
-          } else  {
-            throw new HealthSessionDateAlreadyBookedException(professionalName, bookedSession.getDate(), bookedSession.getTime());
-          }
-        }
-      }
-    }
+    Long professionalMemberId = healthSession.getProfessional().getId();
+    BookingSnapshot professional = bookingSnapshotCache.find(professionalMemberId)
+      .orElseThrow(() -> new ProfessionalNotFoundException(professionalMemberId));
+    String professionalName = professional.getProfessionalName();
 
+    if (!professional.isBookable()) {
+      throw new ProfessionalNotAvailableForSessionException(professionalName);
+    }
 
-    Optional<Professional> professionalExist = professionalService.findProfessionalByMember(healthSession.getProfessional());
-    if (professionalExist.isPresent()) {
-      Professional professional = professionalExist.get();
-      Member member = professional.getMember();
-      String professionalName = getFullName(member.getFirstName(), member.getLastName());
+    WeeklyAvailability availability = professional.getWeeklyAvailability();
+    if (availability.isEmpty()) {
+      throw new ProfessionalNotAvailableForSessionException(professionalName);
+    }
 
-      if (professional.getAvailabilityStatus() == ProfessionalAvailabilityStatus.UNAVAILABLE
-          || member.getVerificationStatus() != ProfileVerificationStatus.APPROVED) {
-        throw new ProfessionalNotAvailableForSessionException(professionalName);
-      }
+    for (SessionPeriod sessionPeriod: dto.getPeriods()) {
+      LocalDate proposedDateForSession = requireNonNull(toDate(sessionPeriod.getDate()));
+      LocalTime proposedTimeForSession = requireNonNull(toTime(sessionPeriod.getTime()));
 
-      List<ProfessionalAvailability> availabilities = professionalAvailabilityJpaRepository.findAllByMember(member);
-      if (availabilities.isEmpty()) {
-        throw new ProfessionalNotAvailableForSessionException(professionalName);
+      DayOfWeek dayOfWeek = proposedDateForSession.getDayOfWeek();
+      if (!availability.isAvailableOn(dayOfWeek)) {
+        throw new ProfessionalNotAvailableForSessionDayException(professionalName, dayOfWeek.toString());
       }
 
-      for (SessionPeriod sessionPeriod: dto.getPeriods()) {
-        LocalDate proposedDateForSession = requireNonNull(toDate(sessionPeriod.getDate()));
-        LocalTime proposedTimeForSession = requireNonNull(toTime(sessionPeriod.getTime()));
-
-        DayOfWeek dayOfWeek = proposedDateForSession.getDayOfWeek();
-        AvailabilityDayOfTheWeek availabilityDayOfTheWeek = AvailabilityDayOfTheWeek.valueOf(dayOfWeek.toString());
-        List<ProfessionalAvailability> proposedDayOfAvailability = availabilities
-          .stream()
-          .filter(availability -> availability.getDayOfWeek() == availabilityDayOfTheWeek)
-          .collect(Collectors.toList());
-
-        if (proposedDayOfAvailability.isEmpty()) {
-          throw new ProfessionalNotAvailableForSessionDayException(professionalName, dayOfWeek.toString());
-        } else {
-          boolean timeAvailableForSession = false;
-          for (ProfessionalAvailability availability : proposedDayOfAvailability) {
-            if (availability.isTimeInRange(proposedTimeForSession)) {
-              timeAvailableForSession = true;
-              break;
-            }
-          }
-
-          if (!timeAvailableForSession) {
-            LocalDateTime proposedSessionDateTime = LocalDateTime.of(proposedDateForSession, proposedTimeForSession);
-            throw new ProfessionalNotAvailableForSessionDateException(professionalName, proposedSessionDateTime);
-          }
-        }
+      if (!availability.isAvailable(dayOfWeek, proposedTimeForSession)) {
+        LocalDateTime proposedSessionDateTime = LocalDateTime.of(proposedDateForSession, proposedTimeForSession);
+        throw new ProfessionalNotAvailableForSessionDateException(professionalName, proposedSessionDateTime);
       }
     }
 
+    List<LocalDateTime> periods = dto.getPeriods()
+      .stream()
+      .map(period -> LocalDateTime.of(requireNonNull(toDate(period.getDate())), requireNonNull(toTime(period.getTime()))))
+      .collect(Collectors.toList());
+    slotReservationService.reserve(professionalMemberId, professionalName, user.getId(), periods);
+
     Member patient = user.toMember();
     List<HealthSession> healthSessions = new ArrayList<>();
     for (SessionPeriod period : dto.getPeriods()) {
@@ -253,10 +263,17 @@ public class HealthSessionServiceImpl implements HealthSessionService {
       healthSessions.add(newHealthSession);
     }
 
-    List<HealthSession> savedHealthSessions = healthSessionRepository.saveAll(healthSessions);
-    GetMemberUpdateDetailsResponse memberDetail = memberService.getMemberGetUpdateDetailsResponse(user);
+    List<HealthSession> savedHealthSessions;
+    try {
+      savedHealthSessions = healthSessionRepository.saveAllAndFlush(healthSessions);
+    } catch (DataIntegrityViolationException ex) {
+      log.error(ex.getMessage(), ex);
+      HealthSession conflictingSession = slotReservationService.findConflictingSession(healthSessions);
+      throw new HealthSessionDateAlreadyBookedException(professionalName, conflictingSession.getDate(), conflictingSession.getTime());
+    }
+    eventService.publishSessionSlotChanged(professionalMemberId);
 
-    Double professionalPrice = professionalService.getProfessionalPrice(healthSession.getProfessional().getId());
+    Double professionalPrice = professional.getPrice();
     int totalNumberOfSessions = dto.getPeriods().size();
     double totalAmountToCharge = professionalPrice * totalNumberOfSessions;
     String groupTransactionReference = referenceGenerator.generateGroupTransactionReference();
@@ -282,6 +299,7 @@ public class HealthSessionServiceImpl implements HealthSessionService {
       transactions.add(transaction);
     }
     transactionJpaRepository.saveAll(transactions);
+    holdService.hold(groupTransactionReference);
 
     List<BookedSessionPeriod> bookedPeriods = new ArrayList<>();
     for (HealthSession session : savedHealthSessions) {
@@ -298,17 +316,260 @@ public class HealthSessionServiceImpl implements HealthSessionService {
     return PendingHealthSessionBookingResponse.builder()
       .timezone(healthSession.getTimezone())
       .bookedPeriods(bookedPeriods)
-      .patientFirstName(memberDetail.getFirstName())
-      .patientLastName(memberDetail.getLastName())
-      .patientEmailAddress(memberDetail.getEmailAddress())
+      .patientFirstName(user.getFirstName())
+      .patientLastName(user.getLastName())
+      .patientEmailAddress(user.getEmailAddress())
       .transactionReference(groupTransactionReference)
       .professionalPrice(professionalPrice)
       .actualPriceToPay(actualPriceToPayForSession)
+      .professionalPriceCurrency(professional.getPriceCurrency())
+      .actualPriceCurrency(configService.getHealthSessionPaymentCurrency())
+      .build();
+  }
+
+  /**
+   * <p>Book sessions for several patients with several professionals in one request, as a business does for its employees. Every
+   * entry is validated against the booking snapshots of the professionals and the patients are found with a single query. The
+   * sessions of all the professionals are then locked and checked for conflicts together, the entries are checked again against the
+   * professionals read and locked in the database, and the entries that can be booked are inserted in batches and paid for with a
+   * single group transaction. Entries that cannot be booked are returned with the reason
+   * instead of failing the whole request.</p>
+   *
+   * <p>Only members that accepted to be employees of the business can be booked for. The dates and times of the entries are in the
+   * timezone of the request and are stored in the timezone sessions are booked in, and the outcomes are returned in the timezone of
+   * the request.</p>
+   * <br/>
+   *
+   * @param dto the entries to book
+   * @param user the business booking and paying for the sessions
+   * @return the outcome of every entry in the order of the request
+   */
+  @Override
+  @Transactional
+  public BatchHealthSessionBookingResponse bookSessions(BookHealthSessionBatchDto dto, FleenUser user) {
+    List<SessionEntry> entries = dto.getEntries();
+    SessionLocation location = SessionLocation.valueOf(dto.getLocation());
+    ZoneId sessionZone = slotIndex.getSessionZone();
+    ZoneId requestZone = isNull(dto.getTimezone()) ? sessionZone : ZoneId.of(dto.getTimezone().trim());
+    String sessionTimezone = sessionZone.getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
+
+    Set<String> emailAddresses = entries
+      .stream()
+      .map(entry -> normalizeEmailAddress(entry.getPatientEmailAddress()))
+      .collect(Collectors.toSet());
+    Map<String, Member> patients = memberService.getMembersByEmailAddresses(emailAddresses)
+      .stream()
+      .collect(Collectors.toMap(member -> normalizeEmailAddress(member.getEmailAddress()), Function.identity(), (first, second) -> first));
+    // A business can only book and pay for the sessions of the members that accepted to be its employees
+    Set<Long> employeeIds = patients.isEmpty()
+      ? Set.of()
+      : businessEmployeeRepository.findEmployeeMemberIds(user.getId(), patients.values().stream().map(Member::getId).collect(Collectors.toSet()),
+          BusinessEmployeeStatus.ACTIVE);
+
+    Map<Long, Optional<BookingSnapshot>> professionals = new HashMap<>();
+    BatchBookingEntryStatus[] statuses = new BatchBookingEntryStatus[entries.size()];
+    LocalDateTime[] periods = new LocalDateTime[entries.size()];
+    Set<String> requestedPeriods = new HashSet<>();
+    Set<Long> professionalIds = new TreeSet<>();
+    Set<LocalDate> dates = new HashSet<>();
+
+    for (int i = 0; i < entries.size(); i++) {
+      SessionEntry entry = entries.get(i);
+      Long professionalMemberId = entry.getProfessionalMemberId();
+      LocalDateTime period = LocalDateTime.of(requireNonNull(toDate(entry.getDate())), requireNonNull(toTime(entry.getTime())))
+        .atZone(requestZone)
+        .withZoneSameInstant(sessionZone)
+        .toLocalDateTime();
+      Optional<BookingSnapshot> professional = isNull(professionalMemberId)
+        ? Optional.empty()
+        : professionals.computeIfAbsent(professionalMemberId, bookingSnapshotCache::find);
+      Member patient = patients.get(normalizeEmailAddress(entry.getPatientEmailAddress()));
+
+      periods[i] = period;
+      statuses[i] = validateEntry(professional, patient, employeeIds, period);
+      if (statuses[i] == null) {
+        // A professional can only be booked once for a period, and a patient only once a day with the same professional
+        String periodKey = professionalMemberId + ":" + period;
+        String dayKey = professionalMemberId + ":" + patient.getId() + ":" + period.toLocalDate();
+        if (requestedPeriods.contains(periodKey) || requestedPeriods.contains(dayKey)) {
+          statuses[i] = BatchBookingEntryStatus.DUPLICATE_ENTRY;
+        } else {
+          requestedPeriods.add(periodKey);
+          requestedPeriods.add(dayKey);
+          professionalIds.add(professionalMemberId);
+          dates.add(period.toLocalDate());
+        }
+      }
+    }
+
+    Map<Long, Set<LocalDateTime>> bookedPeriods = professionalIds.isEmpty()
+      ? Map.of()
+      : slotReservationService.lockAndFindBooked(professionalIds, dates);
+    // The snapshots may be minutes old, so the entries are checked again against the professionals read from the database, locked
+    // so that they cannot change until the sessions are saved, and their prices are the ones charged
+    Map<Long, BookingSnapshot> lockedProfessionals = professionalIds.isEmpty()
+      ? Map.of()
+      : bookingSnapshotCache.lockAndLoad(professionalIds);
+    professionalIds.forEach(professionalMemberId -> professionals.put(professionalMemberId, Optional.ofNullable(lockedProfessionals.get(professionalMemberId))));
+
+    List<HealthSession> healthSessions = new ArrayList<>();
+    Map<Integer, HealthSession> sessionsByEntry = new HashMap<>();
+    for (int i = 0; i < entries.size(); i++) {
+      if (statuses[i] != null) {
+        continue;
+      }
+
+      SessionEntry entry = entries.get(i);
+      Member patient = patients.get(normalizeEmailAddress(entry.getPatientEmailAddress()));
+      statuses[i] = validateEntry(professionals.get(entry.getProfessionalMemberId()), patient, employeeIds, periods[i]);
+      if (statuses[i] != null) {
+        continue;
+      }
+      if (bookedPeriods.getOrDefault(entry.getProfessionalMemberId(), Set.of()).contains(periods[i])) {
+        statuses[i] = BatchBookingEntryStatus.PERIOD_ALREADY_BOOKED;
+        continue;
+      }
+
+      HealthSession healthSession = HealthSession.builder()
+        .documentLink(entry.getDocument())
+        .professional(Member.builder().id(entry.getProfessionalMemberId()).build())
+        .patient(patient)
+        .location(location)
+        .timezone(sessionTimezone)
+        .comment(entry.getComment())
+        .date(periods[i].toLocalDate())
+        .time(periods[i].toLocalTime())
+        .reference(referenceGenerator.generateSessionReference())
+        .status(HealthSessionStatus.PENDING)
+        .build();
+      healthSessions.add(healthSession);
+      sessionsByEntry.put(i, healthSession);
+      statuses[i] = BatchBookingEntryStatus.BOOKED;
+    }
+
+    String groupTransactionReference = null;
+    double totalPrice = 0;
+    Double actualPriceToPay = null;
+    if (!healthSessions.isEmpty()) {
+      try {
+        healthSessionRepository.saveAllAndFlush(healthSessions);
+      } catch (DataIntegrityViolationException ex) {
+        log.error(ex.getMessage(), ex);
+        HealthSession healthSession = slotReservationService.findConflictingSession(healthSessions);
+        String professionalName = professionals.get(healthSession.getProfessional().getId()).map(BookingSnapshot::getProfessionalName).orElse(null);
+        LocalDateTime requestedPeriod = toZone(LocalDateTime.of(healthSession.getDate(), healthSession.getTime()), sessionZone, requestZone);
+        throw new HealthSessionDateAlreadyBookedException(professionalName, requestedPeriod.toLocalDate(), requestedPeriod.toLocalTime());
+      }
+      professionalIds.forEach(eventService::publishSessionSlotChanged);
+
+      for (HealthSession healthSession : healthSessions) {
+        totalPrice += getBookingSnapshot(professionals, healthSession).getPrice();
+      }
+      groupTransactionReference = referenceGenerator.generateGroupTransactionReference();
+      actualPriceToPay = exchangeRateService.getConvertedHealthSessionPrice(totalPrice);
+
+      Member payer = user.toMember();
+      List<SessionTransaction> transactions = new ArrayList<>();
+      for (HealthSession healthSession : healthSessions) {
+        SessionTransaction transaction = SessionTransaction.builder()
+          .reference(referenceGenerator.generateTransactionReference())
+          .sessionReference(healthSession.getReference())
+          .groupTransactionReference(groupTransactionReference)
+          .payer(payer)
+          .amount(getBookingSnapshot(professionals, healthSession).getPrice())
+          .totalSessions(healthSessions.size())
+          .status(TransactionStatus.PENDING)
+          .gateway(PaymentGateway.FLUTTERWAVE)
+          .type(TransactionType.HEALTH_SESSION)
+          .subType(TransactionSubType.DEBIT)
+          .currency(CurrencyType.NGN.getValue())
+          .paymentCurrency(configService.getHealthSessionPaymentCurrency())
+          .amountInPaymentCurrency(actualPriceToPay)
+          .build();
+        transactions.add(transaction);
+      }
+      transactionJpaRepository.saveAll(transactions);
+      holdService.hold(groupTransactionReference);
+    }
+
+    List<EntryOutcome> outcomes = new ArrayList<>();
+    for (int i = 0; i < entries.size(); i++) {
+      SessionEntry entry = entries.get(i);
+      EntryOutcome outcome = EntryOutcome.builder()
+        .index(i)
+        .professional(entry.getProfessional())
+        .patientEmailAddress(entry.getPatientEmailAddress())
+        .status(statuses[i])
+        .build();
+
+      HealthSession healthSession = sessionsByEntry.get(i);
+      if (nonNull(healthSession)) {
+        outcome.setSessionReference(healthSession.getReference());
+        outcome.setProfessionalPrice(getBookingSnapshot(professionals, healthSession).getPrice());
+        LocalDateTime startDate = toZone(periods[i], sessionZone, requestZone);
+        outcome.setStartDate(startDate);
+        outcome.setEndDate(startDate.plusHours(getMaxMeetingSessionHourDuration()));
+      }
+      outcomes.add(outcome);
+    }
+
+    return BatchHealthSessionBookingResponse.builder()
+      .transactionReference(groupTransactionReference)
+      .timezone(requestZone.getId())
+      .bookedCount(healthSessions.size())
+      .rejectedCount(entries.size() - healthSessions.size())
+      .totalPrice(totalPrice)
       .professionalPriceCurrency(configService.getHealthSessionPricingCurrency())
+      .actualPriceToPay(actualPriceToPay)
       .actualPriceCurrency(configService.getHealthSessionPaymentCurrency())
+      .entries(outcomes)
       .build();
   }
 
+  /**
+   * Check an entry of a batch booking against the booking snapshot of the professional, returning the reason it cannot be booked or
+   * null if it can.
+   */
+  private static BatchBookingEntryStatus validateEntry(Optional<BookingSnapshot> professionalExists, Member patient, Set<Long> employeeIds,
+                                                       LocalDateTime period) {
+    if (professionalExists.isEmpty()) {
+      return BatchBookingEntryStatus.PROFESSIONAL_NOT_FOUND;
+    }
+
+    BookingSnapshot professional = professionalExists.get();
+    WeeklyAvailability availability = professional.getWeeklyAvailability();
+    if (!professional.isBookable() || isNull(professional.getPrice()) || availability.isEmpty()) {
+      return BatchBookingEntryStatus.PROFESSIONAL_NOT_AVAILABLE;
+    }
+
+    DayOfWeek dayOfWeek = period.getDayOfWeek();
+    if (!availability.isAvailableOn(dayOfWeek)) {
+      return BatchBookingEntryStatus.PROFESSIONAL_NOT_AVAILABLE_ON_DAY;
+    }
+    if (!availability.isAvailable(dayOfWeek, period.toLocalTime())) {
+      return BatchBookingEntryStatus.PROFESSIONAL_NOT_AVAILABLE_AT_TIME;
+    }
+    if (isNull(patient)) {
+      return BatchBookingEntryStatus.PATIENT_NOT_FOUND;
+    }
+    if (!employeeIds.contains(patient.getId())) {
+      return BatchBookingEntryStatus.PATIENT_NOT_EMPLOYEE;
+    }
+    return null;
+  }
+
+  private static LocalDateTime toZone(LocalDateTime dateTime, ZoneId fromZone, ZoneId toZone) {
+    return dateTime.atZone(fromZone).withZoneSameInstant(toZone).toLocalDateTime();
+  }
+
+  private static BookingSnapshot getBookingSnapshot(Map<Long, Optional<BookingSnapshot>> professionals, HealthSession healthSession) {
+    return professionals.get(healthSession.getProfessional().getId()).orElseThrow();
+  }
+
+  private static String normalizeEmailAddress(String emailAddress) {
+    return emailAddress.trim().toLowerCase();
+  }
+
   @Override
   @Transactional
   public void cancelSession(FleenUser user, Long healthSessionId) {
@@ -344,8 +605,8 @@ public class HealthSessionServiceImpl implements HealthSessionService {
         throw new HealthSessionPaymentNotConfirmedException();
       }
 
-      Optional<HealthSession> bookedSessionExist = healthSessionRepository.findByProfessionalAndDateAndTime(professional, newHealthSession.getDate(), newHealthSession.getTime());
-      if (bookedSessionExist.isPresent() && !(bookedSessionExist.get().getPatient().getId().equals(patient.getId()))) {
+      LocalDateTime newPeriod = LocalDateTime.of(newHealthSession.getDate(), newHealthSession.getTime());
+      if (!slotReservationService.lockAndFindUnavailable(professional.getId(), patient.getId(), List.of(newPeriod), healthSessionId).isEmpty()) {
         throw new HealthSessionDateAlreadyBookedException(getFullName(professional.getFirstName(), professional.getLastName()), newHealthSession.getDate(), newHealthSession.getTime());
       }
 
@@ -372,6 +633,7 @@ public class HealthSessionServiceImpl implements HealthSessionService {
 
       eventService.publishRescheduleSession(meetingEvent);
       healthSessionRepository.save(healthSession);
+      eventService.publishSessionSlotChanged(professional.getId());
       return;
     }
     throw new NoAssociatedHealthSessionException(healthSessionId);
@@ -410,13 +672,30 @@ public class HealthSessionServiceImpl implements HealthSessionService {
         .sessionReference(healthSession.getReference())
         .build();
       eventService.publishCancelSession(event);
+      eventService.publishSessionSlotChanged(healthSession.getProfessional().getId());
       return;
     }
     throw new NoAssociatedHealthSessionException(healthSessionId);
   }
 
+  /**
+   * <p>Set the price of the professional in the currency the patient pays in. The price is converted with the rates held in memory
+   * and is left out if no current rate is known.</p>
+   * <br/>
+   *
+   * @param view the professional shown to the patient
+   */
+  protected void setPriceInPaymentCurrency(ProfessionalView view) {
+    if (nonNull(view) && nonNull(view.getPrice())) {
+      exchangeRateService.findConvertedHealthSessionPrice(view.getPrice())
+        .ifPresent(price -> {
+          view.setPriceInPaymentCurrency(price);
+          view.setPaymentCurrency(configService.getHealthSessionPaymentCurrency());
+        });
+    }
+  }
+
   public static int getMaxMeetingSessionHourDuration() {
     return 1;
   }
-
 }
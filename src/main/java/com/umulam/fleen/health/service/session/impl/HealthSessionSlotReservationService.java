@@ -0,0 +1,160 @@
+package com.umulam.fleen.health.service.session.impl;
+
+import com.umulam.fleen.health.constant.session.HealthSessionStatus;
+import com.umulam.fleen.health.exception.healthsession.HealthSessionPeriodsUnavailableException;
+import com.umulam.fleen.health.model.domain.HealthSession;
+import com.umulam.fleen.health.model.response.healthsession.GetBookedSessionPeriod;
+import com.umulam.fleen.health.model.response.healthsession.UnavailableSessionPeriod;
+import com.umulam.fleen.health.repository.jpa.HealthSessionJpaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * HealthSessionSlotReservationService makes sure a professional is never booked twice for the same date and time. Bookings for the
+ * same professional are serialized with a transaction scoped lock held until the booking commits, and every requested period is
+ * checked against the active sessions of the professional with a single query.
+ *
+ * <p>A unique index over the professional, date and time of sessions that are pending, scheduled or rescheduled, created on startup
+ * by {@link com.umulam.fleen.health.configuration.ActiveSlotIndexMigration}, makes the database reject a double booking made by any
+ * path that does not take the lock. Canceled and completed sessions are not covered by the index and do not keep their period from
+ * being booked again.</p>
+ * <br/>
+ */
+@Slf4j
+@Service
+public class HealthSessionSlotReservationService {
+
+  public static final Set<HealthSessionStatus> ACTIVE_STATUSES = EnumSet.of(
+    HealthSessionStatus.PENDING,
+    HealthSessionStatus.SCHEDULED,
+    HealthSessionStatus.RESCHEDULED);
+
+  private final HealthSessionJpaRepository healthSessionRepository;
+
+  public HealthSessionSlotReservationService(HealthSessionJpaRepository healthSessionRepository) {
+    this.healthSessionRepository = healthSessionRepository;
+  }
+
+  /**
+   * <p>Lock the sessions of the professional until the current transaction completes and check that none of the periods is taken
+   * by an active session.</p>
+   * <br/>
+   *
+   * @param professionalId the professional the periods are booked with
+   * @param professionalName the name of the professional shown if a period is not available
+   * @param patientId the patient making the booking
+   * @param periods the start date and time of every period to book
+   * @throws HealthSessionPeriodsUnavailableException listing every period that is not available
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void reserve(Long professionalId, String professionalName, Long patientId, Collection<LocalDateTime> periods) {
+    List<UnavailableSessionPeriod> unavailablePeriods = lockAndFindUnavailable(professionalId, patientId, periods, null);
+    if (!unavailablePeriods.isEmpty()) {
+      throw new HealthSessionPeriodsUnavailableException(professionalName, unavailablePeriods);
+    }
+  }
+
+  /**
+   * <p>Lock the sessions of the professional until the current transaction completes and find the periods that are taken by an
+   * active session.</p>
+   * <br/>
+   *
+   * @param professionalId the professional the periods are booked with
+   * @param patientId the patient making the booking
+   * @param periods the start date and time of every period to book
+   * @param excludedSessionId a session that is not counted, like the session being rescheduled, or null
+   * @return the periods that are not available
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public List<UnavailableSessionPeriod> lockAndFindUnavailable(Long professionalId, Long patientId, Collection<LocalDateTime> periods, Long excludedSessionId) {
+    healthSessionRepository.lockProfessionalSessions(professionalId);
+
+    Set<LocalDate> dates = periods
+      .stream()
+      .map(LocalDateTime::toLocalDate)
+      .collect(Collectors.toSet());
+    List<HealthSession> activeSessions = healthSessionRepository.findByProfessionalAndDatesAndStatuses(professionalId, dates, ACTIVE_STATUSES);
+
+    Map<LocalDateTime, HealthSession> sessionsByPeriod = new HashMap<>();
+    for (HealthSession session : activeSessions) {
+      if (!session.getId().equals(excludedSessionId)) {
+        sessionsByPeriod.put(LocalDateTime.of(session.getDate(), session.getTime()), session);
+      }
+    }
+
+    List<UnavailableSessionPeriod> unavailablePeriods = new ArrayList<>();
+    for (LocalDateTime period : new TreeSet<>(periods)) {
+      HealthSession bookedSession = sessionsByPeriod.get(period);
+      if (nonNull(bookedSession)) {
+        unavailablePeriods.add(UnavailableSessionPeriod.builder()
+          .date(period.toLocalDate())
+          .time(period.toLocalTime())
+          .bookedByYou(bookedSession.getPatient().getId().equals(patientId))
+          .build());
+      }
+    }
+    return unavailablePeriods;
+  }
+
+  /**
+   * <p>Lock the sessions of several professionals until the current transaction completes and find the periods on the dates that
+   * are taken by their active sessions, with one statement for the locks and one query for the sessions.</p>
+   * <br/>
+   *
+   * @param professionalIds the professionals the periods are booked with
+   * @param dates the dates of the periods to book
+   * @return the start date and time of the periods that are taken, by professional
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public Map<Long, Set<LocalDateTime>> lockAndFindBooked(Collection<Long> professionalIds, Collection<LocalDate> dates) {
+    healthSessionRepository.lockProfessionalsSessions(professionalIds);
+
+    Map<Long, Set<LocalDateTime>> bookedPeriods = new HashMap<>();
+    for (GetBookedSessionPeriod period : healthSessionRepository.findBookedSessionPeriodsByProfessionalsAndDates(professionalIds, dates, ACTIVE_STATUSES)) {
+      bookedPeriods
+        .computeIfAbsent(period.getProfessionalMemberId(), id -> new HashSet<>())
+        .add(LocalDateTime.of(period.getDate(), period.getTime()));
+    }
+    return bookedPeriods;
+  }
+
+  /**
+   * <p>Find the session whose period was taken by another booking when saving the sessions was rejected by the unique index. The
+   * transaction of the rejected save can no longer be used, so the active sessions are read again in a transaction of their own,
+   * where the booking that took the period has already committed.</p>
+   * <br/>
+   *
+   * @param healthSessions the sessions whose save was rejected
+   * @return the first session whose period is taken, or the first session if none is taken anymore
+   */
+  @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+  public HealthSession findConflictingSession(List<HealthSession> healthSessions) {
+    Set<Long> professionalIds = new HashSet<>();
+    Set<LocalDate> dates = new HashSet<>();
+    for (HealthSession session : healthSessions) {
+      professionalIds.add(session.getProfessional().getId());
+      dates.add(session.getDate());
+    }
+
+    Set<String> bookedPeriods = new HashSet<>();
+    for (GetBookedSessionPeriod period : healthSessionRepository.findBookedSessionPeriodsByProfessionalsAndDates(professionalIds, dates, ACTIVE_STATUSES)) {
+      bookedPeriods.add(period.getProfessionalMemberId() + ":" + LocalDateTime.of(period.getDate(), period.getTime()));
+    }
+
+    for (HealthSession session : healthSessions) {
+      if (bookedPeriods.contains(session.getProfessional().getId() + ":" + LocalDateTime.of(session.getDate(), session.getTime()))) {
+        return session;
+      }
+    }
+    return healthSessions.get(0);
+  }
+}
@@ -0,0 +1,326 @@
+package com.umulam.fleen.health.service.session.impl;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.umulam.fleen.health.constant.professional.ProfessionalAvailabilityStatus;
+import com.umulam.fleen.health.constant.verification.ProfileVerificationStatus;
+import com.umulam.fleen.health.event.ProfessionalChangedEvent;
+import com.umulam.fleen.health.model.domain.Member;
+import com.umulam.fleen.health.model.domain.Professional;
+import com.umulam.fleen.health.service.ProfessionalService;
+import com.umulam.fleen.health.service.impl.CacheService;
+import com.umulam.fleen.health.service.impl.ConfigService;
+import com.umulam.fleen.health.util.WeeklyAvailability;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.umulam.fleen.health.constant.base.GeneralConstant.PROFESSIONAL_BOOKING_SNAPSHOT_CACHE_PREFIX;
+import static com.umulam.fleen.health.util.StringUtil.getFullName;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.springframework.transaction.event.TransactionPhase.AFTER_COMMIT;
+
+/**
+ * ProfessionalBookingSnapshotCache keeps what a booking needs to know about a professional, their name, price, availability status,
+ * verification status and weekly availability, in a small snapshot so that a booking is validated without querying the database.
+ * Snapshots are held in memory on every node for a short time and in the cache store for longer, and are loaded from the database
+ * only when neither has them.
+ *
+ * <p>When a professional changes their details, availability or verification, a {@link ProfessionalChangedEvent} is published. After
+ * the transaction commits, the node that made the change loads the snapshot again, overwrites the one in the cache store and
+ * publishes a message so that every other node drops its copy. Snapshots loaded for a booking are only added to the cache store if
+ * it does not have one, so a snapshot read before a change commits never replaces the snapshot written after it. Every snapshot
+ * records when it was loaded and a node never replaces the copy it holds with an older one.</p>
+ *
+ * <p>The message carries the version of the snapshot written after the change. A node receiving it replaces its copy with a marker of
+ * that version, kept for as long as a copy would be, so that a snapshot read from the cache store before the change was written, by
+ * a lookup that only completes after the message arrived, is used for that lookup but never held in memory again.</p>
+ * <br/>
+ */
+@Slf4j
+@Component
+public class ProfessionalBookingSnapshotCache implements MessageListener {
+
+  private static final String MESSAGE_SEPARATOR = ":";
+
+  private final ProfessionalService professionalService;
+  private final ConfigService configService;
+  private final CacheService cacheService;
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final StringRedisSerializer serializer;
+  private final String channel;
+  private final String nodeId;
+  private final Duration timeToLive;
+  private final long nearTimeToLiveMillis;
+  private final int nearMaxEntries;
+  private final Map<Long, NearEntry> nearCache = new ConcurrentHashMap<>();
+
+  public ProfessionalBookingSnapshotCache(ProfessionalService professionalService,
+                                          ConfigService configService,
+                                          CacheService cacheService,
+                                          RedisTemplate<String, Object> redisTemplate,
+                                          RedisMessageListenerContainer listenerContainer,
+                                          @Value("${fleen.health.booking-snapshot.channel:PROFESSIONAL_BOOKING_SNAPSHOT_INVALIDATION}") String channel,
+                                          @Value("${fleen.health.booking-snapshot.ttl-minutes:60}") long ttlMinutes,
+                                          @Value("${fleen.health.booking-snapshot.near-ttl-seconds:300}") long nearTtlSeconds,
+                                          @Value("${fleen.health.booking-snapshot.near-max-entries:10000}") int nearMaxEntries) {
+    this.professionalService = professionalService;
+    this.configService = configService;
+    this.cacheService = cacheService;
+    this.redisTemplate = redisTemplate;
+    this.serializer = StringRedisSerializer.UTF_8;
+    this.channel = channel;
+    this.nodeId = UUID.randomUUID().toString();
+    this.timeToLive = Duration.ofMinutes(ttlMinutes);
+    this.nearTimeToLiveMillis = Duration.ofSeconds(nearTtlSeconds).toMillis();
+    this.nearMaxEntries = nearMaxEntries;
+    listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+  }
+
+  /**
+   * <p>Find the booking snapshot of a professional, from memory, then the cache store and then the database.</p>
+   * <br/>
+   *
+   * @param professionalMemberId the member ID of the professional
+   * @return the snapshot, or empty if the member is not a professional
+   */
+  public Optional<BookingSnapshot> find(Long professionalMemberId) {
+    NearEntry nearEntry = nearCache.get(professionalMemberId);
+    if (nonNull(nearEntry) && nonNull(nearEntry.snapshot) && !nearEntry.isExpired(System.currentTimeMillis())) {
+      return Optional.of(nearEntry.snapshot);
+    }
+
+    String key = getCacheKey(professionalMemberId);
+    BookingSnapshot snapshot = readFromCache(key);
+    if (isNull(snapshot)) {
+      snapshot = load(professionalMemberId);
+      if (isNull(snapshot)) {
+        return Optional.empty();
+      }
+      snapshot = writeIfAbsent(key, snapshot);
+    }
+    putNear(snapshot);
+    return Optional.of(snapshot);
+  }
+
+  /**
+   * <p>Load the snapshots of several professionals from the database, locking the professionals and their schedules until the
+   * current transaction completes. A booking checked against these snapshots cannot be changed by a change of the professionals
+   * made before it commits, which the snapshots held in memory and in the cache store do not ensure.</p>
+   * <br/>
+   *
+   * @param professionalMemberIds the member IDs of the professionals
+   * @return the snapshots of the members that are professionals, by member ID
+   */
+  public Map<Long, BookingSnapshot> lockAndLoad(Collection<Long> professionalMemberIds) {
+    Map<Long, WeeklyAvailability> availabilities = professionalService.lockAndFindWeeklyAvailabilities(professionalMemberIds);
+    Map<Long, BookingSnapshot> snapshots = new HashMap<>();
+    for (Professional professional : professionalService.lockAndFindProfessionalsByMembers(professionalMemberIds)) {
+      Long professionalMemberId = professional.getMember().getId();
+      snapshots.put(professionalMemberId, toSnapshot(professional, availabilities.getOrDefault(professionalMemberId, WeeklyAvailability.empty())));
+    }
+    return snapshots;
+  }
+
+  /**
+   * <p>Load the snapshot of the professional again on this node after the change has been committed and ask every other node to
+   * drop its copy.</p>
+   * <br/>
+   *
+   * @param event the professional that changed
+   */
+  @TransactionalEventListener(phase = AFTER_COMMIT, fallbackExecution = true)
+  public void onProfessionalChanged(ProfessionalChangedEvent event) {
+    Long professionalMemberId = event.getProfessionalMemberId();
+    String key = getCacheKey(professionalMemberId);
+    long version = System.currentTimeMillis();
+    invalidateNear(professionalMemberId, version);
+    try {
+      BookingSnapshot snapshot = load(professionalMemberId);
+      if (nonNull(snapshot)) {
+        cacheService.set(key, snapshot, timeToLive);
+        version = snapshot.getVersion();
+        putNear(snapshot);
+      } else {
+        cacheService.delete(key);
+      }
+    } catch (RuntimeException ex) {
+      log.error(ex.getMessage(), ex);
+      deleteFromCache(key);
+    }
+
+    try {
+      byte[] message = serializer.serialize(nodeId + MESSAGE_SEPARATOR + professionalMemberId + MESSAGE_SEPARATOR + version);
+      redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(serializer.serialize(channel), message));
+    } catch (RuntimeException ex) {
+      log.error(ex.getMessage(), ex);
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String[] parts = Objects.requireNonNull(serializer.deserialize(message.getBody())).split(MESSAGE_SEPARATOR);
+    if (parts.length == 3 && !nodeId.equals(parts[0])) {
+      invalidateNear(Long.valueOf(parts[1]), Long.parseLong(parts[2]));
+    }
+  }
+
+  private BookingSnapshot load(Long professionalMemberId) {
+    Optional<Professional> professionalExists = professionalService.findProfessionalByMember(Member.builder().id(professionalMemberId).build());
+    if (professionalExists.isEmpty()) {
+      return null;
+    }
+
+    Professional professional = professionalExists.get();
+    return toSnapshot(professional, professionalService.getWeeklyAvailability(professional.getMember()));
+  }
+
+  private BookingSnapshot toSnapshot(Professional professional, WeeklyAvailability availability) {
+    Member member = professional.getMember();
+    BookingSnapshot snapshot = new BookingSnapshot();
+    snapshot.setProfessionalMemberId(member.getId());
+    snapshot.setProfessionalName(getFullName(member.getFirstName(), member.getLastName()));
+    snapshot.setPrice(professional.getPrice());
+    snapshot.setPriceCurrency(configService.getHealthSessionPricingCurrency());
+    snapshot.setAvailabilityStatus(professional.getAvailabilityStatus());
+    snapshot.setVerificationStatus(member.getVerificationStatus());
+    snapshot.setAvailability(availability.toBytes());
+    snapshot.setVersion(System.currentTimeMillis());
+    return snapshot;
+  }
+
+  private BookingSnapshot readFromCache(String key) {
+    try {
+      return cacheService.get(key, BookingSnapshot.class);
+    } catch (RuntimeException ex) {
+      log.error(ex.getMessage(), ex);
+      return null;
+    }
+  }
+
+  /**
+   * Add a snapshot loaded from the database to the cache store unless another node has already added one, in which case the one
+   * in the cache store is used because it may have been written after a change committed.
+   */
+  private BookingSnapshot writeIfAbsent(String key, BookingSnapshot snapshot) {
+    try {
+      if (!cacheService.setIfAbsent(key, snapshot, timeToLive)) {
+        BookingSnapshot existing = cacheService.get(key, BookingSnapshot.class);
+        return nonNull(existing) ? existing : snapshot;
+      }
+    } catch (RuntimeException ex) {
+      log.error(ex.getMessage(), ex);
+    }
+    return snapshot;
+  }
+
+  private void deleteFromCache(String key) {
+    try {
+      cacheService.delete(key);
+    } catch (RuntimeException ex) {
+      log.error(ex.getMessage(), ex);
+    }
+  }
+
+  private void putNear(BookingSnapshot snapshot) {
+    mergeNear(snapshot.getProfessionalMemberId(), snapshot, snapshot.getVersion());
+  }
+
+  /**
+   * Drop the copy of a snapshot older than the version and keep a marker of the version in its place, so that an older snapshot
+   * read before the change is not held again.
+   */
+  private void invalidateNear(Long professionalMemberId, long version) {
+    mergeNear(professionalMemberId, null, version);
+  }
+
+  private void mergeNear(Long professionalMemberId, BookingSnapshot snapshot, long version) {
+    long now = System.currentTimeMillis();
+    if (nearCache.size() >= nearMaxEntries) {
+      // Dropping every copy is simpler than tracking the least used ones and the snapshots are cheap to read again
+      nearCache.clear();
+    }
+    NearEntry candidate = new NearEntry(snapshot, version, now + nearTimeToLiveMillis);
+    nearCache.merge(professionalMemberId, candidate, (current, next) ->
+      current.isExpired(now) || next.version >= current.version ? next : current);
+  }
+
+  private static String getCacheKey(Long professionalMemberId) {
+    return PROFESSIONAL_BOOKING_SNAPSHOT_CACHE_PREFIX + professionalMemberId;
+  }
+
+  /**
+   * What a booking needs to know about a professional. The weekly availability is held in the bitmap format of
+   * {@link WeeklyAvailability} and decoded once per node.
+   */
+  @Getter
+  @Setter
+  @NoArgsConstructor
+  public static class BookingSnapshot {
+
+    private Long professionalMemberId;
+    private String professionalName;
+    private Double price;
+    private String priceCurrency;
+    private ProfessionalAvailabilityStatus availabilityStatus;
+    private ProfileVerificationStatus verificationStatus;
+    private byte[] availability;
+    private long version;
+
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private transient WeeklyAvailability weeklyAvailability;
+
+    @JsonIgnore
+    public boolean isBookable() {
+      return availabilityStatus != ProfessionalAvailabilityStatus.UNAVAILABLE
+        && verificationStatus == ProfileVerificationStatus.APPROVED;
+    }
+
+    @JsonIgnore
+    public WeeklyAvailability getWeeklyAvailability() {
+      if (isNull(weeklyAvailability)) {
+        weeklyAvailability = WeeklyAvailability.fromBytes(availability);
+      }
+      return weeklyAvailability;
+    }
+  }
+
+  private static final class NearEntry {
+
+    private final BookingSnapshot snapshot;
+    private final long version;
+    private final long expiresAt;
+
+    private NearEntry(BookingSnapshot snapshot, long version, long expiresAt) {
+      this.snapshot = snapshot;
+      this.version = version;
+      this.expiresAt = expiresAt;
+    }
+
+    private boolean isExpired(long now) {
+      return now >= expiresAt;
+    }
+  }
+}
@@ -0,0 +1,496 @@
+package com.umulam.fleen.health.service.session.impl;
+
+import com.umulam.fleen.health.constant.member.ProfessionalQualificationType;
+import com.umulam.fleen.health.constant.member.ProfessionalType;
+import com.umulam.fleen.health.constant.professional.ProfessionalAvailabilityStatus;
+import com.umulam.fleen.health.constant.verification.ProfileVerificationStatus;
+import com.umulam.fleen.health.event.SessionSlotChangedEvent;
+import com.umulam.fleen.health.model.domain.Member;
+import com.umulam.fleen.health.model.domain.Professional;
+import com.umulam.fleen.health.model.domain.ProfessionalSchedule;
+import com.umulam.fleen.health.model.request.search.FreeSlotSearchRequest;
+import com.umulam.fleen.health.model.response.healthsession.GetBookedSessionPeriod;
+import com.umulam.fleen.health.model.view.healthsession.FreeSessionSlotView;
+import com.umulam.fleen.health.repository.jpa.HealthSessionJpaRepository;
+import com.umulam.fleen.health.repository.jpa.HealthSessionProfessionalJpaRepository;
+import com.umulam.fleen.health.repository.jpa.ProfessionalScheduleJpaRepository;
+import com.umulam.fleen.health.service.ProfessionalService;
+import com.umulam.fleen.health.util.WeeklyAvailability;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+import static com.umulam.fleen.health.service.session.impl.HealthSessionServiceImpl.getMaxMeetingSessionHourDuration;
+import static com.umulam.fleen.health.util.StringUtil.getFullName;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.springframework.transaction.event.TransactionPhase.AFTER_COMMIT;
+
+/**
+ * ProfessionalSlotIndex keeps the weekly availability and the booked sessions of every professional that can be booked in memory,
+ * so that the open slots of a professional, and the next open slots across all professionals, are found without querying the
+ * database. Availability times and session times are in the timezone sessions are booked in, and slots are converted to the
+ * timezone of the requester only when they are returned.
+ *
+ * <p>The index is built once the application is ready. When a session is booked, canceled or rescheduled, or a professional
+ * changes their schedule or availability, a {@link SessionSlotChangedEvent} is published and only the entry of that professional is
+ * reloaded after the transaction commits. A message is then published so that every other node reloads the entry too. The whole
+ * index is rebuilt in the background when it is older than the configured period, which picks up changes made by other paths such
+ * as profile verification.</p>
+ *
+ * <p>Every entry is stamped with a sequence number taken before its data was read. An entry only replaces or removes an entry
+ * with an older stamp, so a rebuild that read the database before a reload finished does not overwrite the newer entry, and
+ * professionals that are no longer bookable are removed together with their IDs.</p>
+ *
+ * <p>The professionals are also indexed by the minute of the week their slots start, in order of time. A search for the next open
+ * slots walks the index from the first day searched and stops as soon as enough slots are found, so it only looks at the slots
+ * that come before the last one returned, however many professionals there are.</p>
+ * <br/>
+ */
+@Slf4j
+@Component
+public class ProfessionalSlotIndex implements MessageListener, DisposableBean {
+
+  private static final String MESSAGE_SEPARATOR = ":";
+  private static final String REBUILD_THREAD_NAME = "slot-index-rebuild";
+
+  private final HealthSessionProfessionalJpaRepository professionalRepository;
+  private final HealthSessionJpaRepository healthSessionRepository;
+  private final ProfessionalScheduleJpaRepository scheduleRepository;
+  private final ProfessionalService professionalService;
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final StringRedisSerializer serializer;
+  private final String channel;
+  private final String nodeId;
+  private final ZoneId sessionZone;
+  private final int maxNumberOfDays;
+  private final Duration rebuildPeriod;
+  private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+  private final Map<Long, Long> memberIds = new ConcurrentHashMap<>();
+  private final NavigableMap<Integer, Set<Long>> memberIdsBySlotStart = new ConcurrentSkipListMap<>();
+  private final Map<Long, Long> removedAt = new ConcurrentHashMap<>();
+  private final AtomicLong loadSequence = new AtomicLong();
+  private final AtomicBoolean rebuilding = new AtomicBoolean();
+  private final ExecutorService rebuildExecutor;
+  private volatile long builtAt;
+  private volatile long previousRebuildStamp;
+
+  public ProfessionalSlotIndex(HealthSessionProfessionalJpaRepository professionalRepository,
+                               HealthSessionJpaRepository healthSessionRepository,
+                               ProfessionalScheduleJpaRepository scheduleRepository,
+                               ProfessionalService professionalService,
+                               RedisTemplate<String, Object> redisTemplate,
+                               RedisMessageListenerContainer listenerContainer,
+                               @Value("${fleen.health.free-slot.channel:SESSION_SLOT_INVALIDATION}") String channel,
+                               @Value("${fleen.health.session.timezone:Africa/Lagos}") String sessionZone,
+                               @Value("${fleen.health.free-slot.max-days:60}") int maxNumberOfDays,
+                               @Value("${fleen.health.free-slot.rebuild-minutes:15}") long rebuildMinutes) {
+    this.professionalRepository = professionalRepository;
+    this.healthSessionRepository = healthSessionRepository;
+    this.scheduleRepository = scheduleRepository;
+    this.professionalService = professionalService;
+    this.redisTemplate = redisTemplate;
+    this.serializer = StringRedisSerializer.UTF_8;
+    this.channel = channel;
+    this.nodeId = UUID.randomUUID().toString();
+    this.sessionZone = ZoneId.of(sessionZone);
+    this.maxNumberOfDays = maxNumberOfDays;
+    this.rebuildPeriod = Duration.ofMinutes(rebuildMinutes);
+    this.rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, REBUILD_THREAD_NAME);
+      thread.setDaemon(true);
+      return thread;
+    });
+    listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+  }
+
+  public ZoneId getSessionZone() {
+    return sessionZone;
+  }
+
+  @Order(Ordered.LOWEST_PRECEDENCE)
+  @EventListener(ApplicationReadyEvent.class)
+  public void buildOnStartup() {
+    rebuild();
+  }
+
+  @Override
+  public void destroy() {
+    rebuildExecutor.shutdownNow();
+  }
+
+  /**
+   * <p>Reload the entry of the professional on this node after the change has been committed and ask every other node to do the
+   * same.</p>
+   * <br/>
+   *
+   * @param event the professional whose slots changed
+   */
+  @TransactionalEventListener(phase = AFTER_COMMIT, fallbackExecution = true)
+  public void onSessionSlotChanged(SessionSlotChangedEvent event) {
+    reload(event.getProfessionalMemberId());
+    try {
+      byte[] message = serializer.serialize(nodeId + MESSAGE_SEPARATOR + event.getProfessionalMemberId());
+      redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(serializer.serialize(channel), message));
+    } catch (RuntimeException ex) {
+      log.error(ex.getMessage(), ex);
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String[] parts = Objects.requireNonNull(serializer.deserialize(message.getBody())).split(MESSAGE_SEPARATOR);
+    if (parts.length == 2 && !nodeId.equals(parts[0])) {
+      reload(Long.valueOf(parts[1]));
+    }
+  }
+
+  /**
+   * <p>Find the open slots of a professional within a number of days.</p>
+   * <br/>
+   *
+   * @param professionalId the ID of the professional
+   * @param req the first day, number of days and timezone of the requester
+   * @return the open slots in order of time
+   */
+  public List<FreeSessionSlotView> findFreeSlots(Long professionalId, FreeSlotSearchRequest req) {
+    rebuildIfStale();
+    Long memberId = memberIds.get(professionalId);
+    Entry entry = isNull(memberId) ? null : entries.get(memberId);
+    if (isNull(entry)) {
+      return List.of();
+    }
+
+    ZoneId zone = getZone(req.getTimezone());
+    LocalDateTime now = LocalDateTime.now(sessionZone);
+    LocalDate firstDay = getFirstDay(req, now);
+    List<FreeSessionSlotView> slots = new ArrayList<>();
+    for (int day = 0; day < getNumberOfDays(req); day++) {
+      entry.addFreeSlots(firstDay.plusDays(day), now, slots, zone);
+    }
+    return slots;
+  }
+
+  /**
+   * <p>Find the next open slots across every professional that matches the filters of the request. The slot starts of each day are
+   * walked in order of time and the search stops once enough open slots have been found.</p>
+   * <br/>
+   *
+   * @param req the filters, number of slots, first day, number of days and timezone of the requester
+   * @return the earliest open slots in order of time
+   */
+  public List<FreeSessionSlotView> findNextFreeSlots(FreeSlotSearchRequest req) {
+    rebuildIfStale();
+    int slotCount = Math.max(1, Objects.requireNonNullElse(req.getSlotCount(), 10));
+    ZoneId zone = getZone(req.getTimezone());
+    LocalDateTime now = LocalDateTime.now(sessionZone);
+    LocalDate firstDay = getFirstDay(req, now);
+    List<FreeSessionSlotView> slots = new ArrayList<>();
+    for (int day = 0; day < getNumberOfDays(req); day++) {
+      LocalDate date = firstDay.plusDays(day);
+      int dayStart = (date.getDayOfWeek().getValue() - 1) * WeeklyAvailability.MINUTES_IN_A_DAY;
+      int fromMinute = date.equals(now.toLocalDate()) ? now.toLocalTime().toSecondOfDay() / 60 + 1 : 0;
+      for (Map.Entry<Integer, Set<Long>> slotStart : memberIdsBySlotStart.subMap(dayStart + fromMinute, dayStart + WeeklyAvailability.MINUTES_IN_A_DAY).entrySet()) {
+        int minuteOfDay = slotStart.getKey() - dayStart;
+        LocalDateTime start = date.atStartOfDay().plusMinutes(minuteOfDay);
+        for (Long memberId : slotStart.getValue()) {
+          Entry entry = entries.get(memberId);
+          // The entry may have been replaced since the member was found in the index
+          if (nonNull(entry) && entry.hasSlotStart(date.getDayOfWeek(), minuteOfDay) && entry.matches(req) && !entry.isBooked(start)) {
+            slots.add(entry.toFreeSlot(start, zone));
+            if (slots.size() == slotCount) {
+              return slots;
+            }
+          }
+        }
+      }
+    }
+    return slots;
+  }
+
+  private void rebuild() {
+    try {
+      long stamp = loadSequence.incrementAndGet();
+      LocalDate today = LocalDate.now(sessionZone);
+      List<Professional> professionals = professionalRepository.findAllByAvailabilityStatus(ProfessionalAvailabilityStatus.AVAILABLE, ProfileVerificationStatus.APPROVED);
+      Map<Long, WeeklyAvailability> schedules = scheduleRepository.findAllWithMember()
+        .stream()
+        .collect(Collectors.toMap(schedule -> schedule.getMember().getId(), ProfessionalSchedule::getWeeklyAvailability, (first, second) -> first));
+      Map<Long, List<GetBookedSessionPeriod>> bookedPeriods = healthSessionRepository
+        .findBookedSessionPeriods(HealthSessionSlotReservationService.ACTIVE_STATUSES, today)
+        .stream()
+        .collect(Collectors.groupingBy(GetBookedSessionPeriod::getProfessionalMemberId));
+
+      Map<Long, Entry> built = professionals
+        .stream()
+        .map(professional -> {
+          Member member = professional.getMember();
+          WeeklyAvailability availability = schedules.containsKey(member.getId())
+            ? schedules.get(member.getId())
+            : professionalService.getWeeklyAvailability(member);
+          return new Entry(professional, availability, bookedPeriods.getOrDefault(member.getId(), List.of()), stamp);
+        })
+        .collect(Collectors.toMap(entry -> entry.memberId, Function.identity()));
+
+      built.values().forEach(this::put);
+      for (Long memberId : entries.keySet()) {
+        if (!built.containsKey(memberId)) {
+          remove(memberId, stamp);
+        }
+      }
+      // A reload that started before the previous rebuild has long finished, so older removals need not be remembered
+      long pruneBefore = previousRebuildStamp;
+      removedAt.values().removeIf(removed -> removed < pruneBefore);
+      previousRebuildStamp = stamp;
+      builtAt = System.currentTimeMillis();
+      log.info("Built the slot index of {} professional(s)", built.size());
+    } catch (RuntimeException ex) {
+      // Keep serving the previous index
+      log.error(ex.getMessage(), ex);
+    }
+  }
+
+  private void reload(Long professionalMemberId) {
+    try {
+      long stamp = loadSequence.incrementAndGet();
+      Optional<Professional> professional = professionalRepository.findByMemberIdAndAvailabilityStatus(professionalMemberId,
+        ProfessionalAvailabilityStatus.AVAILABLE, ProfileVerificationStatus.APPROVED);
+      if (professional.isEmpty()) {
+        remove(professionalMemberId, stamp);
+        return;
+      }
+
+      List<GetBookedSessionPeriod> bookedPeriods = healthSessionRepository.findBookedSessionPeriodsByProfessional(professionalMemberId,
+        HealthSessionSlotReservationService.ACTIVE_STATUSES, LocalDate.now(sessionZone));
+      WeeklyAvailability availability = professionalService.getWeeklyAvailability(professional.get().getMember());
+      put(new Entry(professional.get(), availability, bookedPeriods, stamp));
+    } catch (RuntimeException ex) {
+      log.error(ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * <p>Replace the entry of the professional unless the entry held, or the removal of the professional, is newer.</p>
+   * <br/>
+   *
+   * @param entry the entry read from the database
+   */
+  private void put(Entry entry) {
+    entries.compute(entry.memberId, (memberId, current) -> {
+      if ((nonNull(current) && current.loadedAt > entry.loadedAt) || removedAt.getOrDefault(memberId, 0L) > entry.loadedAt) {
+        return current;
+      }
+      removedAt.remove(memberId);
+      updateIndexes(current, entry);
+      return entry;
+    });
+  }
+
+  /**
+   * <p>Remove the entry of a professional that can no longer be booked unless the entry held is newer.</p>
+   * <br/>
+   *
+   * @param professionalMemberId the member ID of the professional
+   * @param stamp the sequence number taken before the professional was read
+   */
+  private void remove(Long professionalMemberId, long stamp) {
+    entries.compute(professionalMemberId, (memberId, current) -> {
+      if (nonNull(current) && current.loadedAt > stamp) {
+        return current;
+      }
+      removedAt.merge(memberId, stamp, Math::max);
+      updateIndexes(current, null);
+      return null;
+    });
+  }
+
+  /**
+   * <p>Move the member from the slot starts of the entry it had to the slot starts of its new entry. Called while the entry of the
+   * member is being computed, so changes to the same member are never interleaved.</p>
+   * <br/>
+   *
+   * @param current the entry held, or null
+   * @param next the entry replacing it, or null when the professional is removed
+   */
+  private void updateIndexes(Entry current, Entry next) {
+    if (nonNull(current)) {
+      memberIds.remove(current.professionalId, current.memberId);
+      current.forEachSlotStart(minuteOfWeek -> memberIdsBySlotStart.computeIfPresent(minuteOfWeek, (minute, members) -> {
+        members.remove(current.memberId);
+        return members.isEmpty() ? null : members;
+      }));
+    }
+    if (nonNull(next)) {
+      memberIds.put(next.professionalId, next.memberId);
+      next.forEachSlotStart(minuteOfWeek -> memberIdsBySlotStart.compute(minuteOfWeek, (minute, members) -> {
+        Set<Long> memberIds = isNull(members) ? ConcurrentHashMap.newKeySet() : members;
+        memberIds.add(next.memberId);
+        return memberIds;
+      }));
+    }
+  }
+
+  private void rebuildIfStale() {
+    if (System.currentTimeMillis() - builtAt > rebuildPeriod.toMillis() && rebuilding.compareAndSet(false, true)) {
+      try {
+        rebuildExecutor.execute(() -> {
+          try {
+            rebuild();
+          } finally {
+            rebuilding.set(false);
+          }
+        });
+      } catch (RejectedExecutionException ex) {
+        // The application is shutting down
+        rebuilding.set(false);
+      }
+    }
+  }
+
+  private ZoneId getZone(String timezone) {
+    if (isNull(timezone) || timezone.isBlank()) {
+      return sessionZone;
+    }
+
+    try {
+      return ZoneId.of(timezone.trim());
+    } catch (DateTimeException ex) {
+      log.warn("Unknown timezone {}, using {}", timezone, sessionZone);
+      return sessionZone;
+    }
+  }
+
+  private LocalDate getFirstDay(FreeSlotSearchRequest req, LocalDateTime now) {
+    LocalDate today = now.toLocalDate();
+    return nonNull(req.getStartDate()) && req.getStartDate().isAfter(today) ? req.getStartDate() : today;
+  }
+
+  private int getNumberOfDays(FreeSlotSearchRequest req) {
+    int numberOfDays = Objects.requireNonNullElse(req.getNumberOfDays(), 7);
+    return Math.min(Math.max(numberOfDays, 1), maxNumberOfDays);
+  }
+
+  /**
+   * The availability and booked sessions of a professional. An entry is never changed, it is replaced when the professional is
+   * reloaded.
+   */
+  private final class Entry {
+
+    private final Long memberId;
+    private final Long professionalId;
+    private final String professionalName;
+    private final ProfessionalType professionalType;
+    private final ProfessionalQualificationType qualificationType;
+    private final String languagesSpoken;
+    private final int[][] slotStartsByDay;
+    private final NavigableSet<LocalDateTime> bookedStarts;
+    private final long loadedAt;
+
+    private Entry(Professional professional, WeeklyAvailability availability, List<GetBookedSessionPeriod> bookedPeriods, long loadedAt) {
+      Member member = professional.getMember();
+      this.memberId = member.getId();
+      this.professionalId = professional.getId();
+      this.professionalName = getFullName(member.getFirstName(), member.getLastName());
+      this.professionalType = professional.getProfessionalType();
+      this.qualificationType = professional.getQualificationType();
+      this.languagesSpoken = Objects.toString(professional.getLanguagesSpoken(), "").toLowerCase();
+      this.slotStartsByDay = toSlotStartsByDay(availability);
+      this.bookedStarts = bookedPeriods
+        .stream()
+        .map(period -> LocalDateTime.of(period.getDate(), period.getTime()))
+        .collect(Collectors.toCollection(TreeSet::new));
+      this.loadedAt = loadedAt;
+    }
+
+    private boolean matches(FreeSlotSearchRequest req) {
+      return (isNull(req.getProfessionalType()) || req.getProfessionalType() == professionalType)
+        && (isNull(req.getQualificationType()) || req.getQualificationType() == qualificationType)
+        && (isNull(req.getLanguageSpoken()) || languagesSpoken.contains(req.getLanguageSpoken().trim().toLowerCase()));
+    }
+
+    private void addFreeSlots(LocalDate date, LocalDateTime now, List<FreeSessionSlotView> slots, ZoneId zone) {
+      for (int minuteOfDay : slotStartsByDay[date.getDayOfWeek().getValue() - 1]) {
+        LocalDateTime start = date.atStartOfDay().plusMinutes(minuteOfDay);
+        if (start.isAfter(now) && !isBooked(start)) {
+          slots.add(toFreeSlot(start, zone));
+        }
+      }
+    }
+
+    private FreeSessionSlotView toFreeSlot(LocalDateTime start, ZoneId zone) {
+      LocalDateTime requesterStart = start.atZone(sessionZone).withZoneSameInstant(zone).toLocalDateTime();
+      return FreeSessionSlotView.builder()
+        .professionalId(professionalId)
+        .professionalName(professionalName)
+        .startDate(requesterStart)
+        .endDate(requesterStart.plus(Duration.ofHours(getMaxMeetingSessionHourDuration())))
+        .timezone(zone.getId())
+        .build();
+    }
+
+    private boolean hasSlotStart(DayOfWeek dayOfWeek, int minuteOfDay) {
+      return Arrays.binarySearch(slotStartsByDay[dayOfWeek.getValue() - 1], minuteOfDay) >= 0;
+    }
+
+    private void forEachSlotStart(IntConsumer action) {
+      for (int day = 0; day < WeeklyAvailability.DAYS_IN_A_WEEK; day++) {
+        for (int minuteOfDay : slotStartsByDay[day]) {
+          action.accept(day * WeeklyAvailability.MINUTES_IN_A_DAY + minuteOfDay);
+        }
+      }
+    }
+
+    private boolean isBooked(LocalDateTime start) {
+      Duration sessionDuration = Duration.ofHours(getMaxMeetingSessionHourDuration());
+      LocalDateTime bookedStart = bookedStarts.higher(start.minus(sessionDuration));
+      return nonNull(bookedStart) && bookedStart.isBefore(start.plus(sessionDuration));
+    }
+
+    private int[][] toSlotStartsByDay(WeeklyAvailability availability) {
+      int sessionMinutes = getMaxMeetingSessionHourDuration() * 60;
+      List<List<Integer>> startsByDay = new ArrayList<>();
+      for (int day = 0; day < WeeklyAvailability.DAYS_IN_A_WEEK; day++) {
+        startsByDay.add(new ArrayList<>());
+      }
+
+      for (WeeklyAvailability.Period period : availability.toPeriods()) {
+        int start = period.getStartTime().toSecondOfDay() / 60;
+        int end = LocalTime.MAX.equals(period.getEndTime()) ? WeeklyAvailability.MINUTES_IN_A_DAY : period.getEndTime().toSecondOfDay() / 60;
+        // A session may start at any time the professional is available, as checked when it is booked
+        for (int minute = start; minute < end; minute += sessionMinutes) {
+          startsByDay.get(period.getDayOfWeek().ordinal()).add(minute);
+        }
+      }
+      return startsByDay
+        .stream()
+        .map(starts -> starts.stream().mapToInt(Integer::intValue).toArray())
+        .toArray(int[][]::new);
+    }
+  }
+}
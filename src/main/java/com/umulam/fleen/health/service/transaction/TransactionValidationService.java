@@ -1,10 +1,13 @@
 package com.umulam.fleen.health.service.transaction;
 
 import com.umulam.fleen.health.constant.authentication.PaymentGatewayType;
+import com.umulam.fleen.health.model.event.base.VerifiedWebhookEvent;
 import org.springframework.transaction.annotation.Transactional;
 
 public interface TransactionValidationService {
 
+  VerifiedWebhookEvent verify(PaymentGatewayType gateway, String eventType, String body);
+
   @Transactional
-  void validateAndCompleteTransaction(String body);
+  boolean complete(VerifiedWebhookEvent event);
 }
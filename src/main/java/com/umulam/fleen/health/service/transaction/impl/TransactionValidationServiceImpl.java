@@ -1,8 +1,5 @@
 package com.umulam.fleen.health.service.transaction.impl;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.umulam.fleen.health.constant.authentication.PaymentGatewayType;
 import com.umulam.fleen.health.constant.externalsystem.flutterwave.FlutterwaveWebhookEventType;
 import com.umulam.fleen.health.constant.externalsystem.paystack.PaystackWebhookEventType;
@@ -10,13 +7,11 @@ import com.umulam.fleen.health.constant.session.*;
 import com.umulam.fleen.health.event.CreateSessionMeetingEvent;
 import com.umulam.fleen.health.event.CreateSessionMeetingEvents;
 import com.umulam.fleen.health.model.domain.HealthSession;
-import com.umulam.fleen.health.model.domain.Member;
 import com.umulam.fleen.health.model.domain.transaction.SessionTransaction;
 import com.umulam.fleen.health.model.domain.transaction.WithdrawalTransaction;
 import com.umulam.fleen.health.model.event.base.InternalPaymentValidation;
+import com.umulam.fleen.health.model.event.base.VerifiedWebhookEvent;
 import com.umulam.fleen.health.model.event.base.WithdrawalTransferValidation;
-import com.umulam.fleen.health.model.event.flutterwave.base.FlutterwaveWebhookEvent;
-import com.umulam.fleen.health.model.event.paystack.base.PaystackWebhookEvent;
 import com.umulam.fleen.health.repository.jpa.HealthSessionJpaRepository;
 import com.umulam.fleen.health.repository.jpa.transaction.SessionTransactionJpaRepository;
 import com.umulam.fleen.health.repository.jpa.transaction.WithdrawalTransactionJpaRepository;
@@ -25,19 +20,18 @@ import com.umulam.fleen.health.service.EarningsService;
 import com.umulam.fleen.health.service.external.banking.FlutterwaveService;
 import com.umulam.fleen.health.service.external.banking.PaystackService;
 import com.umulam.fleen.health.service.impl.FleenHealthEventService;
+import com.umulam.fleen.health.service.impl.SessionMeetingService;
+import com.umulam.fleen.health.service.session.impl.HealthSessionHoldService;
 import com.umulam.fleen.health.service.transaction.TransactionValidationService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.umulam.fleen.health.constant.session.TransactionStatus.SUCCESS;
-import static com.umulam.fleen.health.service.session.impl.HealthSessionServiceImpl.getMaxMeetingSessionHourDuration;
-import static com.umulam.fleen.health.util.StringUtil.getFullName;
 
 @Slf4j
 @Service
@@ -47,69 +41,132 @@ public class TransactionValidationServiceImpl implements TransactionValidationSe
   private final SessionTransactionJpaRepository sessionTransactionJpaRepository;
   private final WithdrawalTransactionJpaRepository withdrawalTransactionJpaRepository;
   private final FleenHealthEventService eventService;
-  private final ObjectMapper mapper;
+  private final SessionMeetingService sessionMeetingService;
   private final BankingService bankingService;
   private final FlutterwaveService flutterwaveService;
   private final PaystackService paystackService;
   private final EarningsService earningsService;
+  private final HealthSessionHoldService holdService;
 
   public TransactionValidationServiceImpl(
                         HealthSessionJpaRepository healthSessionRepository,
                         SessionTransactionJpaRepository sessionTransactionJpaRepository,
                         WithdrawalTransactionJpaRepository withdrawalTransactionJpaRepository,
                         FleenHealthEventService eventService,
-                        ObjectMapper mapper,
+                        SessionMeetingService sessionMeetingService,
                         BankingService bankingService,
                         FlutterwaveService flutterwaveService,
                         PaystackService paystackService,
-                        EarningsService earningsService) {
+                        EarningsService earningsService,
+                        HealthSessionHoldService holdService) {
     this.healthSessionRepository = healthSessionRepository;
     this.sessionTransactionJpaRepository = sessionTransactionJpaRepository;
     this.withdrawalTransactionJpaRepository = withdrawalTransactionJpaRepository;
     this.eventService = eventService;
-    this.mapper = mapper;
+    this.sessionMeetingService = sessionMeetingService;
     this.bankingService = bankingService;
     this.flutterwaveService = flutterwaveService;
     this.paystackService = paystackService;
     this.earningsService = earningsService;
+    this.holdService = holdService;
   }
 
+  /**
+   * <p>Read a webhook event into the payload type of its gateway and event type and, for a charge, confirm its status with the
+   * gateway. No transaction is needed, so no connection or lock is held while the gateway answers.</p>
+   * <br/>
+   *
+   * @param gateway the payment gateway that sent the event
+   * @param eventType the type of the event
+   * @param body the event as it was received
+   * @return the event, with neither a payment nor a transfer if events of its type are not handled
+   */
   @Override
-  @Transactional
-  public void validateAndCompleteTransaction(String body) {
-    PaymentGatewayType paymentGatewayType;
-    try {
-      PaystackWebhookEvent paystackEvent = mapper.readValue(body, PaystackWebhookEvent.class);
-      if (Objects.equals(paystackEvent.getEvent(), PaystackWebhookEventType.CHARGE_SUCCESS.getValue())) {
-        paymentGatewayType = PaymentGatewayType.PAYSTACK;
-        validateAndCompleteSessionTransaction(bankingService.getInternalPaymentValidationByChargeEvent(body, paymentGatewayType), paymentGatewayType);
-      } else if (Objects.equals(paystackEvent.getEvent(), PaystackWebhookEventType.TRANSFER_SUCCESS.getValue()) ||
-          Objects.equals(paystackEvent.getEvent(), PaystackWebhookEventType.TRANSFER_FAILED.getValue()) ||
-          Objects.equals(paystackEvent.getEvent(), PaystackWebhookEventType.TRANSFER_REVERSED.getValue())) {
-        paymentGatewayType = PaymentGatewayType.PAYSTACK;
-        validateAndCompleteWithdrawalTransaction(bankingService.getWithdrawalTransferValidationByTransferEvent(body, paymentGatewayType));
+  public VerifiedWebhookEvent verify(PaymentGatewayType gateway, String eventType, String body) {
+    VerifiedWebhookEvent verifiedEvent = VerifiedWebhookEvent.builder().gateway(gateway).build();
+    if (isChargeEvent(gateway, eventType)) {
+      InternalPaymentValidation event = bankingService.getInternalPaymentValidationByChargeEvent(body, gateway);
+      if (Objects.isNull(event)) {
+        throw new IllegalArgumentException(String.format("Unreadable %s %s event", gateway, eventType));
       }
-
-      FlutterwaveWebhookEvent flutterwaveEvent = mapper.readValue(body, FlutterwaveWebhookEvent.class);
-      if (Objects.equals(flutterwaveEvent.getEvent(), FlutterwaveWebhookEventType.CHARGE_COMPLETED.getValue())) {
-        paymentGatewayType = PaymentGatewayType.FLUTTERWAVE;
-        validateAndCompleteSessionTransaction(bankingService.getInternalPaymentValidationByChargeEvent(body, paymentGatewayType), paymentGatewayType);
-      } else if (Objects.equals(flutterwaveEvent.getEvent(), FlutterwaveWebhookEventType.TRANSFER_COMPLETED.getValue())) {
-        paymentGatewayType = PaymentGatewayType.FLUTTERWAVE;
-        validateAndCompleteWithdrawalTransaction(bankingService.getWithdrawalTransferValidationByTransferEvent(body, paymentGatewayType));
+      verifiedEvent.setPayment(event);
+      verifiedEvent.setPaymentSuccessful(verifyTransactionSuccessStatus(event.getStatus(), event.getTransactionReference(), gateway));
+    } else if (isTransferEvent(gateway, eventType)) {
+      WithdrawalTransferValidation event = bankingService.getWithdrawalTransferValidationByTransferEvent(body, gateway);
+      if (Objects.isNull(event)) {
+        throw new IllegalArgumentException(String.format("Unreadable %s %s event", gateway, eventType));
       }
-    } catch (JsonProcessingException ex) {
-      log.error(ex.getMessage(), ex);
+      verifiedEvent.setTransfer(event);
+    }
+    return verifiedEvent;
+  }
+
+  /**
+   * <p>Complete the payment or withdrawal a verified webhook event is about.</p>
+   * <br/>
+   *
+   * @param event the event, as returned by {@link #verify(PaymentGatewayType, String, String)}
+   * @return true if the event was processed, false if events of its type are not handled
+   */
+  @Override
+  @Transactional
+  public boolean complete(VerifiedWebhookEvent event) {
+    if (Objects.nonNull(event.getPayment())) {
+      validateAndCompleteSessionTransaction(event.getPayment(), event.isPaymentSuccessful());
+      return true;
+    }
+
+    if (Objects.nonNull(event.getTransfer())) {
+      validateAndCompleteWithdrawalTransaction(event.getTransfer());
+      return true;
+    }
+    return false;
+  }
+
+  private static boolean isChargeEvent(PaymentGatewayType gateway, String eventType) {
+    if (gateway == PaymentGatewayType.PAYSTACK) {
+      return PaystackWebhookEventType.CHARGE_SUCCESS.getValue().equals(eventType);
+    }
+    return FlutterwaveWebhookEventType.CHARGE_COMPLETED.getValue().equals(eventType);
+  }
+
+  private static boolean isTransferEvent(PaymentGatewayType gateway, String eventType) {
+    if (gateway == PaymentGatewayType.PAYSTACK) {
+      return PaystackWebhookEventType.TRANSFER_SUCCESS.getValue().equals(eventType)
+        || PaystackWebhookEventType.TRANSFER_FAILED.getValue().equals(eventType)
+        || PaystackWebhookEventType.TRANSFER_REVERSED.getValue().equals(eventType);
     }
+    return FlutterwaveWebhookEventType.TRANSFER_COMPLETED.getValue().equals(eventType);
   }
 
-  private void validateAndCompleteSessionTransaction(InternalPaymentValidation event, PaymentGatewayType paymentGatewayType) {
-    List<SessionTransaction> transactions = sessionTransactionJpaRepository.findByGroupReference(event.getTransactionReference());
+  private void validateAndCompleteSessionTransaction(InternalPaymentValidation event, boolean successful) {
+    // Locked until the transaction completes so that the booking is not released by an expiring hold at the same time
+    List<SessionTransaction> transactions = sessionTransactionJpaRepository.lockByGroupReference(event.getTransactionReference());
     List<SessionTransaction> updatedTransactions = new ArrayList<>();
 
-    if (verifyTransactionSuccessStatus(event.getStatus(), event.getTransactionReference(), paymentGatewayType)) {
+    if (successful) {
       if (transactions != null && !transactions.isEmpty()) {
+        if (!holdService.restoreExpiredHold(transactions)) {
+          log.error("Payment {} was confirmed after its booking expired and a period of the booking was booked again", event.getTransactionReference());
+          for (SessionTransaction transaction : transactions) {
+            transaction.setExternalSystemReference(event.getExternalSystemTransactionReference());
+            transaction.setCurrency(event.getCurrency());
+          }
+          sessionTransactionJpaRepository.saveAll(transactions);
+          return;
+        }
+
         List<CreateSessionMeetingEvent> meetingEvents = new ArrayList<>();
+        Set<String> sessionReferences = transactions
+          .stream()
+          .filter(transaction -> transaction.getStatus() != SUCCESS)
+          .map(SessionTransaction::getSessionReference)
+          .collect(Collectors.toSet());
+        Map<String, HealthSession> healthSessions = sessionReferences.isEmpty()
+          ? Map.of()
+          : healthSessionRepository.findByReferenceIn(sessionReferences)
+            .stream()
+            .collect(Collectors.toMap(HealthSession::getReference, Function.identity()));
 
         for (SessionTransaction transaction : transactions) {
           if (transaction.getStatus() != SUCCESS) {
@@ -117,40 +174,12 @@ public class TransactionValidationServiceImpl implements TransactionValidationSe
             transaction.setExternalSystemReference(event.getExternalSystemTransactionReference());
             transaction.setCurrency(event.getCurrency());
 
-            Optional<HealthSession> healthSessionExist = healthSessionRepository.findByReference(transaction.getSessionReference());
-            if (healthSessionExist.isPresent()) {
-              HealthSession healthSession = healthSessionExist.get();
+            HealthSession healthSession = healthSessions.get(transaction.getSessionReference());
+            if (Objects.nonNull(healthSession)) {
 
               if (healthSession.getStatus() != HealthSessionStatus.SCHEDULED && healthSession.getStatus() != HealthSessionStatus.RESCHEDULED) {
-                LocalDate meetingDate = healthSession.getDate();
-                LocalTime meetingTime = healthSession.getTime();
-
-                LocalDateTime meetingStartDateTime = LocalDateTime.of(meetingDate, meetingTime);
-                LocalDateTime meetingEndDateTime = meetingStartDateTime.plusHours(getMaxMeetingSessionHourDuration());
-
-                Member patient = healthSession.getPatient();
-                Member professional = healthSession.getProfessional();
-                String patientEmail = patient.getEmailAddress();
-                String professionalEmail = professional.getEmailAddress();
-                String patientName = getFullName(patient.getFirstName(), patient.getLastName());
-                String professionalName = getFullName(professional.getFirstName(), professional.getLastName());
-
-                CreateSessionMeetingEvent meetingEvent = CreateSessionMeetingEvent.builder()
-                  .startDate(meetingStartDateTime)
-                  .endDate(meetingEndDateTime)
-                  .attendees(List.of(patientEmail, professionalEmail))
-                  .timezone(healthSession.getTimezone())
-                  .sessionReference(healthSession.getReference())
-                  .patientName(patientName)
-                  .professionalName(professionalName)
-                  .build();
-
-                CreateSessionMeetingEvent.CreateSessionMeetingEventMetadata eventMetadata = CreateSessionMeetingEvent.CreateSessionMeetingEventMetadata.builder()
-                  .sessionReference(healthSession.getReference())
-                  .build();
-                meetingEvent.setMetadata(getCreateSessionMeetingEventMetadata(eventMetadata));
-                meetingEvents.add(meetingEvent);
-               }
+                meetingEvents.add(sessionMeetingService.toCreateMeetingEvent(healthSession));
+              }
               updatedTransactions.add(transaction);
             }
           }
@@ -177,6 +206,7 @@ public class TransactionValidationServiceImpl implements TransactionValidationSe
     Optional<WithdrawalTransaction> transactionExist = withdrawalTransactionJpaRepository.findByReference(event.getReference());
     if (transactionExist.isPresent()) {
       WithdrawalTransaction transaction = transactionExist.get();
+      boolean alreadyReversed = transaction.getStatus() == TransactionStatus.FAILED || transaction.getStatus() == TransactionStatus.REVERSED;
       transaction.setExternalSystemReference(event.getExternalTransferReferenceOrCode());
       transaction.setCurrency(event.getCurrency().toUpperCase());
       transaction.setBankName(event.getBankName());
@@ -200,7 +230,8 @@ public class TransactionValidationServiceImpl implements TransactionValidationSe
           transaction.setWithdrawalStatus(WithdrawalStatus.REVERSED);
         }
 
-        if (transaction.getType() == TransactionType.EARNINGS_WITHDRAWAL) {
+        // A replayed event must not give the earnings back twice
+        if (transaction.getType() == TransactionType.EARNINGS_WITHDRAWAL && !alreadyReversed) {
           earningsService.reverseTransactionAndUpdateEarnings(transaction);
         }
       }
@@ -208,10 +239,6 @@ public class TransactionValidationServiceImpl implements TransactionValidationSe
     }
   }
 
-  private Map<String, String> getCreateSessionMeetingEventMetadata(CreateSessionMeetingEvent.CreateSessionMeetingEventMetadata metadata) {
-    return mapper.convertValue(metadata, new TypeReference<>() {});
-  }
-
   private boolean verifyTransactionSuccessStatus(String status, String transactionReference, PaymentGatewayType paymentGatewayType) {
     boolean successful = false;
     String actualStatus = "";
@@ -0,0 +1,327 @@
+package com.umulam.fleen.health.service.transaction.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import com.umulam.fleen.health.constant.authentication.PaymentGatewayType;
+import com.umulam.fleen.health.constant.externalsystem.WebhookEventStatus;
+import com.umulam.fleen.health.model.domain.WebhookEvent;
+import com.umulam.fleen.health.model.event.base.VerifiedWebhookEvent;
+import com.umulam.fleen.health.repository.jpa.WebhookEventJpaRepository;
+import com.umulam.fleen.health.service.transaction.TransactionValidationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * WebhookInboxService stores the webhook events of the payment gateways as soon as they are received and processes them in the
+ * background, so a gateway is answered without waiting for the payment to be completed and an event is not lost if the node
+ * stops before it has been processed.
+ *
+ * <p>An event is identified by its type and the ID of the charge or transfer it is about, which are read with a single pass over
+ * the payload without building a tree. An event that has already been received from the same gateway is not stored again, so
+ * deliveries repeated by a gateway are not processed twice. Events are claimed in batches with row locks that other nodes skip,
+ * and are then processed one at a time so that an event that fails does not hold back the rest of its batch. An event that fails
+ * is tried again later, up to a number of attempts, and an event whose node stopped while processing it is claimed again once its
+ * processing timeout has passed.</p>
+ *
+ * <p>Every claim writes a new claim token. An event is first verified with its gateway, outside of any transaction, and is then
+ * completed in a transaction that locks its row by the token it was claimed with, so a node that claims events again skips the
+ * row while it is being completed. The verification is bounded by the deadline and retries of the gateway client, and a gateway
+ * that keeps failing is cut off by its circuit breaker, so it ends well within the processing timeout. A node whose verification
+ * outlived the timeout, whose claim was taken over before it started, or whose failure is recorded after another node claimed the
+ * event, finds another token and leaves the event to the node that holds it, which has verified the event again.</p>
+ * <br/>
+ */
+@Slf4j
+@Service
+public class WebhookInboxService implements DisposableBean {
+
+  private static final String EXECUTOR_NAME = "webhook-inbox";
+  private static final String EVENT_FIELD = "event";
+  private static final String DATA_FIELD = "data";
+  private static final String ID_FIELD = "id";
+  private static final String EVENT_ID_SEPARATOR = ":";
+  private static final int MAX_ERROR_LENGTH = 1000;
+  private static final Set<WebhookEventStatus> CLAIMABLE_STATUSES = EnumSet.of(WebhookEventStatus.RECEIVED, WebhookEventStatus.PROCESSING);
+
+  private final WebhookEventJpaRepository repository;
+  private final TransactionValidationService transactionValidationService;
+  private final JsonFactory jsonFactory;
+  private final TransactionTemplate transactionTemplate;
+  private final ScheduledExecutorService executor;
+  private final AtomicBoolean drainScheduled = new AtomicBoolean();
+  private final long pollMillis;
+  private final int batchSize;
+  private final int maxAttempts;
+  private final long processingTimeoutSeconds;
+  private final long retrySeconds;
+
+  public WebhookInboxService(WebhookEventJpaRepository repository,
+                             TransactionValidationService transactionValidationService,
+                             ObjectMapper mapper,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${fleen.health.webhook.poll-seconds:5}") long pollSeconds,
+                             @Value("${fleen.health.webhook.batch-size:50}") int batchSize,
+                             @Value("${fleen.health.webhook.max-attempts:8}") int maxAttempts,
+                             @Value("${fleen.health.webhook.processing-timeout-seconds:300}") long processingTimeoutSeconds,
+                             @Value("${fleen.health.webhook.retry-seconds:30}") long retrySeconds) {
+    this.repository = repository;
+    this.transactionValidationService = transactionValidationService;
+    this.jsonFactory = mapper.getFactory();
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.pollMillis = TimeUnit.SECONDS.toMillis(pollSeconds);
+    this.batchSize = Math.max(batchSize, 1);
+    this.maxAttempts = Math.max(maxAttempts, 1);
+    this.processingTimeoutSeconds = processingTimeoutSeconds;
+    this.retrySeconds = retrySeconds;
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, EXECUTOR_NAME);
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    try {
+      transactionTemplate.executeWithoutResult(status -> repository.createGatewayEventIndex());
+    } catch (RuntimeException ex) {
+      log.error(ex.getMessage(), ex);
+    }
+    executor.scheduleWithFixedDelay(this::processAvailableEvents, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * <p>Store a webhook event to be processed in the background. The event is stored before the gateway is answered, so a failure
+   * to store it is returned to the gateway, which delivers the event again.</p>
+   * <br/>
+   *
+   * @param gateway the payment gateway that sent the event
+   * @param body the event as it was received
+   */
+  public void receive(PaymentGatewayType gateway, String body) {
+    EventHeader header = readHeader(body);
+    if (isNull(header)) {
+      log.error("Webhook event from {} is not a JSON object and has been dropped", gateway);
+      return;
+    }
+
+    if (repository.insertIfAbsent(gateway.name(), header.getEventId(), header.getEventType(), body) == 0) {
+      log.info("Webhook event {} from {} has already been received", header.getEventId(), gateway);
+      return;
+    }
+    scheduleDrain();
+  }
+
+  /**
+   * <p>Process events again, for example after fixing the cause of their failure.</p>
+   * <br/>
+   *
+   * @param ids the IDs of the events
+   * @return the number of events that will be processed again
+   */
+  public int replay(Collection<Long> ids) {
+    int count = ids.isEmpty() ? 0 : repository.requeueByIds(ids, WebhookEventStatus.RECEIVED, LocalDateTime.now());
+    scheduleDrain();
+    return count;
+  }
+
+  /**
+   * <p>Process again the events with a status that were received within a period.</p>
+   * <br/>
+   *
+   * @param status the status of the events, like {@link WebhookEventStatus#FAILED}
+   * @param from the start of the period
+   * @param to the end of the period, not included
+   * @return the number of events that will be processed again
+   */
+  public int replay(WebhookEventStatus status, LocalDateTime from, LocalDateTime to) {
+    int count = repository.requeueByStatus(status, from, to, WebhookEventStatus.RECEIVED, LocalDateTime.now());
+    scheduleDrain();
+    return count;
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  private void scheduleDrain() {
+    if (drainScheduled.compareAndSet(false, true)) {
+      try {
+        executor.execute(() -> {
+          drainScheduled.set(false);
+          processAvailableEvents();
+        });
+      } catch (RuntimeException ex) {
+        drainScheduled.set(false);
+        log.error(ex.getMessage(), ex);
+      }
+    }
+  }
+
+  private void processAvailableEvents() {
+    try {
+      List<WebhookEvent> events;
+      do {
+        List<WebhookEvent> claimedEvents = transactionTemplate.execute(status -> claimEvents());
+        events = isNull(claimedEvents) ? List.of() : claimedEvents;
+        for (WebhookEvent event : events) {
+          process(event);
+        }
+      } while (events.size() == batchSize);
+    } catch (RuntimeException ex) {
+      log.error(ex.getMessage(), ex);
+    }
+  }
+
+  private List<WebhookEvent> claimEvents() {
+    LocalDateTime now = LocalDateTime.now();
+    List<WebhookEvent> events = repository.lockAvailableSkipLocked(CLAIMABLE_STATUSES, now, PageRequest.of(0, batchSize));
+    for (WebhookEvent event : events) {
+      event.setStatus(WebhookEventStatus.PROCESSING);
+      event.setAttempts(event.getAttempts() + 1);
+      event.setAvailableOn(now.plusSeconds(processingTimeoutSeconds));
+      event.setClaimToken(UUID.randomUUID().toString());
+    }
+    return repository.saveAll(events);
+  }
+
+  private void process(WebhookEvent event) {
+    try {
+      // The gateway is called before the event is locked, so that neither the row nor a connection is held while it answers
+      VerifiedWebhookEvent verifiedEvent = transactionValidationService.verify(event.getGateway(), event.getEventType(), event.getPayload());
+      transactionTemplate.executeWithoutResult(status -> {
+        Optional<WebhookEvent> claimedEvent = repository.lockClaimed(event.getId(), event.getClaimToken(), WebhookEventStatus.PROCESSING);
+        if (claimedEvent.isEmpty()) {
+          log.warn("Webhook event {} has been claimed by another node and is left to it", event.getId());
+          return;
+        }
+
+        WebhookEvent lockedEvent = claimedEvent.get();
+        boolean processed = transactionValidationService.complete(verifiedEvent);
+        lockedEvent.setStatus(processed ? WebhookEventStatus.PROCESSED : WebhookEventStatus.IGNORED);
+        lockedEvent.setProcessedOn(LocalDateTime.now());
+        lockedEvent.setLastError(null);
+        lockedEvent.setClaimToken(null);
+        repository.save(lockedEvent);
+      });
+    } catch (RuntimeException ex) {
+      log.error("Webhook event {} could not be processed", event.getId(), ex);
+      try {
+        transactionTemplate.executeWithoutResult(status -> {
+          boolean exhausted = event.getAttempts() >= maxAttempts;
+          int released = repository.releaseClaim(event.getId(), event.getClaimToken(),
+            exhausted ? WebhookEventStatus.FAILED : WebhookEventStatus.RECEIVED,
+            LocalDateTime.now().plusSeconds(retrySeconds * event.getAttempts()),
+            getError(ex));
+          if (released == 0) {
+            log.warn("Webhook event {} has been claimed by another node, its failure is not recorded", event.getId());
+          }
+        });
+      } catch (RuntimeException updateEx) {
+        // The event is claimed again once its processing timeout has passed
+        log.error(updateEx.getMessage(), updateEx);
+      }
+    }
+  }
+
+  /**
+   * Read the type of an event and the ID of the charge or transfer in its data, skipping every other value, and identify the event
+   * by both. An event without a data ID is identified by a hash of its payload.
+   */
+  private EventHeader readHeader(String body) {
+    String eventType = null;
+    String dataId = null;
+    try (JsonParser parser = jsonFactory.createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return null;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME && (isNull(eventType) || isNull(dataId))) {
+        String field = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if (EVENT_FIELD.equals(field) && token == JsonToken.VALUE_STRING) {
+          eventType = parser.getText();
+        } else if (DATA_FIELD.equals(field) && token == JsonToken.START_OBJECT) {
+          dataId = readId(parser);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    } catch (IOException ex) {
+      log.error(ex.getMessage(), ex);
+      return null;
+    }
+
+    String eventId = nonNull(dataId) ? eventType + EVENT_ID_SEPARATOR + dataId : hash(body);
+    return new EventHeader(eventType, eventId);
+  }
+
+  private static String readId(JsonParser parser) throws IOException {
+    String id = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if (ID_FIELD.equals(field) && token.isScalarValue()) {
+        id = parser.getText();
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return id;
+  }
+
+  private static String hash(String body) {
+    return Hashing.sha256().hashString(body, StandardCharsets.UTF_8).toString();
+  }
+
+  private static String getError(Exception ex) {
+    String error = String.valueOf(ex.getMessage());
+    return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+  }
+
+  private static final class EventHeader {
+
+    private final String eventType;
+    private final String eventId;
+
+    private EventHeader(String eventType, String eventId) {
+      this.eventType = eventType;
+      this.eventId = eventId;
+    }
+
+    private String getEventType() {
+      return eventType;
+    }
+
+    private String getEventId() {
+      return eventId;
+    }
+  }
+}
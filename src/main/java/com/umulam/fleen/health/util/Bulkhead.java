@@ -0,0 +1,66 @@
+package com.umulam.fleen.health.util;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulkhead limits how many calls to an external system run at the same time so that a slow system only holds a bounded number of
+ * request threads and the other requests keep their latency. A call that finds every permit taken waits for one no longer than the
+ * configured time, in the order it arrived, and is rejected after that.
+ *
+ * <pre>
+ *   if (!bulkhead.tryAcquire()) {
+ *     return fallback();
+ *   }
+ *   try {
+ *     return call();
+ *   } finally {
+ *     bulkhead.release();
+ *   }
+ * </pre>
+ */
+public class Bulkhead {
+
+  private final String name;
+  private final int maxConcurrentCalls;
+  private final long maxWaitNanos;
+  private final Semaphore permits;
+
+  public Bulkhead(String name, int maxConcurrentCalls, Duration maxWait) {
+    this.name = name;
+    this.maxConcurrentCalls = Math.max(1, maxConcurrentCalls);
+    this.maxWaitNanos = maxWait.toNanos();
+    this.permits = new Semaphore(this.maxConcurrentCalls, true);
+  }
+
+  /**
+   * Take a permit, waiting for one no longer than the configured time.
+   *
+   * @return true if the call may be made, in which case {@link #release()} must be called once it completes
+   */
+  public boolean tryAcquire() {
+    try {
+      return maxWaitNanos > 0 ? permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS) : permits.tryAcquire();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  public void release() {
+    permits.release();
+  }
+
+  public int getAvailablePermits() {
+    return permits.availablePermits();
+  }
+
+  public int getMaxConcurrentCalls() {
+    return maxConcurrentCalls;
+  }
+
+  public String getName() {
+    return name;
+  }
+}
@@ -0,0 +1,257 @@
+package com.umulam.fleen.health.util;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * CircuitBreaker stops calls to an external system when too many of its recent calls failed or were slow so that requests fail
+ * fast instead of waiting on a system that is already known to be failing. After the open period a number of trial calls are
+ * allowed through, and the breaker closes again if they all succeed or stays open for another period if one of them fails.
+ *
+ * <p>The outcome of the last calls is kept in a window of a fixed size. The breaker opens once the window holds at least the
+ * minimum number of calls and the share of failed calls or of slow calls reaches its threshold.</p>
+ *
+ * <p>A trial call whose outcome is never recorded, because its caller was stopped, would keep the breaker half open for good. The
+ * breaker opens again when the trial calls have not all been recorded within the trial timeout, which is the open period unless
+ * it is set.</p>
+ *
+ * <pre>
+ *   if (!circuitBreaker.tryAcquire()) {
+ *     return fallback();
+ *   }
+ *   long startedAt = System.nanoTime();
+ *   try {
+ *     Object result = call();
+ *     circuitBreaker.onSuccess(System.nanoTime() - startedAt);
+ *     return result;
+ *   } catch (Exception ex) {
+ *     circuitBreaker.onFailure();
+ *     throw ex;
+ *   }
+ * </pre>
+ */
+@Slf4j
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private static final byte FAILED = 1;
+  private static final byte SLOW = 2;
+
+  private final String name;
+  private final Settings settings;
+  private final Clock clock;
+  private final byte[] window;
+  private State state = State.CLOSED;
+  private int windowIndex;
+  private int windowCount;
+  private int failedCalls;
+  private int slowCalls;
+  private int trialPermits;
+  private int trialSuccesses;
+  private long openedAt;
+  private long halfOpenedAt;
+
+  /**
+   * Create a breaker that opens after a number of consecutive failures, which is a window of that many calls that all failed.
+   */
+  public CircuitBreaker(String name, int failureThreshold, Duration openDuration) {
+    this(name, Settings.builder()
+      .windowSize(failureThreshold)
+      .minimumCalls(failureThreshold)
+      .failureRateThreshold(100)
+      .openDuration(openDuration)
+      .trialCalls(1)
+      .build());
+  }
+
+  public CircuitBreaker(String name, Settings settings) {
+    this(name, settings, Clock.systemUTC());
+  }
+
+  public CircuitBreaker(String name, Settings settings, Clock clock) {
+    this.name = name;
+    this.settings = settings;
+    this.clock = clock;
+    this.window = new byte[Math.max(1, settings.getWindowSize())];
+  }
+
+  /**
+   * Check if a call may be made. While the breaker is open no call is allowed until the open period has passed, after which the
+   * configured number of trial calls are allowed.
+   *
+   * @return true if the call may be made
+   */
+  public synchronized boolean tryAcquire() {
+    switch (state) {
+      case OPEN:
+        if (clock.millis() - openedAt < settings.getOpenDuration().toMillis()) {
+          return false;
+        }
+        state = State.HALF_OPEN;
+        trialPermits = getTrialCalls();
+        trialSuccesses = 0;
+        halfOpenedAt = clock.millis();
+        return tryAcquireTrialPermit();
+      case HALF_OPEN:
+        if (clock.millis() - halfOpenedAt >= getTrialTimeout().toMillis()) {
+          open("trial calls that were not recorded in time");
+          return false;
+        }
+        return tryAcquireTrialPermit();
+      default:
+        return true;
+    }
+  }
+
+  public void onSuccess() {
+    onSuccess(0);
+  }
+
+  /**
+   * Record a call that succeeded, which is counted as slow if it took longer than the slow call threshold.
+   *
+   * @param durationNanos the time the call took
+   */
+  public synchronized void onSuccess(long durationNanos) {
+    boolean slow = nonNull(settings.getSlowCallDuration()) && durationNanos >= settings.getSlowCallDuration().toNanos();
+    if (state == State.HALF_OPEN) {
+      if (slow) {
+        open("a slow trial call");
+      } else if (++trialSuccesses >= getTrialCalls()) {
+        log.info("Circuit breaker {} closed", name);
+        state = State.CLOSED;
+        clearWindow();
+      }
+    } else if (state == State.CLOSED) {
+      record(slow ? SLOW : 0);
+    }
+  }
+
+  /**
+   * Give back a permit whose call was abandoned before it completed, without recording an outcome. A trial permit can then be taken
+   * by another call.
+   */
+  public synchronized void release() {
+    if (state == State.HALF_OPEN && trialPermits + trialSuccesses < getTrialCalls()) {
+      trialPermits++;
+    }
+  }
+
+  public synchronized void onFailure() {
+    if (state == State.HALF_OPEN) {
+      open("a failed trial call");
+    } else if (state == State.CLOSED) {
+      record(FAILED);
+    }
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  /**
+   * @return the percentage of failed calls in the window, or -1 if it does not hold the minimum number of calls yet
+   */
+  public synchronized float getFailureRate() {
+    return getRate(failedCalls);
+  }
+
+  /**
+   * @return the percentage of slow calls in the window, or -1 if it does not hold the minimum number of calls yet
+   */
+  public synchronized float getSlowCallRate() {
+    return getRate(slowCalls);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  private boolean tryAcquireTrialPermit() {
+    if (trialPermits > 0) {
+      trialPermits--;
+      return true;
+    }
+    // The trial calls are already running
+    return false;
+  }
+
+  private void record(byte outcome) {
+    if (windowCount == window.length) {
+      byte oldest = window[windowIndex];
+      failedCalls -= oldest & FAILED;
+      slowCalls -= (oldest & SLOW) >> 1;
+    } else {
+      windowCount++;
+    }
+    window[windowIndex] = outcome;
+    failedCalls += outcome & FAILED;
+    slowCalls += (outcome & SLOW) >> 1;
+    windowIndex = (windowIndex + 1) % window.length;
+
+    float failureRate = getRate(failedCalls);
+    float slowCallRate = getRate(slowCalls);
+    if (failureRate >= settings.getFailureRateThreshold()) {
+      open(String.format("%.0f%% of %d call(s) failed", failureRate, windowCount));
+    } else if (settings.getSlowCallRateThreshold() > 0 && slowCallRate >= settings.getSlowCallRateThreshold()) {
+      open(String.format("%.0f%% of %d call(s) were slow", slowCallRate, windowCount));
+    }
+  }
+
+  private void open(String reason) {
+    log.warn("Circuit breaker {} opened after {}", name, reason);
+    state = State.OPEN;
+    openedAt = clock.millis();
+    clearWindow();
+  }
+
+  private void clearWindow() {
+    Arrays.fill(window, (byte) 0);
+    windowIndex = 0;
+    windowCount = 0;
+    failedCalls = 0;
+    slowCalls = 0;
+  }
+
+  private float getRate(int calls) {
+    if (windowCount == 0 || windowCount < settings.getMinimumCalls()) {
+      return -1;
+    }
+    return calls * 100F / windowCount;
+  }
+
+  private int getTrialCalls() {
+    return Math.max(1, settings.getTrialCalls());
+  }
+
+  private Duration getTrialTimeout() {
+    return nonNull(settings.getTrialTimeout()) ? settings.getTrialTimeout() : settings.getOpenDuration();
+  }
+
+  /**
+   * The thresholds of a breaker. A slow call duration or slow call rate threshold that is not set leaves slow calls out.
+   */
+  @Getter
+  @Builder
+  public static class Settings {
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final float failureRateThreshold;
+    private final Duration slowCallDuration;
+    private final float slowCallRateThreshold;
+    private final Duration openDuration;
+    private final int trialCalls;
+    private final Duration trialTimeout;
+  }
+}
@@ -17,11 +17,11 @@ public class FleenHealthReferenceGenerator {
   }
 
   public String generateSessionReference() {
-    return REFERENCE_PREFIX.concat(referenceGenerator.generateUniqueReference());
+    return REFERENCE_PREFIX.concat(referenceGenerator.generateUniqueReferenceLong());
   }
 
   public String generateTransactionReference() {
-    return TRANSACTION_REFERENCE_PREFIX.concat(referenceGenerator.generateUniqueReference());
+    return TRANSACTION_REFERENCE_PREFIX.concat(referenceGenerator.generateUniqueReferenceLong());
   }
 
   public String generateGroupTransactionReference() {
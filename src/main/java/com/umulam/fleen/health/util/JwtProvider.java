@@ -4,7 +4,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.umulam.fleen.health.constant.authentication.AuthenticationStatus;
 import com.umulam.fleen.health.constant.authentication.TokenType;
 import com.umulam.fleen.health.model.dto.authentication.JwtTokenDetails;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.umulam.fleen.health.model.security.FleenUser;
+import com.umulam.fleen.health.model.security.VerifiedToken;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -17,10 +20,11 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import java.util.Collection;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import static com.umulam.fleen.health.constant.base.GeneralConstant.*;
@@ -34,7 +38,10 @@ import static com.umulam.fleen.health.util.FleenAuthorities.getResetPasswordAuth
 @PropertySource("classpath:application.properties")
 public class JwtProvider {
 
+  private static final String TOKEN_DIGEST_ALGORITHM = "SHA-256";
+
   private final ObjectMapper mapper;
+  private final Cache<String, VerifiedToken> verifiedTokens;
 
   @Value("${fleen.health.jwt.issuer}")
   public String JWT_ISSUER;
@@ -42,8 +49,59 @@ public class JwtProvider {
   @Value("${fleen.health.jwt.secret}")
   public String JWT_SECRET;
 
-  public JwtProvider(ObjectMapper objectMapper) {
+  public JwtProvider(ObjectMapper objectMapper,
+                     @Value("${fleen.health.jwt.verified-token-cache.max-size:10000}") long verifiedTokenCacheMaxSize,
+                     @Value("${fleen.health.jwt.verified-token-cache.ttl-seconds:300}") long verifiedTokenCacheTtlSeconds) {
     this.mapper = objectMapper;
+    this.verifiedTokens = CacheBuilder.newBuilder()
+            .maximumSize(verifiedTokenCacheMaxSize)
+            .expireAfterWrite(verifiedTokenCacheTtlSeconds, TimeUnit.SECONDS)
+            .build();
+  }
+
+  /**
+   * Parse the token and verify its signature once, returning the claims as a {@link VerifiedToken}. Tokens that have been
+   * verified recently are kept in a bounded local cache keyed by a digest of the token so that repeated requests carrying
+   * the same bearer token do not parse or verify it again. A cached token that has expired is removed and parsed again so that
+   * the usual {@link io.jsonwebtoken.ExpiredJwtException} is raised to the caller.
+   *
+   * @param token the bearer token sent with the request
+   * @return {@link VerifiedToken} the verified claims of the token
+   */
+  public VerifiedToken verifyToken(String token) {
+    String key = digest(token);
+    VerifiedToken verifiedToken = verifiedTokens.getIfPresent(key);
+    if (Objects.nonNull(verifiedToken)) {
+      if (!verifiedToken.isExpired()) {
+        return verifiedToken;
+      }
+      verifiedTokens.invalidate(key);
+    }
+
+    verifiedToken = VerifiedToken.of(getAllClaimsFromToken(token));
+    verifiedTokens.put(key, verifiedToken);
+    return verifiedToken;
+  }
+
+  /**
+   * Remove a token from the local cache of verified tokens, for example after the user signs out.
+   *
+   * @param token the token to remove
+   */
+  public void evictVerifiedToken(String token) {
+    if (Objects.nonNull(token)) {
+      verifiedTokens.invalidate(digest(token));
+    }
+  }
+
+  private static String digest(String token) {
+    try {
+      MessageDigest messageDigest = MessageDigest.getInstance(TOKEN_DIGEST_ALGORITHM);
+      byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(hash);
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
   }
 
   public String getUsernameFromToken(String token) {
@@ -1,42 +1,166 @@
 package com.umulam.fleen.health.util;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.SecureRandom;
-import java.util.UUID;
 
+/**
+ * UniqueReferenceGenerator creates fixed width references that start with the time they were created, so references created later
+ * sort after earlier ones and new rows are added at the end of the indexes on the reference columns instead of at random pages.
+ *
+ * <p>A reference is written in Crockford's base32, whose characters sort in the same order as the values they encode, and is made
+ * of the milliseconds since the epoch in 10 characters, the id of the node in 2 characters and a sequence in 8 characters. The
+ * sequence starts from a random value every millisecond and is incremented for every other reference the same thread creates in
+ * that millisecond. Random bytes are read from a buffer held by every thread and refilled from a shared {@link SecureRandom}, so
+ * threads do not contend for the generator on every call.</p>
+ * <br/>
+ */
+@Slf4j
 @Component
 public class UniqueReferenceGenerator {
 
-  private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+  public static final int REFERENCE_LENGTH = 20;
+  public static final int LONG_REFERENCE_LENGTH = 35;
 
+  private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+  private static final int BITS_PER_CHARACTER = 5;
+  private static final int TIME_LENGTH = 10;
+  private static final int NODE_LENGTH = 2;
+  private static final int SEQUENCE_LENGTH = 8;
+  private static final int NODE_BITS = NODE_LENGTH * BITS_PER_CHARACTER;
+  private static final int SEQUENCE_BITS = SEQUENCE_LENGTH * BITS_PER_CHARACTER;
+  private static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+  /**
+   * The sequence starts with its highest bit clear so that it can be incremented within a millisecond without overflowing.
+   */
+  private static final long SEQUENCE_START_MASK = (1L << (SEQUENCE_BITS - 1)) - 1;
+  private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+  private static final int ENTROPY_BUFFER_SIZE = 512;
+
+  private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+  private final ThreadLocal<GeneratorState> state = ThreadLocal.withInitial(GeneratorState::new);
+  private final int nodeId;
+
+  public UniqueReferenceGenerator(@Value("${fleen.health.reference.node-id:-1}") int nodeId) {
+    if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+      nodeId = SECURE_RANDOM.nextInt(MAX_NODE_ID + 1);
+      log.info("Reference generator node id is not configured, using {}", nodeId);
+    }
+    this.nodeId = nodeId;
+  }
+
+  /**
+   * <p>Create a reference of random characters that is not ordered by time.</p>
+   * <br/>
+   *
+   * @param length the number of characters from 1 to 25
+   * @return the reference
+   */
   public String generateUniqueReference(int length) {
     if (length <= 0 || length > 25) {
       throw new IllegalArgumentException("Length should be between 1 and 25");
     }
 
-    SecureRandom random = new SecureRandom();
-    StringBuilder stringBuilder = new StringBuilder();
-
+    GeneratorState generatorState = state.get();
+    char[] reference = new char[length];
     for (int i = 0; i < length; i++) {
-      int randomIndex = random.nextInt(CHARACTERS.length());
-      stringBuilder.append(CHARACTERS.charAt(randomIndex));
+      reference[i] = ALPHABET[(int) generatorState.nextBits(BITS_PER_CHARACTER)];
     }
-
-    return stringBuilder.toString();
+    return new String(reference);
   }
 
+  /**
+   * <p>Create a reference ordered by time. The sequence of a thread counts up within a millisecond, so the references created close
+   * together can be guessed from one another; use {@link #generateUniqueReferenceLong()} for references shown outside the
+   * application.</p>
+   * <br/>
+   *
+   * @return the reference
+   */
   public String generateUniqueReference() {
-    String uuidPart = UUID.randomUUID().toString().replace("-", "").substring(0, 10);
-    String randomPart = generateUniqueReference(10);
-
-    return uuidPart + randomPart;
+    char[] reference = new char[REFERENCE_LENGTH];
+    writeOrderedPart(reference, state.get());
+    return new String(reference);
   }
 
+  /**
+   * <p>Create a reference ordered by time like {@link #generateUniqueReference()} and followed by 75 random bits, for references
+   * that are shown to users or external systems and must not be guessed from other references.</p>
+   * <br/>
+   *
+   * @return the reference
+   */
   public String generateUniqueReferenceLong() {
-    String uuidPart = UUID.randomUUID().toString().replace("-", "").substring(0, 15);
-    String randomPart = generateUniqueReference(20);
+    GeneratorState generatorState = state.get();
+    char[] reference = new char[LONG_REFERENCE_LENGTH];
+    writeOrderedPart(reference, generatorState);
+    for (int i = REFERENCE_LENGTH; i < LONG_REFERENCE_LENGTH; i++) {
+      reference[i] = ALPHABET[(int) generatorState.nextBits(BITS_PER_CHARACTER)];
+    }
+    return new String(reference);
+  }
 
-    return uuidPart + randomPart;
+  private void writeOrderedPart(char[] reference, GeneratorState generatorState) {
+    long millis = generatorState.nextMillis();
+    encode(reference, 0, TIME_LENGTH, millis);
+    encode(reference, TIME_LENGTH, NODE_LENGTH, nodeId);
+    encode(reference, TIME_LENGTH + NODE_LENGTH, SEQUENCE_LENGTH, generatorState.sequence);
+  }
+
+  private static void encode(char[] reference, int offset, int length, long value) {
+    for (int i = offset + length - 1; i >= offset; i--) {
+      reference[i] = ALPHABET[(int) (value & 31)];
+      value >>>= BITS_PER_CHARACTER;
+    }
+  }
+
+  /**
+   * The last time and sequence used by a thread and the random bytes it has not used yet.
+   */
+  private static final class GeneratorState {
+
+    private final byte[] entropy = new byte[ENTROPY_BUFFER_SIZE];
+    private int position = ENTROPY_BUFFER_SIZE;
+    private long lastMillis;
+    private long sequence;
+
+    /**
+     * Move to the current millisecond, or stay on the last one if the clock went back, and advance the sequence.
+     *
+     * @return the millisecond the reference is created in
+     */
+    private long nextMillis() {
+      long now = System.currentTimeMillis();
+      if (now > lastMillis) {
+        lastMillis = now;
+        sequence = nextBits(SEQUENCE_BITS) & SEQUENCE_START_MASK;
+      } else {
+        sequence = (sequence + 1) & SEQUENCE_MASK;
+        if (sequence == 0) {
+          // Every sequence of this millisecond has been used by this thread
+          lastMillis++;
+          sequence = nextBits(SEQUENCE_BITS) & SEQUENCE_START_MASK;
+        }
+      }
+      return lastMillis;
+    }
+
+    private long nextBits(int bits) {
+      int bytes = (bits + Byte.SIZE - 1) / Byte.SIZE;
+      if (position + bytes > ENTROPY_BUFFER_SIZE) {
+        SECURE_RANDOM.nextBytes(entropy);
+        position = 0;
+      }
+
+      long value = 0;
+      for (int i = 0; i < bytes; i++) {
+        value = (value << Byte.SIZE) | (entropy[position++] & 0xFF);
+      }
+      return value & ((1L << bits) - 1);
+    }
   }
 }
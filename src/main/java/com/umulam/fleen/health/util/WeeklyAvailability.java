@@ -0,0 +1,231 @@
+package com.umulam.fleen.health.util;
+
+import com.umulam.fleen.health.constant.professional.AvailabilityDayOfTheWeek;
+import lombok.Getter;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * WeeklyAvailability holds the times of the week a professional is available as a bitmap with one bit for every minute of the week,
+ * starting with Monday. Checking if a time is available is a single bit lookup, and comparing, merging or diffing two schedules are
+ * bitwise operations over 158 words instead of comparisons between every pair of periods.
+ *
+ * <p>The bitmap is stored as {@value #SIZE_IN_BYTES} bytes where bit n is the (n % 8)th lowest bit of byte n / 8. This is the order
+ * used by {@link BitSet#toByteArray()} and by the get_bit function of the database, so the database can test a time of the week
+ * without decoding the schedule.</p>
+ * <br/>
+ */
+public final class WeeklyAvailability {
+
+  public static final int MINUTES_IN_A_DAY = 24 * 60;
+  public static final int DAYS_IN_A_WEEK = 7;
+  public static final int SIZE = DAYS_IN_A_WEEK * MINUTES_IN_A_DAY;
+  public static final int SIZE_IN_BYTES = SIZE / Byte.SIZE;
+
+  private static final WeeklyAvailability EMPTY = new WeeklyAvailability(new BitSet(SIZE));
+
+  private final BitSet slots;
+
+  private WeeklyAvailability(BitSet slots) {
+    this.slots = slots;
+  }
+
+  public static WeeklyAvailability empty() {
+    return EMPTY;
+  }
+
+  /**
+   * <p>Build the availability covering every period.</p>
+   * <br/>
+   *
+   * @param periods the periods the professional is available
+   * @return the availability
+   */
+  public static WeeklyAvailability of(Collection<Period> periods) {
+    BitSet slots = new BitSet(SIZE);
+    for (Period period : periods) {
+      slots.set(period.fromIndex(), period.toIndex());
+    }
+    return new WeeklyAvailability(slots);
+  }
+
+  public static WeeklyAvailability fromBytes(byte[] bytes) {
+    if (Objects.isNull(bytes) || bytes.length == 0) {
+      return EMPTY;
+    }
+    return new WeeklyAvailability(BitSet.valueOf(bytes));
+  }
+
+  /**
+   * <p>Check if any two of the periods share a minute. Each period is checked against the minutes taken by the periods before it.</p>
+   * <br/>
+   *
+   * @param periods the periods to check
+   * @return true if at least two periods overlap
+   */
+  public static boolean hasOverlap(Collection<Period> periods) {
+    BitSet taken = new BitSet(SIZE);
+    for (Period period : periods) {
+      int nextTaken = taken.nextSetBit(period.fromIndex());
+      if (nextTaken >= 0 && nextTaken < period.toIndex()) {
+        return true;
+      }
+      taken.set(period.fromIndex(), period.toIndex());
+    }
+    return false;
+  }
+
+  /**
+   * <p>Get the position of a time of the week in the bitmap, which is also the position used to test the stored bitmap in the
+   * database.</p>
+   * <br/>
+   *
+   * @param dayOfWeek the day of the week
+   * @param time the time of the day
+   * @return the position of the minute in the bitmap
+   */
+  public static int indexOf(DayOfWeek dayOfWeek, LocalTime time) {
+    return (dayOfWeek.getValue() - 1) * MINUTES_IN_A_DAY + minuteOfDay(time);
+  }
+
+  public boolean isAvailable(DayOfWeek dayOfWeek, LocalTime time) {
+    return slots.get(indexOf(dayOfWeek, time));
+  }
+
+  public boolean isAvailableOn(DayOfWeek dayOfWeek) {
+    int dayStart = (dayOfWeek.getValue() - 1) * MINUTES_IN_A_DAY;
+    int nextAvailable = slots.nextSetBit(dayStart);
+    return nextAvailable >= 0 && nextAvailable < dayStart + MINUTES_IN_A_DAY;
+  }
+
+  public boolean isEmpty() {
+    return slots.isEmpty();
+  }
+
+  public boolean intersects(WeeklyAvailability other) {
+    return slots.intersects(other.slots);
+  }
+
+  public WeeklyAvailability and(WeeklyAvailability other) {
+    BitSet result = (BitSet) slots.clone();
+    result.and(other.slots);
+    return new WeeklyAvailability(result);
+  }
+
+  public WeeklyAvailability or(WeeklyAvailability other) {
+    BitSet result = (BitSet) slots.clone();
+    result.or(other.slots);
+    return new WeeklyAvailability(result);
+  }
+
+  /**
+   * <p>Get the times of this availability that are not in the other, for example the times a schedule update removes when called
+   * on the current schedule with the updated schedule.</p>
+   * <br/>
+   *
+   * @param other the availability to remove
+   * @return the times that are only in this availability
+   */
+  public WeeklyAvailability andNot(WeeklyAvailability other) {
+    BitSet result = (BitSet) slots.clone();
+    result.andNot(other.slots);
+    return new WeeklyAvailability(result);
+  }
+
+  /**
+   * <p>Get the availability as the fewest periods, merging periods that follow each other on the same day.</p>
+   * <br/>
+   *
+   * @return the periods in order of day and time
+   */
+  public List<Period> toPeriods() {
+    List<Period> periods = new ArrayList<>();
+    AvailabilityDayOfTheWeek[] days = AvailabilityDayOfTheWeek.values();
+    for (int day = 0; day < DAYS_IN_A_WEEK; day++) {
+      int dayStart = day * MINUTES_IN_A_DAY;
+      int dayEnd = dayStart + MINUTES_IN_A_DAY;
+      int start = slots.nextSetBit(dayStart);
+      while (start >= 0 && start < dayEnd) {
+        int end = Math.min(slots.nextClearBit(start), dayEnd);
+        periods.add(new Period(days[day], toTime(start - dayStart), toTime(end - dayStart)));
+        start = slots.nextSetBit(end);
+      }
+    }
+    return periods;
+  }
+
+  public byte[] toBytes() {
+    return Arrays.copyOf(slots.toByteArray(), SIZE_IN_BYTES);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof WeeklyAvailability)) {
+      return false;
+    }
+    return slots.equals(((WeeklyAvailability) o).slots);
+  }
+
+  @Override
+  public int hashCode() {
+    return slots.hashCode();
+  }
+
+  private static int minuteOfDay(LocalTime time) {
+    return time.getHour() * 60 + time.getMinute();
+  }
+
+  private static LocalTime toTime(int minuteOfDay) {
+    return minuteOfDay >= MINUTES_IN_A_DAY ? LocalTime.MAX : LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+  }
+
+  /**
+   * A period of a day of the week, from its start time up to but not including its end time. The end time must be after the start
+   * time, so a period always covers at least a minute and never reaches into the next day.
+   */
+  @Getter
+  public static class Period {
+
+    private final AvailabilityDayOfTheWeek dayOfWeek;
+    private final LocalTime startTime;
+    private final LocalTime endTime;
+
+    public Period(AvailabilityDayOfTheWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+      if (!isValid(startTime, endTime)) {
+        throw new IllegalArgumentException(String.format("Period of %s must end after it starts: %s to %s", dayOfWeek, startTime, endTime));
+      }
+      this.dayOfWeek = Objects.requireNonNull(dayOfWeek);
+      this.startTime = startTime;
+      this.endTime = endTime;
+    }
+
+    /**
+     * <p>Check if a period can start and end at the given times, which is when its end is at least a minute after its start.</p>
+     * <br/>
+     *
+     * @param startTime the start time of the period
+     * @param endTime the end time of the period
+     * @return true if the period ends after it starts
+     */
+    public static boolean isValid(LocalTime startTime, LocalTime endTime) {
+      return Objects.nonNull(startTime) && Objects.nonNull(endTime) && toMinute(endTime) > minuteOfDay(startTime);
+    }
+
+    private int fromIndex() {
+      return dayOfWeek.ordinal() * MINUTES_IN_A_DAY + minuteOfDay(startTime);
+    }
+
+    private int toIndex() {
+      return dayOfWeek.ordinal() * MINUTES_IN_A_DAY + toMinute(endTime);
+    }
+
+    private static int toMinute(LocalTime endTime) {
+      return LocalTime.MAX.equals(endTime) ? MINUTES_IN_A_DAY : minuteOfDay(endTime);
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.umulam.fleen.health.validator;
+
+import com.umulam.fleen.health.validator.impl.TimezoneValidValidator;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+import java.lang.annotation.*;
+
+@Documented
+@Constraint(validatedBy = TimezoneValidValidator.class)
+@Target({ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface TimezoneValid {
+
+  String message() default "Timezone is invalid";
+
+  Class<?>[] groups() default {};
+
+  Class<? extends Payload>[] payload() default {};
+}
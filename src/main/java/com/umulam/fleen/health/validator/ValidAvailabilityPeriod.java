@@ -0,0 +1,20 @@
+package com.umulam.fleen.health.validator;
+
+import com.umulam.fleen.health.validator.impl.ValidAvailabilityPeriodValidator;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+import java.lang.annotation.*;
+
+@Documented
+@Constraint(validatedBy = ValidAvailabilityPeriodValidator.class)
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ValidAvailabilityPeriod {
+
+  String message() default "Availability period should end after it starts";
+
+  Class<?>[] groups() default {};
+
+  Class<? extends Payload>[] payload() default {};
+}
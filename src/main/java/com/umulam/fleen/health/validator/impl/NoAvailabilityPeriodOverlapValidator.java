@@ -1,11 +1,14 @@
 package com.umulam.fleen.health.validator.impl;
 
 import com.umulam.fleen.health.validator.NoAvailabilityPeriodOverlap;
+import com.umulam.fleen.health.util.WeeklyAvailability;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 import static com.umulam.fleen.health.model.dto.professional.UpdateProfessionalAvailabilityDto.AvailabilityPeriod;
 import static java.util.Objects.isNull;
@@ -22,16 +25,16 @@ public class NoAvailabilityPeriodOverlapValidator implements ConstraintValidator
   }
 
   private static boolean hasOverlappingPeriods(List<AvailabilityPeriod> periods) {
-    int n = periods.size();
-    for (int i = 0; i < n - 1; i++) {
-      for (int j = i + 1; j < n; j++) {
-        AvailabilityPeriod entry1 = periods.get(i);
-        AvailabilityPeriod entry2 = periods.get(j);
-        if (entry1.overlapsWith(entry2)) {
-          return true;
-        }
-      }
+    try {
+      return WeeklyAvailability.hasOverlap(periods
+        .stream()
+        .filter(Objects::nonNull)
+        .map(AvailabilityPeriod::toPeriod)
+        .collect(Collectors.toList()));
+    } catch (IllegalArgumentException | NullPointerException ex) {
+      // Invalid days and times are reported by the validators of the period
+      log.error(ex.getMessage(), ex);
+      return false;
     }
-    return false;
   }
 }
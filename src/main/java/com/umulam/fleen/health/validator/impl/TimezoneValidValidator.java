@@ -0,0 +1,32 @@
+package com.umulam.fleen.health.validator.impl;
+
+import com.umulam.fleen.health.validator.TimezoneValid;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+
+import static java.util.Objects.isNull;
+
+@Slf4j
+public class TimezoneValidValidator implements ConstraintValidator<TimezoneValid, String> {
+
+  @Override
+  public void initialize(TimezoneValid constraintAnnotation) { }
+
+  @Override
+  public boolean isValid(String timezone, ConstraintValidatorContext constraintValidatorContext) {
+    if (isNull(timezone)) {
+      return true;
+    }
+
+    try {
+      ZoneId.of(timezone.trim());
+      return true;
+    } catch (DateTimeException ex) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package com.umulam.fleen.health.validator.impl;
+
+import com.umulam.fleen.health.util.WeeklyAvailability;
+import com.umulam.fleen.health.validator.ValidAvailabilityPeriod;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import java.time.LocalTime;
+
+import static com.umulam.fleen.health.model.dto.professional.UpdateProfessionalAvailabilityDto.AvailabilityPeriod;
+import static com.umulam.fleen.health.util.DateTimeUtil.toTime;
+import static java.util.Objects.isNull;
+
+@Slf4j
+public class ValidAvailabilityPeriodValidator implements ConstraintValidator<ValidAvailabilityPeriod, AvailabilityPeriod> {
+
+  @Override
+  public void initialize(ValidAvailabilityPeriod constraintAnnotation) { }
+
+  @Override
+  public boolean isValid(AvailabilityPeriod period, ConstraintValidatorContext constraintValidatorContext) {
+    if (isNull(period) || isNull(period.getStartTime()) || isNull(period.getEndTime())) {
+      // Missing times are reported by the validators of the fields
+      return true;
+    }
+
+    LocalTime startTime = toTime(period.getStartTime());
+    LocalTime endTime = toTime(period.getEndTime());
+    // Times that cannot be read are reported by the validators of the fields
+    return isNull(startTime) || isNull(endTime) || WeeklyAvailability.Period.isValid(startTime, endTime);
+  }
+}
@@ -0,0 +1,8 @@
+-- Delete a key only if it still holds the value the caller wrote, so a caller never deletes a value written by another caller
+-- after its own value expired.
+-- KEYS[1] the key
+-- ARGV[1] the value the caller wrote, serialized like every other cache value
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+  return redis.call('DEL', KEYS[1])
+end
+return 0
@@ -0,0 +1,9 @@
+-- Set the time to live of a key only if it still holds the value the caller wrote, so a caller never extends a value written by
+-- another caller after its own value expired.
+-- KEYS[1] the key
+-- ARGV[1] the value the caller wrote, serialized like every other cache value
+-- ARGV[2] the time to live in milliseconds
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+  return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+end
+return 0
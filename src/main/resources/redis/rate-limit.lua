@@ -0,0 +1,23 @@
+-- Record a request in a sliding window and decide if it is allowed.
+-- KEYS[1] the sorted set holding the requests made in the window
+-- ARGV[1] the maximum number of requests in the window, ARGV[2] the window in milliseconds, ARGV[3] a unique request id
+-- Returns 0 if the request is allowed, otherwise the number of milliseconds until the next request will be allowed
+local key = KEYS[1]
+local limit = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+redis.call('ZREMRANGEBYSCORE', key, '-inf', now - window)
+if redis.call('ZCARD', key) < limit then
+  redis.call('ZADD', key, now, ARGV[3])
+  redis.call('PEXPIRE', key, window)
+  return 0
+end
+
+local oldest = redis.call('ZRANGE', key, 0, 0, 'WITHSCORES')
+local retryAfter = tonumber(oldest[2]) + window - now
+if retryAfter < 1 then
+  retryAfter = 1
+end
+return retryAfter
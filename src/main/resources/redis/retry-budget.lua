@@ -0,0 +1,21 @@
+-- Add the attempts and retries counted by a node since its last update and return the totals of every node.
+-- KEYS[1] the hash holding the counts of the current window, KEYS[2] the hash holding the counts of the previous window
+-- ARGV[1] the number of attempts, ARGV[2] the number of retries, ARGV[3] the window in milliseconds
+-- Returns the number of attempts and the number of retries made in the current and previous windows, as attempts:retries
+local current = KEYS[1]
+local attempts = tonumber(ARGV[1])
+local retries = tonumber(ARGV[2])
+
+if attempts > 0 then
+  redis.call('HINCRBY', current, 'attempts', attempts)
+end
+if retries > 0 then
+  redis.call('HINCRBY', current, 'retries', retries)
+end
+redis.call('PEXPIRE', current, tonumber(ARGV[3]) * 2)
+
+local counts = redis.call('HMGET', current, 'attempts', 'retries')
+local previous = redis.call('HMGET', KEYS[2], 'attempts', 'retries')
+local totalAttempts = (tonumber(counts[1]) or 0) + (tonumber(previous[1]) or 0)
+local totalRetries = (tonumber(counts[2]) or 0) + (tonumber(previous[2]) or 0)
+return totalAttempts .. ':' .. totalRetries
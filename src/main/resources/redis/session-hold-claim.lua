@@ -0,0 +1,11 @@
+-- Claim the holds that have expired so that a single node releases each of them.
+-- KEYS[1] the sorted set of holds scored by their expiry in epoch milliseconds
+-- ARGV[1] the current time in epoch milliseconds, ARGV[2] the maximum number of holds to claim
+-- Returns the group transaction references of the claimed holds
+local key = KEYS[1]
+local expired = redis.call('ZRANGEBYSCORE', key, '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+
+if #expired > 0 then
+  redis.call('ZREM', key, unpack(expired))
+end
+return expired
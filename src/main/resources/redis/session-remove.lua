@@ -0,0 +1,14 @@
+-- Remove the tokens of a device or of every device of a member.
+-- KEYS[1] the session hash of the member
+-- ARGV[1] device id or an empty string to remove every device, ARGV[2] invalidation channel, ARGV[3] member identifier
+local key = KEYS[1]
+local device = ARGV[1]
+
+if device == '' then
+  redis.call('DEL', key)
+else
+  redis.call('HDEL', key, 'access:' .. device, 'refresh:' .. device, 'state:' .. device, 'device:' .. device, 'expires:' .. device)
+end
+
+redis.call('PUBLISH', ARGV[2], ARGV[3])
+return 'OK'
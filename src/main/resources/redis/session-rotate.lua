@@ -0,0 +1,34 @@
+-- Replace the tokens of the device that owns the current refresh token. A refresh token can only be used once, so when
+-- several rotations race with the same refresh token only the first one finds it. The refresh token of a device whose session
+-- has expired is not accepted and the device is removed.
+-- KEYS[1] the session hash of the member
+-- ARGV[1] current refresh token, ARGV[2] new access token, ARGV[3] new refresh token, ARGV[4] authentication status,
+-- ARGV[5] time to live in milliseconds, ARGV[6] invalidation channel, ARGV[7] member identifier,
+-- ARGV[8] current time in epoch milliseconds, ARGV[9] expiry of the device in epoch milliseconds
+local key = KEYS[1]
+local ttl = tonumber(ARGV[5])
+local now = tonumber(ARGV[8])
+local fields = redis.call('HGETALL', key)
+
+for i = 1, #fields, 2 do
+  local field = fields[i]
+  if string.sub(field, 1, 8) == 'refresh:' and fields[i + 1] == ARGV[1] then
+    local device = string.sub(field, 9)
+    local expires = redis.call('HGET', key, 'expires:' .. device)
+    if expires and tonumber(expires) <= now then
+      redis.call('HDEL', key, 'access:' .. device, 'refresh:' .. device, 'state:' .. device, 'device:' .. device, 'expires:' .. device)
+      redis.call('PUBLISH', ARGV[6], ARGV[7])
+      return false
+    end
+
+    redis.call('HSET', key, 'access:' .. device, ARGV[2], 'refresh:' .. device, ARGV[3], 'state:' .. device, ARGV[4], 'expires:' .. device, ARGV[9])
+    if redis.call('PTTL', key) < ttl then
+      redis.call('PEXPIRE', key, ttl)
+    end
+
+    redis.call('PUBLISH', ARGV[6], ARGV[7])
+    return device
+  end
+end
+
+return false
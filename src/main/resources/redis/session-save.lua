@@ -0,0 +1,67 @@
+-- Save the tokens of a device in the session hash of a member and extend the time to live of the hash if needed. Every device
+-- has its own expiry, devices whose session has expired are removed, and when the member is already signed in on the maximum
+-- number of devices the device whose session expires first is removed to make room for a new one.
+-- KEYS[1] the session hash of the member
+-- ARGV[1] device id, ARGV[2] access token, ARGV[3] refresh token or an empty string to remove it,
+-- ARGV[4] authentication status, ARGV[5] device details, ARGV[6] time to live in milliseconds,
+-- ARGV[7] invalidation channel, ARGV[8] member identifier, ARGV[9] current time in epoch milliseconds,
+-- ARGV[10] expiry of the device in epoch milliseconds, ARGV[11] maximum number of devices
+local key = KEYS[1]
+local device = ARGV[1]
+local ttl = tonumber(ARGV[6])
+local now = tonumber(ARGV[9])
+local max = tonumber(ARGV[11])
+
+local function remove_device(id)
+  redis.call('HDEL', key, 'access:' .. id, 'refresh:' .. id, 'state:' .. id, 'device:' .. id, 'expires:' .. id)
+end
+
+-- Sessions saved before devices had their own expiry have none and are treated as the oldest
+local expiries = {}
+local fields = redis.call('HGETALL', key)
+for i = 1, #fields, 2 do
+  local field = fields[i]
+  if string.sub(field, 1, 7) == 'access:' then
+    local id = string.sub(field, 8)
+    expiries[id] = expiries[id] or 0
+  elseif string.sub(field, 1, 8) == 'expires:' then
+    expiries[string.sub(field, 9)] = tonumber(fields[i + 1])
+  end
+end
+expiries[device] = nil
+
+local others = 0
+for id, expires in pairs(expiries) do
+  if expires > 0 and expires <= now then
+    remove_device(id)
+    expiries[id] = nil
+  else
+    others = others + 1
+  end
+end
+
+while others >= max do
+  local oldest, oldest_expires
+  for id, expires in pairs(expiries) do
+    if oldest == nil or expires < oldest_expires then
+      oldest, oldest_expires = id, expires
+    end
+  end
+  remove_device(oldest)
+  expiries[oldest] = nil
+  others = others - 1
+end
+
+redis.call('HSET', key, 'access:' .. device, ARGV[2], 'state:' .. device, ARGV[4], 'device:' .. device, ARGV[5], 'expires:' .. device, ARGV[10])
+if ARGV[3] == '' then
+  redis.call('HDEL', key, 'refresh:' .. device)
+else
+  redis.call('HSET', key, 'refresh:' .. device, ARGV[3])
+end
+
+if redis.call('PTTL', key) < ttl then
+  redis.call('PEXPIRE', key, ttl)
+end
+
+redis.call('PUBLISH', ARGV[7], ARGV[8])
+return 'OK'
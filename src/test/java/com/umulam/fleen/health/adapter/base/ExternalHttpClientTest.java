@@ -0,0 +1,211 @@
+package com.umulam.fleen.health.adapter.base;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Calls a local fake server with injected latency, slow responses and connection resets through a client with its own pool, and
+ * checks how long the calls take, whether they are retried, and what is recorded of them.
+ */
+class ExternalHttpClientTest {
+
+  private static final String CLIENT = "paystack";
+  private static final String PATH = "/transaction/verify/FH-TX-1";
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ScheduledExecutorService deadlineScheduler = Executors.newSingleThreadScheduledExecutor();
+  private FakeHttpServer server;
+  private ExternalHttpClient client;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = new FakeHttpServer();
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    if (client != null) {
+      client.close();
+    }
+    server.close();
+    deadlineScheduler.shutdownNow();
+  }
+
+  @Test
+  void callsShareAKeptAliveConnection() {
+    client = client(settings().build());
+
+    for (int i = 0; i < 20; i++) {
+      assertTrue(get().getStatusCode().is2xxSuccessful());
+    }
+
+    assertEquals(1, server.getConnections());
+    assertEquals(20, timer("2xx").count());
+    assertEquals(0, errors());
+  }
+
+  @Test
+  void slowServerIsCutOffByTheReadTimeout() {
+    server.setLatencyMillis(2_000);
+    client = client(settings().readTimeout(Duration.ofMillis(300)).build());
+
+    long elapsedMillis = elapsedMillis(() -> assertThrows(ResourceAccessException.class, this::get));
+
+    assertTrue(elapsedMillis < 1_500, "Call took " + elapsedMillis + " ms");
+    assertEquals(1, errors("read_timeout"));
+  }
+
+  @Test
+  void responseTricklingPastTheDeadlineIsAborted() {
+    // Every byte arrives well within the read timeout, so only the deadline of the call ends it
+    server.setByteIntervalMillis(100);
+    client = client(settings().readTimeout(Duration.ofSeconds(2)).deadline(Duration.ofMillis(500)).build());
+
+    long elapsedMillis = elapsedMillis(() -> {
+      ResourceAccessException ex = assertThrows(ResourceAccessException.class, this::get);
+      assertTrue(ex.getMessage().contains("did not complete within 500 ms"));
+    });
+
+    assertTrue(elapsedMillis < 1_500, "Call took " + elapsedMillis + " ms");
+    assertEquals(1, errors("deadline"));
+    assertEquals(1, timer("deadline").count());
+  }
+
+  @Test
+  void resetOfAReadIsRetriedOnANewConnection() {
+    client = client(settings().build());
+    get();
+    server.resetNext(1);
+
+    assertTrue(get().getStatusCode().is2xxSuccessful());
+
+    assertEquals(3, server.getRequests());
+    assertEquals(2, server.getConnections());
+    assertEquals(0, errors());
+  }
+
+  @Test
+  void resetOfAWriteIsNotRetried() {
+    client = client(settings().build());
+    server.resetNext(1);
+
+    // A charge or a transfer may have been made before the connection was reset, so it is not sent again
+    assertThrows(ResourceAccessException.class, this::post);
+    assertEquals(1, server.getRequests());
+    assertEquals(1, errors("io"));
+
+    assertTrue(post().getStatusCode().is2xxSuccessful());
+    assertEquals(2, server.getConnections());
+  }
+
+  @Test
+  void callWaitingForABusyPoolFailsFast() throws Exception {
+    server.setLatencyMillis(1_000);
+    client = client(settings().maxConnections(1).connectionRequestTimeout(Duration.ofMillis(100)).build());
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<ResponseEntity<String>> slowCall = executor.submit(this::get);
+      awaitRequests(1);
+
+      long elapsedMillis = elapsedMillis(() -> assertThrows(ResourceAccessException.class, this::get));
+      assertTrue(elapsedMillis < 500, "Call took " + elapsedMillis + " ms");
+      assertEquals(1, errors("pool_exhausted"));
+      assertEquals(1, gauge("leased"));
+
+      assertTrue(slowCall.get(5, TimeUnit.SECONDS).getStatusCode().is2xxSuccessful());
+      assertEquals(0, gauge("leased"));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void serverErrorsAreCounted() {
+    server.setStatus(503);
+    client = client(settings().build());
+
+    assertThrows(HttpServerErrorException.class, this::get);
+
+    assertEquals(1, errors("5xx"));
+    assertEquals(1, timer("5xx").count());
+  }
+
+  private ResponseEntity<String> get() {
+    return client.exchange(server.getUri(PATH), HttpMethod.GET, HttpEntity.EMPTY, String.class);
+  }
+
+  private ResponseEntity<String> post() {
+    URI uri = server.getUri("/transfer");
+    return client.exchange(uri, HttpMethod.POST, new HttpEntity<>(Map.of("amount", 3060000, "recipient", "RCP_z3x6ax7hbjl4rsb")), String.class);
+  }
+
+  private ExternalHttpClient client(ExternalHttpClient.Settings settings) {
+    return new ExternalHttpClient(CLIENT, settings, new ObjectMapper(), meterRegistry, deadlineScheduler);
+  }
+
+  private static ExternalHttpClient.Settings.SettingsBuilder settings() {
+    return ExternalHttpClient.Settings.builder()
+      .maxConnections(5)
+      .connectTimeout(Duration.ofSeconds(1))
+      .readTimeout(Duration.ofSeconds(5))
+      .connectionRequestTimeout(Duration.ofSeconds(1))
+      .deadline(Duration.ofSeconds(10))
+      .keepAlive(Duration.ofSeconds(30))
+      .validateAfterInactivity(Duration.ofSeconds(2))
+      .compression(true)
+      .payloadLogSampleRate(0);
+  }
+
+  private Timer timer(String outcome) {
+    return Optional.ofNullable(meterRegistry.find("fleen.health.http.client.requests").tag("client", CLIENT).tag("outcome", outcome).timer())
+      .orElseThrow(() -> new AssertionError("No calls with outcome " + outcome));
+  }
+
+  private double errors() {
+    return meterRegistry.find("fleen.health.http.client.errors").counters().stream().mapToDouble(Counter::count).sum();
+  }
+
+  private double errors(String type) {
+    Counter counter = meterRegistry.find("fleen.health.http.client.errors").tag("client", CLIENT).tag("type", type).counter();
+    return counter == null ? 0 : counter.count();
+  }
+
+  private double gauge(String state) {
+    return meterRegistry.get("fleen.health.http.client.pool.connections").tag("client", CLIENT).tag("state", state).gauge().value();
+  }
+
+  private void awaitRequests(int requests) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (server.getRequests() < requests) {
+      assertTrue(System.currentTimeMillis() < deadline, "Requests not received in time");
+      Thread.sleep(10);
+    }
+  }
+
+  private static long elapsedMillis(Runnable call) {
+    long startedAt = System.nanoTime();
+    call.run();
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+  }
+}
@@ -0,0 +1,178 @@
+package com.umulam.fleen.health.adapter.base;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FakeHttpServer is a local HTTP/1.1 server that keeps connections alive and answers every request with the same JSON body, after
+ * the given delay, sending the body one byte at a time if told to. It can also reset a number of connections as soon as their next
+ * request has been read. It is used to see how a client behaves when an external system is slow or drops its connections.
+ */
+public class FakeHttpServer implements Closeable {
+
+  private static final String BODY = "{\"status\":true,\"message\":\"Verification successful\"}";
+
+  private final ServerSocket serverSocket;
+  private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger connections = new AtomicInteger();
+  private final AtomicInteger requests = new AtomicInteger();
+  private final AtomicInteger resets = new AtomicInteger();
+  private volatile long latencyMillis;
+  private volatile long byteIntervalMillis;
+  private volatile int status = 200;
+
+  public FakeHttpServer() throws IOException {
+    this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    Thread acceptor = new Thread(this::accept, "fake-http-server");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  public URI getUri(String path) {
+    return URI.create("http://127.0.0.1:" + serverSocket.getLocalPort() + path);
+  }
+
+  public int getConnections() {
+    return connections.get();
+  }
+
+  public int getRequests() {
+    return requests.get();
+  }
+
+  public void setLatencyMillis(long latencyMillis) {
+    this.latencyMillis = latencyMillis;
+  }
+
+  public void setByteIntervalMillis(long byteIntervalMillis) {
+    this.byteIntervalMillis = byteIntervalMillis;
+  }
+
+  public void setStatus(int status) {
+    this.status = status;
+  }
+
+  /**
+   * Reset the connections that the next requests are sent on, without answering them.
+   *
+   * @param count the number of requests
+   */
+  public void resetNext(int count) {
+    resets.set(count);
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    for (Socket socket : sockets) {
+      socket.close();
+    }
+  }
+
+  private void accept() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        connections.incrementAndGet();
+        sockets.add(socket);
+        Thread handler = new Thread(() -> handle(socket), "fake-http-connection");
+        handler.setDaemon(true);
+        handler.start();
+      } catch (IOException ex) {
+        return;
+      }
+    }
+  }
+
+  private void handle(Socket socket) {
+    try (socket) {
+      InputStream input = new BufferedInputStream(socket.getInputStream());
+      OutputStream output = socket.getOutputStream();
+      while (readRequest(input)) {
+        requests.incrementAndGet();
+        if (resets.getAndUpdate(count -> Math.max(count - 1, 0)) > 0) {
+          // Closing with a linger of zero sends a reset instead of a normal close
+          socket.setSoLinger(true, 0);
+          return;
+        }
+        sleep(latencyMillis);
+        writeResponse(output);
+      }
+    } catch (IOException ex) {
+      // The client closed or aborted the connection
+    } finally {
+      sockets.remove(socket);
+    }
+  }
+
+  private static boolean readRequest(InputStream input) throws IOException {
+    String line = readLine(input);
+    if (line == null) {
+      return false;
+    }
+
+    int contentLength = 0;
+    while ((line = readLine(input)) != null && !line.isEmpty()) {
+      String header = line.toLowerCase(Locale.ROOT);
+      if (header.startsWith("content-length:")) {
+        contentLength = Integer.parseInt(header.substring("content-length:".length()).trim());
+      }
+    }
+    if (input.readNBytes(contentLength).length < contentLength) {
+      return false;
+    }
+    return line != null;
+  }
+
+  private static String readLine(InputStream input) throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    int value;
+    while ((value = input.read()) != -1) {
+      if (value == '\n') {
+        return line.toString(StandardCharsets.US_ASCII).stripTrailing();
+      }
+      line.write(value);
+    }
+    return null;
+  }
+
+  private void writeResponse(OutputStream output) throws IOException {
+    byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+    String head = "HTTP/1.1 " + status + " Status\r\n" +
+      "Content-Type: application/json\r\n" +
+      "Content-Length: " + body.length + "\r\n" +
+      "Connection: keep-alive\r\n\r\n";
+    output.write(head.getBytes(StandardCharsets.US_ASCII));
+    if (byteIntervalMillis > 0) {
+      for (byte value : body) {
+        output.write(value);
+        output.flush();
+        sleep(byteIntervalMillis);
+      }
+    } else {
+      output.write(body);
+    }
+    output.flush();
+  }
+
+  private static void sleep(long millis) throws SocketException {
+    if (millis <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new SocketException("Interrupted");
+    }
+  }
+}
@@ -0,0 +1,280 @@
+package com.umulam.fleen.health.aspect;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umulam.fleen.health.aspect.IdempotencyAspect.IdempotencyRecord;
+import com.umulam.fleen.health.configuration.cache.EmbeddedRedis;
+import com.umulam.fleen.health.exception.base.IdempotencyKeyReusedException;
+import com.umulam.fleen.health.service.impl.CacheService;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.umulam.fleen.health.constant.base.GeneralConstant.IDEMPOTENCY_KEY_HEADER;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyAspectTest {
+
+  private static EmbeddedRedis redis;
+  private static RedisTemplate<String, Object> redisTemplate;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final CacheService cacheService = mock(CacheService.class);
+  private final IdempotencyAspect aspect = new IdempotencyAspect(cacheService, mapper);
+  private final Map<String, String> store = new ConcurrentHashMap<>();
+  private final List<IdempotencyAspect> nodes = new ArrayList<>();
+  private final Method method;
+  private final Idempotent idempotent;
+  private final Method slowMethod;
+  private final Idempotent slowIdempotent;
+
+  IdempotencyAspectTest() throws Exception {
+    method = BookingApi.class.getDeclaredMethod("book", String.class);
+    idempotent = method.getAnnotation(Idempotent.class);
+    slowMethod = BookingApi.class.getDeclaredMethod("bookSlowly", String.class);
+    slowIdempotent = slowMethod.getAnnotation(Idempotent.class);
+
+    // Values are kept as they would be written to the cache store, so they are compared and read back as copies
+    when(cacheService.setIfAbsent(anyString(), any(), any(Duration.class))).thenAnswer(invocation ->
+      store.putIfAbsent(invocation.getArgument(0), write(invocation.getArgument(1))) == null);
+    doAnswer(invocation -> store.put(invocation.getArgument(0), write(invocation.getArgument(1))))
+      .when(cacheService).set(anyString(), any(Object.class), any(Duration.class));
+    when(cacheService.get(anyString(), eq(IdempotencyRecord.class))).thenAnswer(invocation -> {
+      String value = store.get(invocation.<String>getArgument(0));
+      return value == null ? null : mapper.readValue(value, IdempotencyRecord.class);
+    });
+    when(cacheService.deleteIfEquals(anyString(), any())).thenAnswer(invocation ->
+      store.remove(invocation.getArgument(0), write(invocation.getArgument(1))));
+  }
+
+  @BeforeAll
+  static void start() {
+    redis = EmbeddedRedis.start();
+    redisTemplate = redis.newRedisTemplate();
+  }
+
+  @AfterAll
+  static void stop() {
+    redis.close();
+  }
+
+  @AfterEach
+  void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+    aspect.destroy();
+    nodes.forEach(IdempotencyAspect::destroy);
+  }
+
+  @Test
+  void concurrentCallsWithTheSameKeyRunOnce() throws Exception {
+    int callers = 8;
+    AtomicInteger calls = new AtomicInteger();
+    CountDownLatch started = new CountDownLatch(1);
+    ProceedingJoinPoint joinPoint = joinPoint("request-1", invocation -> {
+      started.countDown();
+      Thread.sleep(200);
+      return "booking-" + calls.incrementAndGet();
+    });
+
+    ExecutorService executor = Executors.newFixedThreadPool(callers);
+    try {
+      List<Future<Object>> responses = new ArrayList<>();
+      for (int i = 0; i < callers; i++) {
+        responses.add(executor.submit(() -> {
+          try {
+            return aspect.run(joinPoint, idempotent);
+          } catch (Throwable throwable) {
+            throw new ExecutionException(throwable);
+          }
+        }));
+      }
+
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+      for (Future<Object> response : responses) {
+        assertEquals("booking-1", response.get(10, TimeUnit.SECONDS));
+      }
+      assertEquals(1, calls.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void failedCallReleasesItsKey() throws Throwable {
+    ProceedingJoinPoint failing = joinPoint("request-2", invocation -> {
+      throw new IllegalStateException("Payment gateway unavailable");
+    });
+    assertThrows(IllegalStateException.class, () -> aspect.run(failing, idempotent));
+    assertTrue(store.isEmpty());
+
+    assertEquals("booked", aspect.run(joinPoint("request-2", invocation -> "booked"), idempotent));
+  }
+
+  @Test
+  void failedCallDoesNotReleaseTheKeyOfALaterCall() {
+    ProceedingJoinPoint joinPoint = joinPoint("request-3", invocation -> {
+      // The in-flight record of this call expires and another call takes the key before this one fails
+      String key = store.keySet().iterator().next();
+      IdempotencyRecord later = IdempotencyRecord.inFlight(mapper.readValue(store.get(key), IdempotencyRecord.class).getFingerprint());
+      store.put(key, write(later));
+      throw new IllegalStateException("Timed out");
+    });
+
+    assertThrows(IllegalStateException.class, () -> aspect.run(joinPoint, idempotent));
+    assertEquals(1, store.size());
+  }
+
+  @Test
+  void clientKeyReusedWithAnotherRequestIsRejected() throws Throwable {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader(IDEMPOTENCY_KEY_HEADER, "client-key");
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+    assertEquals("first", aspect.run(joinPoint("request-4", invocation -> "first"), idempotent));
+    assertEquals("first", aspect.run(joinPoint("request-4", invocation -> "second"), idempotent));
+    assertThrows(IdempotencyKeyReusedException.class, () -> aspect.run(joinPoint("request-5", invocation -> "third"), idempotent));
+  }
+
+  @Test
+  void keyOfACallWhoseNodeStoppedIsUsedAgainOnceItsRecordExpires() throws Throwable {
+    redis.flushAll(redisTemplate);
+    IdempotencyAspect stopped = startNode();
+    IdempotencyAspect running = startNode();
+    CountDownLatch started = new CountDownLatch(1);
+    ProceedingJoinPoint neverCompletes = joinPoint(slowMethod, "request-6", invocation -> {
+      started.countDown();
+      new CountDownLatch(1).await();
+      return "booked-by-stopped-node";
+    });
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      executor.submit(() -> {
+        try {
+          return stopped.run(neverCompletes, slowIdempotent);
+        } catch (Throwable throwable) {
+          throw new ExecutionException(throwable);
+        }
+      });
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+      // The node stops renewing the record of its call, as it does when it crashes
+      stopped.destroy();
+
+      long startedAt = System.nanoTime();
+      assertEquals("booked-by-running-node", running.run(joinPoint(slowMethod, "request-6", invocation -> "booked-by-running-node"), slowIdempotent));
+      long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+      assertTrue(waitedMillis < TimeUnit.SECONDS.toMillis(slowIdempotent.inFlightSeconds()) + 1_000);
+      assertEquals("booked-by-running-node", running.run(joinPoint(slowMethod, "request-6", invocation -> "booked-again"), slowIdempotent));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void callRunningLongerThanTheInFlightTimeKeepsItsKey() throws Exception {
+    redis.flushAll(redisTemplate);
+    IdempotencyAspect first = startNode();
+    IdempotencyAspect second = startNode();
+    AtomicInteger calls = new AtomicInteger();
+    CountDownLatch started = new CountDownLatch(1);
+    long callMillis = TimeUnit.SECONDS.toMillis(slowIdempotent.inFlightSeconds()) * 3;
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<Object> slow = executor.submit(() -> {
+        try {
+          return first.run(joinPoint(slowMethod, "request-7", invocation -> {
+            started.countDown();
+            Thread.sleep(callMillis);
+            return "booking-" + calls.incrementAndGet();
+          }), slowIdempotent);
+        } catch (Throwable throwable) {
+          throw new ExecutionException(throwable);
+        }
+      });
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+      Thread.sleep(callMillis / 2);
+
+      // The record was renewed past its in-flight time, so the retry waits for the running call instead of running it again
+      Future<Object> retry = executor.submit(() -> {
+        try {
+          return second.run(joinPoint(slowMethod, "request-7", invocation -> "booking-" + calls.incrementAndGet()), slowIdempotent);
+        } catch (Throwable throwable) {
+          throw new ExecutionException(throwable);
+        }
+      });
+      assertEquals("booking-1", slow.get(10, TimeUnit.SECONDS));
+      assertEquals("booking-1", retry.get(10, TimeUnit.SECONDS));
+      assertEquals(1, calls.get());
+
+      // The completed record is kept for its own time to live, not the in-flight time
+      String key = redisTemplate.keys("*book-slowly*").iterator().next();
+      Thread.sleep(TimeUnit.SECONDS.toMillis(slowIdempotent.inFlightSeconds()) + 500);
+      assertTrue(redisTemplate.getExpire(key, TimeUnit.SECONDS) > slowIdempotent.inFlightSeconds());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private IdempotencyAspect startNode() {
+    IdempotencyAspect node = new IdempotencyAspect(new CacheService(redisTemplate, redis.getMapper()), mapper);
+    nodes.add(node);
+    return node;
+  }
+
+  private ProceedingJoinPoint joinPoint(String request, Answer<Object> call) {
+    return joinPoint(method, request, call);
+  }
+
+  private ProceedingJoinPoint joinPoint(Method method, String request, Answer<Object> call) {
+    MethodSignature signature = mock(MethodSignature.class);
+    when(signature.getMethod()).thenReturn(method);
+    ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+    when(joinPoint.getSignature()).thenReturn(signature);
+    when(joinPoint.getArgs()).thenReturn(new Object[] { request });
+    try {
+      when(joinPoint.proceed()).thenAnswer(call);
+    } catch (Throwable throwable) {
+      throw new IllegalStateException(throwable);
+    }
+    return joinPoint;
+  }
+
+  private String write(Object value) {
+    try {
+      return mapper.writeValueAsString(value);
+    } catch (Exception ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  static class BookingApi {
+
+    @Idempotent(name = "book", key = "#p0", perMember = false, waitMillis = 5000)
+    String book(String request) {
+      return request;
+    }
+
+    @Idempotent(name = "book-slowly", key = "#p0", perMember = false, derivedKeyTtlSeconds = 60, inFlightSeconds = 1, waitMillis = 5000)
+    String bookSlowly(String request) {
+      return request;
+    }
+  }
+}
@@ -0,0 +1,194 @@
+package com.umulam.fleen.health.aspect;
+
+import com.umulam.fleen.health.configuration.cache.EmbeddedRedis;
+import com.umulam.fleen.health.exception.base.TooManyRequestsException;
+import com.umulam.fleen.health.model.response.FleenHealthResponse;
+import com.umulam.fleen.health.service.impl.CacheService;
+import com.umulam.fleen.health.service.impl.RateLimiterService;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.umulam.fleen.health.aspect.RateLimit.Key.IDENTIFIER;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RateLimitAspectTest {
+
+  private static EmbeddedRedis redis;
+  private static RedisTemplate<String, Object> redisTemplate;
+  private static RateLimitAspect aspect;
+
+  @BeforeAll
+  static void start() {
+    redis = EmbeddedRedis.start();
+    redisTemplate = redis.newRedisTemplate();
+    aspect = new RateLimitAspect(new RateLimiterService(redisTemplate, 1000), new CacheService(redisTemplate, redis.getMapper()));
+  }
+
+  @AfterAll
+  static void stop() {
+    redis.close();
+  }
+
+  @BeforeEach
+  void flush() {
+    redis.flushAll(redisTemplate);
+    fromAddress("10.0.0.1");
+  }
+
+  @AfterEach
+  void resetRequest() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  void callOverTheLimitIsRejectedWithTheTimeToWait() throws Throwable {
+    AtomicInteger calls = new AtomicInteger();
+    for (int i = 0; i < 3; i++) {
+      aspect.limit(joinPoint("signIn", "member-" + i + "@fleen.health", invocation -> calls.incrementAndGet()));
+    }
+
+    TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+      () -> aspect.limit(joinPoint("signIn", "member-3@fleen.health", invocation -> calls.incrementAndGet())));
+    assertEquals(3, calls.get());
+    assertTrue(ex.getRetryAfterSeconds() >= 1 && ex.getRetryAfterSeconds() <= 60);
+
+    // The limit is kept for each address
+    fromAddress("10.0.0.2");
+    aspect.limit(joinPoint("signIn", "member-4@fleen.health", invocation -> calls.incrementAndGet()));
+    assertEquals(4, calls.get());
+  }
+
+  @Test
+  void identifierIsCountedWhicheverAddressItComesFromAndHoweverItIsWritten() throws Throwable {
+    fromAddress("10.0.0.1");
+    aspect.limit(joinPoint("signIn", "member@fleen.health", invocation -> true));
+    fromAddress("10.0.0.2");
+    aspect.limit(joinPoint("signIn", " Member@Fleen.health", invocation -> true));
+
+    fromAddress("10.0.0.3");
+    assertThrows(TooManyRequestsException.class, () -> aspect.limit(joinPoint("signIn", "MEMBER@fleen.health", invocation -> true)));
+    aspect.limit(joinPoint("signIn", "another@fleen.health", invocation -> true));
+  }
+
+  @Test
+  void concurrentResendsSendASingleCode() throws Exception {
+    int callers = 8;
+    AtomicInteger sends = new AtomicInteger();
+    CountDownLatch sending = new CountDownLatch(1);
+    ProceedingJoinPoint joinPoint = joinPoint("resendCode", "member@fleen.health", invocation -> {
+      sending.countDown();
+      Thread.sleep(200);
+      return new FleenHealthResponse("Code sent " + sends.incrementAndGet());
+    });
+
+    ExecutorService executor = Executors.newFixedThreadPool(callers);
+    int rejected = 0;
+    try {
+      List<Future<Object>> responses = new ArrayList<>();
+      for (int i = 0; i < callers; i++) {
+        responses.add(executor.submit(() -> {
+          try {
+            return aspect.limit(joinPoint);
+          } catch (Throwable throwable) {
+            throw new ExecutionException(throwable);
+          }
+        }));
+      }
+
+      for (Future<Object> response : responses) {
+        try {
+          assertEquals("Code sent 1", ((FleenHealthResponse) response.get(10, TimeUnit.SECONDS)).getMessage());
+        } catch (ExecutionException ex) {
+          // A call made while the first one is still sending is told to retry rather than sending again
+          assertInstanceOf(TooManyRequestsException.class, ex.getCause().getCause());
+          rejected++;
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1, sends.get());
+    assertTrue(rejected < callers);
+
+    // Once the first call has sent the code, a repeated call gets its response
+    FleenHealthResponse response = (FleenHealthResponse) assertDoesNotThrow(() -> aspect.limit(joinPoint));
+    assertEquals("Code sent 1", response.getMessage());
+    assertEquals(1, sends.get());
+  }
+
+  @Test
+  void failedResendDoesNotHoldBackTheNextOne() throws Throwable {
+    ProceedingJoinPoint failing = joinPoint("resendCode", "member@fleen.health", invocation -> {
+      throw new IllegalStateException("SMS gateway unavailable");
+    });
+    assertThrows(IllegalStateException.class, () -> aspect.limit(failing));
+
+    FleenHealthResponse response = (FleenHealthResponse) aspect.limit(joinPoint("resendCode", "member@fleen.health",
+      invocation -> new FleenHealthResponse("Code sent")));
+    assertEquals("Code sent", response.getMessage());
+  }
+
+  private static ProceedingJoinPoint joinPoint(String methodName, String emailAddress, Answer<Object> call) {
+    Method method = getMethod(methodName);
+    MethodSignature signature = mock(MethodSignature.class);
+    when(signature.getMethod()).thenReturn(method);
+    when(signature.getReturnType()).thenReturn(method.getReturnType());
+    ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+    when(joinPoint.getSignature()).thenReturn(signature);
+    when(joinPoint.getArgs()).thenReturn(new Object[] { emailAddress });
+    try {
+      when(joinPoint.proceed()).thenAnswer(call);
+    } catch (Throwable throwable) {
+      throw new IllegalStateException(throwable);
+    }
+    return joinPoint;
+  }
+
+  private static Method getMethod(String name) {
+    for (Method method : AuthenticationApi.class.getDeclaredMethods()) {
+      if (method.getName().equals(name)) {
+        return method;
+      }
+    }
+    throw new IllegalArgumentException(name);
+  }
+
+  private static void fromAddress(String address) {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setRemoteAddr(address);
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+  }
+
+  static class AuthenticationApi {
+
+    @RateLimit(name = "sign-in-ip", limit = 3, windowSeconds = 60)
+    @RateLimit(name = "sign-in-email", limit = 2, windowSeconds = 60, keys = IDENTIFIER, identifier = "#emailAddress")
+    Object signIn(String emailAddress) {
+      return emailAddress;
+    }
+
+    @RateLimit(name = "resend-code", limit = 5, windowSeconds = 900, keys = IDENTIFIER, identifier = "#emailAddress", coalesceSeconds = 60)
+    FleenHealthResponse resendCode(String emailAddress) {
+      return new FleenHealthResponse(emailAddress);
+    }
+  }
+}
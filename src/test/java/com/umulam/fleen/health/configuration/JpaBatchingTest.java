@@ -0,0 +1,230 @@
+package com.umulam.fleen.health.configuration;
+
+import com.umulam.fleen.health.constant.member.MemberGender;
+import com.umulam.fleen.health.constant.session.*;
+import com.umulam.fleen.health.model.domain.Earnings;
+import com.umulam.fleen.health.model.domain.HealthSession;
+import com.umulam.fleen.health.model.domain.Member;
+import com.umulam.fleen.health.model.domain.transaction.SessionTransaction;
+import com.umulam.fleen.health.repository.jpa.EarningsJpaRepository;
+import com.umulam.fleen.health.repository.jpa.HealthSessionJpaRepository;
+import com.umulam.fleen.health.repository.jpa.MemberJpaRepository;
+import com.umulam.fleen.health.repository.jpa.transaction.SessionTransactionJpaRepository;
+import com.umulam.fleen.health.service.impl.FleenHealthSchedulerService;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the statements Hibernate prepares for the writes of a booking of several sessions and of a settlement run, with the
+ * batching defaults of {@link JpaConfig} and ids taken from pooled sequences. Rows of a table written in the same flush are sent in
+ * a single batch, which is prepared once, except for entities mapped with joined inheritance, and a sequence is called once for
+ * every block of ids.
+ */
+@DataJpaTest(properties = {
+  "spring.jpa.properties.hibernate.generate_statistics=true",
+  "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.umulam.fleen.health.configuration.JpaBatchingTest$SqlLog"
+})
+@Import({ FleenHealthSchedulerService.class, JpaBatchingTest.Batching.class })
+class JpaBatchingTest {
+
+  private static final int SESSIONS = 6;
+  private static final double AMOUNT = 100;
+
+  @Autowired
+  private HealthSessionJpaRepository healthSessionRepository;
+
+  @Autowired
+  private SessionTransactionJpaRepository transactionRepository;
+
+  @Autowired
+  private EarningsJpaRepository earningsRepository;
+
+  @Autowired
+  private MemberJpaRepository memberRepository;
+
+  @Autowired
+  private FleenHealthSchedulerService schedulerService;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+  private final List<Member> professionals = new ArrayList<>();
+  private Member patient;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    professionals.clear();
+    for (int i = 0; i < 3; i++) {
+      professionals.add(memberRepository.save(member("professional-" + i, 100 + i)));
+    }
+    patient = memberRepository.save(member("patient", 200));
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  void bookingOfSeveralSessionsInsertsTheSessionsInOneBatch() {
+    Member professional = professionals.get(0);
+    List<HealthSession> sessions = new ArrayList<>();
+    for (int i = 0; i < SESSIONS; i++) {
+      sessions.add(session(professional, LocalDate.now().plusDays(1), LocalTime.of(9 + i, 0)));
+    }
+    SqlLog.clear();
+    statistics.clear();
+
+    List<HealthSession> savedSessions = healthSessionRepository.saveAllAndFlush(sessions);
+    List<SessionTransaction> transactions = new ArrayList<>();
+    for (HealthSession session : savedSessions) {
+      transactions.add(transaction(session));
+    }
+    transactionRepository.saveAll(transactions);
+    entityManager.flush();
+
+    // A sequence still at its first value is called twice for its first block, and once for every block after that
+    assertTrue(SqlLog.count("health_session_id_seq") <= 2);
+    assertTrue(SqlLog.count("transaction_id_seq") <= 2);
+    assertEquals(1, SqlLog.count("insert into health_session"));
+    // Joined inheritance writes each transaction to both of its tables in turn, which ends the batch every time
+    assertEquals(SESSIONS, SqlLog.count("insert into transaction"));
+    assertEquals(SESSIONS, SqlLog.count("insert into session_transaction"));
+    assertEquals(SESSIONS * 2, statistics.getEntityInsertCount());
+  }
+
+  @Test
+  void settlementRunUpdatesEachTableInOneBatch() {
+    earningsRepository.save(Earnings.builder().member(professionals.get(0)).totalEarnings(BigDecimal.TEN).build());
+    List<HealthSession> sessions = new ArrayList<>();
+    for (Member professional : professionals) {
+      for (int i = 0; i < SESSIONS; i++) {
+        sessions.add(session(professional, LocalDate.now().minusDays(1), LocalTime.of(9 + i, 0)));
+      }
+    }
+    sessions.forEach(session -> session.setStatus(HealthSessionStatus.SCHEDULED));
+    healthSessionRepository.saveAll(sessions);
+    transactionRepository.saveAll(sessions.stream().map(JpaBatchingTest::transaction).collect(Collectors.toList()));
+    entityManager.flush();
+    entityManager.clear();
+    SqlLog.clear();
+    statistics.clear();
+
+    schedulerService.updateSessionsAndEarnings();
+    entityManager.flush();
+
+    // The sessions, their transactions and the accounts of the professionals are read once, and every table is written in a batch
+    assertEquals(1, SqlLog.count("from health_session"));
+    assertEquals(1, SqlLog.count("from session_transaction"));
+    assertEquals(1, SqlLog.count("from earnings"));
+    assertEquals(1, SqlLog.count("update health_session"));
+    assertEquals(1, SqlLog.count("update earnings"));
+    assertEquals(1, SqlLog.count("insert into earnings"));
+    assertTrue(SqlLog.count("earnings_id_seq") <= 1);
+    assertEquals(professionals.size() * SESSIONS + 1, statistics.getEntityUpdateCount());
+    assertEquals(2, statistics.getEntityInsertCount());
+
+    entityManager.clear();
+    assertTrue(healthSessionRepository.findAll().stream().allMatch(session -> session.getStatus() == HealthSessionStatus.COMPLETED));
+    Map<Long, BigDecimal> earnings = new HashMap<>();
+    earningsRepository.findAll().forEach(earning -> earnings.put(earning.getMember().getId(), earning.getTotalEarnings()));
+    BigDecimal earned = BigDecimal.valueOf(AMOUNT * 0.68).multiply(BigDecimal.valueOf(SESSIONS));
+    assertEquals(0, BigDecimal.TEN.add(earned).compareTo(earnings.get(professionals.get(0).getId())));
+    assertEquals(0, earned.compareTo(earnings.get(professionals.get(1).getId())));
+    assertEquals(0, earned.compareTo(earnings.get(professionals.get(2).getId())));
+  }
+
+  private HealthSession session(Member professional, LocalDate date, LocalTime time) {
+    return HealthSession.builder()
+      .professional(professional)
+      .patient(patient)
+      .date(date)
+      .time(time)
+      .reference(UUID.randomUUID().toString())
+      .status(HealthSessionStatus.PENDING)
+      .location(SessionLocation.REMOTE)
+      .build();
+  }
+
+  private static SessionTransaction transaction(HealthSession session) {
+    return SessionTransaction.builder()
+      .reference(UUID.randomUUID().toString())
+      .sessionReference(session.getReference())
+      .groupTransactionReference("group")
+      .payer(session.getPatient())
+      .amount(AMOUNT)
+      .amountInPaymentCurrency(AMOUNT)
+      .totalSessions(SESSIONS)
+      .status(TransactionStatus.PENDING)
+      .gateway(PaymentGateway.FLUTTERWAVE)
+      .type(TransactionType.HEALTH_SESSION)
+      .subType(TransactionSubType.DEBIT)
+      .build();
+  }
+
+  private static Member member(String name, int number) {
+    return Member.builder()
+      .firstName(name)
+      .lastName("Member")
+      .emailAddress(name + "@fleen.health")
+      .phoneNumber("+2348000000" + number)
+      .password("password")
+      .dateOfBirth(LocalDateTime.of(1990, 1, 1, 0, 0))
+      .gender(MemberGender.FEMALE)
+      .build();
+  }
+
+  @TestConfiguration
+  static class Batching {
+
+    @Bean
+    HibernatePropertiesCustomizer batchingHibernatePropertiesCustomizer() {
+      return new JpaConfig().batchingHibernatePropertiesCustomizer(50);
+    }
+  }
+
+  /**
+   * Records every statement Hibernate prepares. A batch is prepared once, however many rows it sends.
+   */
+  public static class SqlLog implements StatementInspector {
+
+    private static final Queue<String> STATEMENTS = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public String inspect(String sql) {
+      STATEMENTS.add(sql.toLowerCase());
+      return sql;
+    }
+
+    static void clear() {
+      STATEMENTS.clear();
+    }
+
+    static long count(String fragment) {
+      return STATEMENTS.stream().filter(sql -> sql.contains(fragment)).count();
+    }
+  }
+}
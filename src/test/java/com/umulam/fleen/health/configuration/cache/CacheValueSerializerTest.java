@@ -0,0 +1,110 @@
+package com.umulam.fleen.health.configuration.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.umulam.fleen.health.configuration.cache.CacheValueSerializer.Mode;
+import com.umulam.fleen.health.model.response.banking.BankListRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.util.ArrayList;
+
+import static com.umulam.fleen.health.configuration.cache.CacheValueSerializer.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheValueSerializerTest {
+
+  private static final int COMPRESSION_THRESHOLD = 256;
+
+  private final ObjectMapper jsonMapper = new ObjectMapper();
+  private final CacheValueSerializer serializer = new CacheValueSerializer(new CBORMapper(), jsonMapper, Mode.BINARY,
+    COMPRESSION_THRESHOLD);
+
+  @Test
+  void stringRoundTrip() {
+    byte[] bytes = serializer.serialize("fleen");
+
+    assertEquals(MARKER, bytes[0]);
+    assertEquals(FORMAT_VERSION, bytes[1]);
+    assertEquals(STRING_ENCODING, bytes[2]);
+    assertEquals(0, bytes[3]);
+    assertEquals("fleen", serializer.deserialize(bytes));
+  }
+
+  @Test
+  void objectRoundTripThroughCbor() throws Exception {
+    BankListRecord record = BankListRecord.builder().version(3L).fetchedAt(1700000000000L).banks("[]").build();
+    byte[] bytes = serializer.serialize(record);
+
+    assertEquals(CBOR_ENCODING, bytes[2]);
+    Object value = serializer.deserialize(bytes);
+    assertTrue(value instanceof EncodedCacheValue);
+    BankListRecord read = ((EncodedCacheValue) value).read(BankListRecord.class);
+    assertEquals(3L, read.getVersion());
+    assertEquals(1700000000000L, read.getFetchedAt());
+    assertEquals("[]", read.getBanks());
+
+    // A value read and written back keeps its payload
+    assertArrayEquals(bytes, serializer.serialize(value));
+  }
+
+  @Test
+  void largePayloadIsCompressed() throws Exception {
+    String banks = "{\"code\":\"044\",\"name\":\"Access Bank\"},".repeat(100);
+    byte[] stringBytes = serializer.serialize(banks);
+    assertEquals(COMPRESSED_FLAG, stringBytes[3]);
+    assertTrue(stringBytes.length < banks.length());
+    assertEquals(banks, serializer.deserialize(stringBytes));
+
+    BankListRecord record = BankListRecord.builder().version(1L).banks(banks).build();
+    byte[] objectBytes = serializer.serialize(record);
+    assertEquals(COMPRESSED_FLAG, objectBytes[3]);
+    assertEquals(banks, ((EncodedCacheValue) serializer.deserialize(objectBytes)).read(BankListRecord.class).getBanks());
+  }
+
+  @Test
+  void valuesWrittenAsJsonAreStillRead() throws Exception {
+    GenericJackson2JsonRedisSerializer legacySerializer = new GenericJackson2JsonRedisSerializer(jsonMapper);
+    String json = jsonMapper.writeValueAsString(BankListRecord.builder().version(2L).banks("[]").build());
+
+    Object value = serializer.deserialize(legacySerializer.serialize(json));
+    assertEquals(json, value);
+  }
+
+  @Test
+  void valuesWrittenByJdkSerializationAreStillRead() {
+    ArrayList<String> list = new ArrayList<>();
+    list.add("fleen");
+    byte[] bytes = new JdkSerializationRedisSerializer().serialize(list);
+
+    assertEquals(list, serializer.deserialize(bytes));
+  }
+
+  @Test
+  void legacyModeWritesJsonThatOldNodesRead() throws Exception {
+    CacheValueSerializer legacy = new CacheValueSerializer(new CBORMapper(), jsonMapper, Mode.LEGACY, COMPRESSION_THRESHOLD);
+    GenericJackson2JsonRedisSerializer legacySerializer = new GenericJackson2JsonRedisSerializer(jsonMapper);
+    BankListRecord record = BankListRecord.builder().version(5L).banks("[]").build();
+
+    Object json = legacySerializer.deserialize(legacy.serialize(record));
+    assertEquals(5L, jsonMapper.readValue((String) json, BankListRecord.class).getVersion());
+    assertEquals("fleen", legacySerializer.deserialize(legacy.serialize("fleen")));
+
+    // A value read in the binary format is written back as JSON
+    Object binary = serializer.deserialize(serializer.serialize(record));
+    Object rewritten = legacySerializer.deserialize(legacy.serialize(binary));
+    assertEquals(5L, jsonMapper.readValue((String) rewritten, BankListRecord.class).getVersion());
+  }
+
+  @Test
+  void valueOfANewerFormatIsAMiss() {
+    byte[] bytes = serializer.serialize("fleen");
+    bytes[1] = FORMAT_VERSION + 1;
+
+    assertNull(serializer.deserialize(bytes));
+    assertNull(serializer.deserialize(new byte[0]));
+    assertNull(serializer.deserialize(null));
+    assertArrayEquals(new byte[0], serializer.serialize(null));
+  }
+}
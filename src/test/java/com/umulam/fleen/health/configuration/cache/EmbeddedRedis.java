@@ -0,0 +1,138 @@
+package com.umulam.fleen.health.configuration.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fppt.jedismock.RedisServer;
+import com.github.fppt.jedismock.operations.server.MockExecutor;
+import com.github.fppt.jedismock.server.RedisClient;
+import com.github.fppt.jedismock.server.ServiceOptions;
+import com.umulam.fleen.health.configuration.FleenHealthConfig;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * EmbeddedRedis runs an in-process Redis server for tests and benchmarks, with the connection factory, template and value
+ * serializer built by {@link CacheConfig} so that values, scripts and pub/sub messages go through the same code as in production.
+ * Several nodes can share one server by each creating their own template and listener container.
+ *
+ * <p>The server writes every reply to the socket on its own and does not disable Nagle's algorithm, so a pipelined batch would
+ * wait on delayed acknowledgements between replies. The socket of every client is switched to TCP_NODELAY on its first command,
+ * as a real Redis server does.</p>
+ */
+public final class EmbeddedRedis implements AutoCloseable {
+
+  private final RedisServer server;
+  private final ObjectMapper mapper;
+  private final List<JedisConnectionFactory> connectionFactories = new ArrayList<>();
+  private final List<RedisMessageListenerContainer> listenerContainers = new ArrayList<>();
+
+  private EmbeddedRedis(RedisServer server) {
+    this.server = server;
+    this.mapper = new FleenHealthConfig(null).objectMapper();
+  }
+
+  public static EmbeddedRedis start() {
+    Set<RedisClient> clients = ConcurrentHashMap.newKeySet();
+    ServiceOptions options = ServiceOptions.withInterceptor((state, command, params) -> {
+      if (clients.add(state.owner())) {
+        disableNagle(state.owner());
+      }
+      return MockExecutor.proceed(state, command, params);
+    });
+
+    try {
+      return new EmbeddedRedis(RedisServer.newRedisServer().setOptions(options).start());
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  public ObjectMapper getMapper() {
+    return mapper;
+  }
+
+  /**
+   * @return a template with its own connection pool, as every node of the application has
+   */
+  public RedisTemplate<String, Object> newRedisTemplate() {
+    CacheConfig cacheConfig = newCacheConfig();
+    JedisConnectionFactory connectionFactory = newConnectionFactory(cacheConfig);
+    RedisTemplate<String, Object> redisTemplate = cacheConfig.redisTemplate(connectionFactory);
+    redisTemplate.afterPropertiesSet();
+    return redisTemplate;
+  }
+
+  /**
+   * @return a started listener container with its own connection, as every node of the application has
+   */
+  public RedisMessageListenerContainer newListenerContainer() {
+    CacheConfig cacheConfig = newCacheConfig();
+    RedisMessageListenerContainer listenerContainer = cacheConfig.redisMessageListenerContainer(newConnectionFactory(cacheConfig));
+    listenerContainer.afterPropertiesSet();
+    listenerContainer.start();
+    listenerContainers.add(listenerContainer);
+    return listenerContainer;
+  }
+
+  public void flushAll(RedisTemplate<String, Object> redisTemplate) {
+    redisTemplate.execute((RedisCallback<Void>) connection -> {
+      connection.serverCommands().flushAll();
+      return null;
+    });
+  }
+
+  @Override
+  public void close() {
+    listenerContainers.forEach(listenerContainer -> {
+      try {
+        listenerContainer.destroy();
+      } catch (Exception ignored) {
+        // The server is stopped next
+      }
+    });
+    connectionFactories.forEach(JedisConnectionFactory::destroy);
+    try {
+      server.stop();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private CacheConfig newCacheConfig() {
+    CacheCredentials credentials = new CacheCredentials();
+    credentials.setHost(server.getHost());
+    credentials.setPort(server.getBindPort());
+    credentials.setMaxTotal(32);
+    credentials.setMaxIdle(32);
+    credentials.setTtl(60);
+    return new CacheConfig(credentials, mapper, CacheValueSerializer.Mode.BINARY, 1024);
+  }
+
+  private JedisConnectionFactory newConnectionFactory(CacheConfig cacheConfig) {
+    JedisConnectionFactory connectionFactory = cacheConfig.connectionFactory();
+    connectionFactory.afterPropertiesSet();
+    connectionFactories.add(connectionFactory);
+    return connectionFactory;
+  }
+
+  private static void disableNagle(RedisClient client) {
+    try {
+      Field socket = RedisClient.class.getDeclaredField("socket");
+      socket.setAccessible(true);
+      ((Socket) socket.get(client)).setTcpNoDelay(true);
+    } catch (NoSuchFieldException | IllegalAccessException | SocketException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+}
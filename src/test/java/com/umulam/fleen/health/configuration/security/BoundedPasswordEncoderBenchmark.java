@@ -0,0 +1,62 @@
+package com.umulam.fleen.health.configuration.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many sign ins per second can verify a password at each BCrypt cost, through the bounded hashing pool and directly on
+ * the calling thread as before. The pool has one thread per available processor, so the numbers are the capacity of one node at
+ * that cost and can be used to size the pool apart from the web threads.
+ *
+ * <p>Run the main method from the test classpath.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class BoundedPasswordEncoderBenchmark {
+
+  private static final String PASSWORD = "Password1!";
+
+  @Param({"8", "10", "12"})
+  public int strength;
+
+  private BoundedPasswordEncoder boundedEncoder;
+  private BCryptPasswordEncoder callerThreadEncoder;
+  private String passwordHash;
+
+  @Setup
+  public void setUp() {
+    int processors = Runtime.getRuntime().availableProcessors();
+    boundedEncoder = new BoundedPasswordEncoder(strength, processors, processors * 16, 30_000, new SimpleMeterRegistry());
+    callerThreadEncoder = new BCryptPasswordEncoder(strength);
+    passwordHash = callerThreadEncoder.encode(PASSWORD);
+  }
+
+  @TearDown
+  public void tearDown() {
+    boundedEncoder.destroy();
+  }
+
+  @Benchmark
+  public boolean boundedPoolLogins() {
+    return boundedEncoder.matches(PASSWORD, passwordHash);
+  }
+
+  @Benchmark
+  public boolean callerThreadLogins() {
+    return callerThreadEncoder.matches(PASSWORD, passwordHash);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(BoundedPasswordEncoderBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,121 @@
+package com.umulam.fleen.health.service.external.banking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umulam.fleen.health.adapter.banking.paystack.response.PsGetBanksResponse;
+import com.umulam.fleen.health.adapter.banking.paystack.response.PsGetBanksResponse.PsBankData;
+import com.umulam.fleen.health.configuration.cache.EmbeddedRedis;
+import com.umulam.fleen.health.constant.session.PaymentGateway;
+import com.umulam.fleen.health.service.external.banking.BankDirectory.Source;
+import com.umulam.fleen.health.service.impl.CacheService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares checking a bank code with the bank directory, which looks the code up in the index of the banks held in memory, with
+ * the lookup it replaced, which read the whole list from the cache store and scanned it. The list scan is also measured on a list
+ * already held in memory, to separate the cost of the scan from the cost of reading the list. The cache store is an in-process
+ * Redis server answering on the loopback interface, so reading the list costs more against a remote server.
+ *
+ * <p>The code looked up is the last of the list, which is the longest scan, and a code that is not in the list is looked up too, as
+ * is done when a member adds a bank account with a wrong bank code.</p>
+ *
+ * <p>Run the main method from the test classpath.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BankDirectoryBenchmark {
+
+  private static final String CURRENCY = "NGN";
+  private static final String CACHE_KEY = "BENCHMARK:BANKS:" + CURRENCY;
+  private static final String MISSING_CODE = "999999";
+
+  @Param({"50", "500"})
+  public int banks;
+
+  private EmbeddedRedis redis;
+  private CacheService cacheService;
+  private Source<PsBankData> source;
+  private List<PsBankData> bankList;
+  private String lastCode;
+
+  @Setup
+  public void setUp() {
+    redis = EmbeddedRedis.start();
+    RedisTemplate<String, Object> redisTemplate = redis.newRedisTemplate();
+    cacheService = new CacheService(redisTemplate, redis.getMapper());
+
+    bankList = new ArrayList<>();
+    for (int i = 0; i < banks; i++) {
+      PsBankData bank = new PsBankData();
+      bank.setCode(String.format("%03d", i));
+      bank.setName("Bank " + i);
+      bank.setCurrency(CURRENCY);
+      bankList.add(bank);
+    }
+    lastCode = bankList.get(banks - 1).getCode();
+
+    PsGetBanksResponse response = new PsGetBanksResponse();
+    response.setData(bankList);
+    cacheService.set(CACHE_KEY, response);
+
+    BankDirectory bankDirectory = new BankDirectory(cacheService, new ObjectMapper(), redisTemplate, redis.newListenerContainer(),
+      "BENCHMARK_BANK_DIRECTORY_UPDATES", 10);
+    source = bankDirectory.register(PaymentGateway.PAYSTACK, PsBankData.class, PsBankData::getCode, PsBankData::getName,
+      currency -> bankList, List.of(CURRENCY), CURRENCY);
+    source.get(CURRENCY);
+  }
+
+  @TearDown
+  public void tearDown() {
+    redis.close();
+  }
+
+  @Benchmark
+  public boolean directoryLookup() {
+    return source.get(CURRENCY).findByCode(lastCode).isPresent();
+  }
+
+  @Benchmark
+  public boolean directoryLookupOfAMissingCode() {
+    return source.get(CURRENCY).findByCode(MISSING_CODE).isPresent();
+  }
+
+  @Benchmark
+  public boolean cachedListScan() {
+    return scan(cacheService.get(CACHE_KEY, PsGetBanksResponse.class).getData(), lastCode);
+  }
+
+  @Benchmark
+  public boolean cachedListScanOfAMissingCode() {
+    return scan(cacheService.get(CACHE_KEY, PsGetBanksResponse.class).getData(), MISSING_CODE);
+  }
+
+  @Benchmark
+  public boolean heldListScan() {
+    return scan(bankList, lastCode);
+  }
+
+  /**
+   * The check made before the bank directory, on the banks read from the cache store.
+   */
+  private static boolean scan(List<PsBankData> banks, String bankCode) {
+    return banks
+      .stream()
+      .anyMatch(bank -> bank.getCode().equalsIgnoreCase(bankCode));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(BankDirectoryBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,156 @@
+package com.umulam.fleen.health.service.external.banking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umulam.fleen.health.constant.session.PaymentGateway;
+import com.umulam.fleen.health.exception.banking.UnsupportedBankRegionException;
+import com.umulam.fleen.health.model.response.banking.BankListRecord;
+import com.umulam.fleen.health.service.external.banking.BankDirectory.BankList;
+import com.umulam.fleen.health.service.external.banking.BankDirectory.Source;
+import com.umulam.fleen.health.service.impl.CacheService;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BankDirectoryTest {
+
+  private static final List<Bank> BANKS = List.of(new Bank("044", "Access Bank"), new Bank("058", "Guaranty Trust Bank"));
+
+  private final CacheService cacheService = mock(CacheService.class);
+
+  @Test
+  void eTagIsTheSameOnEveryNodeForTheSameBanks() {
+    BankList<Bank> first = register(region -> BANKS).get("NG");
+    BankList<Bank> second = register(region -> new ArrayList<>(BANKS)).get("ng");
+    BankList<Bank> other = register(region -> List.of(new Bank("044", "Access Bank"))).get("NG");
+
+    assertTrue(first.getETag().startsWith("\"") && first.getETag().endsWith("\""));
+    assertEquals(first.getETag(), second.getETag());
+    assertNotEquals(first.getETag(), other.getETag());
+  }
+
+  @Test
+  void matchesTheETagsOfTheIfNoneMatchHeader() {
+    BankList<Bank> bankList = register(region -> BANKS).get("NG");
+    String eTag = bankList.getETag();
+
+    assertTrue(bankList.matches(eTag));
+    assertTrue(bankList.matches("W/" + eTag));
+    assertTrue(bankList.matches("\"other\", " + eTag));
+    assertTrue(bankList.matches("*"));
+    assertFalse(bankList.matches("\"other\""));
+    assertFalse(bankList.matches(eTag.substring(1, eTag.length() - 1)));
+    assertFalse(bankList.matches(null));
+  }
+
+  @Test
+  void banksAreFoundByCodeAndNameIgnoringCase() {
+    BankList<Bank> bankList = register(region -> BANKS).get("NG");
+
+    assertEquals("058", bankList.findByName(" guaranty trust bank ").map(Bank::getCode).orElse(null));
+    assertEquals("Access Bank", bankList.findByCode("044").map(Bank::getName).orElse(null));
+    assertTrue(bankList.findByCode("999").isEmpty());
+    assertTrue(bankList.findByCode(null).isEmpty());
+  }
+
+  @Test
+  void unsupportedRegionIsRejectedWithoutCallingTheGateway() {
+    AtomicInteger calls = new AtomicInteger();
+    Source<Bank> source = register(region -> {
+      calls.incrementAndGet();
+      return BANKS;
+    });
+
+    assertThrows(UnsupportedBankRegionException.class, () -> source.get("XX"));
+    assertThrows(UnsupportedBankRegionException.class, () -> source.get(null));
+    assertEquals(0, calls.get());
+  }
+
+  @Test
+  void emptyBanksAreNotHeldOrShared() {
+    AtomicInteger calls = new AtomicInteger();
+    Source<Bank> source = register(region -> calls.incrementAndGet() == 1 ? List.of() : BANKS);
+
+    assertTrue(source.get("NG").getBanks().isEmpty());
+    verify(cacheService, never()).set(anyString(), any(BankListRecord.class));
+
+    assertEquals(BANKS.size(), source.get("NG").getBanks().size());
+    assertEquals(BANKS.size(), source.get("NG").getBanks().size());
+    assertEquals(2, calls.get());
+    verify(cacheService).set(anyString(), any(BankListRecord.class));
+  }
+
+  @Test
+  void concurrentRequestsForARegionFetchItOnce() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    CountDownLatch fetching = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Source<Bank> source = register(region -> {
+      if ("NG".equals(region)) {
+        calls.incrementAndGet();
+        fetching.countDown();
+        await(release);
+      }
+      return BANKS;
+    });
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Future<BankList<Bank>> first = executor.submit(() -> source.get("NG"));
+      assertTrue(fetching.await(5, TimeUnit.SECONDS));
+      Future<BankList<Bank>> second = executor.submit(() -> source.get("NG"));
+
+      // A slow fetch of one region does not hold up the others
+      assertEquals(BANKS.size(), executor.submit(() -> source.get("GH")).get(5, TimeUnit.SECONDS).getBanks().size());
+
+      release.countDown();
+      assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+      assertEquals(1, calls.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Source<Bank> register(Function<String, List<Bank>> loader) {
+    BankDirectory bankDirectory = new BankDirectory(cacheService, new ObjectMapper(), mock(RedisTemplate.class),
+      mock(RedisMessageListenerContainer.class), "BANK_DIRECTORY_UPDATES", 10);
+    return bankDirectory.register(PaymentGateway.FLUTTERWAVE, Bank.class, Bank::getCode, Bank::getName, loader, List.of("NG", "GH"));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  static class Bank {
+
+    private final String code;
+    private final String name;
+
+    Bank(String code, String name) {
+      this.code = code;
+      this.name = name;
+    }
+
+    public String getCode() {
+      return code;
+    }
+
+    public String getName() {
+      return name;
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package com.umulam.fleen.health.service.external.banking;
+
+import com.umulam.fleen.health.constant.authentication.PaymentGatewayType;
+import com.umulam.fleen.health.exception.externalsystem.ExternalSystemException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FakeExchangeRateProvider answers every request with the same rate after the given delay without calling Flutterwave, or fails
+ * once told to. It is used to see how the application behaves when the rate is slow to get or cannot be got.
+ */
+public class FakeExchangeRateProvider implements ExchangeRateProvider {
+
+  private final AtomicInteger calls = new AtomicInteger();
+  private volatile long latencyMillis;
+  private volatile boolean failing;
+  private volatile double rate;
+
+  public FakeExchangeRateProvider(long latencyMillis, double rate) {
+    this.latencyMillis = latencyMillis;
+    this.rate = rate;
+  }
+
+  @Override
+  public Double getRate(String sourceCurrency, String destinationCurrency) {
+    calls.incrementAndGet();
+    if (latencyMillis > 0) {
+      try {
+        Thread.sleep(latencyMillis);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if (failing) {
+      throw new ExternalSystemException(PaymentGatewayType.FLUTTERWAVE.getValue());
+    }
+    return rate;
+  }
+
+  public int getCalls() {
+    return calls.get();
+  }
+
+  public void setLatencyMillis(long latencyMillis) {
+    this.latencyMillis = latencyMillis;
+  }
+
+  public void setFailing(boolean failing) {
+    this.failing = failing;
+  }
+
+  public void setRate(double rate) {
+    this.rate = rate;
+  }
+}
@@ -0,0 +1,150 @@
+package com.umulam.fleen.health.service.external.google;
+
+import com.umulam.fleen.health.service.external.google.ReCaptchaVerificationService.FailurePolicy;
+import com.umulam.fleen.health.service.external.google.ReCaptchaVerificationService.Verification;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.umulam.fleen.health.service.external.google.ReCaptchaVerificationService.FailurePolicy.FAIL_CLOSED;
+import static com.umulam.fleen.health.service.external.google.ReCaptchaVerificationService.FailurePolicy.FAIL_OPEN;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the reCAPTCHA check against the fake verifier with injected latency, so that the deadline, the failure policy and the
+ * circuit breaker can be checked without calling Google.
+ */
+class ReCaptchaVerificationServiceTest {
+
+  private static final long TIMEOUT_MILLIS = 200;
+  private static final String METRIC_NAME = "fleen.health.recaptcha.verification";
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AtomicInteger calls = new AtomicInteger();
+  private final List<ReCaptchaVerificationService> services = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    services.forEach(ReCaptchaVerificationService::destroy);
+  }
+
+  @Test
+  void fastCheckIsAnsweredByItsScore() {
+    ReCaptchaVerificationService service = newService(new FakeReCaptchaVerifier(10, true, 0.9f), FAIL_CLOSED, 5, 8, 100);
+    ReCaptchaVerificationService lowScore = newService(new FakeReCaptchaVerifier(10, true, 0.1f), FAIL_OPEN, 5, 8, 100);
+
+    assertTrue(isHuman(service));
+    assertFalse(isHuman(lowScore));
+    assertEquals(1, count("human"));
+    assertEquals(1, count("not_human"));
+  }
+
+  @Test
+  void slowCheckIsGivenUpAtTheDeadlineAndDecidedByThePolicy() {
+    ReCaptchaVerificationService failClosed = newService(new FakeReCaptchaVerifier(2_000, true, 0.9f), FAIL_CLOSED, 5, 8, 100);
+    ReCaptchaVerificationService failOpen = newService(new FakeReCaptchaVerifier(2_000, true, 0.9f), FAIL_OPEN, 5, 8, 100);
+
+    long startedAt = System.nanoTime();
+    assertFalse(isHuman(failClosed));
+    assertTrue(isHuman(failOpen));
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+    // Two checks, each waited on for no longer than the deadline although the verifier takes ten times as long
+    assertTrue(elapsedMillis < 2 * TIMEOUT_MILLIS + 500, "Waited " + elapsedMillis + "ms");
+    assertEquals(2, count("timeout"));
+  }
+
+  @Test
+  void slowChecksOpenTheBreakerAndLaterChecksDoNotWait() {
+    int failureThreshold = 3;
+    ReCaptchaVerificationService service = newService(new FakeReCaptchaVerifier(1_000, true, 0.9f), FAIL_OPEN, failureThreshold, 8, 100);
+    for (int i = 0; i < failureThreshold; i++) {
+      assertTrue(isHuman(service));
+    }
+    assertEquals(failureThreshold, calls.get());
+
+    for (int i = 0; i < 50; i++) {
+      long startedAt = System.nanoTime();
+      assertTrue(isHuman(service));
+      assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) < TIMEOUT_MILLIS);
+    }
+    assertEquals(failureThreshold, calls.get());
+    assertEquals(50, count("circuit_open"));
+  }
+
+  @Test
+  void failingVerifierIsDecidedByThePolicy() {
+    ReCaptchaVerificationService service = newService(reCaptchaToken -> {
+      throw new IllegalStateException("Connection reset");
+    }, FAIL_CLOSED, 5, 8, 100);
+
+    assertFalse(isHuman(service));
+    assertEquals(1, count("error"));
+  }
+
+  @Test
+  void checksBeyondTheQueueAreRejectedWithoutWaiting() {
+    ReCaptchaVerificationService service = newService(new FakeReCaptchaVerifier(1_000, true, 0.9f), FAIL_CLOSED, 100, 1, 1);
+    List<Verification> started = new ArrayList<>();
+    try {
+      // One check runs and one waits in the queue
+      started.add(service.verify("token-1"));
+      started.add(service.verify("token-2"));
+
+      long startedAt = System.nanoTime();
+      assertFalse(isHuman(service));
+      assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) < TIMEOUT_MILLIS);
+      assertEquals(1, count("rejected"));
+    } finally {
+      started.forEach(Verification::close);
+    }
+  }
+
+  @Test
+  void checkWhoseResultIsNeverReadGivesBackItsTrialPermit() throws Exception {
+    AtomicInteger latency = new AtomicInteger(1_000);
+    ReCaptchaVerificationService service = newService(reCaptchaToken -> {
+      try {
+        Thread.sleep(latency.get());
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      return new FakeReCaptchaVerifier(0, true, 0.9f).verify(reCaptchaToken);
+    }, FAIL_CLOSED, 1, 8, 100);
+
+    assertFalse(isHuman(service));
+    Thread.sleep(1_100);
+    latency.set(0);
+
+    // The breaker is half open and the only trial is abandoned, for example because the address turned out to be blocked
+    service.verify("abandoned").close();
+    assertTrue(isHuman(service));
+  }
+
+  private ReCaptchaVerificationService newService(ReCaptchaVerifier verifier, FailurePolicy failurePolicy, int failureThreshold,
+                                                  int poolSize, int queueCapacity) {
+    ReCaptchaVerifier counting = reCaptchaToken -> {
+      calls.incrementAndGet();
+      return verifier.verify(reCaptchaToken);
+    };
+    ReCaptchaVerificationService service = new ReCaptchaVerificationService(counting, meterRegistry, "0.5", TIMEOUT_MILLIS, failurePolicy,
+      failureThreshold, 1, poolSize, queueCapacity);
+    services.add(service);
+    return service;
+  }
+
+  private static boolean isHuman(ReCaptchaVerificationService service) {
+    try (Verification verification = service.verify("token")) {
+      return verification.isHuman();
+    }
+  }
+
+  private long count(String outcome) {
+    return meterRegistry.get(METRIC_NAME).tag("outcome", outcome).timer().count();
+  }
+}
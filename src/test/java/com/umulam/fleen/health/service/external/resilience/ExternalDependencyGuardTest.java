@@ -0,0 +1,212 @@
+package com.umulam.fleen.health.service.external.resilience;
+
+import com.umulam.fleen.health.exception.externalsystem.ExternalSystemUnavailableException;
+import com.umulam.fleen.health.util.CircuitBreaker.State;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static com.umulam.fleen.health.constant.externalsystem.ExternalDependency.GOOGLE_CALENDAR;
+import static com.umulam.fleen.health.constant.externalsystem.ExternalDependency.PAYSTACK;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalDependencyGuardTest {
+
+  private static final int WINDOW_SIZE = 4;
+  private static final int MAX_CONCURRENT_CALLS = 2;
+  private static final int SLOW_CALLERS = 8;
+
+  private final ExternalDependencyGuard guard = new ExternalDependencyGuard(new MockEnvironment()
+    .withProperty("fleen.health.resilience.window-size", "1")
+    .withProperty("fleen.health.resilience.minimum-calls", "1")
+    .withProperty("fleen.health.resilience.open-seconds", "0")
+    .withProperty("fleen.health.resilience.trial-calls", "1"), new SimpleMeterRegistry());
+
+  @AfterEach
+  void destroy() {
+    guard.destroy();
+  }
+
+  @Test
+  void trialPermitIsGivenBackWhenTheCallEndsWithAnError() {
+    openBreaker();
+
+    assertThrows(Error.class, () -> guard.call(PAYSTACK, () -> {
+      throw new Error("Abandoned trial call");
+    }));
+    assertEquals(State.HALF_OPEN, getState());
+
+    assertEquals("ok", guard.call(PAYSTACK, () -> "ok"));
+    assertEquals(State.CLOSED, getState());
+  }
+
+  @Test
+  void failedTrialCallOpensTheBreakerAgain() {
+    openBreaker();
+
+    assertEquals("fallback", guard.call(PAYSTACK, () -> {
+      throw new IllegalStateException("Still failing");
+    }, () -> "fallback"));
+    assertEquals(State.OPEN, getState());
+  }
+
+  @Test
+  void rejectedCallWithoutFallbackFailsFast() {
+    openBreaker();
+    guard.call(PAYSTACK, () -> {
+      // Hold the only trial permit while another call is made
+      assertThrows(ExternalSystemUnavailableException.class, () -> guard.call(PAYSTACK, () -> "second"));
+      return null;
+    });
+  }
+
+  @Test
+  void slowDependencyDoesNotSlowDownCallsToAnother() throws Exception {
+    ExternalDependencyGuard isolatingGuard = isolatingGuard();
+    FakeDependency paystack = new FakeDependency();
+    FakeDependency calendar = new FakeDependency();
+    paystack.setLatencyMillis(1_000);
+
+    ExecutorService callers = Executors.newFixedThreadPool(SLOW_CALLERS);
+    try {
+      List<Future<Long>> slowCalls = new ArrayList<>();
+      for (int i = 0; i < SLOW_CALLERS; i++) {
+        slowCalls.add(callers.submit(() -> elapsedMillis(() -> {
+          try {
+            isolatingGuard.call(PAYSTACK, paystack::call);
+          } catch (ExternalSystemUnavailableException ignored) {
+            // Rejected once the bulkhead stayed full for longer than the wait allowed
+          }
+        })));
+      }
+      awaitTrue(() -> paystack.getCalls() == MAX_CONCURRENT_CALLS);
+
+      // Every thread free to serve a request other than the Paystack ones calls the calendar at its own latency
+      for (int i = 0; i < 20; i++) {
+        long elapsedMillis = elapsedMillis(() -> assertEquals("ok", isolatingGuard.call(GOOGLE_CALENDAR, calendar::call)));
+        assertTrue(elapsedMillis < 100, "Calendar call took " + elapsedMillis + " ms");
+      }
+
+      int rejected = 0;
+      for (Future<Long> slowCall : slowCalls) {
+        if (slowCall.get(5, TimeUnit.SECONDS) < 500) {
+          rejected++;
+        }
+      }
+      assertEquals(SLOW_CALLERS - MAX_CONCURRENT_CALLS, rejected);
+      assertEquals(MAX_CONCURRENT_CALLS, paystack.getCalls());
+    } finally {
+      callers.shutdownNow();
+      isolatingGuard.destroy();
+    }
+  }
+
+  @Test
+  void failingDependencyIsCutOffWithoutAffectingAnother() {
+    ExternalDependencyGuard isolatingGuard = isolatingGuard();
+    FakeDependency paystack = new FakeDependency();
+    FakeDependency calendar = new FakeDependency();
+    paystack.setFailing(true);
+
+    try {
+      for (int i = 0; i < WINDOW_SIZE; i++) {
+        assertEquals("fallback", isolatingGuard.call(PAYSTACK, paystack::call, () -> "fallback"));
+        assertEquals("ok", isolatingGuard.call(GOOGLE_CALENDAR, calendar::call));
+      }
+      assertEquals(State.OPEN, isolatingGuard.getStatus().get(PAYSTACK.getValue()).getState());
+
+      // Paystack is no longer called while its breaker is open, and the calendar is not affected
+      long elapsedMillis = elapsedMillis(() -> assertThrows(ExternalSystemUnavailableException.class, () -> isolatingGuard.call(PAYSTACK, paystack::call)));
+      assertTrue(elapsedMillis < 50, "Rejected call took " + elapsedMillis + " ms");
+      assertEquals(WINDOW_SIZE, paystack.getCalls());
+      assertEquals("ok", isolatingGuard.call(GOOGLE_CALENDAR, calendar::call));
+      assertEquals(State.CLOSED, isolatingGuard.getStatus().get(GOOGLE_CALENDAR.getValue()).getState());
+    } finally {
+      isolatingGuard.destroy();
+    }
+  }
+
+  /**
+   * A guard whose bulkheads let a couple of calls through at a time and reject the calls that wait for longer than a short time.
+   */
+  private static ExternalDependencyGuard isolatingGuard() {
+    return new ExternalDependencyGuard(new MockEnvironment()
+      .withProperty("fleen.health.resilience.window-size", String.valueOf(WINDOW_SIZE))
+      .withProperty("fleen.health.resilience.minimum-calls", String.valueOf(WINDOW_SIZE))
+      .withProperty("fleen.health.resilience.open-seconds", "60")
+      .withProperty("fleen.health.resilience.max-concurrent-calls", String.valueOf(MAX_CONCURRENT_CALLS))
+      .withProperty("fleen.health.resilience.max-wait-millis", "50"), new SimpleMeterRegistry());
+  }
+
+  private static long elapsedMillis(Runnable call) {
+    long startedAt = System.nanoTime();
+    call.run();
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.currentTimeMillis() < deadline, "Condition not met in time");
+      Thread.sleep(10);
+    }
+  }
+
+  private void openBreaker() {
+    assertThrows(IllegalStateException.class, () -> guard.call(PAYSTACK, () -> {
+      throw new IllegalStateException("Unavailable");
+    }));
+    assertEquals(State.OPEN, getState());
+  }
+
+  private State getState() {
+    return guard.getStatus().get(PAYSTACK.getValue()).getState();
+  }
+
+  /**
+   * An external system called in-process, which answers after the given delay or fails once told to.
+   */
+  private static final class FakeDependency {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private volatile long latencyMillis;
+    private volatile boolean failing;
+
+    private String call() {
+      calls.incrementAndGet();
+      if (latencyMillis > 0) {
+        try {
+          Thread.sleep(latencyMillis);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      if (failing) {
+        throw new IllegalStateException("Unavailable");
+      }
+      return "ok";
+    }
+
+    private int getCalls() {
+      return calls.get();
+    }
+
+    private void setLatencyMillis(long latencyMillis) {
+      this.latencyMillis = latencyMillis;
+    }
+
+    private void setFailing(boolean failing) {
+      this.failing = failing;
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package com.umulam.fleen.health.service.impl;
+
+import com.umulam.fleen.health.configuration.cache.EmbeddedRedis;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.umulam.fleen.health.constant.authentication.AuthenticationStatus.COMPLETED;
+import static com.umulam.fleen.health.constant.base.GeneralConstant.DEVICE_ID_HEADER_KEY;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthenticationSessionStoreTest {
+
+  private static final String USERNAME = "member@fleen.health";
+  private static final Duration TTL = Duration.ofMinutes(30);
+  private static final int MAX_DEVICES = 3;
+
+  private static EmbeddedRedis redis;
+  private static RedisTemplate<String, Object> redisTemplate;
+  private static MutableClock clock;
+  private static AuthenticationSessionStore store;
+
+  @BeforeAll
+  static void start() {
+    redis = EmbeddedRedis.start();
+    redisTemplate = redis.newRedisTemplate();
+    clock = new MutableClock();
+    store = new AuthenticationSessionStore(redisTemplate, clock, "SESSION_INVALIDATION", MAX_DEVICES);
+  }
+
+  @AfterAll
+  static void stop() {
+    redis.close();
+  }
+
+  @BeforeEach
+  void flush() {
+    redis.flushAll(redisTemplate);
+  }
+
+  @AfterEach
+  void clearRequest() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  void devicesHaveTheirOwnTokens() {
+    saveOnDevice("phone", "access-phone", "refresh-phone", TTL);
+    saveOnDevice("laptop", "access-laptop", "refresh-laptop", TTL);
+
+    assertEquals(Set.of("access-phone", "access-laptop"), store.getAccessTokens(USERNAME));
+
+    onDevice("phone");
+    store.removeDevice(USERNAME);
+    assertEquals(Set.of("access-laptop"), store.getAccessTokens(USERNAME));
+  }
+
+  @Test
+  void deviceWhoseSessionExpiresFirstIsEvictedOnceTheLimitIsReached() {
+    saveOnDevice("device-1", "access-1", "refresh-1", TTL);
+    clock.advance(Duration.ofMinutes(1));
+    saveOnDevice("device-2", "access-2", "refresh-2", TTL);
+    clock.advance(Duration.ofMinutes(1));
+    saveOnDevice("device-3", "access-3", "refresh-3", TTL);
+    clock.advance(Duration.ofMinutes(1));
+
+    // Signing in again on a known device does not evict another device
+    saveOnDevice("device-1", "access-1b", "refresh-1b", TTL);
+    assertEquals(Set.of("access-1b", "access-2", "access-3"), store.getAccessTokens(USERNAME));
+
+    saveOnDevice("device-4", "access-4", "refresh-4", TTL);
+    assertEquals(Set.of("access-1b", "access-3", "access-4"), store.getAccessTokens(USERNAME));
+    assertFalse(store.rotate(USERNAME, "refresh-2", "access-x", "refresh-x", TTL));
+  }
+
+  @Test
+  void manyClientChosenDeviceIdsDoNotGrowTheSession() {
+    for (int i = 0; i < 50; i++) {
+      saveOnDevice("device-" + i, "access-" + i, "refresh-" + i, TTL);
+      clock.advance(Duration.ofSeconds(1));
+    }
+
+    assertEquals(Set.of("access-47", "access-48", "access-49"), store.getAccessTokens(USERNAME));
+    Long fields = redisTemplate.opsForHash().size(AuthenticationSessionStore.getSessionKey(USERNAME));
+    assertEquals(MAX_DEVICES * 5L, fields);
+  }
+
+  @Test
+  void expiredDeviceIsNotActiveAndIsRemovedOnTheNextSave() {
+    saveOnDevice("phone", "access-phone", "refresh-phone", Duration.ofMinutes(5));
+    saveOnDevice("laptop", "access-laptop", "refresh-laptop", TTL);
+
+    clock.advance(Duration.ofMinutes(6));
+    assertEquals(Set.of("access-laptop"), store.getAccessTokens(USERNAME));
+    assertFalse(store.rotate(USERNAME, "refresh-phone", "access-x", "refresh-x", TTL));
+
+    saveOnDevice("tablet", "access-tablet", "refresh-tablet", TTL);
+    assertFalse(redisTemplate.opsForHash().hasKey(AuthenticationSessionStore.getSessionKey(USERNAME), "access:phone"));
+  }
+
+  @Test
+  void rotationExtendsTheExpiryOfTheDevice() {
+    saveOnDevice("phone", "access-1", "refresh-1", Duration.ofMinutes(5));
+
+    clock.advance(Duration.ofMinutes(4));
+    assertTrue(store.rotate(USERNAME, "refresh-1", "access-2", "refresh-2", Duration.ofMinutes(5)));
+
+    clock.advance(Duration.ofMinutes(4));
+    assertEquals(Set.of("access-2"), store.getAccessTokens(USERNAME));
+  }
+
+  @Test
+  void concurrentRotationsLeaveNoStaleTokenBehind() throws Exception {
+    saveOnDevice("phone", "access-phone", "refresh-phone", TTL);
+    saveOnDevice("laptop", "access-0", "refresh-0", TTL);
+    RequestContextHolder.resetRequestAttributes();
+
+    int threads = 8;
+    int rotations = 100;
+    AtomicReference<String[]> current = new AtomicReference<>(new String[] {"access-0", "refresh-0"});
+    Set<String> usedRefreshTokens = ConcurrentHashMap.newKeySet();
+    List<String> staleAccessTokens = new ArrayList<>();
+    AtomicInteger successes = new AtomicInteger();
+    AtomicInteger attempts = new AtomicInteger();
+    CountDownLatch ready = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      int thread = t;
+      futures.add(executor.submit(() -> {
+        ready.await();
+        int n = 0;
+        while (successes.get() < rotations) {
+          String[] tokens = current.get();
+          String accessToken = "access-" + thread + "-" + n;
+          String refreshToken = "refresh-" + thread + "-" + n++;
+          attempts.incrementAndGet();
+          if (store.rotate(USERNAME, tokens[1], accessToken, refreshToken, TTL)) {
+            assertTrue(usedRefreshTokens.add(tokens[1]), "A refresh token was used twice");
+            synchronized (staleAccessTokens) {
+              staleAccessTokens.add(tokens[0]);
+            }
+            assertFalse(store.getAccessTokens(USERNAME).contains(tokens[0]));
+            current.set(new String[] {accessToken, refreshToken});
+            successes.incrementAndGet();
+          }
+        }
+        return null;
+      }));
+    }
+
+    ready.countDown();
+    for (Future<?> future : futures) {
+      future.get(2, TimeUnit.MINUTES);
+    }
+    executor.shutdown();
+
+    assertEquals(rotations, successes.get());
+    assertEquals(rotations, usedRefreshTokens.size());
+    assertTrue(attempts.get() >= rotations);
+    assertEquals(Set.of("access-phone", current.get()[0]), store.getAccessTokens(USERNAME));
+    for (String refreshToken : usedRefreshTokens) {
+      assertFalse(store.rotate(USERNAME, refreshToken, "access-x", "refresh-x", TTL));
+    }
+    for (String accessToken : staleAccessTokens) {
+      assertFalse(store.getAccessTokens(USERNAME).contains(accessToken));
+    }
+  }
+
+  private static void saveOnDevice(String deviceId, String accessToken, String refreshToken, Duration ttl) {
+    onDevice(deviceId);
+    store.save(USERNAME, accessToken, refreshToken, COMPLETED, ttl);
+  }
+
+  private static void onDevice(String deviceId) {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader(DEVICE_ID_HEADER_KEY, deviceId);
+    // The in-process server drops empty hash values when they are read inside a script, which a real server does not
+    request.addHeader("User-Agent", "Test/" + deviceId);
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private volatile Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+    private void advance(Duration duration) {
+      instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
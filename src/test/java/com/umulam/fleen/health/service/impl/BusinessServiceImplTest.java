@@ -0,0 +1,154 @@
+package com.umulam.fleen.health.service.impl;
+
+import com.umulam.fleen.health.configuration.aws.s3.S3BucketNames;
+import com.umulam.fleen.health.constant.business.BusinessEmployeeStatus;
+import com.umulam.fleen.health.constant.member.MemberGender;
+import com.umulam.fleen.health.exception.business.BusinessEmployeeNotFoundException;
+import com.umulam.fleen.health.model.domain.Business;
+import com.umulam.fleen.health.model.domain.Member;
+import com.umulam.fleen.health.model.dto.business.AddBusinessEmployeeDto;
+import com.umulam.fleen.health.model.security.FleenUser;
+import com.umulam.fleen.health.repository.jpa.BusinessEmployeeJpaRepository;
+import com.umulam.fleen.health.repository.jpa.BusinessJpaRepository;
+import com.umulam.fleen.health.repository.jpa.MemberJpaRepository;
+import com.umulam.fleen.health.service.CountryService;
+import com.umulam.fleen.health.service.MemberService;
+import com.umulam.fleen.health.service.VerificationDocumentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Adds, accepts and removes the employees of businesses against an in-memory database, and checks which members a business can
+ * book sessions for, which are the members {@link BusinessEmployeeJpaRepository#findEmployeeMemberIds} returns.
+ */
+@DataJpaTest
+@Import(BusinessServiceImpl.class)
+class BusinessServiceImplTest {
+
+  @Autowired
+  private BusinessServiceImpl businessService;
+
+  @Autowired
+  private BusinessEmployeeJpaRepository employeeRepository;
+
+  @Autowired
+  private BusinessJpaRepository businessRepository;
+
+  @Autowired
+  private MemberJpaRepository memberRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @MockBean
+  private MemberService memberService;
+
+  @MockBean
+  private S3Service s3Service;
+
+  @MockBean
+  private CountryService countryService;
+
+  @MockBean
+  private VerificationDocumentService verificationDocumentService;
+
+  @MockBean
+  private S3BucketNames s3BucketNames;
+
+  private Business business;
+  private Business otherBusiness;
+  private Member employee;
+
+  @BeforeEach
+  void setUp() {
+    when(memberService.getMemberByEmailAddress(anyString())).thenAnswer(invocation ->
+      memberRepository.findByEmailAddress(invocation.getArgument(0)).orElse(null));
+    business = saveBusiness("business", 100);
+    otherBusiness = saveBusiness("other-business", 101);
+    employee = memberRepository.save(member("employee", 200));
+  }
+
+  @Test
+  void memberIsOnlyAnEmployeeOnceTheyAccept() {
+    businessService.addEmployee(new AddBusinessEmployeeDto(employee.getEmailAddress()), user(business.getMember()));
+    businessService.addEmployee(new AddBusinessEmployeeDto(employee.getEmailAddress()), user(business.getMember()));
+    assertEquals(1, employeeRepository.count());
+    assertTrue(activeEmployees(business).isEmpty());
+
+    businessService.acceptEmployment(business.getId(), user(employee));
+    assertEquals(Set.of(employee.getId()), activeEmployees(business));
+  }
+
+  @Test
+  void employeeOfABusinessIsNotAnEmployeeOfAnother() {
+    businessService.addEmployee(new AddBusinessEmployeeDto(employee.getEmailAddress()), user(otherBusiness.getMember()));
+    businessService.acceptEmployment(otherBusiness.getId(), user(employee));
+
+    assertTrue(activeEmployees(business).isEmpty());
+    assertThrows(BusinessEmployeeNotFoundException.class, () -> businessService.acceptEmployment(business.getId(), user(employee)));
+  }
+
+  @Test
+  void removedOrLeavingEmployeeIsNoLongerAnEmployee() {
+    businessService.addEmployee(new AddBusinessEmployeeDto(employee.getEmailAddress()), user(business.getMember()));
+    businessService.acceptEmployment(business.getId(), user(employee));
+    businessService.removeEmployee(employee.getId(), user(business.getMember()));
+    assertTrue(activeEmployees(business).isEmpty());
+    assertThrows(BusinessEmployeeNotFoundException.class, () -> businessService.removeEmployee(employee.getId(), user(business.getMember())));
+
+    businessService.addEmployee(new AddBusinessEmployeeDto(employee.getEmailAddress()), user(business.getMember()));
+    businessService.acceptEmployment(business.getId(), user(employee));
+    businessService.leaveEmployment(business.getId(), user(employee));
+    assertTrue(activeEmployees(business).isEmpty());
+    assertThrows(BusinessEmployeeNotFoundException.class, () -> businessService.leaveEmployment(business.getId(), user(employee)));
+  }
+
+  private Set<Long> activeEmployees(Business business) {
+    entityManager.flush();
+    entityManager.clear();
+    return employeeRepository.findEmployeeMemberIds(business.getMember().getId(), List.of(employee.getId()), BusinessEmployeeStatus.ACTIVE);
+  }
+
+  private Business saveBusiness(String name, int number) {
+    Member member = memberRepository.save(member(name, number));
+    return businessRepository.save(Business.builder()
+      .name(name)
+      .contactAddress("1 Marina Road")
+      .registrationNumberOrId("RC" + number)
+      .city("Lagos")
+      .member(member)
+      .build());
+  }
+
+  private static FleenUser user(Member member) {
+    return FleenUser.builder()
+      .id(member.getId())
+      .emailAddress(member.getEmailAddress())
+      .build();
+  }
+
+  private static Member member(String name, int number) {
+    return Member.builder()
+      .firstName(name)
+      .lastName("Member")
+      .emailAddress(name + "@fleen.health")
+      .phoneNumber("+2348000000" + number)
+      .password("password")
+      .dateOfBirth(LocalDateTime.of(1990, 1, 1, 0, 0))
+      .gender(MemberGender.FEMALE)
+      .build();
+  }
+}
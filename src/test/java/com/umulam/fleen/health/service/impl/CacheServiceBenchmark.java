@@ -0,0 +1,88 @@
+package com.umulam.fleen.health.service.impl;
+
+import com.umulam.fleen.health.configuration.cache.EmbeddedRedis;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares setting and getting a number of keys one call at a time with doing it in a single pipelined batch, against an
+ * in-process Redis server. The server answers on the loopback interface, so the difference is mostly the round trips saved and is
+ * larger against a remote server.
+ *
+ * <p>Run the main method from the test classpath.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheServiceBenchmark {
+
+  private static final Duration TTL = Duration.ofMinutes(10);
+
+  @Param({"10", "100"})
+  public int keys;
+
+  private EmbeddedRedis redis;
+  private CacheService cacheService;
+  private List<String> keyList;
+  private Map<String, Object> entries;
+
+  @Setup
+  public void setUp() {
+    redis = EmbeddedRedis.start();
+    RedisTemplate<String, Object> redisTemplate = redis.newRedisTemplate();
+    cacheService = new CacheService(redisTemplate, redis.getMapper());
+    keyList = new ArrayList<>();
+    entries = new LinkedHashMap<>();
+    for (int i = 0; i < keys; i++) {
+      String key = "BENCHMARK:" + i;
+      keyList.add(key);
+      entries.put(key, "value-" + i);
+    }
+    cacheService.multiSet(entries, TTL);
+  }
+
+  @TearDown
+  public void tearDown() {
+    redis.close();
+  }
+
+  @Benchmark
+  public void singleSets() {
+    entries.forEach((key, value) -> cacheService.set(key, value, TTL));
+  }
+
+  @Benchmark
+  public void pipelinedSets() {
+    cacheService.multiSet(entries, TTL);
+  }
+
+  @Benchmark
+  public void singleGets(Blackhole blackhole) {
+    for (String key : keyList) {
+      blackhole.consume(cacheService.get(key, String.class));
+    }
+  }
+
+  @Benchmark
+  public Map<String, String> multiGet() {
+    return cacheService.multiGet(keyList, String.class);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(CacheServiceBenchmark.class.getSimpleName()).build()).run();
+  }
+}
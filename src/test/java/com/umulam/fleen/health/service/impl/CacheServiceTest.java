@@ -0,0 +1,131 @@
+package com.umulam.fleen.health.service.impl;
+
+import com.umulam.fleen.health.configuration.cache.EmbeddedRedis;
+import com.umulam.fleen.health.model.response.banking.BankListRecord;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheServiceTest {
+
+  private static EmbeddedRedis redis;
+  private static RedisTemplate<String, Object> redisTemplate;
+  private static CacheService cacheService;
+
+  @BeforeAll
+  static void start() {
+    redis = EmbeddedRedis.start();
+    redisTemplate = redis.newRedisTemplate();
+    cacheService = new CacheService(redisTemplate, redis.getMapper());
+  }
+
+  @AfterAll
+  static void stop() {
+    redis.close();
+  }
+
+  @BeforeEach
+  void flush() {
+    redis.flushAll(redisTemplate);
+  }
+
+  @Test
+  void deleteByPrefixDeletesEveryMatchingKeyAcrossScanBatches() {
+    Map<String, Object> entries = new LinkedHashMap<>();
+    for (int i = 0; i < 1203; i++) {
+      entries.put("BANKS:" + i, "bank-" + i);
+    }
+    cacheService.multiSet(entries, Duration.ofMinutes(5));
+    cacheService.set("COUNTRIES:1", "Nigeria");
+
+    assertEquals(1203, cacheService.deleteByPrefix("BANKS:"));
+    assertFalse(cacheService.exists("BANKS:0"));
+    assertFalse(cacheService.exists("BANKS:1202"));
+    assertTrue(cacheService.exists("COUNTRIES:1"));
+    assertEquals(0, cacheService.deleteByPrefix("BANKS:"));
+  }
+
+  @Test
+  void connectionsAreGivenBackAfterDeleteByPrefix() {
+    cacheService.set("BANKS:1", "bank");
+    // More scans than the pool has connections would block if the scan kept its connection
+    for (int i = 0; i < 100; i++) {
+      cacheService.deleteByPrefix("BANKS:");
+    }
+    cacheService.set("BANKS:2", "bank");
+    assertEquals("bank", cacheService.get("BANKS:2", String.class));
+  }
+
+  @Test
+  void multiSetGivesEveryEntryItsOwnTimeToLive() {
+    Map<String, Object> entries = new LinkedHashMap<>();
+    entries.put("SHORT", "a");
+    entries.put("LONG", BankListRecord.builder().version(1L).banks("[]").build());
+
+    cacheService.multiSet(entries, key -> key.equals("SHORT") ? Duration.ofSeconds(30) : Duration.ofHours(2));
+
+    long shortTtl = redisTemplate.getExpire("SHORT", TimeUnit.SECONDS);
+    long longTtl = redisTemplate.getExpire("LONG", TimeUnit.SECONDS);
+    assertTrue(shortTtl > 0 && shortTtl <= 30, "TTL " + shortTtl);
+    assertTrue(longTtl > 30 && longTtl <= 7200, "TTL " + longTtl);
+    assertEquals(1L, cacheService.get("LONG", BankListRecord.class).getVersion());
+  }
+
+  @Test
+  void multiGetReturnsTheKeysFound() {
+    cacheService.multiSet(Map.of("A", "1", "B", "2"), Duration.ofMinutes(1));
+
+    Map<String, String> values = cacheService.multiGet(List.of("A", "MISSING", "B"), String.class);
+    assertEquals(Map.of("A", "1", "B", "2"), values);
+  }
+
+  @Test
+  void batchReturnsTypedResponsesInOrder() {
+    cacheService.set("EXISTING", "value");
+
+    CacheBatch batch = cacheService.batch();
+    CacheBatch.Response<Boolean> set = batch.set("NEW", "new", Duration.ofMinutes(1));
+    CacheBatch.Response<String> existing = batch.get("EXISTING", String.class);
+    CacheBatch.Response<Boolean> exists = batch.exists("MISSING");
+    CacheBatch.Response<Boolean> deleted = batch.delete("EXISTING");
+    batch.execute();
+
+    assertTrue(set.get());
+    assertEquals("value", existing.get());
+    assertFalse(exists.get());
+    assertTrue(deleted.get());
+    assertEquals("new", cacheService.get("NEW", String.class));
+    assertFalse(cacheService.exists("EXISTING"));
+  }
+
+  @Test
+  void transactionalBatchAppliesEveryOperation() {
+    CacheBatch batch = cacheService.batch().transactional();
+    batch.set("FIRST", "1", Duration.ofMinutes(1));
+    batch.set("SECOND", "2", Duration.ofMinutes(1));
+    batch.execute();
+
+    assertEquals(Map.of("FIRST", "1", "SECOND", "2"), cacheService.multiGet(List.of("FIRST", "SECOND"), String.class));
+  }
+
+  @Test
+  void deleteIfEqualsOnlyDeletesTheSameValue() {
+    BankListRecord record = BankListRecord.builder().version(1L).build();
+    cacheService.set("LOCK", record, Duration.ofMinutes(1));
+
+    assertFalse(cacheService.deleteIfEquals("LOCK", BankListRecord.builder().version(2L).build()));
+    assertTrue(cacheService.exists("LOCK"));
+    assertTrue(cacheService.deleteIfEquals("LOCK", record));
+    assertFalse(cacheService.exists("LOCK"));
+  }
+}
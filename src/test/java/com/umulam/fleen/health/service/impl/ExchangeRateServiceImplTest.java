@@ -0,0 +1,171 @@
+package com.umulam.fleen.health.service.impl;
+
+import com.umulam.fleen.health.configuration.cache.EmbeddedRedis;
+import com.umulam.fleen.health.exception.banking.ExchangeRateUnavailableException;
+import com.umulam.fleen.health.model.response.banking.ExchangeRate;
+import com.umulam.fleen.health.service.external.banking.FakeExchangeRateProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static com.umulam.fleen.health.constant.base.GeneralConstant.EXCHANGE_RATE_CACHE_PREFIX;
+import static com.umulam.fleen.health.constant.base.GeneralConstant.EXCHANGE_RATE_REFRESH_LOCK_CACHE_PREFIX;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the exchange-rate table of one or more nodes against an embedded cache store and the fake provider with injected latency and
+ * failures.
+ */
+class ExchangeRateServiceImplTest {
+
+  private static final String PRICING_CURRENCY = "USD";
+  private static final String PAYMENT_CURRENCY = "NGN";
+  private static final String PAIR = PAYMENT_CURRENCY + ":" + PRICING_CURRENCY;
+  private static final long REFRESH_MINUTES = 10;
+  private static final long MAX_STALE_MINUTES = 360;
+  private static final double RATE = 1500;
+
+  private static EmbeddedRedis redis;
+  private static RedisTemplate<String, Object> redisTemplate;
+  private static CacheService cacheService;
+
+  private final List<ExchangeRateServiceImpl> nodes = new ArrayList<>();
+
+  @BeforeAll
+  static void start() {
+    redis = EmbeddedRedis.start();
+    redisTemplate = redis.newRedisTemplate();
+    cacheService = new CacheService(redisTemplate, redis.getMapper());
+  }
+
+  @AfterAll
+  static void stop() {
+    redis.close();
+  }
+
+  @BeforeEach
+  void flush() {
+    redis.flushAll(redisTemplate);
+  }
+
+  @AfterEach
+  void tearDown() {
+    nodes.forEach(ExchangeRateServiceImpl::destroy);
+  }
+
+  @Test
+  void conversionsDoNotWaitOnASlowProvider() throws Exception {
+    FakeExchangeRateProvider provider = new FakeExchangeRateProvider(1_000, RATE);
+    ExchangeRateServiceImpl node = startNode(provider);
+
+    for (int i = 0; i < 100; i++) {
+      long startedAt = System.nanoTime();
+      node.findConvertedHealthSessionPrice(10D);
+      assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) < 50);
+    }
+    assertTrue(node.findConvertedHealthSessionPrice(10D).isEmpty());
+
+    await(() -> node.findConvertedHealthSessionPrice(10D).isPresent());
+    assertEquals(15_000D, node.getConvertedHealthSessionPrice(10D));
+    assertEquals(1, provider.getCalls());
+  }
+
+  @Test
+  void nodeStartingWhileTheProviderFailsUsesTheLastKnownRate() throws Exception {
+    saveRate(1400, Duration.ofMinutes(REFRESH_MINUTES * 2));
+    FakeExchangeRateProvider provider = new FakeExchangeRateProvider(50, RATE);
+    provider.setFailing(true);
+    ExchangeRateServiceImpl node = startNode(provider);
+
+    // The rate is older than the refresh interval, so a refresh is tried, fails and leaves the rate in place
+    await(() -> provider.getCalls() > 0);
+    await(() -> !cacheService.exists(EXCHANGE_RATE_REFRESH_LOCK_CACHE_PREFIX.concat(PAIR)));
+    assertEquals(14_000D, node.getConvertedHealthSessionPrice(10D));
+
+    // The lock was given back, so the next node to try calls the provider and shares the rate
+    provider.setFailing(false);
+    ExchangeRateServiceImpl another = startNode(provider);
+    await(() -> Optional.of(15_000D).equals(another.findConvertedHealthSessionPrice(10D)));
+    assertEquals(RATE, cacheService.get(EXCHANGE_RATE_CACHE_PREFIX.concat(PAIR), ExchangeRate.class).getRate());
+  }
+
+  @Test
+  void rateOlderThanTheStalenessBoundIsNotUsed() throws Exception {
+    saveRate(1400, Duration.ofMinutes(MAX_STALE_MINUTES + 1));
+    FakeExchangeRateProvider provider = new FakeExchangeRateProvider(0, RATE);
+    provider.setFailing(true);
+    ExchangeRateServiceImpl node = startNode(provider);
+    await(() -> provider.getCalls() > 0);
+
+    assertTrue(node.findConvertedHealthSessionPrice(10D).isEmpty());
+    assertThrows(ExchangeRateUnavailableException.class, () -> node.getConvertedHealthSessionPrice(10D));
+  }
+
+  @Test
+  void lastKnownRateIsLostWithTheCacheStore() throws Exception {
+    FakeExchangeRateProvider provider = new FakeExchangeRateProvider(0, RATE);
+    ExchangeRateServiceImpl node = startNode(provider);
+    await(() -> node.findConvertedHealthSessionPrice(10D).isPresent());
+
+    // The rates are not saved anywhere else, so a node that starts after the cache store is flushed has none until the provider answers
+    redis.flushAll(redisTemplate);
+    provider.setFailing(true);
+    ExchangeRateServiceImpl restarted = startNode(provider);
+    await(() -> provider.getCalls() > 1);
+    assertThrows(ExchangeRateUnavailableException.class, () -> restarted.getConvertedHealthSessionPrice(10D));
+  }
+
+  @Test
+  void onlyOneNodeCallsTheProviderEachInterval() throws Exception {
+    FakeExchangeRateProvider provider = new FakeExchangeRateProvider(200, RATE);
+    List<ExchangeRateServiceImpl> started = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      started.add(startNode(provider));
+    }
+
+    await(() -> cacheService.exists(EXCHANGE_RATE_CACHE_PREFIX.concat(PAIR)));
+    for (ExchangeRateServiceImpl node : started) {
+      await(() -> node.findConvertedHealthSessionPrice(10D).isPresent());
+    }
+    assertEquals(1, provider.getCalls());
+  }
+
+  private ExchangeRateServiceImpl startNode(FakeExchangeRateProvider provider) {
+    ConfigService configService = mock(ConfigService.class);
+    when(configService.getHealthSessionPricingCurrency()).thenReturn(PRICING_CURRENCY);
+    when(configService.getHealthSessionPaymentCurrency()).thenReturn(PAYMENT_CURRENCY);
+    ExchangeRateServiceImpl node = new ExchangeRateServiceImpl(configService, provider, cacheService, REFRESH_MINUTES, MAX_STALE_MINUTES);
+    nodes.add(node);
+    node.startRefresh();
+    return node;
+  }
+
+  private static void saveRate(double rate, Duration age) {
+    cacheService.set(EXCHANGE_RATE_CACHE_PREFIX.concat(PAIR), ExchangeRate.builder()
+      .sourceCurrency(PAYMENT_CURRENCY)
+      .destinationCurrency(PRICING_CURRENCY)
+      .rate(rate)
+      .fetchedAt(System.currentTimeMillis() - age.toMillis())
+      .build());
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.currentTimeMillis() < deadline, "Condition not met in time");
+      Thread.sleep(10);
+    }
+  }
+}
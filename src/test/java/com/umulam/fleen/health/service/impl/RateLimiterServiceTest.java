@@ -0,0 +1,137 @@
+package com.umulam.fleen.health.service.impl;
+
+import com.umulam.fleen.health.configuration.cache.EmbeddedRedis;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class RateLimiterServiceTest {
+
+  private static final Duration WINDOW = Duration.ofMinutes(1);
+
+  private static EmbeddedRedis redis;
+  private static RedisTemplate<String, Object> redisTemplate;
+
+  @BeforeAll
+  static void start() {
+    redis = EmbeddedRedis.start();
+    redisTemplate = redis.newRedisTemplate();
+  }
+
+  @AfterAll
+  static void stop() {
+    redis.close();
+  }
+
+  @BeforeEach
+  void flush() {
+    redis.flushAll(redisTemplate);
+  }
+
+  @Test
+  void limitIsSharedByEveryNode() {
+    RateLimiterService node1 = new RateLimiterService(redis.newRedisTemplate(), 1000);
+    RateLimiterService node2 = new RateLimiterService(redis.newRedisTemplate(), 1000);
+
+    for (int i = 0; i < 3; i++) {
+      assertTrue(node1.tryAcquire("sign-in-ip:10.0.0.1", 5, WINDOW).isZero());
+    }
+    assertTrue(node2.tryAcquire("sign-in-ip:10.0.0.1", 5, WINDOW).isZero());
+    assertTrue(node2.tryAcquire("sign-in-ip:10.0.0.1", 5, WINDOW).isZero());
+
+    Duration retryAfter = node1.tryAcquire("sign-in-ip:10.0.0.1", 5, WINDOW);
+    assertFalse(retryAfter.isZero());
+    assertTrue(retryAfter.compareTo(WINDOW) <= 0);
+    assertFalse(node2.tryAcquire("sign-in-ip:10.0.0.1", 5, WINDOW).isZero());
+
+    // Another key has a count of its own
+    assertTrue(node2.tryAcquire("sign-in-ip:10.0.0.2", 5, WINDOW).isZero());
+  }
+
+  @Test
+  void requestsAreAllowedAgainOnceTheWindowHasSlid() throws Exception {
+    RateLimiterService service = new RateLimiterService(redisTemplate, 1000);
+    Duration window = Duration.ofMillis(300);
+
+    assertTrue(service.tryAcquire("resend-code:member", 2, window).isZero());
+    assertTrue(service.tryAcquire("resend-code:member", 2, window).isZero());
+    Duration retryAfter = service.tryAcquire("resend-code:member", 2, window);
+    assertFalse(retryAfter.isZero());
+
+    Thread.sleep(retryAfter.toMillis() + 50);
+    assertTrue(service.tryAcquire("resend-code:member", 2, window).isZero());
+  }
+
+  @Test
+  void concurrentRequestsCannotTakeMoreThanTheLimit() throws Exception {
+    int threads = 8;
+    int attemptsPerThread = 25;
+    int limit = 20;
+    List<RateLimiterService> nodes = List.of(
+      new RateLimiterService(redis.newRedisTemplate(), 1000),
+      new RateLimiterService(redis.newRedisTemplate(), 1000));
+    AtomicInteger allowed = new AtomicInteger();
+    CountDownLatch ready = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        RateLimiterService node = nodes.get(t % nodes.size());
+        futures.add(executor.submit(() -> {
+          ready.await();
+          for (int i = 0; i < attemptsPerThread; i++) {
+            if (node.tryAcquire("forgot-password-email:member@fleen.health", limit, WINDOW).isZero()) {
+              allowed.incrementAndGet();
+            }
+          }
+          return null;
+        }));
+      }
+
+      ready.countDown();
+      for (Future<?> future : futures) {
+        future.get(1, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(limit, allowed.get());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void eachNodeLimitsLocallyWhileTheCacheStoreIsUnavailable() {
+    RedisTemplate<String, Object> unavailable = mock(RedisTemplate.class, invocation -> {
+      throw new RedisConnectionFailureException("Connection refused");
+    });
+    RateLimiterService service = new RateLimiterService(unavailable, 1000);
+    // Local counts are kept in fixed windows, which a long window keeps the test from crossing
+    Duration window = Duration.ofHours(1);
+
+    for (int i = 0; i < 3; i++) {
+      assertTrue(service.tryAcquire("sign-in-email:member@fleen.health", 3, window).isZero());
+    }
+    Duration retryAfter = service.tryAcquire("sign-in-email:member@fleen.health", 3, window);
+    assertFalse(retryAfter.isZero());
+    assertTrue(retryAfter.compareTo(window) <= 0);
+    assertTrue(service.tryAcquire("sign-in-email:another@fleen.health", 3, window).isZero());
+  }
+}
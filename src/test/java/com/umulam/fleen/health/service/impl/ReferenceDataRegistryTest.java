@@ -0,0 +1,148 @@
+package com.umulam.fleen.health.service.impl;
+
+import com.umulam.fleen.health.constant.MemberStatusType;
+import com.umulam.fleen.health.constant.authentication.RoleType;
+import com.umulam.fleen.health.constant.verification.ProfileVerificationMessageType;
+import com.umulam.fleen.health.event.ReferenceDataChangedEvent;
+import com.umulam.fleen.health.model.domain.MemberStatus;
+import com.umulam.fleen.health.model.domain.ProfileVerificationMessage;
+import com.umulam.fleen.health.model.domain.Role;
+import com.umulam.fleen.health.repository.jpa.MemberStatusJpaRepository;
+import com.umulam.fleen.health.repository.jpa.ProfileVerificationMessageJpaRepository;
+import com.umulam.fleen.health.repository.jpa.RoleJpaRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import javax.persistence.EntityManagerFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Counts the statements Hibernate prepares for the reference data lookups made while members sign up, sign in and are verified,
+ * first against the repositories as the services used to and then through the registry.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ReferenceDataRegistryTest {
+
+  private static final int LOOKUPS = 100;
+
+  @Autowired
+  private RoleJpaRepository roleRepository;
+
+  @Autowired
+  private MemberStatusJpaRepository memberStatusRepository;
+
+  @Autowired
+  private ProfileVerificationMessageJpaRepository verificationMessageRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+  private ReferenceDataRegistry registry;
+  private RoleServiceImpl roleService;
+  private MemberStatusServiceImpl memberStatusService;
+  private ProfileVerificationMessageServiceImpl verificationMessageService;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    for (RoleType roleType : RoleType.values()) {
+      roleRepository.save(Role.builder().code(roleType.name()).title(roleType.getValue()).build());
+    }
+    for (MemberStatusType statusType : MemberStatusType.values()) {
+      memberStatusRepository.save(MemberStatus.builder().code(statusType.name()).title(statusType.getValue()).build());
+    }
+    for (ProfileVerificationMessageType messageType : ProfileVerificationMessageType.values()) {
+      verificationMessageRepository.save(ProfileVerificationMessage.builder()
+              .title(messageType.getValue())
+              .verificationMessageType(messageType)
+              .message(messageType.getValue())
+              .htmlMessage(messageType.getValue())
+              .plainText(messageType.getValue())
+              .build());
+    }
+    roleRepository.flush();
+
+    FleenHealthEventService eventService = mock(FleenHealthEventService.class);
+    registry = new ReferenceDataRegistry(roleRepository, memberStatusRepository, verificationMessageRepository,
+            mock(RedisTemplate.class), mock(RedisMessageListenerContainer.class), "REFERENCE_DATA_INVALIDATION");
+    roleService = new RoleServiceImpl(roleRepository, registry, eventService);
+    memberStatusService = new MemberStatusServiceImpl(memberStatusRepository, new ModelMapper(), registry, eventService);
+    verificationMessageService = new ProfileVerificationMessageServiceImpl(mock(CacheService.class), verificationMessageRepository, registry, eventService);
+
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void lookupsThroughTheRepositoriesQueryTheDatabaseEveryTime() {
+    for (int i = 0; i < LOOKUPS; i++) {
+      assertTrue(roleRepository.findByCode(RoleType.PRE_VERIFIED_USER.name()).isPresent());
+      assertTrue(memberStatusRepository.findByCode(MemberStatusType.ACTIVE.name()).isPresent());
+      assertTrue(verificationMessageRepository.findFirstByVerificationMessageType(ProfileVerificationMessageType.APPROVED).isPresent());
+    }
+
+    assertEquals(3L * LOOKUPS, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void lookupsThroughTheRegistryRunNoStatementOnceLoaded() {
+    registry.loadOnStartup();
+    assertEquals(3, statistics.getPrepareStatementCount());
+    statistics.clear();
+
+    for (int i = 0; i < LOOKUPS; i++) {
+      assertEquals(RoleType.PRE_VERIFIED_USER.name(), roleService.getRole(RoleType.PRE_VERIFIED_USER).getCode());
+      assertEquals(RoleType.USER.name(), roleService.getRoleByCode(RoleType.USER.name()).getCode());
+      assertEquals(MemberStatusType.ACTIVE.name(), memberStatusService.getMemberStatus(MemberStatusType.ACTIVE).getCode());
+      assertEquals(MemberStatusType.INACTIVE.name(), memberStatusService.getMemberStatusByCode(MemberStatusType.INACTIVE.name()).getCode());
+      assertNotNull(verificationMessageService.getProfileVerificationMessageByType(ProfileVerificationMessageType.APPROVED));
+    }
+
+    assertEquals(0, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void unknownCodesFallBackToTheDatabase() {
+    roleRepository.saveAndFlush(Role.builder().code("AUDITOR").title("Auditor").build());
+    registry.loadOnStartup();
+    statistics.clear();
+
+    assertEquals("AUDITOR", roleService.getRoleByCode("AUDITOR").getCode());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void changedDataIsReloadedAsAWhole() {
+    registry.loadOnStartup();
+    Role role = roleRepository.findByCode(RoleType.USER.name()).orElseThrow();
+    role.setTitle("Member");
+    roleRepository.saveAndFlush(role);
+    statistics.clear();
+
+    registry.onReferenceDataChanged(new ReferenceDataChangedEvent(Role.class.getSimpleName()));
+    assertEquals(3, statistics.getPrepareStatementCount());
+    assertEquals("Member", roleService.getRole(RoleType.USER).getTitle());
+  }
+
+  @Test
+  void messageFromAnotherNodeReloadsTheSnapshot() {
+    registry.loadOnStartup();
+    statistics.clear();
+
+    byte[] channel = "REFERENCE_DATA_INVALIDATION".getBytes(StandardCharsets.UTF_8);
+    registry.onMessage(new DefaultMessage(channel, "another-node".getBytes(StandardCharsets.UTF_8)), null);
+    assertEquals(3, statistics.getPrepareStatementCount());
+  }
+}
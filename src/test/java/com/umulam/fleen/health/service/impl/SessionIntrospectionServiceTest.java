@@ -0,0 +1,141 @@
+package com.umulam.fleen.health.service.impl;
+
+import com.umulam.fleen.health.configuration.cache.EmbeddedRedis;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static com.umulam.fleen.health.constant.authentication.AuthenticationStatus.COMPLETED;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two nodes, each with its own template, listener container and local cache, share one in-process Redis server as the
+ * application nodes share the cache store.
+ */
+class SessionIntrospectionServiceTest {
+
+  private static final String USERNAME = "member@fleen.health";
+  private static final Duration TTL = Duration.ofMinutes(5);
+  private static final Duration PROPAGATION_TIMEOUT = Duration.ofSeconds(5);
+
+  private static EmbeddedRedis redis;
+  private static Node first;
+  private static Node second;
+
+  @BeforeAll
+  static void start() {
+    redis = EmbeddedRedis.start();
+    first = new Node(redis);
+    second = new Node(redis);
+  }
+
+  @AfterAll
+  static void stop() {
+    redis.close();
+  }
+
+  @BeforeEach
+  void reset() {
+    first.store.remove(USERNAME);
+    awaitTrue(() -> !first.introspection.isActiveToken(USERNAME, "access-1") && !second.introspection.isActiveToken(USERNAME, "access-1"));
+  }
+
+  @Test
+  void signOutOnOneNodeIsSeenByTheOtherNode() {
+    first.store.save(USERNAME, "access-1", "refresh-1", COMPLETED, TTL);
+    assertTrue(second.introspection.isActiveToken(USERNAME, "access-1"));
+    assertTrue(first.introspection.isActiveToken(USERNAME, "access-1"));
+
+    first.store.remove(USERNAME);
+
+    // The node that signed the member out does not wait for the message
+    assertFalse(first.introspection.isActiveToken(USERNAME, "access-1"));
+    awaitTrue(() -> !second.introspection.isActiveToken(USERNAME, "access-1"));
+  }
+
+  @Test
+  void rotationOnOneNodeRevokesTheOldTokenOnTheOtherNode() {
+    first.store.save(USERNAME, "access-1", "refresh-1", COMPLETED, TTL);
+    assertTrue(second.introspection.isActiveToken(USERNAME, "access-1"));
+
+    assertTrue(first.store.rotate(USERNAME, "refresh-1", "access-2", "refresh-2", TTL));
+
+    awaitTrue(() -> !second.introspection.isActiveToken(USERNAME, "access-1"));
+    assertTrue(second.introspection.isActiveToken(USERNAME, "access-2"));
+  }
+
+  @Test
+  void explicitInvalidationIsSeenByTheOtherNode() {
+    saveAndAwaitMessage();
+    assertTrue(second.introspection.isActiveToken(USERNAME, "access-1"));
+
+    // Remove the session without the script so that only the published invalidation can reach the other node
+    first.redisTemplate.delete(AuthenticationSessionStore.getSessionKey(USERNAME));
+    assertTrue(second.introspection.isActiveToken(USERNAME, "access-1"));
+
+    first.introspection.invalidate(USERNAME);
+
+    awaitTrue(() -> !second.introspection.isActiveToken(USERNAME, "access-1"));
+  }
+
+  @Test
+  void repeatedChecksAreAnsweredFromTheLocalCache() {
+    saveAndAwaitMessage();
+    assertTrue(second.introspection.isActiveToken(USERNAME, "access-1"));
+
+    // The saved session is gone but no message was published, so the local answer stands until it expires
+    second.redisTemplate.delete(AuthenticationSessionStore.getSessionKey(USERNAME));
+    for (int i = 0; i < 100; i++) {
+      assertTrue(second.introspection.isActiveToken(USERNAME, "access-1"));
+    }
+  }
+
+  /**
+   * A save publishes an invalidation of its own, which could otherwise drop the answer the second node caches right after it.
+   */
+  private static void saveAndAwaitMessage() {
+    int messages = second.messages.get();
+    first.store.save(USERNAME, "access-1", "refresh-1", COMPLETED, TTL);
+    awaitTrue(() -> second.messages.get() > messages);
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) {
+    long deadline = System.nanoTime() + PROPAGATION_TIMEOUT.toNanos();
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() > deadline) {
+        fail("Condition was not met within " + PROPAGATION_TIMEOUT);
+      }
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        fail(ex);
+      }
+    }
+  }
+
+  private static final class Node {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final AuthenticationSessionStore store;
+    private final SessionIntrospectionService introspection;
+    private final AtomicInteger messages = new AtomicInteger();
+
+    private Node(EmbeddedRedis redis) {
+      RedisMessageListenerContainer listenerContainer = redis.newListenerContainer();
+      this.redisTemplate = redis.newRedisTemplate();
+      this.store = new AuthenticationSessionStore(redisTemplate, Clock.systemUTC(), "SESSION_INVALIDATION", 5);
+      this.introspection = new SessionIntrospectionService(store, listenerContainer, 1000, 300);
+      listenerContainer.addMessageListener((message, pattern) -> messages.incrementAndGet(), new ChannelTopic(store.getInvalidationChannel()));
+    }
+  }
+}
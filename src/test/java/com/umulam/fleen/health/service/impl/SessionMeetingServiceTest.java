@@ -0,0 +1,145 @@
+package com.umulam.fleen.health.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umulam.fleen.health.constant.member.MemberGender;
+import com.umulam.fleen.health.constant.session.*;
+import com.umulam.fleen.health.event.CreateSessionMeetingEvent;
+import com.umulam.fleen.health.event.CreateSessionMeetingEvents;
+import com.umulam.fleen.health.model.domain.HealthSession;
+import com.umulam.fleen.health.model.domain.Member;
+import com.umulam.fleen.health.model.domain.transaction.SessionTransaction;
+import com.umulam.fleen.health.repository.jpa.HealthSessionJpaRepository;
+import com.umulam.fleen.health.repository.jpa.MemberJpaRepository;
+import com.umulam.fleen.health.repository.jpa.transaction.SessionTransactionJpaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Finds the paid sessions whose meeting could not be created against an in-memory database, with the creation of the meetings
+ * mocked, and checks which sessions are tried again.
+ */
+@DataJpaTest
+class SessionMeetingServiceTest {
+
+  @Autowired
+  private HealthSessionJpaRepository healthSessionRepository;
+
+  @Autowired
+  private SessionTransactionJpaRepository transactionRepository;
+
+  @Autowired
+  private MemberJpaRepository memberRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  private final FleenHealthEventListenerService eventListenerService = mock(FleenHealthEventListenerService.class);
+  private SessionMeetingService sessionMeetingService;
+  private Member professional;
+  private Member patient;
+
+  @BeforeEach
+  void setUp() {
+    sessionMeetingService = new SessionMeetingService(healthSessionRepository, eventListenerService, new ObjectMapper(), 300, 50);
+    professional = memberRepository.save(member("professional", 100));
+    patient = memberRepository.save(member("patient", 200));
+  }
+
+  @Test
+  void onlyPaidUpcomingSessionsWithoutAMeetingAreTriedAgain() {
+    LocalDate tomorrow = LocalDate.now().plusDays(1);
+    HealthSession withoutMeeting = session(tomorrow, LocalTime.of(9, 0), HealthSessionStatus.PENDING, TransactionStatus.SUCCESS);
+    session(tomorrow, LocalTime.of(10, 0), HealthSessionStatus.PENDING, TransactionStatus.PENDING);
+    session(tomorrow, LocalTime.of(11, 0), HealthSessionStatus.SCHEDULED, TransactionStatus.SUCCESS).setEventReferenceOrId("event");
+    session(LocalDate.now().minusDays(1), LocalTime.of(9, 0), HealthSessionStatus.PENDING, TransactionStatus.SUCCESS);
+    entityManager.flush();
+    entityManager.clear();
+
+    assertEquals(1, sessionMeetingService.createPendingMeetings());
+
+    List<CreateSessionMeetingEvent> meetingEvents = meetingEvents();
+    assertEquals(1, meetingEvents.size());
+    CreateSessionMeetingEvent meetingEvent = meetingEvents.get(0);
+    assertEquals(withoutMeeting.getReference(), meetingEvent.getSessionReference());
+    assertEquals(LocalDateTime.of(tomorrow, LocalTime.of(9, 0)), meetingEvent.getStartDate());
+    assertEquals(List.of(patient.getEmailAddress(), professional.getEmailAddress()), meetingEvent.getAttendees());
+    assertEquals(Map.of("sessionReference", withoutMeeting.getReference()), meetingEvent.getMetadata());
+  }
+
+  @Test
+  void sessionWhoseMeetingStillCannotBeCreatedIsTriedAgainOnTheNextRun() {
+    HealthSession withoutMeeting = session(LocalDate.now().plusDays(1), LocalTime.of(9, 0), HealthSessionStatus.PENDING, TransactionStatus.SUCCESS);
+    entityManager.flush();
+    entityManager.clear();
+
+    assertEquals(1, sessionMeetingService.createPendingMeetings());
+    assertEquals(1, sessionMeetingService.createPendingMeetings());
+
+    // Once the meeting has been created, the session is scheduled and no longer tried
+    HealthSession scheduled = healthSessionRepository.findByReference(withoutMeeting.getReference()).orElseThrow();
+    scheduled.setEventReferenceOrId("event");
+    scheduled.setStatus(HealthSessionStatus.SCHEDULED);
+    healthSessionRepository.saveAndFlush(scheduled);
+    assertEquals(0, sessionMeetingService.createPendingMeetings());
+    verify(eventListenerService, times(2)).createMeetingSession(any(CreateSessionMeetingEvents.class));
+  }
+
+  private List<CreateSessionMeetingEvent> meetingEvents() {
+    ArgumentCaptor<CreateSessionMeetingEvents> meetingEvents = ArgumentCaptor.forClass(CreateSessionMeetingEvents.class);
+    verify(eventListenerService).createMeetingSession(meetingEvents.capture());
+    return meetingEvents.getValue().getMeetingEvents();
+  }
+
+  private HealthSession session(LocalDate date, LocalTime time, HealthSessionStatus status, TransactionStatus transactionStatus) {
+    HealthSession session = healthSessionRepository.save(HealthSession.builder()
+      .professional(professional)
+      .patient(patient)
+      .date(date)
+      .time(time)
+      .timezone("Africa/Lagos")
+      .reference(UUID.randomUUID().toString())
+      .status(status)
+      .location(SessionLocation.REMOTE)
+      .build());
+    transactionRepository.save(SessionTransaction.builder()
+      .reference(UUID.randomUUID().toString())
+      .sessionReference(session.getReference())
+      .groupTransactionReference("group")
+      .payer(patient)
+      .amount(100D)
+      .amountInPaymentCurrency(100D)
+      .totalSessions(1)
+      .status(transactionStatus)
+      .gateway(PaymentGateway.PAYSTACK)
+      .type(TransactionType.HEALTH_SESSION)
+      .subType(TransactionSubType.DEBIT)
+      .build());
+    return session;
+  }
+
+  private static Member member(String name, int number) {
+    return Member.builder()
+      .firstName(name)
+      .lastName("Member")
+      .emailAddress(name + "@fleen.health")
+      .phoneNumber("+2348000000" + number)
+      .password("password")
+      .dateOfBirth(LocalDateTime.of(1990, 1, 1, 0, 0))
+      .gender(MemberGender.FEMALE)
+      .build();
+  }
+}
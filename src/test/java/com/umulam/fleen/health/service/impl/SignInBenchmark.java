@@ -0,0 +1,139 @@
+package com.umulam.fleen.health.service.impl;
+
+import com.umulam.fleen.health.configuration.security.provider.CustomAuthenticationProvider;
+import com.umulam.fleen.health.constant.MemberStatusType;
+import com.umulam.fleen.health.constant.authentication.RoleType;
+import com.umulam.fleen.health.constant.member.MemberGender;
+import com.umulam.fleen.health.model.domain.Member;
+import com.umulam.fleen.health.model.domain.MemberStatus;
+import com.umulam.fleen.health.model.domain.Role;
+import com.umulam.fleen.health.model.security.FleenUser;
+import com.umulam.fleen.health.repository.jpa.MemberJpaRepository;
+import com.umulam.fleen.health.repository.jpa.MemberStatusJpaRepository;
+import com.umulam.fleen.health.repository.jpa.RoleJpaRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many members can be loaded and signed in per second against an in-memory H2 database, comparing the previous read
+ * of the whole member, its status and its roles with the single projection query. The password hash uses the lowest BCrypt cost so
+ * that the database work is what is measured; see the password hashing benchmark for the cost of the hash itself.
+ *
+ * <p>Run the main method from the test classpath.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignInBenchmark {
+
+  private static final String EMAIL_ADDRESS = "member@fleen.health";
+  private static final String PASSWORD = "Password1!";
+
+  private ConfigurableApplicationContext context;
+  private MemberJpaRepository memberRepository;
+  private TransactionTemplate readOnlyTransaction;
+  private UserDetailsServiceImpl userDetailsService;
+  private CustomAuthenticationProvider authenticationProvider;
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(BenchmarkConfiguration.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+              "spring.datasource.url=jdbc:h2:mem:sign-in;DB_CLOSE_DELAY=-1",
+              "spring.jpa.hibernate.ddl-auto=create-drop",
+              "spring.jpa.open-in-view=false",
+              "logging.level.root=WARN")
+            .run();
+
+    memberRepository = context.getBean(MemberJpaRepository.class);
+    readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    readOnlyTransaction.setReadOnly(true);
+
+    BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+    saveMember(context, passwordEncoder.encode(PASSWORD));
+    userDetailsService = new UserDetailsServiceImpl(memberRepository);
+    authenticationProvider = new CustomAuthenticationProvider(userDetailsService, userDetailsService, passwordEncoder);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public FleenUser previousPrincipalLoad() {
+    return readOnlyTransaction.execute(status -> FleenUser.fromMember(memberRepository.findByEmailAddress(EMAIL_ADDRESS).orElseThrow()));
+  }
+
+  @Benchmark
+  public FleenUser projectionPrincipalLoad() {
+    return readOnlyTransaction.execute(status -> (FleenUser) userDetailsService.loadUserByUsername(EMAIL_ADDRESS));
+  }
+
+  @Benchmark
+  public Authentication signIn() {
+    return authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(EMAIL_ADDRESS, PASSWORD));
+  }
+
+  private static void saveMember(ConfigurableApplicationContext context, String passwordHash) {
+    TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    transaction.executeWithoutResult(status -> {
+      MemberStatus memberStatus = context.getBean(MemberStatusJpaRepository.class)
+              .save(MemberStatus.builder().code(MemberStatusType.ACTIVE.name()).title("Active").build());
+      RoleJpaRepository roleRepository = context.getBean(RoleJpaRepository.class);
+      Role user = roleRepository.save(Role.builder().code(RoleType.USER.name()).title("User").build());
+      Role employee = roleRepository.save(Role.builder().code(RoleType.EMPLOYEE.name()).title("Employee").build());
+
+      context.getBean(MemberJpaRepository.class).save(Member.builder()
+              .firstName("Ada")
+              .lastName("Lovelace")
+              .emailAddress(EMAIL_ADDRESS)
+              .phoneNumber("+2348000000000")
+              .password(passwordHash)
+              .dateOfBirth(LocalDateTime.of(1990, 1, 1, 0, 0))
+              .gender(MemberGender.FEMALE)
+              .memberStatus(memberStatus)
+              .roles(Set.of(user, employee))
+              .build());
+    });
+  }
+
+  @Configuration
+  @ImportAutoConfiguration({DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class})
+  @EntityScan(basePackageClasses = Member.class)
+  @EnableJpaRepositories(basePackageClasses = MemberJpaRepository.class, includeFilters = @ComponentScan.Filter(
+    type = FilterType.ASSIGNABLE_TYPE, classes = {MemberJpaRepository.class, MemberStatusJpaRepository.class, RoleJpaRepository.class}))
+  static class BenchmarkConfiguration {
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(SignInBenchmark.class.getSimpleName()).build()).run();
+  }
+}
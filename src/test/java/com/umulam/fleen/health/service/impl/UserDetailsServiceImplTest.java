@@ -0,0 +1,146 @@
+package com.umulam.fleen.health.service.impl;
+
+import com.umulam.fleen.health.configuration.security.provider.CustomAuthenticationProvider;
+import com.umulam.fleen.health.constant.MemberStatusType;
+import com.umulam.fleen.health.constant.authentication.RoleType;
+import com.umulam.fleen.health.constant.member.MemberGender;
+import com.umulam.fleen.health.model.domain.Member;
+import com.umulam.fleen.health.model.domain.MemberStatus;
+import com.umulam.fleen.health.model.domain.Role;
+import com.umulam.fleen.health.model.security.FleenUser;
+import com.umulam.fleen.health.repository.jpa.MemberJpaRepository;
+import com.umulam.fleen.health.repository.jpa.MemberStatusJpaRepository;
+import com.umulam.fleen.health.repository.jpa.RoleJpaRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the statements Hibernate prepares to load the principal of a member while they sign in.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class UserDetailsServiceImplTest {
+
+  private static final String EMAIL_ADDRESS = "member@fleen.health";
+  private static final String PASSWORD = "Password1!";
+
+  @Autowired
+  private MemberJpaRepository memberRepository;
+
+  @Autowired
+  private RoleJpaRepository roleRepository;
+
+  @Autowired
+  private MemberStatusJpaRepository memberStatusRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+  private UserDetailsServiceImpl userDetailsService;
+  private BCryptPasswordEncoder passwordEncoder;
+
+  @BeforeEach
+  void setUp() {
+    passwordEncoder = new BCryptPasswordEncoder(4);
+    saveMember(EMAIL_ADDRESS, passwordEncoder.encode(PASSWORD));
+    entityManager.flush();
+    entityManager.clear();
+
+    userDetailsService = new UserDetailsServiceImpl(memberRepository);
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void previousPathLoadsTheStatusAndRolesWithStatementsOfTheirOwn() {
+    Member member = memberRepository.findByEmailAddress(EMAIL_ADDRESS).orElseThrow();
+    FleenUser user = FleenUser.fromMember(member);
+
+    // The member, then the eagerly fetched status and then the lazily initialized roles
+    assertEquals(Set.of("ROLE_USER", "ROLE_EMPLOYEE"), authorities(user));
+    assertEquals(3, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void principalIsLoadedWithASingleStatement() {
+    FleenUser user = (FleenUser) userDetailsService.loadUserByUsername(EMAIL_ADDRESS);
+
+    assertEquals(1, statistics.getPrepareStatementCount());
+    assertEquals(EMAIL_ADDRESS, user.getEmailAddress());
+    assertEquals(MemberStatusType.ACTIVE.name(), user.getStatus());
+    assertEquals(Set.of("ROLE_USER", "ROLE_EMPLOYEE"), authorities(user));
+    assertTrue(user.isMfaEnabled());
+    assertEquals("Ada", user.getFirstName());
+  }
+
+  @Test
+  void unknownMemberIsRejectedAfterASingleStatement() {
+    assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("unknown@fleen.health"));
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void signInRunsASingleStatement() {
+    CustomAuthenticationProvider provider = new CustomAuthenticationProvider(userDetailsService, userDetailsService, passwordEncoder);
+
+    Authentication authentication = provider.authenticate(new UsernamePasswordAuthenticationToken(EMAIL_ADDRESS, PASSWORD));
+
+    assertTrue(authentication.isAuthenticated());
+    assertEquals(EMAIL_ADDRESS, ((FleenUser) authentication.getPrincipal()).getEmailAddress());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void signInWithAnOutdatedHashAlsoUpdatesThePassword() {
+    CustomAuthenticationProvider provider = new CustomAuthenticationProvider(userDetailsService, userDetailsService, new BCryptPasswordEncoder(5));
+
+    Authentication authentication = provider.authenticate(new UsernamePasswordAuthenticationToken(EMAIL_ADDRESS, PASSWORD));
+
+    assertTrue(authentication.isAuthenticated());
+    assertEquals(2, statistics.getPrepareStatementCount());
+  }
+
+  private void saveMember(String emailAddress, String passwordHash) {
+    MemberStatus status = memberStatusRepository.save(MemberStatus.builder().code(MemberStatusType.ACTIVE.name()).title("Active").build());
+    Role user = roleRepository.save(Role.builder().code(RoleType.USER.name()).title("User").build());
+    Role employee = roleRepository.save(Role.builder().code(RoleType.EMPLOYEE.name()).title("Employee").build());
+
+    Member member = Member.builder()
+            .firstName("Ada")
+            .lastName("Lovelace")
+            .emailAddress(emailAddress)
+            .phoneNumber("+2348000000000")
+            .password(passwordHash)
+            .dateOfBirth(LocalDateTime.of(1990, 1, 1, 0, 0))
+            .gender(MemberGender.FEMALE)
+            .mfaEnabled(true)
+            .memberStatus(status)
+            .roles(Set.of(user, employee))
+            .build();
+    memberRepository.save(member);
+  }
+
+  private static Set<String> authorities(FleenUser user) {
+    return user.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+  }
+}
@@ -0,0 +1,174 @@
+package com.umulam.fleen.health.service.session.impl;
+
+import com.umulam.fleen.health.constant.session.HealthSessionStatus;
+import com.umulam.fleen.health.constant.session.TransactionStatus;
+import com.umulam.fleen.health.model.domain.HealthSession;
+import com.umulam.fleen.health.model.domain.Member;
+import com.umulam.fleen.health.model.domain.transaction.SessionTransaction;
+import com.umulam.fleen.health.model.response.healthsession.GetPendingSessionHold;
+import com.umulam.fleen.health.repository.jpa.HealthSessionJpaRepository;
+import com.umulam.fleen.health.repository.jpa.transaction.SessionTransactionJpaRepository;
+import com.umulam.fleen.health.service.impl.FleenHealthEventService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.umulam.fleen.health.constant.base.GeneralConstant.SESSION_HOLD_CACHE_KEY;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class HealthSessionHoldServiceTest {
+
+  private static final ZoneId ZONE = ZoneId.of("Africa/Lagos");
+  private static final Instant NOW = Instant.parse("2024-03-01T10:00:00Z");
+  private static final long HOLD_MINUTES = 30;
+  private static final long RETRY_SECONDS = 45;
+
+  @SuppressWarnings("unchecked")
+  private final RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+  private final HealthSessionJpaRepository healthSessionRepository = mock(HealthSessionJpaRepository.class);
+  private final SessionTransactionJpaRepository sessionTransactionRepository = mock(SessionTransactionJpaRepository.class);
+  private final FleenHealthEventService eventService = mock(FleenHealthEventService.class);
+  private final Map<String, Double> holds = new TreeMap<>();
+  private final List<String> claimArguments = new ArrayList<>();
+
+  private final HealthSessionHoldService holdService = new HealthSessionHoldService(redisTemplate, healthSessionRepository,
+    sessionTransactionRepository, mock(HealthSessionSlotReservationService.class), eventService, mock(PlatformTransactionManager.class),
+    Clock.fixed(NOW, ZONE), HOLD_MINUTES, 3600, RETRY_SECONDS, 100);
+
+  HealthSessionHoldServiceTest() {
+    RedisConnection connection = mock(RedisConnection.class);
+    when(connection.zSetCommands()).thenReturn(connection);
+    when(connection.zAdd(any(byte[].class), anyDouble(), any(byte[].class), any(RedisZSetCommands.ZAddArgs.class))).thenAnswer(invocation -> {
+      assertEquals(SESSION_HOLD_CACHE_KEY, new String(invocation.<byte[]>getArgument(0), StandardCharsets.UTF_8));
+      holds.put(new String(invocation.<byte[]>getArgument(2), StandardCharsets.UTF_8), invocation.getArgument(1));
+      return true;
+    });
+    when(redisTemplate.execute(any(RedisCallback.class))).thenAnswer(invocation ->
+      invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+  }
+
+  @AfterEach
+  void destroy() {
+    holdService.destroy();
+  }
+
+  @Test
+  void holdExpiresAfterTheHoldDuration() {
+    holdService.hold("GROUP-1");
+
+    assertEquals(NOW.plus(Duration.ofMinutes(HOLD_MINUTES)).toEpochMilli(), holds.get("GROUP-1").longValue());
+  }
+
+  @Test
+  void pendingHoldsExpireFromTheirCreationInTheZoneOfTheClock() {
+    LocalDateTime createdOn = LocalDateTime.of(2024, 3, 1, 10, 45);
+    when(sessionTransactionRepository.findPendingSessionHolds(TransactionStatus.PENDING)).thenReturn(List.of(pendingHold("GROUP-2", createdOn)));
+
+    holdService.start();
+
+    long expected = createdOn.plusMinutes(HOLD_MINUTES).atZone(ZONE).toInstant().toEpochMilli();
+    assertEquals(expected, holds.get("GROUP-2").longValue());
+  }
+
+  @Test
+  void expiredHoldsAreClaimedAtTheTimeOfTheClockAndReleased() {
+    SessionTransaction transaction = transaction("GROUP-3", "SESSION-3");
+    HealthSession session = session("SESSION-3");
+    claimReturns(List.of("GROUP-3"));
+    when(sessionTransactionRepository.lockByGroupReferencesSkipLocked(List.of("GROUP-3"))).thenReturn(List.of(transaction));
+    when(healthSessionRepository.findByReferenceIn(anyCollection())).thenReturn(List.of(session));
+
+    holdService.releaseExpiredHolds();
+
+    assertEquals(List.of(String.valueOf(NOW.toEpochMilli()), "100"), claimArguments);
+    assertEquals(TransactionStatus.CANCELLED, transaction.getStatus());
+    assertEquals(HealthSessionStatus.CANCELED, session.getStatus());
+    verify(eventService).publishSessionSlotChanged(7L);
+    assertTrue(holds.isEmpty());
+  }
+
+  @Test
+  void lockedHoldIsTriedAgainAfterTheRetryDelay() {
+    claimReturns(List.of("GROUP-4"));
+    when(sessionTransactionRepository.lockByGroupReferencesSkipLocked(List.of("GROUP-4"))).thenReturn(List.of());
+    when(sessionTransactionRepository.findExistingGroupReferences(List.of("GROUP-4"))).thenReturn(List.of("GROUP-4"));
+
+    holdService.releaseExpiredHolds();
+
+    assertEquals(NOW.plusSeconds(RETRY_SECONDS).toEpochMilli(), holds.get("GROUP-4").longValue());
+    verifyNoInteractions(healthSessionRepository);
+  }
+
+  @Test
+  void claimedHoldsAreAddedBackWhenTheReleaseFails() {
+    claimReturns(List.of("GROUP-5", "GROUP-6"));
+    when(sessionTransactionRepository.lockByGroupReferencesSkipLocked(List.of("GROUP-5", "GROUP-6")))
+      .thenThrow(new QueryTimeoutException("Lock wait timed out"));
+
+    holdService.releaseExpiredHolds();
+
+    long retryAt = NOW.plusSeconds(RETRY_SECONDS).toEpochMilli();
+    assertEquals(retryAt, holds.get("GROUP-5").longValue());
+    assertEquals(retryAt, holds.get("GROUP-6").longValue());
+    // The failed batch ends the run instead of claiming more holds against a failing database
+    assertEquals(2, claimArguments.size());
+    verifyNoInteractions(healthSessionRepository, eventService);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void claimReturns(List<String> references) {
+    when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class), anyList(), any(), any()))
+      .thenAnswer(invocation -> {
+        claimArguments.add(invocation.getArgument(4));
+        claimArguments.add(invocation.getArgument(5));
+        return claimArguments.size() == 2 ? references : List.of();
+      });
+  }
+
+  private static GetPendingSessionHold pendingHold(String reference, LocalDateTime createdOn) {
+    return new GetPendingSessionHold() {
+      @Override
+      public String getGroupTransactionReference() {
+        return reference;
+      }
+
+      @Override
+      public LocalDateTime getCreatedOn() {
+        return createdOn;
+      }
+    };
+  }
+
+  private static SessionTransaction transaction(String groupReference, String sessionReference) {
+    SessionTransaction transaction = new SessionTransaction();
+    transaction.setGroupTransactionReference(groupReference);
+    transaction.setSessionReference(sessionReference);
+    transaction.setTotalSessions(1);
+    transaction.setStatus(TransactionStatus.PENDING);
+    return transaction;
+  }
+
+  private static HealthSession session(String reference) {
+    return HealthSession.builder()
+      .reference(reference)
+      .status(HealthSessionStatus.PENDING)
+      .professional(Member.builder().id(7L).build())
+      .build();
+  }
+}
@@ -0,0 +1,189 @@
+package com.umulam.fleen.health.service.session.impl;
+
+import com.umulam.fleen.health.constant.business.BusinessEmployeeStatus;
+import com.umulam.fleen.health.constant.professional.AvailabilityDayOfTheWeek;
+import com.umulam.fleen.health.constant.professional.ProfessionalAvailabilityStatus;
+import com.umulam.fleen.health.constant.session.BatchBookingEntryStatus;
+import com.umulam.fleen.health.constant.verification.ProfileVerificationStatus;
+import com.umulam.fleen.health.model.domain.Member;
+import com.umulam.fleen.health.model.domain.transaction.SessionTransaction;
+import com.umulam.fleen.health.model.dto.healthsession.BookHealthSessionBatchDto;
+import com.umulam.fleen.health.model.dto.healthsession.BookHealthSessionBatchDto.SessionEntry;
+import com.umulam.fleen.health.model.response.healthsession.BatchHealthSessionBookingResponse;
+import com.umulam.fleen.health.model.security.FleenUser;
+import com.umulam.fleen.health.repository.jpa.*;
+import com.umulam.fleen.health.repository.jpa.transaction.TransactionJpaRepository;
+import com.umulam.fleen.health.service.ExchangeRateService;
+import com.umulam.fleen.health.service.MemberService;
+import com.umulam.fleen.health.service.ProfessionalService;
+import com.umulam.fleen.health.service.impl.ConfigService;
+import com.umulam.fleen.health.service.impl.FleenHealthEventService;
+import com.umulam.fleen.health.service.session.impl.ProfessionalBookingSnapshotCache.BookingSnapshot;
+import com.umulam.fleen.health.util.FleenHealthReferenceGenerator;
+import com.umulam.fleen.health.util.WeeklyAvailability;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Books sessions for the employees of a business with the repositories and the services around the booking mocked, to check which
+ * entries are booked and what they are charged.
+ */
+class HealthSessionServiceImplTest {
+
+  private static final long BUSINESS_ID = 1L;
+  private static final long PROFESSIONAL_ID = 10L;
+  private static final long EMPLOYEE_ID = 20L;
+  private static final long OTHER_MEMBER_ID = 21L;
+
+  private final HealthSessionJpaRepository healthSessionRepository = mock(HealthSessionJpaRepository.class);
+  private final TransactionJpaRepository transactionRepository = mock(TransactionJpaRepository.class);
+  private final MemberService memberService = mock(MemberService.class);
+  private final ExchangeRateService exchangeRateService = mock(ExchangeRateService.class);
+  private final ConfigService configService = mock(ConfigService.class);
+  private final HealthSessionSlotReservationService slotReservationService = mock(HealthSessionSlotReservationService.class);
+  private final ProfessionalSlotIndex slotIndex = mock(ProfessionalSlotIndex.class);
+  private final ProfessionalBookingSnapshotCache bookingSnapshotCache = mock(ProfessionalBookingSnapshotCache.class);
+  private final BusinessEmployeeJpaRepository businessEmployeeRepository = mock(BusinessEmployeeJpaRepository.class);
+  private final FleenHealthReferenceGenerator referenceGenerator = mock(FleenHealthReferenceGenerator.class);
+  private final HealthSessionServiceImpl service = new HealthSessionServiceImpl(
+    mock(HealthSessionProfessionalJpaRepository.class),
+    healthSessionRepository,
+    mock(ProfessionalService.class),
+    referenceGenerator,
+    transactionRepository,
+    mock(ProfessionalAvailabilityJpaRepository.class),
+    mock(HealthSessionReviewJpaRepository.class),
+    mock(FleenHealthEventService.class),
+    memberService,
+    exchangeRateService,
+    configService,
+    slotReservationService,
+    slotIndex,
+    mock(HealthSessionHoldService.class),
+    bookingSnapshotCache,
+    businessEmployeeRepository);
+
+  private final LocalDate date = LocalDate.now().plusDays(7).with(DayOfWeek.MONDAY);
+
+  @BeforeEach
+  void setUp() {
+    when(slotIndex.getSessionZone()).thenReturn(ZoneOffset.UTC);
+    when(configService.getHealthSessionPricingCurrency()).thenReturn("USD");
+    when(configService.getHealthSessionPaymentCurrency()).thenReturn("NGN");
+    when(exchangeRateService.getConvertedHealthSessionPrice(anyDouble())).thenAnswer(invocation -> invocation.<Double>getArgument(0) * 1500);
+    when(referenceGenerator.generateSessionReference()).thenAnswer(invocation -> UUID.randomUUID().toString());
+    when(referenceGenerator.generateTransactionReference()).thenAnswer(invocation -> UUID.randomUUID().toString());
+    when(referenceGenerator.generateGroupTransactionReference()).thenReturn("group");
+    when(memberService.getMembersByEmailAddresses(anyCollection())).thenAnswer(invocation -> invocation.<Collection<String>>getArgument(0)
+      .stream()
+      .map(emailAddress -> Member.builder().id(emailAddress.startsWith("employee") ? EMPLOYEE_ID : OTHER_MEMBER_ID).emailAddress(emailAddress).build())
+      .collect(Collectors.toList()));
+    when(businessEmployeeRepository.findEmployeeMemberIds(eq(BUSINESS_ID), anyCollection(), any())).thenReturn(Set.of(EMPLOYEE_ID));
+    when(slotReservationService.lockAndFindBooked(anyCollection(), anyCollection())).thenReturn(Map.of());
+    when(healthSessionRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+  }
+
+  @Test
+  void entriesAreCheckedAgainAgainstTheLockedProfessional() {
+    when(bookingSnapshotCache.find(PROFESSIONAL_ID)).thenReturn(Optional.of(snapshot(ProfessionalAvailabilityStatus.AVAILABLE, 20D)));
+    // The professional became unavailable after the snapshot held in memory was loaded
+    when(bookingSnapshotCache.lockAndLoad(anyCollection())).thenReturn(Map.of(PROFESSIONAL_ID, snapshot(ProfessionalAvailabilityStatus.UNAVAILABLE, 20D)));
+
+    BatchHealthSessionBookingResponse response = service.bookSessions(request(entry("employee@business.com", "09:00")), business());
+
+    assertEquals(0, response.getBookedCount());
+    assertEquals(BatchBookingEntryStatus.PROFESSIONAL_NOT_AVAILABLE, response.getEntries().get(0).getStatus());
+    verify(slotReservationService).lockAndFindBooked(anyCollection(), anyCollection());
+    verify(healthSessionRepository, never()).saveAllAndFlush(anyList());
+    verify(transactionRepository, never()).saveAll(anyList());
+  }
+
+  @Test
+  void sessionsAreChargedThePriceOfTheLockedProfessional() {
+    when(bookingSnapshotCache.find(PROFESSIONAL_ID)).thenReturn(Optional.of(snapshot(ProfessionalAvailabilityStatus.AVAILABLE, 20D)));
+    when(bookingSnapshotCache.lockAndLoad(anyCollection())).thenReturn(Map.of(PROFESSIONAL_ID, snapshot(ProfessionalAvailabilityStatus.AVAILABLE, 30D)));
+
+    BatchHealthSessionBookingResponse response = service.bookSessions(request(
+      entry("employee@business.com", "09:00"),
+      entry("employee@business.com", "09:00")), business());
+
+    assertEquals(1, response.getBookedCount());
+    assertEquals(30D, response.getTotalPrice());
+    assertEquals(30D, response.getEntries().get(0).getProfessionalPrice());
+    assertEquals(BatchBookingEntryStatus.DUPLICATE_ENTRY, response.getEntries().get(1).getStatus());
+    assertEquals(List.of(30D), savedTransactions().stream().map(SessionTransaction::getAmount).collect(Collectors.toList()));
+  }
+
+  @Test
+  void onlyTheActiveEmployeesOfTheBusinessAreBooked() {
+    BookingSnapshot professional = snapshot(ProfessionalAvailabilityStatus.AVAILABLE, 20D);
+    when(bookingSnapshotCache.find(PROFESSIONAL_ID)).thenReturn(Optional.of(professional));
+    when(bookingSnapshotCache.lockAndLoad(anyCollection())).thenReturn(Map.of(PROFESSIONAL_ID, professional));
+
+    BatchHealthSessionBookingResponse response = service.bookSessions(request(
+      entry("employee@business.com", "09:00"),
+      entry("someone@elsewhere.com", "10:00")), business());
+
+    assertEquals(1, response.getBookedCount());
+    assertEquals(BatchBookingEntryStatus.BOOKED, response.getEntries().get(0).getStatus());
+    assertEquals(BatchBookingEntryStatus.PATIENT_NOT_EMPLOYEE, response.getEntries().get(1).getStatus());
+    verify(businessEmployeeRepository).findEmployeeMemberIds(BUSINESS_ID, Set.of(EMPLOYEE_ID, OTHER_MEMBER_ID), BusinessEmployeeStatus.ACTIVE);
+    assertEquals(1, savedTransactions().size());
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<SessionTransaction> savedTransactions() {
+    ArgumentCaptor<List<SessionTransaction>> transactions = ArgumentCaptor.forClass(List.class);
+    verify(transactionRepository).saveAll(transactions.capture());
+    return transactions.getValue();
+  }
+
+  private static BookingSnapshot snapshot(ProfessionalAvailabilityStatus availabilityStatus, Double price) {
+    List<WeeklyAvailability.Period> periods = Arrays.stream(AvailabilityDayOfTheWeek.values())
+      .map(day -> new WeeklyAvailability.Period(day, LocalTime.of(8, 0), LocalTime.of(18, 0)))
+      .collect(Collectors.toList());
+    BookingSnapshot snapshot = new BookingSnapshot();
+    snapshot.setProfessionalMemberId(PROFESSIONAL_ID);
+    snapshot.setProfessionalName("Ada Obi");
+    snapshot.setPrice(price);
+    snapshot.setPriceCurrency("USD");
+    snapshot.setAvailabilityStatus(availabilityStatus);
+    snapshot.setVerificationStatus(ProfileVerificationStatus.APPROVED);
+    snapshot.setAvailability(WeeklyAvailability.of(periods).toBytes());
+    return snapshot;
+  }
+
+  private BookHealthSessionBatchDto request(SessionEntry... entries) {
+    return BookHealthSessionBatchDto.builder()
+      .entries(List.of(entries))
+      .build();
+  }
+
+  private SessionEntry entry(String patientEmailAddress, String time) {
+    SessionEntry entry = new SessionEntry();
+    entry.setProfessional(String.valueOf(PROFESSIONAL_ID));
+    entry.setPatientEmailAddress(patientEmailAddress);
+    entry.setDate(date.toString());
+    entry.setTime(time);
+    return entry;
+  }
+
+  private static FleenUser business() {
+    FleenUser user = mock(FleenUser.class);
+    when(user.getId()).thenReturn(BUSINESS_ID);
+    when(user.toMember()).thenReturn(Member.builder().id(BUSINESS_ID).build());
+    return user;
+  }
+}
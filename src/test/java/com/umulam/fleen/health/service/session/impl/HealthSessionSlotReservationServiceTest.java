@@ -0,0 +1,225 @@
+package com.umulam.fleen.health.service.session.impl;
+
+import com.umulam.fleen.health.constant.session.HealthSessionStatus;
+import com.umulam.fleen.health.constant.session.SessionLocation;
+import com.umulam.fleen.health.constant.member.MemberGender;
+import com.umulam.fleen.health.exception.healthsession.HealthSessionPeriodsUnavailableException;
+import com.umulam.fleen.health.model.domain.HealthSession;
+import com.umulam.fleen.health.model.domain.Member;
+import com.umulam.fleen.health.repository.jpa.HealthSessionJpaRepository;
+import com.umulam.fleen.health.repository.jpa.MemberJpaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.umulam.fleen.health.repository.jpa.HealthSessionJpaRepository.BOOKING_LOCK_NAMESPACE;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Books sessions from several threads at once against an in-memory H2 database and checks that no professional is booked twice for
+ * the same period. H2 has no advisory locks, so the booking lock is stood in for by a row lock on a table holding a row for each
+ * professional, which is also held until the transaction ends. H2 has no partial indexes either, and as every session booked here
+ * is pending, the unique index over the professional, date and time covers the same sessions as the one created on startup.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:slot-reservation;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(HealthSessionSlotReservationService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HealthSessionSlotReservationServiceTest {
+
+  private static final LocalDate DATE = LocalDate.of(2024, 3, 4);
+  private static final LocalTime FIRST_PERIOD = LocalTime.of(9, 0);
+  private static final int PROFESSIONALS = 4;
+  private static final int PERIODS_PER_DAY = 8;
+  private static final int DAYS = 5;
+
+  @Autowired
+  private HealthSessionSlotReservationService slotReservationService;
+
+  @Autowired
+  private HealthSessionJpaRepository healthSessionRepository;
+
+  @Autowired
+  private MemberJpaRepository memberRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private TransactionTemplate transaction;
+  private final List<Member> professionals = new ArrayList<>();
+  private final List<Member> patients = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    healthSessionRepository.deleteAllInBatch();
+    memberRepository.deleteAllInBatch();
+    jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS pg_advisory_xact_lock FOR \"" + BookingLocks.class.getName() + ".lock\"");
+    jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS booking_lock (namespace INT, lock_key INT, PRIMARY KEY (namespace, lock_key))");
+    jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS hs_active_slot_index ON health_session (professional_id, date, time)");
+    jdbcTemplate.execute("DELETE FROM booking_lock");
+
+    transaction = new TransactionTemplate(transactionManager);
+    professionals.clear();
+    patients.clear();
+    for (int i = 0; i < PROFESSIONALS; i++) {
+      Member professional = memberRepository.save(member("professional-" + i, 100 + i));
+      jdbcTemplate.update("INSERT INTO booking_lock (namespace, lock_key) VALUES (?, ?)", BOOKING_LOCK_NAMESPACE, professional.getId().intValue());
+      professionals.add(professional);
+    }
+    for (int i = 0; i < 16; i++) {
+      patients.add(memberRepository.save(member("patient-" + i, 200 + i)));
+    }
+  }
+
+  @Test
+  void concurrentBookingsNeverTakeThePeriodOfAnother() throws Exception {
+    int threads = 8;
+    int attemptsPerThread = 50;
+    AtomicInteger booked = new AtomicInteger();
+    AtomicInteger unavailable = new AtomicInteger();
+    AtomicInteger rejectedByIndex = new AtomicInteger();
+    CountDownLatch ready = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    long startedAt;
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        Random random = new Random(t);
+        Member patient = patients.get(t);
+        futures.add(executor.submit(() -> {
+          ready.await();
+          for (int i = 0; i < attemptsPerThread; i++) {
+            Member professional = professionals.get(random.nextInt(PROFESSIONALS));
+            LocalDateTime period = LocalDateTime.of(DATE.plusDays(random.nextInt(DAYS)), FIRST_PERIOD.plusHours(random.nextInt(PERIODS_PER_DAY)));
+            try {
+              transaction.executeWithoutResult(status -> {
+                slotReservationService.reserve(professional.getId(), professional.getFirstName(), patient.getId(), List.of(period));
+                healthSessionRepository.saveAndFlush(session(professional, patient, period));
+              });
+              booked.incrementAndGet();
+            } catch (HealthSessionPeriodsUnavailableException ex) {
+              unavailable.incrementAndGet();
+            } catch (DataIntegrityViolationException ex) {
+              rejectedByIndex.incrementAndGet();
+            }
+          }
+          return null;
+        }));
+      }
+
+      startedAt = System.nanoTime();
+      ready.countDown();
+      for (Future<?> future : futures) {
+        future.get(2, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    double seconds = (System.nanoTime() - startedAt) / 1e9;
+
+    int attempts = threads * attemptsPerThread;
+    System.out.printf("%d booking attempts by %d threads in %.2fs: %.0f attempts/s, %.0f bookings/s, %d booked, %d unavailable%n",
+      attempts, threads, seconds, attempts / seconds, booked.get() / seconds, booked.get(), unavailable.get());
+
+    // Every booking found its period taken under the lock, so none of them reached the index
+    assertEquals(0, rejectedByIndex.get());
+    assertEquals(attempts, booked.get() + unavailable.get());
+    assertTrue(booked.get() <= PROFESSIONALS * PERIODS_PER_DAY * DAYS);
+    assertEquals(booked.get(), healthSessionRepository.count());
+    assertEquals(booked.get(), (int) jdbcTemplate.queryForObject(
+      "SELECT count(*) FROM (SELECT DISTINCT professional_id, date, time FROM health_session) AS periods", Integer.class));
+  }
+
+  @Test
+  void sessionRejectedByTheIndexIsFoundByReadingTheBookedPeriodsAgain() {
+    Member professional = professionals.get(0);
+    LocalDateTime taken = LocalDateTime.of(DATE, LocalTime.of(11, 0));
+    healthSessionRepository.saveAndFlush(session(professional, patients.get(0), taken));
+
+    List<HealthSession> sessions = List.of(
+      session(professional, patients.get(1), LocalDateTime.of(DATE, LocalTime.of(10, 0))),
+      session(professional, patients.get(1), taken),
+      session(professionals.get(1), patients.get(1), taken));
+
+    HealthSession conflictingSession = transaction.execute(status -> {
+      try {
+        // Saved without the booking lock, like a path that does not take it
+        healthSessionRepository.saveAllAndFlush(sessions);
+        return null;
+      } catch (DataIntegrityViolationException ex) {
+        status.setRollbackOnly();
+        return slotReservationService.findConflictingSession(sessions);
+      }
+    });
+
+    assertSame(sessions.get(1), conflictingSession);
+    assertEquals(1, healthSessionRepository.count());
+  }
+
+  private static HealthSession session(Member professional, Member patient, LocalDateTime period) {
+    return HealthSession.builder()
+      .professional(professional)
+      .patient(patient)
+      .date(period.toLocalDate())
+      .time(period.toLocalTime())
+      .reference(UUID.randomUUID().toString())
+      .status(HealthSessionStatus.PENDING)
+      .location(SessionLocation.REMOTE)
+      .build();
+  }
+
+  private static Member member(String name, int number) {
+    return Member.builder()
+      .firstName(name)
+      .lastName("Member")
+      .emailAddress(name + "@fleen.health")
+      .phoneNumber("+2348000000" + number)
+      .password("password")
+      .dateOfBirth(LocalDateTime.of(1990, 1, 1, 0, 0))
+      .gender(MemberGender.FEMALE)
+      .build();
+  }
+
+  public static final class BookingLocks {
+
+    private BookingLocks() {}
+
+    /**
+     * Lock the row of the key until the transaction of the connection ends, like pg_advisory_xact_lock.
+     */
+    public static Boolean lock(Connection connection, int namespace, int key) throws SQLException {
+      try (PreparedStatement statement = connection.prepareStatement(
+             "SELECT lock_key FROM booking_lock WHERE namespace = ? AND lock_key = ? FOR UPDATE")) {
+        statement.setInt(1, namespace);
+        statement.setInt(2, key);
+        try (ResultSet resultSet = statement.executeQuery()) {
+          return resultSet.next();
+        }
+      }
+    }
+  }
+}
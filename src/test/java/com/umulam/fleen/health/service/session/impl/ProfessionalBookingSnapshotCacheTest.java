@@ -0,0 +1,163 @@
+package com.umulam.fleen.health.service.session.impl;
+
+import com.umulam.fleen.health.configuration.cache.EmbeddedRedis;
+import com.umulam.fleen.health.constant.professional.ProfessionalAvailabilityStatus;
+import com.umulam.fleen.health.constant.verification.ProfileVerificationStatus;
+import com.umulam.fleen.health.event.ProfessionalChangedEvent;
+import com.umulam.fleen.health.model.domain.Member;
+import com.umulam.fleen.health.model.domain.Professional;
+import com.umulam.fleen.health.service.ProfessionalService;
+import com.umulam.fleen.health.service.impl.CacheService;
+import com.umulam.fleen.health.service.impl.ConfigService;
+import com.umulam.fleen.health.service.session.impl.ProfessionalBookingSnapshotCache.BookingSnapshot;
+import com.umulam.fleen.health.util.WeeklyAvailability;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Two nodes, each with its own template, listener container and copies of the snapshots, share one in-process Redis server and a
+ * professional whose price is changed on one node while the other node reads it.
+ */
+class ProfessionalBookingSnapshotCacheTest {
+
+  private static final String CHANNEL = "PROFESSIONAL_BOOKING_SNAPSHOT_INVALIDATION";
+  private static final long PROFESSIONAL_MEMBER_ID = 7L;
+  private static final long NEAR_TTL_SECONDS = 300;
+
+  private static EmbeddedRedis redis;
+  private static RedisTemplate<String, Object> redisTemplate;
+
+  private final AtomicReference<Double> price = new AtomicReference<>(20D);
+  private final ProfessionalService professionalService = mock(ProfessionalService.class);
+
+  @BeforeAll
+  static void start() {
+    redis = EmbeddedRedis.start();
+    redisTemplate = redis.newRedisTemplate();
+  }
+
+  @AfterAll
+  static void stop() {
+    redis.close();
+  }
+
+  @BeforeEach
+  void setUp() {
+    redis.flushAll(redisTemplate);
+    when(professionalService.findProfessionalByMember(any(Member.class))).thenAnswer(invocation -> {
+      Member member = Member.builder()
+        .id(PROFESSIONAL_MEMBER_ID)
+        .firstName("Ada")
+        .lastName("Obi")
+        .verificationStatus(ProfileVerificationStatus.APPROVED)
+        .build();
+      return Optional.of(Professional.builder()
+        .member(member)
+        .price(price.get())
+        .availabilityStatus(ProfessionalAvailabilityStatus.AVAILABLE)
+        .build());
+    });
+    when(professionalService.getWeeklyAvailability(any(Member.class))).thenReturn(WeeklyAvailability.empty());
+  }
+
+  @Test
+  void changeOnOneNodeIsSeenByTheOtherNode() {
+    Node changing = new Node(new CacheService(redisTemplate, redis.getMapper()));
+    Node reading = new Node(new CacheService(redis.newRedisTemplate(), redis.getMapper()));
+    assertEquals(20D, reading.cache.find(PROFESSIONAL_MEMBER_ID).orElseThrow().getPrice());
+
+    price.set(30D);
+    changing.cache.onProfessionalChanged(new ProfessionalChangedEvent(PROFESSIONAL_MEMBER_ID));
+
+    assertEquals(30D, changing.cache.find(PROFESSIONAL_MEMBER_ID).orElseThrow().getPrice());
+    awaitTrue(() -> reading.cache.find(PROFESSIONAL_MEMBER_ID).orElseThrow().getPrice() == 30D);
+  }
+
+  @Test
+  void snapshotReadBeforeAChangeIsNotHeldAfterItsInvalidation() throws Exception {
+    Node changing = new Node(new CacheService(redisTemplate, redis.getMapper()));
+    changing.cache.find(PROFESSIONAL_MEMBER_ID);
+
+    // The reading node gets the old snapshot from the cache store and only completes the lookup once the change has been published
+    CountDownLatch read = new CountDownLatch(1);
+    CountDownLatch invalidated = new CountDownLatch(1);
+    CacheService slowCacheService = spy(new CacheService(redis.newRedisTemplate(), redis.getMapper()));
+    AtomicInteger reads = new AtomicInteger();
+    doAnswer(invocation -> {
+      Object snapshot = invocation.callRealMethod();
+      if (reads.incrementAndGet() == 1) {
+        read.countDown();
+        assertTrue(invalidated.await(5, TimeUnit.SECONDS));
+      }
+      return snapshot;
+    }).when(slowCacheService).get(any(String.class), eq(BookingSnapshot.class));
+    Node reading = new Node(slowCacheService);
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<BookingSnapshot> lookup = executor.submit(() -> reading.cache.find(PROFESSIONAL_MEMBER_ID).orElseThrow());
+      assertTrue(read.await(5, TimeUnit.SECONDS));
+
+      int messages = reading.messages.get();
+      price.set(30D);
+      changing.cache.onProfessionalChanged(new ProfessionalChangedEvent(PROFESSIONAL_MEMBER_ID));
+      awaitTrue(() -> reading.messages.get() > messages);
+      // Give the cache the same message the counting listener got
+      Thread.sleep(200);
+      invalidated.countDown();
+
+      // The lookup that started before the change may answer with the old snapshot, but the next one reads the new snapshot
+      assertEquals(20D, lookup.get(5, TimeUnit.SECONDS).getPrice());
+      assertEquals(30D, reading.cache.find(PROFESSIONAL_MEMBER_ID).orElseThrow().getPrice());
+      assertEquals(2, reads.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() > deadline) {
+        fail("Condition was not met in time");
+      }
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        fail(ex);
+      }
+    }
+  }
+
+  private final class Node {
+
+    private final ProfessionalBookingSnapshotCache cache;
+    private final AtomicInteger messages = new AtomicInteger();
+
+    private Node(CacheService cacheService) {
+      RedisMessageListenerContainer listenerContainer = redis.newListenerContainer();
+      ConfigService configService = mock(ConfigService.class);
+      when(configService.getHealthSessionPricingCurrency()).thenReturn("USD");
+      this.cache = new ProfessionalBookingSnapshotCache(professionalService, configService, cacheService, redisTemplate,
+        listenerContainer, CHANNEL, 60, NEAR_TTL_SECONDS, 100);
+      listenerContainer.addMessageListener((message, pattern) -> messages.incrementAndGet(), new ChannelTopic(CHANNEL));
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package com.umulam.fleen.health.service.session.impl;
+
+import com.umulam.fleen.health.constant.member.ProfessionalQualificationType;
+import com.umulam.fleen.health.model.request.search.FreeSlotSearchRequest;
+import com.umulam.fleen.health.model.view.healthsession.FreeSessionSlotView;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.umulam.fleen.health.service.session.impl.ProfessionalSlotIndexTest.nextMonday;
+import static com.umulam.fleen.health.service.session.impl.ProfessionalSlotIndexTest.request;
+
+/**
+ * Measures the latency of the searches served by the {@link ProfessionalSlotIndex} over thousands of professionals with random
+ * availability and a fifth of the slots of the first two weeks booked, as built by {@link ProfessionalSlotIndexTest.Fixture}.
+ *
+ * <p>The targets are a p99 below 100us for the next 10 open slots across every professional and for the open slots of a
+ * professional over two weeks, and below 1ms for the next 10 open slots of a filter that only a few professionals match, which walks
+ * more of the index. None of them should grow with the number of professionals. Run the main method from the test classpath.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProfessionalSlotIndexBenchmark {
+
+  @Param({"1000", "5000", "20000"})
+  public int professionals;
+
+  private ProfessionalSlotIndex index;
+  private FreeSlotSearchRequest nextSlots;
+  private FreeSlotSearchRequest rareNextSlots;
+  private FreeSlotSearchRequest professionalSlots;
+  private long professionalId;
+
+  @Setup
+  public void setUp() {
+    LocalDate firstDay = nextMonday();
+    ProfessionalSlotIndexTest.Fixture fixture = ProfessionalSlotIndexTest.Fixture.random(professionals, firstDay, 14, 42);
+    index = fixture.build(60);
+    nextSlots = request(firstDay, 10, 14).build();
+    rareNextSlots = request(firstDay, 10, 14).qualificationType(ProfessionalQualificationType.DOCTORATE).languageSpoken("French").build();
+    professionalSlots = request(firstDay, 10, 14).build();
+    professionalId = professionals / 2;
+  }
+
+  @TearDown
+  public void tearDown() {
+    index.destroy();
+  }
+
+  @Benchmark
+  public List<FreeSessionSlotView> nextFreeSlots() {
+    return index.findNextFreeSlots(nextSlots);
+  }
+
+  @Benchmark
+  public List<FreeSessionSlotView> nextFreeSlotsOfAFewProfessionals() {
+    return index.findNextFreeSlots(rareNextSlots);
+  }
+
+  @Benchmark
+  public List<FreeSessionSlotView> freeSlotsOfAProfessional() {
+    return index.findFreeSlots(professionalId, professionalSlots);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ProfessionalSlotIndexBenchmark.class.getSimpleName()).build()).run();
+  }
+}
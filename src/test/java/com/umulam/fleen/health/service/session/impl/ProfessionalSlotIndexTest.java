@@ -0,0 +1,379 @@
+package com.umulam.fleen.health.service.session.impl;
+
+import com.umulam.fleen.health.constant.member.ProfessionalQualificationType;
+import com.umulam.fleen.health.constant.member.ProfessionalType;
+import com.umulam.fleen.health.constant.professional.AvailabilityDayOfTheWeek;
+import com.umulam.fleen.health.event.SessionSlotChangedEvent;
+import com.umulam.fleen.health.model.domain.Member;
+import com.umulam.fleen.health.model.domain.Professional;
+import com.umulam.fleen.health.model.domain.ProfessionalSchedule;
+import com.umulam.fleen.health.model.request.search.FreeSlotSearchRequest;
+import com.umulam.fleen.health.model.response.healthsession.GetBookedSessionPeriod;
+import com.umulam.fleen.health.model.view.healthsession.FreeSessionSlotView;
+import com.umulam.fleen.health.repository.jpa.HealthSessionJpaRepository;
+import com.umulam.fleen.health.repository.jpa.HealthSessionProfessionalJpaRepository;
+import com.umulam.fleen.health.repository.jpa.ProfessionalScheduleJpaRepository;
+import com.umulam.fleen.health.service.ProfessionalService;
+import com.umulam.fleen.health.util.WeeklyAvailability;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.*;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.isNull;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Builds the slot index over professionals with random availability and booked sessions, read from mocked repositories, and checks
+ * the next open slots it finds against a scan over every slot of every professional.
+ */
+class ProfessionalSlotIndexTest {
+
+  static final String SESSION_ZONE = "Africa/Lagos";
+
+  private final List<ProfessionalSlotIndex> indexes = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    indexes.forEach(ProfessionalSlotIndex::destroy);
+  }
+
+  @Test
+  void nextFreeSlotsAreTheEarliestAcrossThousandsOfProfessionals() {
+    LocalDate firstDay = nextMonday();
+    Fixture fixture = Fixture.random(3_000, firstDay, 14, 7);
+    ProfessionalSlotIndex index = build(fixture, 60);
+
+    List<FreeSlotSearchRequest> requests = List.of(
+      request(firstDay, 1, 14).build(),
+      request(firstDay, 10, 14).build(),
+      request(firstDay.plusDays(3), 50, 7).build(),
+      request(firstDay, 20, 14).professionalType(ProfessionalType.COUNSELOR).build(),
+      request(firstDay, 20, 14).qualificationType(ProfessionalQualificationType.DOCTORATE).languageSpoken("Yoruba").build());
+    for (FreeSlotSearchRequest req : requests) {
+      assertEarliest(fixture, req, index.findNextFreeSlots(req));
+    }
+  }
+
+  @Test
+  void searchReturnsEveryOpenSlotWithinTheDaysWhenTooFewAreOpen() {
+    LocalDate firstDay = nextMonday();
+    Fixture fixture = Fixture.random(200, firstDay, 7, 11);
+    Professional professional = fixture.professionals.get(0);
+    professional.setLanguagesSpoken("English, Tiv");
+    ProfessionalSlotIndex index = build(fixture, 60);
+
+    FreeSlotSearchRequest req = request(firstDay, 1_000, 7).languageSpoken("tiv").build();
+    List<FreeSessionSlotView> slots = index.findNextFreeSlots(req);
+
+    assertFalse(slots.isEmpty());
+    assertEarliest(fixture, req, slots);
+    assertEquals(describe(index.findFreeSlots(professional.getId(), req)), describe(slots));
+  }
+
+  @Test
+  void reloadedProfessionalIsMovedInTheIndex() {
+    LocalDate firstDay = nextMonday();
+    Fixture fixture = new Fixture();
+    Professional first = fixture.add(1, ProfessionalType.THERAPIST, ProfessionalQualificationType.MASTER, "English",
+      availability(LocalTime.of(9, 0), LocalTime.of(11, 0)));
+    fixture.add(2, ProfessionalType.THERAPIST, ProfessionalQualificationType.MASTER, "English",
+      availability(LocalTime.of(10, 0), LocalTime.of(12, 0)));
+    ProfessionalSlotIndex index = build(fixture, 60);
+    FreeSlotSearchRequest req = request(firstDay, 1, 7).build();
+
+    assertSlot(index.findNextFreeSlots(req), first.getId(), firstDay.atTime(9, 0));
+
+    // The 9 o'clock session of the first professional is booked
+    fixture.book(first.getMember().getId(), firstDay.atTime(9, 0));
+    index.onSessionSlotChanged(new SessionSlotChangedEvent(first.getMember().getId()));
+    assertEquals(firstDay.atTime(10, 0), index.findNextFreeSlots(req).get(0).getStartDate());
+
+    // The first professional moves their availability to the evening, so their morning slot starts are dropped
+    fixture.availabilities.put(first.getMember().getId(), availability(LocalTime.of(18, 0), LocalTime.of(19, 0)));
+    index.onSessionSlotChanged(new SessionSlotChangedEvent(first.getMember().getId()));
+    List<FreeSessionSlotView> slots = index.findNextFreeSlots(request(firstDay, 4, 1).build());
+    assertEquals(List.of(firstDay.atTime(10, 0), firstDay.atTime(11, 0), firstDay.atTime(18, 0)),
+      slots.stream().map(FreeSessionSlotView::getStartDate).collect(Collectors.toList()));
+
+    // The first professional can no longer be booked
+    fixture.professionals.remove(first);
+    index.onSessionSlotChanged(new SessionSlotChangedEvent(first.getMember().getId()));
+    assertTrue(index.findNextFreeSlots(request(firstDay, 10, 7).build())
+      .stream()
+      .noneMatch(slot -> slot.getProfessionalId().equals(first.getId())));
+    assertTrue(index.findFreeSlots(first.getId(), req).isEmpty());
+  }
+
+  @Test
+  void staleIndexIsRebuiltOnTheRebuildThread() throws Exception {
+    LocalDate firstDay = nextMonday();
+    Fixture fixture = Fixture.random(10, firstDay, 7, 3);
+    ProfessionalSlotIndex index = build(fixture, 0);
+
+    AtomicReference<String> rebuiltOn = new AtomicReference<>();
+    CountDownLatch rebuilt = new CountDownLatch(1);
+    when(fixture.professionalRepository.findAllByAvailabilityStatus(any(), any())).thenAnswer(invocation -> {
+      rebuiltOn.set(Thread.currentThread().getName());
+      rebuilt.countDown();
+      return fixture.professionals;
+    });
+    Thread.sleep(5);
+
+    index.findNextFreeSlots(request(firstDay, 1, 7).build());
+    assertTrue(rebuilt.await(5, TimeUnit.SECONDS));
+    assertEquals("slot-index-rebuild", rebuiltOn.get());
+  }
+
+  private ProfessionalSlotIndex build(Fixture fixture, long rebuildMinutes) {
+    ProfessionalSlotIndex index = fixture.build(rebuildMinutes);
+    indexes.add(index);
+    return index;
+  }
+
+  /**
+   * Check that the slots found are open, match the request, and start at the same times as the earliest open slots found by a scan.
+   * Slots that start at the same time may be of any of the professionals that are open then.
+   */
+  private static void assertEarliest(Fixture fixture, FreeSlotSearchRequest req, List<FreeSessionSlotView> slots) {
+    Map<LocalDateTime, Set<Long>> openSlots = fixture.scan(req);
+    List<LocalDateTime> expectedStarts = openSlots
+      .entrySet()
+      .stream()
+      .flatMap(slot -> Collections.nCopies(slot.getValue().size(), slot.getKey()).stream())
+      .limit(req.getSlotCount())
+      .collect(Collectors.toList());
+
+    assertEquals(expectedStarts, slots.stream().map(FreeSessionSlotView::getStartDate).collect(Collectors.toList()));
+    for (FreeSessionSlotView slot : slots) {
+      assertTrue(openSlots.get(slot.getStartDate()).contains(slot.getProfessionalId()), slot.getProfessionalId() + " at " + slot.getStartDate());
+    }
+    assertEquals(slots.size(), describe(slots).stream().distinct().count());
+  }
+
+  private static List<String> describe(List<FreeSessionSlotView> slots) {
+    return slots
+      .stream()
+      .map(slot -> slot.getProfessionalId() + "@" + slot.getStartDate())
+      .collect(Collectors.toList());
+  }
+
+  private static void assertSlot(List<FreeSessionSlotView> slots, Long professionalId, LocalDateTime startDate) {
+    assertEquals(1, slots.size());
+    assertEquals(professionalId, slots.get(0).getProfessionalId());
+    assertEquals(startDate, slots.get(0).getStartDate());
+    assertEquals(startDate.plusHours(1), slots.get(0).getEndDate());
+  }
+
+  static FreeSlotSearchRequest.FreeSlotSearchRequestBuilder<?, ?> request(LocalDate startDate, int slotCount, int numberOfDays) {
+    return FreeSlotSearchRequest.builder()
+      .startDate(startDate)
+      .slotCount(slotCount)
+      .numberOfDays(numberOfDays);
+  }
+
+  static LocalDate nextMonday() {
+    return LocalDate.now(ZoneId.of(SESSION_ZONE)).plusWeeks(1).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+  }
+
+  private static WeeklyAvailability availability(LocalTime startTime, LocalTime endTime) {
+    List<WeeklyAvailability.Period> periods = new ArrayList<>();
+    for (AvailabilityDayOfTheWeek day : AvailabilityDayOfTheWeek.values()) {
+      periods.add(new WeeklyAvailability.Period(day, startTime, endTime));
+    }
+    return WeeklyAvailability.of(periods);
+  }
+
+  /**
+   * The professionals, schedules and booked sessions read by the index, served by mocked repositories.
+   */
+  static final class Fixture {
+
+    private static final ProfessionalType[] TYPES = ProfessionalType.values();
+    private static final ProfessionalQualificationType[] QUALIFICATIONS = ProfessionalQualificationType.values();
+    private static final String[] LANGUAGES = { "English", "English, Yoruba", "English, Hausa", "English, Igbo, Yoruba", "French" };
+
+    final HealthSessionProfessionalJpaRepository professionalRepository = mock(HealthSessionProfessionalJpaRepository.class);
+    final HealthSessionJpaRepository healthSessionRepository = mock(HealthSessionJpaRepository.class);
+    final ProfessionalScheduleJpaRepository scheduleRepository = mock(ProfessionalScheduleJpaRepository.class);
+    final ProfessionalService professionalService = mock(ProfessionalService.class);
+    final List<Professional> professionals = new ArrayList<>();
+    final Map<Long, WeeklyAvailability> availabilities = new HashMap<>();
+    final Map<Long, NavigableSet<LocalDateTime>> bookedStarts = new HashMap<>();
+
+    /**
+     * Professionals available in a morning and an afternoon period on random days, with a random fifth of the slots of the first
+     * days booked.
+     */
+    static Fixture random(int count, LocalDate firstDay, int bookedDays, long seed) {
+      Random random = new Random(seed);
+      Fixture fixture = new Fixture();
+      for (int i = 0; i < count; i++) {
+        List<WeeklyAvailability.Period> periods = new ArrayList<>();
+        for (AvailabilityDayOfTheWeek day : AvailabilityDayOfTheWeek.values()) {
+          if (random.nextInt(3) > 0) {
+            LocalTime morning = LocalTime.of(7 + random.nextInt(3), 0);
+            periods.add(new WeeklyAvailability.Period(day, morning, morning.plusHours(1 + random.nextInt(3))));
+          }
+          if (random.nextInt(3) > 0) {
+            LocalTime afternoon = LocalTime.of(13 + random.nextInt(4), 30 * random.nextInt(2));
+            periods.add(new WeeklyAvailability.Period(day, afternoon, afternoon.plusHours(1 + random.nextInt(4))));
+          }
+        }
+        Professional professional = fixture.add(i + 1, TYPES[random.nextInt(TYPES.length)], QUALIFICATIONS[random.nextInt(QUALIFICATIONS.length)],
+          LANGUAGES[random.nextInt(LANGUAGES.length)], WeeklyAvailability.of(periods));
+
+        Long memberId = professional.getMember().getId();
+        for (int day = 0; day < bookedDays; day++) {
+          for (LocalDateTime start : fixture.slotStarts(memberId, firstDay.plusDays(day))) {
+            if (random.nextInt(5) == 0) {
+              fixture.book(memberId, start);
+            }
+          }
+        }
+      }
+      return fixture;
+    }
+
+    Professional add(long id, ProfessionalType type, ProfessionalQualificationType qualification, String languages, WeeklyAvailability availability) {
+      Member member = Member.builder()
+        .id(100_000 + id)
+        .firstName("Professional")
+        .lastName(String.valueOf(id))
+        .build();
+      Professional professional = Professional.builder()
+        .id(id)
+        .member(member)
+        .professionalType(type)
+        .qualificationType(qualification)
+        .languagesSpoken(languages)
+        .build();
+      professionals.add(professional);
+      availabilities.put(member.getId(), availability);
+      return professional;
+    }
+
+    void book(Long memberId, LocalDateTime start) {
+      bookedStarts.computeIfAbsent(memberId, id -> new TreeSet<>()).add(start);
+    }
+
+    ProfessionalSlotIndex build(long rebuildMinutes) {
+      when(professionalRepository.findAllByAvailabilityStatus(any(), any())).thenAnswer(invocation -> List.copyOf(professionals));
+      when(professionalRepository.findByMemberIdAndAvailabilityStatus(anyLong(), any(), any())).thenAnswer(invocation -> professionals
+        .stream()
+        .filter(professional -> professional.getMember().getId().equals(invocation.getArgument(0)))
+        .findFirst());
+      when(scheduleRepository.findAllWithMember()).thenAnswer(invocation -> professionals
+        .stream()
+        .map(professional -> ProfessionalSchedule.builder()
+          .member(professional.getMember())
+          .availability(availabilities.get(professional.getMember().getId()).toBytes())
+          .build())
+        .collect(Collectors.toList()));
+      when(professionalService.getWeeklyAvailability(any())).thenAnswer(invocation ->
+        availabilities.get(invocation.<Member>getArgument(0).getId()));
+      when(healthSessionRepository.findBookedSessionPeriods(any(), any())).thenAnswer(invocation -> bookedStarts
+        .keySet()
+        .stream()
+        .flatMap(memberId -> bookedPeriods(memberId).stream())
+        .collect(Collectors.toList()));
+      when(healthSessionRepository.findBookedSessionPeriodsByProfessional(anyLong(), any(), any())).thenAnswer(invocation ->
+        bookedPeriods(invocation.getArgument(0)));
+
+      @SuppressWarnings("unchecked")
+      RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+      ProfessionalSlotIndex index = new ProfessionalSlotIndex(professionalRepository, healthSessionRepository, scheduleRepository,
+        professionalService, redisTemplate, mock(RedisMessageListenerContainer.class), "SESSION_SLOT_INVALIDATION", SESSION_ZONE, 60,
+        rebuildMinutes);
+      index.buildOnStartup();
+      return index;
+    }
+
+    /**
+     * Scan every slot of every professional that matches the request, in the days of the request.
+     *
+     * @return the professional IDs open at each slot start, in order of time
+     */
+    NavigableMap<LocalDateTime, Set<Long>> scan(FreeSlotSearchRequest req) {
+      NavigableMap<LocalDateTime, Set<Long>> openSlots = new TreeMap<>();
+      for (Professional professional : professionals) {
+        if (!matches(professional, req)) {
+          continue;
+        }
+        Long memberId = professional.getMember().getId();
+        for (int day = 0; day < req.getNumberOfDays(); day++) {
+          for (LocalDateTime start : slotStarts(memberId, req.getStartDate().plusDays(day))) {
+            if (!isBooked(memberId, start)) {
+              openSlots.computeIfAbsent(start, slot -> new HashSet<>()).add(professional.getId());
+            }
+          }
+        }
+      }
+      return openSlots;
+    }
+
+    private List<LocalDateTime> slotStarts(Long memberId, LocalDate date) {
+      List<LocalDateTime> starts = new ArrayList<>();
+      for (WeeklyAvailability.Period period : availabilities.get(memberId).toPeriods()) {
+        if (period.getDayOfWeek().ordinal() == date.getDayOfWeek().ordinal()) {
+          // The periods here end before midnight
+          for (LocalTime start = period.getStartTime(); start.isBefore(period.getEndTime()); start = start.plusHours(1)) {
+            starts.add(date.atTime(start));
+          }
+        }
+      }
+      return starts;
+    }
+
+    private boolean isBooked(Long memberId, LocalDateTime start) {
+      NavigableSet<LocalDateTime> booked = bookedStarts.getOrDefault(memberId, new TreeSet<>());
+      LocalDateTime bookedStart = booked.higher(start.minusHours(1));
+      return bookedStart != null && bookedStart.isBefore(start.plusHours(1));
+    }
+
+    private static boolean matches(Professional professional, FreeSlotSearchRequest req) {
+      return (isNull(req.getProfessionalType()) || req.getProfessionalType() == professional.getProfessionalType())
+        && (isNull(req.getQualificationType()) || req.getQualificationType() == professional.getQualificationType())
+        && (isNull(req.getLanguageSpoken()) || professional.getLanguagesSpoken().toLowerCase().contains(req.getLanguageSpoken().toLowerCase()));
+    }
+
+    private List<GetBookedSessionPeriod> bookedPeriods(Long memberId) {
+      return bookedStarts
+        .getOrDefault(memberId, new TreeSet<>())
+        .stream()
+        .map(start -> bookedPeriod(memberId, start))
+        .collect(Collectors.toList());
+    }
+
+    private static GetBookedSessionPeriod bookedPeriod(Long memberId, LocalDateTime start) {
+      return new GetBookedSessionPeriod() {
+        @Override
+        public Long getProfessionalMemberId() {
+          return memberId;
+        }
+
+        @Override
+        public LocalDate getDate() {
+          return start.toLocalDate();
+        }
+
+        @Override
+        public LocalTime getTime() {
+          return start.toLocalTime();
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,209 @@
+package com.umulam.fleen.health.service.transaction.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umulam.fleen.health.constant.authentication.PaymentGatewayType;
+import com.umulam.fleen.health.constant.externalsystem.WebhookEventStatus;
+import com.umulam.fleen.health.model.domain.WebhookEvent;
+import com.umulam.fleen.health.model.event.base.VerifiedWebhookEvent;
+import com.umulam.fleen.health.repository.jpa.WebhookEventJpaRepository;
+import com.umulam.fleen.health.service.transaction.TransactionValidationService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Delivers recorded webhook events of the payment gateways to one or more nodes sharing an in-memory database in PostgreSQL mode,
+ * with the gateway verification and the completion of the payments mocked, and checks how often each event is completed and what
+ * is recorded of it.
+ */
+@Slf4j
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:webhook-inbox;MODE=PostgreSQL;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WebhookInboxServiceTest {
+
+  private static final String FLUTTERWAVE_CHARGE = "webhook/flutterwave-charge-completed.json";
+  private static final String PAYSTACK_CHARGE = "webhook/paystack-charge-success.json";
+  private static final String PAYSTACK_TRANSFER = "webhook/paystack-transfer-success.json";
+  private static final int EVENTS = 300;
+
+  @Autowired
+  private WebhookEventJpaRepository repository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private final TransactionValidationService transactionValidationService = mock(TransactionValidationService.class);
+  private final List<WebhookInboxService> nodes = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    repository.deleteAllInBatch();
+    when(transactionValidationService.verify(any(PaymentGatewayType.class), anyString(), anyString())).thenAnswer(invocation ->
+      VerifiedWebhookEvent.builder().gateway(invocation.getArgument(0)).build());
+    when(transactionValidationService.complete(any(VerifiedWebhookEvent.class))).thenReturn(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    nodes.forEach(WebhookInboxService::destroy);
+  }
+
+  @Test
+  void repeatedDeliveriesAreCompletedOnce() throws Exception {
+    WebhookInboxService node = startNode(300, 8, 30);
+    List<Delivery> deliveries = new ArrayList<>();
+    for (int i = 0; i < EVENTS; i++) {
+      Delivery delivery = delivery(i);
+      // Every event is delivered again, as a gateway does when it is not answered in time
+      deliveries.add(delivery);
+      deliveries.add(delivery);
+    }
+    Collections.shuffle(deliveries, new Random(EVENTS));
+
+    long startedAt = System.nanoTime();
+    ExecutorService gateways = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> sent = new ArrayList<>();
+      for (Delivery delivery : deliveries) {
+        sent.add(gateways.submit(() -> node.receive(delivery.gateway, delivery.body)));
+      }
+      for (Future<?> future : sent) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      gateways.shutdownNow();
+    }
+    await(() -> countByStatus(WebhookEventStatus.PROCESSED) == EVENTS);
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    log.info("{} deliveries of {} events received and processed in {} ms", deliveries.size(), EVENTS, elapsedMillis);
+
+    assertEquals(EVENTS, repository.count());
+    assertTrue(repository.findAll().stream().allMatch(event -> event.getAttempts() == 1 && Objects.isNull(event.getClaimToken())));
+    verify(transactionValidationService, times(EVENTS)).verify(any(PaymentGatewayType.class), anyString(), anyString());
+    verify(transactionValidationService, times(EVENTS)).complete(any(VerifiedWebhookEvent.class));
+  }
+
+  @Test
+  void eventWhoseVerificationOutlivesItsClaimIsCompletedByTheNodeThatTookItOver() throws Exception {
+    CountDownLatch verifying = new CountDownLatch(1);
+    CountDownLatch takenOver = new CountDownLatch(1);
+    AtomicInteger verifications = new AtomicInteger();
+    when(transactionValidationService.verify(any(PaymentGatewayType.class), anyString(), anyString())).thenAnswer(invocation -> {
+      // The first verification waits on the gateway until the event has been completed by another node
+      if (verifications.incrementAndGet() == 1) {
+        verifying.countDown();
+        assertTrue(takenOver.await(10, TimeUnit.SECONDS));
+      }
+      return VerifiedWebhookEvent.builder().gateway(invocation.getArgument(0)).build();
+    });
+
+    WebhookInboxService slowNode = startNode(300, 3, 1);
+    Delivery delivery = delivery(1);
+    slowNode.receive(delivery.gateway, delivery.body);
+    assertTrue(verifying.await(5, TimeUnit.SECONDS));
+
+    // The processing timeout of the claim passes, and another node claims the event and completes it
+    startNode(1, 3, 1);
+    await(() -> countByStatus(WebhookEventStatus.PROCESSED) == 1);
+    takenOver.countDown();
+
+    // The first node finds another claim token, so the event is neither completed again nor recorded as failed
+    Thread.sleep(500);
+    WebhookEvent event = repository.findAll().get(0);
+    assertEquals(WebhookEventStatus.PROCESSED, event.getStatus());
+    assertEquals(2, event.getAttempts());
+    assertNull(event.getLastError());
+    verify(transactionValidationService, times(2)).verify(any(PaymentGatewayType.class), anyString(), anyString());
+    verify(transactionValidationService, times(1)).complete(any(VerifiedWebhookEvent.class));
+  }
+
+  @Test
+  void eventIsFailedOnceItsAttemptsAreExhausted() throws Exception {
+    when(transactionValidationService.verify(any(PaymentGatewayType.class), anyString(), anyString()))
+      .thenThrow(new IllegalStateException("Gateway is not available"));
+    WebhookInboxService node = startNode(1, 3, 30);
+    Delivery delivery = delivery(1);
+    node.receive(delivery.gateway, delivery.body);
+
+    await(() -> countByStatus(WebhookEventStatus.FAILED) == 1);
+    WebhookEvent event = repository.findAll().get(0);
+    assertEquals(3, event.getAttempts());
+    assertEquals("Gateway is not available", event.getLastError());
+    assertNull(event.getClaimToken());
+    verify(transactionValidationService, times(3)).verify(any(PaymentGatewayType.class), anyString(), anyString());
+    verify(transactionValidationService, never()).complete(any(VerifiedWebhookEvent.class));
+  }
+
+  private WebhookInboxService startNode(long pollSeconds, int maxAttempts, long processingTimeoutSeconds) {
+    WebhookInboxService node = new WebhookInboxService(repository, transactionValidationService, new ObjectMapper(), transactionManager,
+      pollSeconds, 50, maxAttempts, processingTimeoutSeconds, 0);
+    nodes.add(node);
+    node.start();
+    return node;
+  }
+
+  private long countByStatus(WebhookEventStatus status) {
+    return repository.findAll().stream().filter(event -> event.getStatus() == status).count();
+  }
+
+  /**
+   * A recorded event with the ID of its charge or transfer replaced, taking the gateways and event types in turn.
+   */
+  private static Delivery delivery(int id) throws IOException {
+    switch (id % 3) {
+      case 0:
+        return new Delivery(PaymentGatewayType.FLUTTERWAVE, payload(FLUTTERWAVE_CHARGE, id));
+      case 1:
+        return new Delivery(PaymentGatewayType.PAYSTACK, payload(PAYSTACK_CHARGE, id));
+      default:
+        return new Delivery(PaymentGatewayType.PAYSTACK, payload(PAYSTACK_TRANSFER, id));
+    }
+  }
+
+  private static String payload(String resource, int id) throws IOException {
+    try (InputStream stream = WebhookInboxServiceTest.class.getClassLoader().getResourceAsStream(resource)) {
+      String payload = new String(Objects.requireNonNull(stream).readAllBytes(), StandardCharsets.UTF_8);
+      return payload.replace("${id}", String.valueOf(1_000_000 + id));
+    }
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 30_000;
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.currentTimeMillis() < deadline, "Condition not met in time");
+      Thread.sleep(50);
+    }
+  }
+
+  private static final class Delivery {
+
+    private final PaymentGatewayType gateway;
+    private final String body;
+
+    private Delivery(PaymentGatewayType gateway, String body) {
+      this.gateway = gateway;
+      this.body = body;
+    }
+  }
+}
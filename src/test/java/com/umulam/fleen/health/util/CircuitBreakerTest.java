@@ -0,0 +1,199 @@
+package com.umulam.fleen.health.util;
+
+import com.umulam.fleen.health.util.CircuitBreaker.Settings;
+import com.umulam.fleen.health.util.CircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+  private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+  private final MutableClock clock = new MutableClock();
+
+  @Test
+  void opensWhenTheFailureRateReachesTheThreshold() {
+    CircuitBreaker breaker = new CircuitBreaker("test", settings(2).build(), clock);
+
+    breaker.onSuccess();
+    assertEquals(-1, breaker.getFailureRate());
+    breaker.onSuccess();
+    breaker.onFailure();
+    assertEquals(State.CLOSED, breaker.getState());
+    assertEquals(100F / 3, breaker.getFailureRate(), 0.01);
+
+    breaker.onFailure();
+    assertEquals(State.OPEN, breaker.getState());
+    assertFalse(breaker.tryAcquire());
+  }
+
+  @Test
+  void opensWhenTheSlowCallRateReachesTheThreshold() {
+    CircuitBreaker breaker = new CircuitBreaker("test", settings(1)
+      .slowCallDuration(Duration.ofSeconds(1))
+      .slowCallRateThreshold(50)
+      .build(), clock);
+
+    breaker.onSuccess(Duration.ofMillis(10).toNanos());
+    breaker.onSuccess(Duration.ofMillis(10).toNanos());
+    breaker.onSuccess(Duration.ofSeconds(2).toNanos());
+    assertEquals(State.CLOSED, breaker.getState());
+
+    breaker.onSuccess(Duration.ofSeconds(2).toNanos());
+    assertEquals(State.OPEN, breaker.getState());
+  }
+
+  @Test
+  void closesAfterTheTrialCallsSucceed() {
+    CircuitBreaker breaker = openBreaker(2);
+
+    clock.advance(OPEN_DURATION.minusMillis(1));
+    assertFalse(breaker.tryAcquire());
+
+    clock.advance(Duration.ofMillis(1));
+    assertTrue(breaker.tryAcquire());
+    assertEquals(State.HALF_OPEN, breaker.getState());
+    assertTrue(breaker.tryAcquire());
+    assertFalse(breaker.tryAcquire());
+
+    breaker.onSuccess();
+    assertEquals(State.HALF_OPEN, breaker.getState());
+    breaker.onSuccess();
+    assertEquals(State.CLOSED, breaker.getState());
+    assertTrue(breaker.tryAcquire());
+  }
+
+  @Test
+  void opensAgainWhenATrialCallFails() {
+    CircuitBreaker breaker = openBreaker(1);
+
+    clock.advance(OPEN_DURATION);
+    assertTrue(breaker.tryAcquire());
+    breaker.onFailure();
+
+    assertEquals(State.OPEN, breaker.getState());
+    assertFalse(breaker.tryAcquire());
+    clock.advance(OPEN_DURATION);
+    assertTrue(breaker.tryAcquire());
+  }
+
+  @Test
+  void releasedTrialPermitCanBeTakenAgain() {
+    CircuitBreaker breaker = openBreaker(1);
+
+    clock.advance(OPEN_DURATION);
+    assertTrue(breaker.tryAcquire());
+    assertFalse(breaker.tryAcquire());
+
+    breaker.release();
+    assertTrue(breaker.tryAcquire());
+    breaker.onSuccess();
+    assertEquals(State.CLOSED, breaker.getState());
+  }
+
+  @Test
+  void releaseDoesNotAddPermits() {
+    CircuitBreaker breaker = openBreaker(1);
+
+    clock.advance(OPEN_DURATION);
+    breaker.release();
+    assertTrue(breaker.tryAcquire());
+    assertFalse(breaker.tryAcquire());
+  }
+
+  @Test
+  void abandonedTrialCallOpensTheBreakerAfterTheTrialTimeout() {
+    CircuitBreaker breaker = new CircuitBreaker("test", settings(1).trialTimeout(Duration.ofSeconds(5)).build(), clock);
+    breaker.onFailure();
+    breaker.onFailure();
+
+    clock.advance(OPEN_DURATION);
+    // The caller of this trial call never records its outcome
+    assertTrue(breaker.tryAcquire());
+
+    clock.advance(Duration.ofSeconds(4));
+    assertFalse(breaker.tryAcquire());
+    assertEquals(State.HALF_OPEN, breaker.getState());
+
+    clock.advance(Duration.ofSeconds(1));
+    assertFalse(breaker.tryAcquire());
+    assertEquals(State.OPEN, breaker.getState());
+
+    clock.advance(OPEN_DURATION);
+    assertTrue(breaker.tryAcquire());
+    assertEquals(State.HALF_OPEN, breaker.getState());
+  }
+
+  @Test
+  void trialTimeoutDefaultsToTheOpenDuration() {
+    CircuitBreaker breaker = openBreaker(1);
+
+    clock.advance(OPEN_DURATION);
+    assertTrue(breaker.tryAcquire());
+
+    clock.advance(OPEN_DURATION.minusMillis(1));
+    assertFalse(breaker.tryAcquire());
+    assertEquals(State.HALF_OPEN, breaker.getState());
+
+    clock.advance(Duration.ofMillis(1));
+    assertFalse(breaker.tryAcquire());
+    assertEquals(State.OPEN, breaker.getState());
+  }
+
+  @Test
+  void outcomesRecordedWhileOpenAreIgnored() {
+    CircuitBreaker breaker = openBreaker(1);
+
+    breaker.onSuccess();
+    breaker.onSuccess();
+    assertEquals(State.OPEN, breaker.getState());
+  }
+
+  private CircuitBreaker openBreaker(int trialCalls) {
+    CircuitBreaker breaker = new CircuitBreaker("test", settings(trialCalls).build(), clock);
+    breaker.onFailure();
+    breaker.onFailure();
+    assertEquals(State.OPEN, breaker.getState());
+    return breaker;
+  }
+
+  private static Settings.SettingsBuilder settings(int trialCalls) {
+    return Settings.builder()
+      .windowSize(4)
+      .minimumCalls(2)
+      .failureRateThreshold(50)
+      .openDuration(OPEN_DURATION)
+      .trialCalls(trialCalls);
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+    private void advance(Duration duration) {
+      instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
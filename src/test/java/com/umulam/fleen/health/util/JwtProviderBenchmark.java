@@ -0,0 +1,75 @@
+package com.umulam.fleen.health.util;
+
+import com.umulam.fleen.health.configuration.FleenHealthConfig;
+import com.umulam.fleen.health.model.security.FleenUser;
+import com.umulam.fleen.health.model.security.VerifiedToken;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.umulam.fleen.health.constant.authentication.TokenType.ACCESS_TOKEN;
+import static com.umulam.fleen.health.util.FleenAuthorities.buildAuthorities;
+
+/**
+ * Compares the work the authentication filter does for every request before and after the token was verified once per request.
+ * The previous filter parsed and verified the token four times and converted the claims through the object mapper, the current one
+ * parses it once into a {@link VerifiedToken} and keeps recently verified tokens in a local cache.
+ *
+ * <p>Run the main method from the test classpath.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtProviderBenchmark {
+
+  private JwtProvider jwtProvider;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    jwtProvider = new JwtProvider(new FleenHealthConfig(null).objectMapper(), 10_000, 300);
+    jwtProvider.setJWT_ISSUER("fleen-health");
+    jwtProvider.setJWT_SECRET("benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret");
+
+    FleenUser user = FleenUser.builder()
+            .id(42L)
+            .emailAddress("benchmark@fleen.health")
+            .authorities(buildAuthorities(List.of("User")))
+            .build();
+    user.setFirstName("Bench");
+    user.setLastName("Mark");
+    token = jwtProvider.generateToken(user, ACCESS_TOKEN);
+  }
+
+  @Benchmark
+  public FleenUser previousFilterPath() {
+    String username = jwtProvider.getUsernameFromToken(token);
+    FleenUser user = FleenUser.fromToken(jwtProvider.getBasicDetails(token));
+    if (username != null && jwtProvider.isTokenValid(token, user)) {
+      return user;
+    }
+    return null;
+  }
+
+  @Benchmark
+  public FleenUser verifyTokenUncached() {
+    jwtProvider.evictVerifiedToken(token);
+    return jwtProvider.verifyToken(token).toUser();
+  }
+
+  @Benchmark
+  public FleenUser verifyTokenCached() {
+    return jwtProvider.verifyToken(token).toUser();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(JwtProviderBenchmark.class.getSimpleName()).build()).run();
+  }
+}
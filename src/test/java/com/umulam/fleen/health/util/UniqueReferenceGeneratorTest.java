@@ -0,0 +1,94 @@
+package com.umulam.fleen.health.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static com.umulam.fleen.health.util.UniqueReferenceGenerator.LONG_REFERENCE_LENGTH;
+import static com.umulam.fleen.health.util.UniqueReferenceGenerator.REFERENCE_LENGTH;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UniqueReferenceGeneratorTest {
+
+  private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+
+  private final UniqueReferenceGenerator generator = new UniqueReferenceGenerator(7);
+
+  @Test
+  void referencesOfAThreadAreStrictlyOrdered() {
+    String previous = generator.generateUniqueReference();
+    for (int i = 0; i < 100_000; i++) {
+      String reference = generator.generateUniqueReference();
+      assertEquals(REFERENCE_LENGTH, reference.length());
+      assertTrue(reference.compareTo(previous) > 0, reference + " is not after " + previous);
+      previous = reference;
+    }
+  }
+
+  @Test
+  void longReferencesStartWithAnOrderedReference() {
+    String first = generator.generateUniqueReferenceLong();
+    String second = generator.generateUniqueReferenceLong();
+
+    assertEquals(LONG_REFERENCE_LENGTH, first.length());
+    assertTrue(second.substring(0, REFERENCE_LENGTH).compareTo(first.substring(0, REFERENCE_LENGTH)) > 0);
+    assertTrue(first.chars().allMatch(c -> ALPHABET.indexOf(c) >= 0));
+  }
+
+  @Test
+  void referencesCarryTheNodeId() {
+    String reference = generator.generateUniqueReference();
+    // The node id follows the 10 characters of the time
+    assertEquals("07", reference.substring(10, 12));
+    assertEquals("V", new UniqueReferenceGenerator(27).generateUniqueReference().substring(11, 12));
+  }
+
+  @Test
+  void nodesDoNotShareReferences() {
+    UniqueReferenceGenerator other = new UniqueReferenceGenerator(8);
+    Set<String> references = new HashSet<>();
+    for (int i = 0; i < 10_000; i++) {
+      assertTrue(references.add(generator.generateUniqueReference()));
+      assertTrue(references.add(other.generateUniqueReference()));
+    }
+  }
+
+  @Test
+  void concurrentReferencesDoNotCollide() throws Exception {
+    int threads = 8;
+    int perThread = 20_000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<List<String>>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        results.add(executor.submit(() -> {
+          start.await();
+          List<String> references = new ArrayList<>(perThread);
+          for (int j = 0; j < perThread; j++) {
+            references.add(generator.generateUniqueReferenceLong());
+          }
+          return references;
+        }));
+      }
+      start.countDown();
+
+      Set<String> references = new HashSet<>();
+      for (Future<List<String>> result : results) {
+        references.addAll(result.get(30, TimeUnit.SECONDS));
+      }
+      assertEquals(threads * perThread, references.size());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void randomReferencesHaveTheRequestedLength() {
+    assertEquals(1, generator.generateUniqueReference(1).length());
+    assertEquals(25, generator.generateUniqueReference(25).length());
+    assertThrows(IllegalArgumentException.class, () -> generator.generateUniqueReference(0));
+    assertThrows(IllegalArgumentException.class, () -> generator.generateUniqueReference(26));
+  }
+}
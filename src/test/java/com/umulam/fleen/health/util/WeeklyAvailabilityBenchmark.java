@@ -0,0 +1,121 @@
+package com.umulam.fleen.health.util;
+
+import com.umulam.fleen.health.constant.professional.AvailabilityDayOfTheWeek;
+import com.umulam.fleen.health.model.domain.ProfessionalAvailability;
+import com.umulam.fleen.health.model.dto.professional.UpdateProfessionalAvailabilityDto.AvailabilityPeriod;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the availability checks made with a {@link WeeklyAvailability} with the checks previously made over the availability
+ * entities of a professional: checking the day and time of a booking, and checking that the periods of a schedule update do not
+ * overlap. Both sides start from values already in memory, so the query that loaded the entities, which the schedule also saves, is
+ * not part of the numbers.
+ *
+ * <p>The periods are one hour long within working hours, from Monday morning on, up to the 63 periods a schedule update allows. The
+ * booked time is in the last period, which the entity check reaches last, and the periods do not overlap, so every pair is compared.
+ * Run the main method from the test classpath.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WeeklyAvailabilityBenchmark {
+
+  private static final int FIRST_HOUR = 9;
+  private static final int HOURS_IN_A_DAY = 9;
+
+  @Param({"5", "21", "63"})
+  public int periods;
+
+  private List<ProfessionalAvailability> entities;
+  private List<AvailabilityPeriod> requestedPeriods;
+  private WeeklyAvailability availability;
+  private byte[] schedule;
+  private DayOfWeek bookedDay;
+  private LocalTime bookedTime;
+
+  @Setup
+  public void setUp() {
+    entities = new ArrayList<>();
+    requestedPeriods = new ArrayList<>();
+    AvailabilityDayOfTheWeek[] days = AvailabilityDayOfTheWeek.values();
+    for (int i = 0; i < periods; i++) {
+      AvailabilityDayOfTheWeek day = days[i / HOURS_IN_A_DAY];
+      LocalTime startTime = LocalTime.of(FIRST_HOUR + i % HOURS_IN_A_DAY, 0);
+      entities.add(ProfessionalAvailability.builder().dayOfWeek(day).startTime(startTime).endTime(startTime.plusHours(1)).build());
+      requestedPeriods.add(new AvailabilityPeriod(day.name(), startTime.toString(), startTime.plusHours(1).toString()));
+    }
+    availability = WeeklyAvailability.of(entities.stream().map(ProfessionalAvailability::toPeriod).collect(Collectors.toList()));
+    schedule = availability.toBytes();
+
+    ProfessionalAvailability last = entities.get(entities.size() - 1);
+    bookedDay = DayOfWeek.valueOf(last.getDayOfWeek().name());
+    bookedTime = last.getStartTime().plusMinutes(30);
+  }
+
+  @Benchmark
+  public boolean entityBookingCheck() {
+    AvailabilityDayOfTheWeek day = AvailabilityDayOfTheWeek.valueOf(bookedDay.toString());
+    List<ProfessionalAvailability> dayAvailability = entities
+      .stream()
+      .filter(entity -> entity.getDayOfWeek() == day)
+      .collect(Collectors.toList());
+    if (dayAvailability.isEmpty()) {
+      return false;
+    }
+    for (ProfessionalAvailability entity : dayAvailability) {
+      if (entity.isTimeInRange(bookedTime)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Benchmark
+  public boolean weeklyAvailabilityBookingCheck() {
+    return availability.isAvailableOn(bookedDay) && availability.isAvailable(bookedDay, bookedTime);
+  }
+
+  @Benchmark
+  public boolean weeklyAvailabilityBookingCheckFromStoredSchedule() {
+    WeeklyAvailability stored = WeeklyAvailability.fromBytes(schedule);
+    return stored.isAvailableOn(bookedDay) && stored.isAvailable(bookedDay, bookedTime);
+  }
+
+  @Benchmark
+  public boolean entityOverlapCheck() {
+    int n = requestedPeriods.size();
+    for (int i = 0; i < n - 1; i++) {
+      for (int j = i + 1; j < n; j++) {
+        if (requestedPeriods.get(i).overlapsWith(requestedPeriods.get(j))) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Benchmark
+  public boolean weeklyAvailabilityOverlapCheck() {
+    return WeeklyAvailability.hasOverlap(requestedPeriods
+      .stream()
+      .map(AvailabilityPeriod::toPeriod)
+      .collect(Collectors.toList()));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(WeeklyAvailabilityBenchmark.class.getSimpleName()).build()).run();
+  }
+}
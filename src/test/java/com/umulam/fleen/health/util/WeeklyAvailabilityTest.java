@@ -0,0 +1,130 @@
+package com.umulam.fleen.health.util;
+
+import com.umulam.fleen.health.util.WeeklyAvailability.Period;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.List;
+
+import static com.umulam.fleen.health.constant.professional.AvailabilityDayOfTheWeek.*;
+import static com.umulam.fleen.health.util.WeeklyAvailability.MINUTES_IN_A_DAY;
+import static com.umulam.fleen.health.util.WeeklyAvailability.SIZE_IN_BYTES;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeeklyAvailabilityTest {
+
+  @Test
+  void indexOfStartsOnMondayAtMidnight() {
+    assertEquals(0, WeeklyAvailability.indexOf(DayOfWeek.MONDAY, LocalTime.MIDNIGHT));
+    assertEquals(9 * 60 + 30, WeeklyAvailability.indexOf(DayOfWeek.MONDAY, LocalTime.of(9, 30)));
+    assertEquals(MINUTES_IN_A_DAY, WeeklyAvailability.indexOf(DayOfWeek.TUESDAY, LocalTime.MIDNIGHT));
+    assertEquals(7 * MINUTES_IN_A_DAY - 1, WeeklyAvailability.indexOf(DayOfWeek.SUNDAY, LocalTime.of(23, 59)));
+  }
+
+  @Test
+  void periodCoversItsStartButNotItsEnd() {
+    WeeklyAvailability availability = WeeklyAvailability.of(List.of(new Period(WEDNESDAY, LocalTime.of(9, 0), LocalTime.of(10, 0))));
+
+    assertFalse(availability.isAvailable(DayOfWeek.WEDNESDAY, LocalTime.of(8, 59)));
+    assertTrue(availability.isAvailable(DayOfWeek.WEDNESDAY, LocalTime.of(9, 0)));
+    assertTrue(availability.isAvailable(DayOfWeek.WEDNESDAY, LocalTime.of(9, 59)));
+    assertFalse(availability.isAvailable(DayOfWeek.WEDNESDAY, LocalTime.of(10, 0)));
+    assertFalse(availability.isAvailable(DayOfWeek.TUESDAY, LocalTime.of(9, 30)));
+    assertTrue(availability.isAvailableOn(DayOfWeek.WEDNESDAY));
+    assertFalse(availability.isAvailableOn(DayOfWeek.THURSDAY));
+  }
+
+  @Test
+  void periodEndingAtMaxCoversTheLastMinuteOfTheDay() {
+    WeeklyAvailability availability = WeeklyAvailability.of(List.of(new Period(SUNDAY, LocalTime.of(23, 0), LocalTime.MAX)));
+
+    assertTrue(availability.isAvailable(DayOfWeek.SUNDAY, LocalTime.of(23, 59)));
+    assertFalse(availability.isAvailable(DayOfWeek.MONDAY, LocalTime.MIDNIGHT));
+    assertEquals(LocalTime.MAX, availability.toPeriods().get(0).getEndTime());
+  }
+
+  @Test
+  void periodThatDoesNotEndAfterItStartsIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new Period(MONDAY, LocalTime.of(10, 0), LocalTime.of(9, 0)));
+    assertThrows(IllegalArgumentException.class, () -> new Period(MONDAY, LocalTime.of(10, 0), LocalTime.of(10, 0)));
+    // Times are kept to the minute, so a period must cover at least one
+    assertThrows(IllegalArgumentException.class, () -> new Period(MONDAY, LocalTime.of(10, 0), LocalTime.of(10, 0, 30)));
+    assertThrows(IllegalArgumentException.class, () -> new Period(MONDAY, null, LocalTime.of(10, 0)));
+    assertTrue(Period.isValid(LocalTime.of(23, 59), LocalTime.MAX));
+    assertFalse(Period.isValid(LocalTime.of(18, 0), LocalTime.MIDNIGHT));
+  }
+
+  @Test
+  void bytesUseTheBitOrderOfTheDatabase() {
+    WeeklyAvailability availability = WeeklyAvailability.of(List.of(
+      new Period(MONDAY, LocalTime.of(0, 3), LocalTime.of(0, 4)),
+      new Period(MONDAY, LocalTime.of(0, 9), LocalTime.of(0, 10))));
+
+    byte[] bytes = availability.toBytes();
+    assertEquals(SIZE_IN_BYTES, bytes.length);
+    // Minute n is the (n % 8)th lowest bit of byte n / 8
+    assertEquals(0b0000_1000, bytes[0]);
+    assertEquals(0b0000_0010, bytes[1]);
+
+    int index = WeeklyAvailability.indexOf(DayOfWeek.FRIDAY, LocalTime.of(17, 45));
+    WeeklyAvailability friday = WeeklyAvailability.of(List.of(new Period(FRIDAY, LocalTime.of(17, 45), LocalTime.of(17, 46))));
+    assertTrue(BitSet.valueOf(friday.toBytes()).get(index));
+    assertEquals(1, BitSet.valueOf(friday.toBytes()).cardinality());
+  }
+
+  @Test
+  void bytesRoundTrip() {
+    WeeklyAvailability availability = WeeklyAvailability.of(List.of(
+      new Period(MONDAY, LocalTime.of(8, 0), LocalTime.of(12, 0)),
+      new Period(SATURDAY, LocalTime.of(14, 15), LocalTime.of(18, 45))));
+
+    assertEquals(availability, WeeklyAvailability.fromBytes(availability.toBytes()));
+    assertTrue(WeeklyAvailability.fromBytes(null).isEmpty());
+    assertTrue(WeeklyAvailability.fromBytes(new byte[0]).isEmpty());
+    assertEquals(SIZE_IN_BYTES, WeeklyAvailability.empty().toBytes().length);
+  }
+
+  @Test
+  void toPeriodsMergesAdjacentPeriodsOfTheSameDay() {
+    WeeklyAvailability availability = WeeklyAvailability.of(List.of(
+      new Period(TUESDAY, LocalTime.of(10, 0), LocalTime.of(11, 0)),
+      new Period(TUESDAY, LocalTime.of(9, 0), LocalTime.of(10, 0)),
+      new Period(THURSDAY, LocalTime.of(13, 0), LocalTime.of(14, 0))));
+
+    List<Period> periods = availability.toPeriods();
+    assertEquals(2, periods.size());
+    assertEquals(TUESDAY, periods.get(0).getDayOfWeek());
+    assertEquals(LocalTime.of(9, 0), periods.get(0).getStartTime());
+    assertEquals(LocalTime.of(11, 0), periods.get(0).getEndTime());
+    assertEquals(THURSDAY, periods.get(1).getDayOfWeek());
+  }
+
+  @Test
+  void hasOverlapOnlyWhenPeriodsShareAMinute() {
+    assertFalse(WeeklyAvailability.hasOverlap(List.of(
+      new Period(FRIDAY, LocalTime.of(9, 0), LocalTime.of(10, 0)),
+      new Period(FRIDAY, LocalTime.of(10, 0), LocalTime.of(11, 0)))));
+    assertTrue(WeeklyAvailability.hasOverlap(List.of(
+      new Period(FRIDAY, LocalTime.of(9, 0), LocalTime.of(10, 0)),
+      new Period(FRIDAY, LocalTime.of(9, 59), LocalTime.of(11, 0)))));
+    assertFalse(WeeklyAvailability.hasOverlap(List.of(
+      new Period(FRIDAY, LocalTime.of(9, 0), LocalTime.of(10, 0)),
+      new Period(SATURDAY, LocalTime.of(9, 0), LocalTime.of(10, 0)))));
+  }
+
+  @Test
+  void andNotKeepsTheRemovedTimes() {
+    WeeklyAvailability current = WeeklyAvailability.of(List.of(new Period(MONDAY, LocalTime.of(9, 0), LocalTime.of(12, 0))));
+    WeeklyAvailability updated = WeeklyAvailability.of(List.of(new Period(MONDAY, LocalTime.of(10, 0), LocalTime.of(12, 0))));
+
+    List<Period> removed = current.andNot(updated).toPeriods();
+    assertEquals(1, removed.size());
+    assertEquals(LocalTime.of(9, 0), removed.get(0).getStartTime());
+    assertEquals(LocalTime.of(10, 0), removed.get(0).getEndTime());
+    assertTrue(current.intersects(updated));
+    assertEquals(updated, current.and(updated));
+    assertEquals(current, current.or(updated));
+  }
+}